@@ -5,6 +5,7 @@ import { Project } from '../../services/projectService';
 import { toast } from 'react-toastify';
 import { taskNoteService, TaskNote, TaskNoteRequest } from '../../services/taskNoteService';
 import { useUser } from '../../context/UserContext';
+import { useProjectTasks } from '../../hooks/useProjectTasks';
 
 interface ProjectTimelineProps {
     project: Project;
@@ -21,7 +22,7 @@ const ProjectTimeline: React.FC<ProjectTimelineProps> = ({ project, onBack }) =>
     const [currentWeekStart, setCurrentWeekStart] = useState<Date>(getWeekStart(new Date()));
     const [tasks, setTasks] = useState<WeekTask[]>([]);
     const [users, setUsers] = useState<User[]>([]);
-    const [loading, setLoading] = useState(true);
+    const { tasks: projectTasks, loading, refresh } = useProjectTasks(project.id);
     const [showTaskModal, setShowTaskModal] = useState(false);
     const [selectedDay, setSelectedDay] = useState<number>(0);
     const [selectedUser, setSelectedUser] = useState<string>('');
@@ -38,8 +39,8 @@ const ProjectTimeline: React.FC<ProjectTimelineProps> = ({ project, onBack }) =>
     const [notesLoading, setNotesLoading] = useState(false);
 
     useEffect(() => {
-        fetchData();
-    }, [currentWeekStart, project.id]);
+        showWeek();
+    }, [currentWeekStart, projectTasks]);
 
     function getWeekStart(date: Date): Date {
         const d = new Date(date);
@@ -48,57 +49,48 @@ const ProjectTimeline: React.FC<ProjectTimelineProps> = ({ project, onBack }) =>
         return new Date(d.setDate(diff));
     }
 
-    const fetchData = async () => {
-        try {
-            setLoading(true);
-            const projectTasks = await taskService.getTasksByProject(project.id);
-
-            const weekEnd = new Date(currentWeekStart);
-            weekEnd.setDate(currentWeekStart.getDate() + 6);
-
-            const weekTasks: WeekTask[] = projectTasks
-                .filter(task => {
-                    const isDeveloper = user?.role === 'DEVELOPER' || user?.role === 'DEVOPS';
-                    if (isDeveloper) {
-                        const isAssignedToCurrentUser = task.assignedUser && user?.id && 
-                            String(task.assignedUser.id) === String(user.id);
-                        return isAssignedToCurrentUser;
-                    }
-                    return true;
-                })
-                .map(task => {
-                    const taskDate = new Date(task.assignmentTimestamp || task.creationTimestamp);
-                    const dayOfWeek = (taskDate.getDay() + 6) % 7;
-                    
-                    return {
-                        ...task,
-                        dayOfWeek,
-                        weekDate: taskDate.toISOString().split('T')[0]
-                    };
-                })
-                .filter(task => {
-                    const taskDate = new Date(task.assignmentTimestamp || task.creationTimestamp);
-                    return taskDate >= currentWeekStart && taskDate <= weekEnd;
-                });
-
-            setTasks(weekTasks);
-            const assignedUsers: User[] = project.assignedUsers.map(user => ({
-                id: user.id,
-                name: user.name,
-                email: user.email,
-                role: { id: '', name: user.role },
-                activated: true,
-                hidden: false,
-                organizationId: '',
-                creationTimestamp: user.assignmentTimestamp,
-                modificationTimestamp: user.assignmentTimestamp
-            }));
-            setUsers(assignedUsers);
-        } catch (error) {
-            toast.error('Failed to load project timeline');
-        } finally {
-            setLoading(false);
-        }
+    const showWeek = () => {
+        const weekEnd = new Date(currentWeekStart);
+        weekEnd.setDate(currentWeekStart.getDate() + 6);
+
+        const weekTasks: WeekTask[] = projectTasks
+            .filter(task => {
+                const isDeveloper = user?.role === 'DEVELOPER' || user?.role === 'DEVOPS';
+                if (isDeveloper) {
+                    const isAssignedToCurrentUser = task.assignedUser && user?.id && 
+                        String(task.assignedUser.id) === String(user.id);
+                    return isAssignedToCurrentUser;
+                }
+                return true;
+            })
+            .map(task => {
+                const taskDate = new Date(task.assignmentTimestamp || task.creationTimestamp);
+                const dayOfWeek = (taskDate.getDay() + 6) % 7;
+                
+                return {
+                    ...task,
+                    dayOfWeek,
+                    weekDate: taskDate.toISOString().split('T')[0]
+                };
+            })
+            .filter(task => {
+                const taskDate = new Date(task.assignmentTimestamp || task.creationTimestamp);
+                return taskDate >= currentWeekStart && taskDate <= weekEnd;
+            });
+
+        setTasks(weekTasks);
+        const assignedUsers: User[] = project.assignedUsers.map(user => ({
+            id: user.id,
+            name: user.name,
+            email: user.email,
+            role: { id: '', name: user.role },
+            activated: true,
+            hidden: false,
+            organizationId: '',
+            creationTimestamp: user.assignmentTimestamp,
+            modificationTimestamp: user.assignmentTimestamp
+        }));
+        setUsers(assignedUsers);
     };
 
     const navigateWeek = (direction: 'prev' | 'next') => {
@@ -156,7 +148,7 @@ const ProjectTimeline: React.FC<ProjectTimelineProps> = ({ project, onBack }) =>
                 projectId: project.id
             });
             setSelectedUser('');
-            fetchData();
+            refresh();
         } catch (error) {
             toast.error('Failed to create task');
         }
@@ -237,7 +229,7 @@ const ProjectTimeline: React.FC<ProjectTimelineProps> = ({ project, onBack }) =>
                     toast.success('Task rejected');
                     break;
             }
-            fetchData();
+            refresh();
             const updatedTask = await taskService.getTaskById(task.id);
             setSelectedTask(updatedTask);
         } catch (error: any) {
@@ -250,7 +242,7 @@ const ProjectTimeline: React.FC<ProjectTimelineProps> = ({ project, onBack }) =>
             try {
                 await taskService.deleteTask(taskId);
                 toast.success('Task deleted successfully');
-                fetchData();
+                refresh();
             } catch (error: any) {
                 toast.error(error.response?.data?.message || 'Failed to delete task');
             }
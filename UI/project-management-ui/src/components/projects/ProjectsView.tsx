@@ -4,9 +4,15 @@ import { userService, User } from '../../services/userService';
 import { toast } from 'react-toastify';
 import ProjectTimeline from './ProjectTimeline';
 import { useUser } from '../../context/UserContext';
+import { useProjects } from '../../hooks/useProjects';
+
+const STATUSES = ['ACTIVE', 'INACTIVE', 'FINISHED'];
 
 const ProjectsView = () => {
     const { user } = useUser();
+    // Members see their active projects from the workspace loaded after login; admins manage all projects
+    const isMember = user?.role === 'DEVELOPER' || user?.role === 'DEVOPS';
+    const workspace = useProjects(isMember);
     const [projects, setProjects] = useState<Project[]>([]);
     const [loading, setLoading] = useState(true);
     const [showAddModal, setShowAddModal] = useState(false);
@@ -21,9 +27,17 @@ const ProjectsView = () => {
     const [selectedUserId, setSelectedUserId] = useState<string>('');
 
     useEffect(() => {
-        fetchProjects();
-        fetchAvailableUsers();
-    }, []);
+        if (user && !isMember) {
+            fetchProjects();
+        }
+    }, [user?.role]);
+
+    // A member's inactive and finished projects are only loaded once their tab is opened
+    useEffect(() => {
+        if (isMember && filter !== 'ACTIVE') {
+            fetchProjects([filter]);
+        }
+    }, [isMember, filter]);
 
 
     // Prevent timeline state from being lost on resize
@@ -52,16 +66,14 @@ const ProjectsView = () => {
         }
     };
 
-    const fetchProjects = async () => {
+    const fetchProjects = async (statuses: string[] = STATUSES) => {
         try {
             setLoading(true);
-            const [active, inactive, finished] = await Promise.all([
-                projectService.getProjectsByStatus('ACTIVE'),
-                projectService.getProjectsByStatus('INACTIVE'),
-                projectService.getProjectsByStatus('FINISHED')
+            const loaded = await Promise.all(statuses.map(status => projectService.getProjectsByStatus(status)));
+            setProjects(previous => [
+                ...previous.filter(project => !statuses.includes(project.status)),
+                ...loaded.flat()
             ]);
-            
-            setProjects([...active, ...inactive, ...finished]);
         } catch (error) {
             toast.error('Failed to load projects');
         } finally {
@@ -117,8 +129,9 @@ const ProjectsView = () => {
     };
 
     const handleAssignUser = (project: Project) => {
-        console.log('Opening assign modal with available users:', availableUsers);
-        console.log('Project to assign to:', project);
+        if (availableUsers.length === 0) {
+            fetchAvailableUsers();
+        }
         setAssigningProject(project);
         setShowAssignModal(true);
     };
@@ -160,8 +173,11 @@ const ProjectsView = () => {
         }
     };
 
+    const projectsWithStatus = (status: string) =>
+        isMember && status === 'ACTIVE' ? workspace.projects : projects.filter(project => project.status === status);
+
     const getDisplayedProjects = () => {
-        let filteredProjects = projects.filter(project => project.status === filter);
+        let filteredProjects = projectsWithStatus(filter);
         
         // For developers, only show projects they are assigned to
         if (user?.role === 'DEVELOPER' || user?.role === 'DEVOPS') {
@@ -175,7 +191,7 @@ const ProjectsView = () => {
         return filteredProjects;
     };
 
-    if (loading) {
+    if (isMember && filter === 'ACTIVE' ? workspace.loading : loading) {
         return (
             <div className="flex justify-center items-center h-64">
                 <div className="animate-spin rounded-full h-12 w-12 border-b-2 border-blue-600"></div>
@@ -221,7 +237,7 @@ const ProjectsView = () => {
                                 : 'bg-gray-100 text-gray-700 dark:bg-gray-700 dark:text-gray-300 hover:bg-gray-200 dark:hover:bg-gray-600'
                         }`}
                     >
-                        Active ({projects.filter(p => p.status === 'ACTIVE').length})
+                        Active ({projectsWithStatus('ACTIVE').length})
                     </button>
                     <button
                         onClick={() => setFilter('INACTIVE')}
@@ -231,7 +247,7 @@ const ProjectsView = () => {
                                 : 'bg-gray-100 text-gray-700 dark:bg-gray-700 dark:text-gray-300 hover:bg-gray-200 dark:hover:bg-gray-600'
                         }`}
                     >
-                        Inactive ({projects.filter(p => p.status === 'INACTIVE').length})
+                        Inactive ({projectsWithStatus('INACTIVE').length})
                     </button>
                     <button
                         onClick={() => setFilter('FINISHED')}
@@ -241,7 +257,7 @@ const ProjectsView = () => {
                                 : 'bg-gray-100 text-gray-700 dark:bg-gray-700 dark:text-gray-300 hover:bg-gray-200 dark:hover:bg-gray-600'
                         }`}
                     >
-                        Finished ({projects.filter(p => p.status === 'FINISHED').length})
+                        Finished ({projectsWithStatus('FINISHED').length})
                     </button>
                 </div>
 
@@ -0,0 +1,67 @@
+import { useCallback, useEffect, useState } from 'react';
+import { toast } from 'react-toastify';
+import { syncService } from '../services/syncService';
+import { Task } from '../services/taskService';
+
+interface Replica {
+    version: number;
+    tasks: Map<string, Task>;
+}
+
+// Kept across mounts, so coming back to a project only fetches what changed meanwhile
+const replicas = new Map<string, Replica>();
+
+const pull = async (projectId: string): Promise<Replica> => {
+    let replica = replicas.get(projectId) ?? { version: 0, tasks: new Map<string, Task>() };
+    let hasMore = true;
+    while (hasMore) {
+        let changes;
+        try {
+            changes = await syncService.getProjectChanges(projectId, replica.version);
+        } catch (error: any) {
+            // 410: deletions since our version were pruned on the server, start over
+            if (error.response?.status === 410 && replica.version > 0) {
+                replica = { version: 0, tasks: new Map<string, Task>() };
+                continue;
+            }
+            throw error;
+        }
+        const tasks = new Map(replica.tasks);
+        changes.tasks.forEach(task => tasks.set(task.id, task));
+        changes.deleted
+            .filter(tombstone => tombstone.entityType === 'task')
+            .forEach(tombstone => tasks.delete(tombstone.id));
+        if (changes.deleted.some(tombstone => tombstone.entityType === 'project')) {
+            tasks.clear();
+        }
+        replica = { version: changes.version, tasks };
+        hasMore = changes.hasMore;
+    }
+    replicas.set(projectId, replica);
+    return replica;
+};
+
+// The tasks of a project, kept current through the delta sync endpoint instead of reloading the list
+export const useProjectTasks = (projectId: string) => {
+    const [tasks, setTasks] = useState<Task[]>(() => Array.from(replicas.get(projectId)?.tasks.values() ?? []));
+    const [loading, setLoading] = useState(!replicas.has(projectId));
+
+    const refresh = useCallback(async () => {
+        try {
+            const replica = await pull(projectId);
+            setTasks(Array.from(replica.tasks.values()));
+        } catch (error) {
+            toast.error('Failed to load project tasks');
+        } finally {
+            setLoading(false);
+        }
+    }, [projectId]);
+
+    useEffect(() => {
+        setTasks(Array.from(replicas.get(projectId)?.tasks.values() ?? []));
+        setLoading(!replicas.has(projectId));
+        refresh();
+    }, [refresh]);
+
+    return { tasks, loading, refresh };
+};
@@ -0,0 +1,43 @@
+import { useCallback, useEffect, useState } from 'react';
+import { toast } from 'react-toastify';
+import { useUser } from '../context/UserContext';
+import { userService, Workspace } from '../services/userService';
+
+// Loads what the UI shows right after login (projects, assigned tasks, task counts and the
+// active project) with the single workspace request
+export const useProjects = (enabled: boolean = true) => {
+    const { user, activeProject, setActiveProject } = useUser();
+    const [workspace, setWorkspace] = useState<Workspace | null>(null);
+    const [loading, setLoading] = useState(enabled);
+
+    const reload = useCallback(async () => {
+        if (!user || !enabled) {
+            return;
+        }
+        try {
+            setLoading(true);
+            const loaded = await userService.getWorkspace(user.id);
+            setWorkspace(loaded);
+            if (!activeProject && loaded.activeProjectId) {
+                setActiveProject(loaded.activeProjectId);
+            }
+        } catch (error) {
+            toast.error('Failed to load workspace');
+        } finally {
+            setLoading(false);
+        }
+    }, [user?.id, enabled]);
+
+    useEffect(() => {
+        reload();
+    }, [reload]);
+
+    return {
+        projects: workspace?.projects ?? [],
+        assignedTasks: workspace?.assignedTasks ?? [],
+        projectTaskCounts: workspace?.projectTaskCounts ?? [],
+        activeProjectId: workspace?.activeProjectId,
+        loading: enabled && loading,
+        reload,
+    };
+};
@@ -0,0 +1,38 @@
+import api from './axiosConfig';
+
+export type ActivityEntityType = 'TASK' | 'NOTE' | 'PROJECT' | 'MEMBER';
+
+export type ActivityAction = 'CREATED' | 'UPDATED' | 'ASSIGNED' | 'STATE_CHANGED' | 'DELETED' | 'ADDED' | 'REMOVED';
+
+export interface ActivityEvent {
+    id: number;
+    entityType: ActivityEntityType;
+    action: ActivityAction;
+    projectId?: string;
+    taskId?: string;
+    noteId?: string;
+    actorId?: string;
+    subjectUserId?: string;
+    summary?: string;
+    occurredAt: string;
+}
+
+// Newest first; pass nextCursor as "before" to get the following page, it is absent after the last one
+export interface ActivityPage {
+    events: ActivityEvent[];
+    nextCursor?: string;
+}
+
+export interface ActivityFilter {
+    projectId?: string;
+    userId?: string;
+    before?: string;
+    limit?: number;
+}
+
+export const activityService = {
+    async getActivity(filter: ActivityFilter = {}): Promise<ActivityPage> {
+        const response = await api.get<ActivityPage>('/activity', { params: filter });
+        return response.data;
+    }
+};
@@ -0,0 +1,40 @@
+import api from './axiosConfig';
+
+export type FlowMetric = 'QUEUE_TIME' | 'CYCLE_TIME' | 'LEAD_TIME';
+
+// Durations in minutes; percentiles are empty when nothing was measured
+export interface MetricSummary {
+    metric: FlowMetric;
+    count: number;
+    mean?: number;
+    p50?: number;
+    p75?: number;
+    p90?: number;
+    p95?: number;
+    max?: number;
+}
+
+export interface WeeklyThroughput {
+    weekStart: string;
+    approvedTasks: number;
+}
+
+export interface FlowReport {
+    scope: 'PROJECT' | 'USER';
+    scopeId: string;
+    fromWeek: string;
+    metrics: MetricSummary[];
+    throughput: WeeklyThroughput[];
+}
+
+export const analyticsService = {
+    async getProjectFlow(projectId: string, weeks: number = 12): Promise<FlowReport> {
+        const response = await api.get<FlowReport>(`/analytics/projects/${projectId}/flow`, { params: { weeks } });
+        return response.data;
+    },
+
+    async getUserFlow(userId: string, weeks: number = 12): Promise<FlowReport> {
+        const response = await api.get<FlowReport>(`/analytics/users/${userId}/flow`, { params: { weeks } });
+        return response.data;
+    },
+};
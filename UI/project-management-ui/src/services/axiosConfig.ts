@@ -15,6 +15,11 @@ api.interceptors.request.use(
         if (token) {
             config.headers.Authorization = `Bearer ${token}`;
         }
+        // One key per call; a retry of the same config sends the same key and gets the stored response
+        const method = (config.method || 'get').toLowerCase();
+        if (method !== 'get' && method !== 'head' && !config.headers['Idempotency-Key']) {
+            config.headers['Idempotency-Key'] = crypto.randomUUID();
+        }
         return config;
     },
     (error) => {
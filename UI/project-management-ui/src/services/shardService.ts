@@ -0,0 +1,43 @@
+import api from './axiosConfig';
+
+export type MovePhase = 'COPYING' | 'CATCHING_UP' | 'CLEANING_UP' | 'DONE' | 'FAILED';
+
+// Organizations without a placement live on the default shard
+export interface ShardPlacement {
+    organizationId: string;
+    shard: string;
+    moving: boolean;
+}
+
+export interface OrganizationMove {
+    organizationId: string;
+    source: string;
+    target: string;
+    phase: MovePhase;
+    startedAt: string;
+    finishedAt?: string;
+    error?: string;
+}
+
+export interface ShardOverview {
+    shards: string[];
+    placements: ShardPlacement[];
+    move?: OrganizationMove;
+}
+
+export const shardService = {
+    async getOverview(): Promise<ShardOverview> {
+        const response = await api.get<ShardOverview>('/shards');
+        return response.data;
+    },
+
+    async getMove(): Promise<OrganizationMove> {
+        const response = await api.get<OrganizationMove>('/shards/move');
+        return response.data;
+    },
+
+    async moveOrganization(organizationId: string, targetShard: string): Promise<OrganizationMove> {
+        const response = await api.post<OrganizationMove>(`/shards/organizations/${organizationId}/move`, { targetShard });
+        return response.data;
+    },
+};
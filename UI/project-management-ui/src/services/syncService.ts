@@ -0,0 +1,38 @@
+import api from './axiosConfig';
+import { Project } from './projectService';
+import { Task } from './taskService';
+import { TaskNote } from './taskNoteService';
+
+export interface SyncAssignment {
+    id: string;
+    userId: string;
+    userName: string;
+    changeVersion: number;
+}
+
+export interface SyncTombstone {
+    entityType: 'project' | 'task' | 'task_note' | 'project_assignment';
+    id: string;
+    changeVersion: number;
+}
+
+export interface ProjectChanges {
+    projectId: string;
+    version: number;
+    hasMore: boolean;
+    project?: Project;
+    tasks: Task[];
+    notes: TaskNote[];
+    assignments: SyncAssignment[];
+    deleted: SyncTombstone[];
+}
+
+export const syncService = {
+    // Keep calling with the returned version while hasMore is true
+    async getProjectChanges(projectId: string, since: number = 0, limit: number = 500): Promise<ProjectChanges> {
+        const response = await api.get<ProjectChanges>(`/sync/projects/${projectId}`, {
+            params: { since, limit }
+        });
+        return response.data;
+    },
+};
@@ -9,6 +9,19 @@ export interface TaskNote {
     isAdminNote: boolean;
     creationTimestamp: string;
     modificationTimestamp: string;
+    attachments?: NoteAttachment[];
+}
+
+export interface NoteAttachment {
+    id: string;
+    noteId: string;
+    taskId: string;
+    userId?: string;
+    fileName: string;
+    contentType: string;
+    sizeBytes: number;
+    sha256: string;
+    creationTimestamp: string;
 }
 
 export interface TaskNoteRequest {
@@ -43,5 +56,28 @@ export const taskNoteService = {
     async getTaskNoteCount(taskId: string): Promise<number> {
         const response = await api.get<number>(`/task-notes/task/${taskId}/count`);
         return response.data;
+    },
+
+    // The file is sent as the raw request body, so the server can stream it to disk
+    async uploadAttachment(noteId: string, file: File): Promise<NoteAttachment> {
+        const response = await api.post<NoteAttachment>(`/task-notes/${noteId}/attachments`, file, {
+            params: { fileName: file.name },
+            headers: { 'Content-Type': file.type || 'application/octet-stream' }
+        });
+        return response.data;
+    },
+
+    async getAttachments(noteId: string): Promise<NoteAttachment[]> {
+        const response = await api.get<NoteAttachment[]>(`/task-notes/${noteId}/attachments`);
+        return response.data;
+    },
+
+    async downloadAttachment(attachmentId: string): Promise<Blob> {
+        const response = await api.get<Blob>(`/task-notes/attachments/${attachmentId}`, { responseType: 'blob' });
+        return response.data;
+    },
+
+    async deleteAttachment(attachmentId: string): Promise<void> {
+        await api.delete(`/task-notes/attachments/${attachmentId}`);
     }
 };
\ No newline at end of file
@@ -22,6 +22,8 @@ export interface Task {
     assignmentTimestamp?: string;
     hasUnreadNotes?: boolean;
     noteCount?: number;
+    rank: string;
+    archived?: boolean;
 }
 
 export interface TaskRequest {
@@ -34,6 +36,27 @@ export interface TaskRequest {
     assignmentTimestamp?: string;
 }
 
+export interface AssigneeRecommendation {
+    userId: string;
+    userName: string;
+    openTasks: number;
+    openEstimatedTime: number;
+}
+
+export interface TaskDependencies {
+    taskId: string;
+    blockedBy: string[];
+    blocks: string[];
+    earliestStart?: number;
+    earliestFinish?: number;
+}
+
+export interface CriticalPath {
+    projectId: string;
+    earliestFinish: number;
+    taskIds: string[];
+}
+
 export const taskService = {
     async getAllTasks(): Promise<Task[]> {
         const response = await api.get<Task[]>('/tasks');
@@ -45,8 +68,48 @@ export const taskService = {
         return response.data;
     },
 
-    async getTasksByProject(projectId: string): Promise<Task[]> {
-        const response = await api.get<Task[]>(`/tasks/project/${projectId}`);
+    async getTasksByProject(projectId: string, includeArchived: boolean = false): Promise<Task[]> {
+        const response = await api.get<Task[]>(`/tasks/project/${projectId}`, {
+            params: includeArchived ? { includeArchived } : undefined
+        });
+        return response.data;
+    },
+
+    async getRecommendedAssignees(projectId: string, count: number = 3): Promise<AssigneeRecommendation[]> {
+        const response = await api.get<AssigneeRecommendation[]>(`/tasks/project/${projectId}/recommended-assignees`, {
+            params: { count }
+        });
+        return response.data;
+    },
+
+    async autoBalanceProject(projectId: string): Promise<Task[]> {
+        const response = await api.post<Task[]>(`/tasks/project/${projectId}/auto-balance`);
+        return response.data;
+    },
+
+    async getTaskDependencies(taskId: string): Promise<TaskDependencies> {
+        const response = await api.get<TaskDependencies>(`/tasks/${taskId}/dependencies`);
+        return response.data;
+    },
+
+    async getBlockedTasks(taskId: string, transitive: boolean = false): Promise<string[]> {
+        const response = await api.get<string[]>(`/tasks/${taskId}/blocked`, {
+            params: transitive ? { transitive } : undefined
+        });
+        return response.data;
+    },
+
+    async addTaskDependency(taskId: string, blockerTaskId: string): Promise<TaskDependencies> {
+        const response = await api.post<TaskDependencies>(`/tasks/${taskId}/dependencies/${blockerTaskId}`);
+        return response.data;
+    },
+
+    async removeTaskDependency(taskId: string, blockerTaskId: string): Promise<void> {
+        await api.delete(`/tasks/${taskId}/dependencies/${blockerTaskId}`);
+    },
+
+    async getCriticalPath(projectId: string): Promise<CriticalPath> {
+        const response = await api.get<CriticalPath>(`/tasks/project/${projectId}/critical-path`);
         return response.data;
     },
 
@@ -65,6 +128,12 @@ export const taskService = {
         return response.data;
     },
 
+    // Neighbours are the tasks directly above and below the drop position in the same column
+    async moveTask(id: string, previousTaskId?: string, nextTaskId?: string): Promise<Task> {
+        const response = await api.put<Task>(`/tasks/${id}/move`, { previousTaskId, nextTaskId });
+        return response.data;
+    },
+
     async deleteTask(id: string): Promise<void> {
         await api.delete(`/tasks/${id}`);
     },
@@ -1,4 +1,6 @@
 import api from './axiosConfig';
+import { Project } from './projectService';
+import { Task } from './taskService';
 
 export interface User {
     id: string;
@@ -20,6 +22,26 @@ export interface UserRequest {
     roleId: string;
 }
 
+export interface ProjectTaskCounts {
+    projectId: string;
+    totalCount: number;
+    countByState: Partial<Record<Task['state'], number>>;
+}
+
+export interface UserSearchResult {
+    id: string;
+    email: string;
+    name: string;
+    role?: string;
+}
+
+export interface Workspace {
+    activeProjectId?: string;
+    projects: Project[];
+    assignedTasks: Task[];
+    projectTaskCounts: ProjectTaskCounts[];
+}
+
 export const userService = {
     async getAllUsers(): Promise<User[]> {
         const response = await api.get<User[]>('/users');
@@ -56,5 +78,17 @@ export const userService = {
 
     async setUserActiveProject(userId: string, projectId: string): Promise<void> {
         await api.put(`/users/${userId}/active-project/${projectId}`);
+    },
+
+    async getWorkspace(userId: string): Promise<Workspace> {
+        const response = await api.get<Workspace>(`/users/${userId}/workspace`);
+        return response.data;
+    },
+
+    async searchUsers(query: string, role?: string, limit = 20): Promise<UserSearchResult[]> {
+        const response = await api.get<UserSearchResult[]>('/users/search', {
+            params: { q: query, role, limit }
+        });
+        return response.data;
     }
 };
\ No newline at end of file
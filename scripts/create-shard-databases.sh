@@ -0,0 +1,22 @@
+#!/bin/sh
+# Creates the local shard databases used by the "sharded" profile. Flyway migrates them on the
+# next start of the application.
+#
+#   scripts/create-shard-databases.sh
+#   ./gradlew bootRun --args='--spring.profiles.active=sharded'
+
+set -e
+
+PGHOST=${PGHOST:-localhost}
+PGPORT=${PGPORT:-3000}
+PGUSER=${PGUSER:-postgres}
+export PGHOST PGPORT PGUSER
+
+for db in project_management_shard1 project_management_shard2; do
+    if psql -d postgres -tAc "SELECT 1 FROM pg_database WHERE datname = '$db'" | grep -q 1; then
+        echo "$db already exists"
+    else
+        createdb "$db"
+        echo "created $db"
+    fi
+done
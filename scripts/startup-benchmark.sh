@@ -0,0 +1,50 @@
+#!/bin/sh
+# Compares startup of the JVM jar and the native image: time until the port accepts connections,
+# the latency of the first HTTP request and of the one after it. Readiness is polled with a plain
+# TCP connect (nc -z), so the first request really is the first one the application handles.
+# Needs the database from application.yaml.
+#
+#   ./gradlew bootJar nativeCompile
+#   scripts/startup-benchmark.sh [runs]
+
+set -e
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+URL="http://localhost:$PORT/api/projects/active"
+JAR=$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)
+NATIVE=build/native/nativeCompile/pai
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+measure() {
+    label=$1
+    shift
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        start=$(now_ms)
+        "$@" --server.port="$PORT" > /dev/null 2>&1 &
+        pid=$!
+
+        # Tomcat opens the connector last, once the context is refreshed
+        until nc -z localhost "$PORT" 2> /dev/null; do
+            sleep 0.01
+        done
+        ready=$(now_ms)
+
+        # Any status (401 included) means the request went through the application
+        first_request=$(curl -s -o /dev/null -w '%{time_total}' "$URL")
+        second_request=$(curl -s -o /dev/null -w '%{time_total}' "$URL")
+
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+
+        echo "$label run $i: port open in $((ready - start)) ms, first request ${first_request}s, second ${second_request}s"
+        i=$((i + 1))
+    done
+}
+
+measure jvm java -jar "$JAR"
+measure native "$NATIVE"
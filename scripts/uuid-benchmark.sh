@@ -0,0 +1,76 @@
+#!/bin/sh
+# Compares random (v4) and time-ordered (v7, see UuidV7) primary keys on a copy of the task_note
+# table: insert throughput while the table grows, and the size of the primary key index at the end.
+# Runs in a scratch database of its own, which is created if missing.
+#
+#   scripts/uuid-benchmark.sh [rows] [batch]
+
+set -e
+
+ROWS=${1:-10000000}
+BATCH=${2:-10000}
+PGHOST=${PGHOST:-localhost}
+PGPORT=${PGPORT:-3000}
+PGUSER=${PGUSER:-postgres}
+PGDATABASE=${PGDATABASE:-uuid_benchmark}
+export PGHOST PGPORT PGUSER PGDATABASE
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+sql() {
+    psql -qtAX -v ON_ERROR_STOP=1 -c "$1"
+}
+
+if ! psql -d postgres -tAc "SELECT 1 FROM pg_database WHERE datname = '$PGDATABASE'" | grep -q 1; then
+    createdb "$PGDATABASE"
+fi
+
+# Millisecond timestamp in the first 48 bits and version 7, the rest stays random; within one
+# millisecond the order is random, where UuidV7 counts up, so this slightly favours v4
+sql "CREATE OR REPLACE FUNCTION uuid_v7() RETURNS uuid AS \$\$
+    SELECT encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid())
+        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+        FROM 1 FOR 6), 52, 1), 53, 1), 'hex')::uuid
+    \$\$ LANGUAGE sql VOLATILE"
+
+measure() {
+    label=$1
+    generator=$2
+    sql "DROP TABLE IF EXISTS note_$label"
+    sql "CREATE TABLE note_$label (
+        id UUID PRIMARY KEY,
+        task_id UUID NOT NULL,
+        user_id UUID NOT NULL,
+        note_text TEXT NOT NULL,
+        is_admin_note BOOLEAN NOT NULL DEFAULT false,
+        creation_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+        modification_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP)"
+
+    # One statement per batch, as the application inserts notes a few at a time
+    start=$(now_ms)
+    last=$start
+    inserted=0
+    while [ "$inserted" -lt "$ROWS" ]; do
+        sql "INSERT INTO note_$label (id, task_id, user_id, note_text)
+            SELECT $generator, gen_random_uuid(), gen_random_uuid(), 'note ' || n FROM generate_series(1, $BATCH) n"
+        inserted=$((inserted + BATCH))
+        if [ $((inserted % (BATCH * 100))) -eq 0 ]; then
+            now=$(now_ms)
+            echo "$label: $inserted rows, last $((BATCH * 100)) at $((BATCH * 100 * 1000 / (now - last + 1))) rows/s"
+            last=$now
+        fi
+    done
+    elapsed=$(($(now_ms) - start))
+
+    sizes=$(sql "SELECT pg_size_pretty(pg_relation_size('note_${label}_pkey')) || ' index, ' ||
+        pg_size_pretty(pg_relation_size('note_$label')) || ' table' ")
+    echo "$label: $ROWS rows in $elapsed ms, $((ROWS * 1000 / (elapsed + 1))) rows/s, $sizes"
+}
+
+measure v4 "gen_random_uuid()"
+measure v7 "uuid_v7()"
+
+sql "DROP TABLE note_v4"
+sql "DROP TABLE note_v7"
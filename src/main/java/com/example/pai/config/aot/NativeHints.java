@@ -0,0 +1,78 @@
+package com.example.pai.config.aot;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reflection, proxy and resource hints for the native image. Packages are scanned during the AOT
+ * build, so new entities, DTOs and projections are picked up without touching this class.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final String BASE_PACKAGE = "com.example.pai";
+
+    // Loaded by class name from jjwt-api, so static analysis cannot see them
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        forEachClass(BASE_PACKAGE + ".dao.model", classLoader, type ->
+                hints.reflection().registerType(type, MemberCategory.values()));
+
+        // Request and response DTOs are static classes nested in the *Dto holders
+        forEachClass(BASE_PACKAGE + ".controller", classLoader, holder -> {
+            if (holder.getSimpleName().endsWith("Dto")) {
+                for (Class<?> dto : holder.getDeclaredClasses()) {
+                    hints.reflection().registerType(dto,
+                            MemberCategory.DECLARED_FIELDS,
+                            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                            MemberCategory.INVOKE_PUBLIC_METHODS);
+                }
+            }
+        });
+
+        // Spring Data backs interface projections with JDK proxies
+        forEachClass(BASE_PACKAGE + ".dao.projection", classLoader, view -> {
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(view));
+            hints.reflection().registerType(view, MemberCategory.INVOKE_PUBLIC_METHODS);
+        });
+
+        JJWT_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type), MemberCategory.values()));
+
+        hints.resources().registerPattern("db/migration/*.sql");
+    }
+
+    private static void forEachClass(String basePackage, ClassLoader classLoader, Consumer<Class<?>> action) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            action.accept(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+        }
+    }
+}
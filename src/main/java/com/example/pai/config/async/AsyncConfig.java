@@ -0,0 +1,23 @@
+package com.example.pai.config.async;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Bounded so that one burst of workspace loads cannot take every connection of the pool
+    @Bean
+    public ThreadPoolTaskExecutor workspaceTaskExecutor(
+            @Value("${workspace.executor.pool-size:8}") int poolSize,
+            @Value("${workspace.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("workspace-");
+        return executor;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.pai.config.idempotency;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.service.idempotency.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Makes retries of mutating requests that carry an Idempotency-Key header safe: the first request
+ * executes and its response is stored, later requests with the same key get that response again.
+ * Reusing a key for a different request is rejected with 422. Runs after authentication, keys are
+ * scoped to the caller. Bodies larger than idempotency.max-body-bytes, such as attachment uploads,
+ * pass through without replay protection. When the length is not declared up front, as with
+ * chunked uploads, at most that many bytes are buffered before the request is passed on.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Value("${idempotency.max-body-bytes:1048576}")
+    private long maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getHeader(HEADER) == null
+                || request.getContentLengthLong() > maxBodyBytes
+                || HttpMethod.GET.matches(request.getMethod())
+                || HttpMethod.HEAD.matches(request.getMethod())
+                || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), HEADER + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, maxBodyBytes);
+        if (!cachedRequest.complete) {
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+        String requestHash = hash(cachedRequest);
+        IdempotencyStore.Claim claim;
+        try {
+            claim = idempotencyStore.acquire(user.getId(), key, requestHash);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        switch (claim.outcome()) {
+            case REPLAY -> replay(claim.response(), response);
+            case MISMATCH -> response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    HEADER + " was already used for a different request");
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + HEADER + " is still running");
+            }
+            case EXECUTE -> execute(cachedRequest, response, filterChain, user, key, requestHash);
+        }
+    }
+
+    private void execute(CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                         AuthenticatedUser user, String key, String requestHash) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, cachingResponse);
+            if (isFinal(cachingResponse.getStatus())) {
+                idempotencyStore.complete(user.getId(), key, requestHash, new IdempotencyStore.StoredResponse(
+                        cachingResponse.getStatus(), cachingResponse.getContentType(), cachingResponse.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.release(user.getId(), key);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    // Server errors, conflicts and throttling may go away, so their retries execute again
+    private static boolean isFinal(int status) {
+        return status < 500
+                && status != HttpStatus.REQUEST_TIMEOUT.value()
+                && status != HttpStatus.CONFLICT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null && stored.body().length > 0) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static String hash(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "?" + request.getQueryString() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(request.body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The body is needed for the request hash and again by the controller. Reads at most one byte
+     * more than the limit; a body that turns out larger is not complete, and its stream continues
+     * with the rest of the original body after the buffered part.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private final boolean complete;
+
+        CachedBodyRequest(HttpServletRequest request, long limit) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readNBytes((int) Math.min(limit + 1, Integer.MAX_VALUE - 8));
+            this.complete = body.length <= limit;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            ByteArrayInputStream head = new ByteArrayInputStream(body);
+            ServletInputStream rest = complete ? null : super.getInputStream();
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    int b = head.read();
+                    return b >= 0 || rest == null ? b : rest.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = head.read(b, off, len);
+                    return read > 0 || rest == null ? read : rest.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return head.available() == 0 && (rest == null || rest.isFinished());
+                }
+
+                @Override
+                public boolean isReady() {
+                    return head.available() > 0 || rest == null || rest.isReady();
+                }
+
+                // A complete body is all in memory already; otherwise the container signals the rest
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    if (rest != null) {
+                        rest.setReadListener(readListener);
+                        return;
+                    }
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.pai.config.jwt;
 
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.shard.ShardContext;
 import com.example.pai.service.auth.JwtService;
+import com.example.pai.service.shard.ShardMap;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +27,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final ShardMap shardMap;
 
     @Override
     protected void doFilterInternal(
@@ -40,12 +45,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        Claims claims = jwtService.extractAllClaims(jwt);
+        userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            UserDetails userDetails = jwtService.extractPrincipal(claims);
+            if (userDetails == null) {
+                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -58,6 +67,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
+        // The rest of the request runs against the shard of the caller's organization
+        if (SecurityContextHolder.getContext().getAuthentication() != null
+                && SecurityContextHolder.getContext().getAuthentication().getPrincipal() instanceof AuthenticatedUser user) {
+            String previous = ShardContext.bind(shardMap.shardOf(user.getOrganizationId()));
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                ShardContext.restore(previous);
+            }
+            return;
+        }
         filterChain.doFilter(request, response);
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.example.pai.config.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sheds requests with 503 and Retry-After once their route class is at its adaptive concurrency
+ * limit, so excess load is rejected before it waits for a Tomcat thread or a database connection.
+ * Exports additionally give way to interactive reads. Runs before authentication so rejected
+ * requests cost almost nothing.
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Map<RouteClass, GradientLimiter> limiters = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Counter> rejections = new EnumMap<>(RouteClass.class);
+    private final List<String> exportPaths;
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+
+    public AdaptiveConcurrencyFilter(
+            MeterRegistry meterRegistry,
+            @Value("${concurrency-limits.enabled:true}") boolean enabled,
+            @Value("${concurrency-limits.min-limit:2}") int minLimit,
+            @Value("${concurrency-limits.max-limit:200}") int maxLimit,
+            @Value("${concurrency-limits.retry-after-seconds:1}") int retryAfterSeconds,
+            @Value("${concurrency-limits.export-paths:/api/tasks,/api/users,/api/sync/**,/api/**/export/**}") List<String> exportPaths) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.exportPaths = exportPaths;
+
+        for (RouteClass routeClass : RouteClass.values()) {
+            GradientLimiter limiter = new GradientLimiter(routeClass.getInitialLimit(), minLimit, maxLimit);
+            limiters.put(routeClass, limiter);
+            String tag = routeClass.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("http.concurrency.limit", limiter, GradientLimiter::getLimit)
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.inflight", limiter, GradientLimiter::getInflight)
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            rejections.put(routeClass, Counter.builder("http.concurrency.rejected")
+                    .tag("class", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RouteClass routeClass = classify(request);
+        GradientLimiter limiter = limiters.get(routeClass);
+        if (yieldsToReads(routeClass) || !limiter.tryAcquire()) {
+            rejections.get(routeClass).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(nanoTime() - start, dropped);
+        }
+    }
+
+    // Overridden by tests to control the measured latency
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private boolean yieldsToReads(RouteClass routeClass) {
+        double cap = routeClass.getInteractiveUtilizationCap();
+        return cap < 1.0 && limiters.get(RouteClass.READ).utilization() >= cap;
+    }
+
+    private RouteClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/")) {
+            return RouteClass.AUTH;
+        }
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (!read) {
+            return RouteClass.WRITE;
+        }
+        for (String exportPath : exportPaths) {
+            if (PATH_MATCHER.match(exportPath, path)) {
+                return RouteClass.EXPORT;
+            }
+        }
+        return RouteClass.READ;
+    }
+}
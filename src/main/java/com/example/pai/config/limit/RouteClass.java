@@ -0,0 +1,29 @@
+package com.example.pai.config.limit;
+
+/**
+ * Request classes that get their own concurrency limit. An {@code interactiveUtilizationCap} below 1
+ * makes a class yield to interactive reads: its requests are shed once reads use that share of
+ * their limit.
+ */
+public enum RouteClass {
+    AUTH(20, 1.0),
+    READ(40, 1.0),
+    WRITE(20, 1.0),
+    EXPORT(4, 0.7);
+
+    private final int initialLimit;
+    private final double interactiveUtilizationCap;
+
+    RouteClass(int initialLimit, double interactiveUtilizationCap) {
+        this.initialLimit = initialLimit;
+        this.interactiveUtilizationCap = interactiveUtilizationCap;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public double getInteractiveUtilizationCap() {
+        return interactiveUtilizationCap;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.pai.config.security;
 
 
+import com.example.pai.config.shard.ShardRegistry;
 import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.access.RolePermissions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,19 +21,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final RolePermissions rolePermissions;
+    private final ShardRegistry shardRegistry;
 
+    // Logins do not carry an organization yet, so the user is looked up on every shard
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
-                .map(user -> new org.springframework.security.core.userdetails.User(
-                        user.getEmail(),
-                        user.getPassword(),
-                        user.getActivated(),
-                        true,
-                        true,
-                        !user.getHidden(),
-                        java.util.Collections.emptyList()
-                ))
+        return username -> shardRegistry.findFirst(() -> userRepository.findByEmail(username))
+                .map(user -> new AuthenticatedUser(user, rolePermissions.permissionsOf(user.getRole())))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
     }
 
@@ -0,0 +1,72 @@
+package com.example.pai.config.security;
+
+import com.example.pai.dao.model.UserManagment;
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.UUID;
+
+/**
+ * Principal stored in the security context. Carries the user id, organization, role and permission
+ * bits so per-request checks don't have to load the user again, and the token version it was
+ * issued with.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final UUID id;
+    private final UUID organizationId;
+    private final String roleName;
+    private final long permissions;
+    private final int tokenVersion;
+
+    public AuthenticatedUser(UserManagment user, long permissions) {
+        super(
+                user.getEmail(),
+                user.getPassword(),
+                user.getActivated(),
+                true,
+                true,
+                !user.getHidden(),
+                Permission.authorities(permissions)
+        );
+        this.id = user.getId();
+        this.organizationId = user.getOrganizationId();
+        this.roleName = user.getRole() != null ? user.getRole().getName() : null;
+        this.permissions = permissions;
+        this.tokenVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+
+    public AuthenticatedUser(UUID id, UUID organizationId, String email, String roleName, long permissions,
+                             int tokenVersion) {
+        super(email, "", Permission.authorities(permissions));
+        this.id = id;
+        this.organizationId = organizationId;
+        this.roleName = roleName;
+        this.permissions = permissions;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public boolean hasPermission(Permission permission) {
+        return permission.isGrantedIn(permissions);
+    }
+
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        return null;
+    }
+
+    /**
+     * Whether data of the given organization may be handed to the current caller. Internal calls
+     * without an authenticated user are not bound to an organization.
+     */
+    public static boolean isCurrentOrganization(UUID organizationId) {
+        AuthenticatedUser user = current();
+        return user == null || user.getOrganizationId().equals(organizationId);
+    }
+}
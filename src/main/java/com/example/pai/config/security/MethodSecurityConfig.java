@@ -0,0 +1,26 @@
+package com.example.pai.config.security;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+@Configuration
+@EnableMethodSecurity
+public class MethodSecurityConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionAdvisor() {
+        Pointcut pointcut = Pointcuts.union(
+                new AnnotationMatchingPointcut(RequiresPermission.class, true),
+                AnnotationMatchingPointcut.forMethodAnnotation(RequiresPermission.class));
+        return new AuthorizationManagerBeforeMethodInterceptor(pointcut, new PermissionAuthorizationManager());
+    }
+}
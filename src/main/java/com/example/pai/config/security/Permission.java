@@ -0,0 +1,49 @@
+package com.example.pai.config.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Each permission is one bit of the mask carried by {@link AuthenticatedUser} and the "perm" JWT claim.
+ * Bits follow declaration order, so new permissions must only be appended.
+ */
+public enum Permission {
+    TASK_WRITE,
+    TASK_APPROVE,
+    TASK_ASSIGNABLE,
+    PROJECT_MANAGE,
+    USER_MANAGE,
+    ALL_PROJECTS,
+    // Cluster operators only, no role gets it from the migrations
+    SHARD_MANAGE;
+
+    private static final Permission[] VALUES = values();
+
+    private final long mask = 1L << ordinal();
+    private final GrantedAuthority authority = new SimpleGrantedAuthority("PERM_" + name());
+
+    public long mask() {
+        return mask;
+    }
+
+    public GrantedAuthority authority() {
+        return authority;
+    }
+
+    public boolean isGrantedIn(long permissions) {
+        return (permissions & mask) != 0;
+    }
+
+    public static List<GrantedAuthority> authorities(long permissions) {
+        List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(permissions));
+        for (Permission permission : VALUES) {
+            if (permission.isGrantedIn(permissions)) {
+                authorities.add(permission.authority);
+            }
+        }
+        return authorities;
+    }
+}
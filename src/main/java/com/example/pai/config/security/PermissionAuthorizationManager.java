@@ -0,0 +1,45 @@
+package com.example.pai.config.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Map<Method, Permission> requiredPermissions = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Permission required = requiredPermissions.computeIfAbsent(invocation.getMethod(),
+                method -> findRequiredPermission(method, invocation.getThis()));
+        Authentication current = authentication.get();
+        if (current != null && current.getPrincipal() instanceof AuthenticatedUser user && user.hasPermission(required)) {
+            return GRANTED;
+        }
+        return DENIED;
+    }
+
+    private static Permission findRequiredPermission(Method method, Object target) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPermission.class);
+        }
+        if (annotation == null) {
+            throw new IllegalStateException("No @RequiresPermission on " + specificMethod);
+        }
+        return annotation.value();
+    }
+}
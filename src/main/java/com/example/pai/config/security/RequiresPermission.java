@@ -0,0 +1,16 @@
+package com.example.pai.config.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Denies the call unless the current {@link AuthenticatedUser} holds the permission.
+ * On a type it applies to every method; a method-level annotation takes precedence.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequiresPermission {
+    Permission value();
+}
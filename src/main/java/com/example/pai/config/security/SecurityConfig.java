@@ -1,6 +1,8 @@
 package com.example.pai.config.security;
 
+import com.example.pai.config.idempotency.IdempotencyFilter;
 import com.example.pai.config.jwt.JwtAuthenticationFilter;
+import com.example.pai.config.limit.AdaptiveConcurrencyFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,6 +19,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final AdaptiveConcurrencyFilter concurrencyFilter;
+    private final IdempotencyFilter idempotencyFilter;
     private final AuthenticationProvider authenticationProvider;
 
     @Bean
@@ -25,13 +29,17 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Metrics include the concurrency limits and in-flight counts, operators only
+                        .requestMatchers("/actuator/metrics/**").hasAuthority(Permission.SHARD_MANAGE.authority().getAuthority())
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider)
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(concurrencyFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,48 @@
+package com.example.pai.config.shard;
+
+import com.example.pai.service.shard.ShardMap;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardConfig {
+
+    @Bean
+    public ShardRegistry shardRegistry(DataSourceProperties dataSourceProperties, ShardProperties shardProperties) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        HikariDataSource defaultShard = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        defaultShard.setPoolName("shard-" + ShardRegistry.DEFAULT_SHARD);
+        dataSources.put(ShardRegistry.DEFAULT_SHARD, defaultShard);
+
+        shardProperties.getShards().forEach((name, shard) -> {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + name);
+            dataSources.put(name, dataSource);
+        });
+        return new ShardRegistry(dataSources);
+    }
+
+    // Replaces the auto-configured pool; Flyway, JPA and JdbcTemplate all go through the router
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardRegistry shardRegistry, ObjectProvider<ShardMap> shardMap) {
+        return new ShardRoutingDataSource(shardRegistry, shardMap);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.pai.config.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard that connections of the current thread are taken from. Bound per request by the JWT
+ * filter and explicitly by work that targets one shard, such as scheduled jobs iterating over all
+ * of them. Without a binding the organization of the authenticated user decides.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action against the given shard. A transaction that is already open keeps its
+     * connection, so this only has an effect outside of one.
+     */
+    public static <T> T call(String shard, Supplier<T> action) {
+        String previous = bind(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(String shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Binds the shard and returns the previous binding, to be handed to {@link #restore(String)}.
+     */
+    public static String bind(String shard) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(String previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.pai.config.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Databases organizations can be placed on, in addition to {@code spring.datasource}, which is
+ * always the {@value ShardRegistry#DEFAULT_SHARD} shard and also holds the shard map.
+ */
+@Data
+@ConfigurationProperties(prefix = "sharding")
+public class ShardProperties {
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.pai.config.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The configured shards and their connection pools. The helpers that run a lookup on every shard
+ * are meant for the few places that cannot know the organization up front (login, startup loads,
+ * cluster invalidations); they must be called outside of a transaction.
+ */
+public class ShardRegistry implements DisposableBean {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private final Map<String, DataSource> dataSources;
+    private final Map<String, JdbcTemplate> jdbcTemplates = new LinkedHashMap<>();
+
+    public ShardRegistry(Map<String, DataSource> dataSources) {
+        if (!dataSources.containsKey(DEFAULT_SHARD)) {
+            throw new IllegalArgumentException("The " + DEFAULT_SHARD + " shard must be configured");
+        }
+        this.dataSources = Collections.unmodifiableMap(new LinkedHashMap<>(dataSources));
+        this.dataSources.forEach((name, dataSource) -> jdbcTemplates.put(name, new JdbcTemplate(dataSource)));
+    }
+
+    public Set<String> names() {
+        return dataSources.keySet();
+    }
+
+    public boolean contains(String shard) {
+        return dataSources.containsKey(shard);
+    }
+
+    public Map<String, DataSource> dataSources() {
+        return dataSources;
+    }
+
+    public DataSource dataSource(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Template on the shard's own pool. It never joins a transaction of the routing data source.
+     */
+    public JdbcTemplate jdbcTemplate(String shard) {
+        dataSource(shard);
+        return jdbcTemplates.get(shard);
+    }
+
+    public void forEach(Runnable action) {
+        for (String shard : dataSources.keySet()) {
+            ShardContext.run(shard, action);
+        }
+    }
+
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> lookup) {
+        for (String shard : dataSources.keySet()) {
+            Optional<T> found = ShardContext.call(shard, lookup);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean anyMatch(BooleanSupplier check) {
+        for (String shard : dataSources.keySet()) {
+            if (ShardContext.call(shard, check::getAsBoolean)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : dataSources.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
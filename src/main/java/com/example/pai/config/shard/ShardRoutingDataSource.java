@@ -0,0 +1,40 @@
+package com.example.pai.config.shard;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.service.shard.ShardMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+
+/**
+ * The application's data source. Each connection comes from the shard bound in
+ * {@link ShardContext}, else from the shard of the authenticated user's organization, else from
+ * the default shard. Hibernate releases connections after every transaction (see
+ * application.yaml), so the shard is picked again for each one.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ObjectProvider<ShardMap> shardMap;
+
+    public ShardRoutingDataSource(ShardRegistry shardRegistry, ObjectProvider<ShardMap> shardMap) {
+        this.shardMap = shardMap;
+        setTargetDataSources(new HashMap<>(shardRegistry.dataSources()));
+        setDefaultTargetDataSource(shardRegistry.dataSource(ShardRegistry.DEFAULT_SHARD));
+        setLenientFallback(false);
+    }
+
+    public String currentShard() {
+        String shard = ShardContext.current();
+        if (shard != null) {
+            return shard;
+        }
+        AuthenticatedUser user = AuthenticatedUser.current();
+        return user != null ? shardMap.getObject().shardOf(user.getOrganizationId()) : ShardRegistry.DEFAULT_SHARD;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+}
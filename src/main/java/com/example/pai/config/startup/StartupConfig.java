@@ -0,0 +1,78 @@
+package com.example.pai.config.startup;
+
+import com.example.pai.config.shard.ShardRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    /**
+     * {@code startup.flyway-mode} decides what Flyway does while the application starts:
+     * {@code migrate} (default, for the designated migration node), {@code validate-async}
+     * (validate on a background thread, shutting down if the schema does not match) or
+     * {@code none} (trust the migration node). The chosen mode is applied to every shard, all from
+     * the same {@code db/migration} scripts.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${startup.flyway-mode:migrate}") String flywayMode,
+            ShardRegistry shardRegistry,
+            ConfigurableApplicationContext context) {
+        FlywayMigrationStrategy strategy = switch (flywayMode) {
+            case "migrate" -> Flyway::migrate;
+            case "validate-async" -> flyway -> validateInBackground(flyway, context);
+            case "none" -> flyway -> log.info("Skipping Flyway at startup, migrations are run by the migration node");
+            default -> throw new IllegalStateException("Unknown startup.flyway-mode: " + flywayMode);
+        };
+        return flyway -> shardRegistry.dataSources().forEach((shard, dataSource) -> {
+            log.info("Running Flyway ({}) on shard {}", flywayMode, shard);
+            strategy.migrate(Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(dataSource)
+                    .load());
+        });
+    }
+
+    // With spring.main.lazy-initialization enabled, beans that warm caches or run scheduled jobs
+    // must still be created eagerly: nothing else would ever ask for them
+    @Bean
+    public static LazyInitializationExcludeFilter startupCriticalBeans() {
+        return (beanName, beanDefinition, beanType) ->
+                AnnotatedElementUtils.hasAnnotation(beanType, StartupCritical.class) || hasScheduledMethod(beanType);
+    }
+
+    private static boolean hasScheduledMethod(Class<?> beanType) {
+        AtomicBoolean scheduled = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType,
+                method -> scheduled.set(true),
+                method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+        return scheduled.get();
+    }
+
+    private static void validateInBackground(Flyway flyway, ConfigurableApplicationContext context) {
+        Thread validation = new Thread(() -> {
+            try {
+                flyway.validate();
+                log.info("Flyway validation finished");
+            } catch (RuntimeException e) {
+                log.error("Database schema does not match the migrations, shutting down", e);
+                context.close();
+            }
+        }, "flyway-validate");
+        validation.setDaemon(true);
+        validation.start();
+    }
+}
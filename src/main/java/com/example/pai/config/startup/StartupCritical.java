@@ -0,0 +1,15 @@
+package com.example.pai.config.startup;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean that must be created during startup even when lazy initialization is enabled,
+ * e.g. because it warms a cache that request handling relies on.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StartupCritical {
+}
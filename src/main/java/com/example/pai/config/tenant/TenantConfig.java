@@ -0,0 +1,23 @@
+package com.example.pai.config.tenant;
+
+import com.example.pai.service.shard.ShardMap;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class TenantConfig {
+
+    // Replaces the auto-configured JpaTransactionManager, keeping the spring.transaction.* customizations
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         ShardMap shardMap,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        TenantTransactionManager transactionManager = new TenantTransactionManager(entityManagerFactory, shardMap);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+}
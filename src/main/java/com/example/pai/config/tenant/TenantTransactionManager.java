@@ -0,0 +1,69 @@
+package com.example.pai.config.tenant;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.dao.model.TenantFilter;
+import com.example.pai.service.shard.OrganizationMovingException;
+import com.example.pai.service.shard.OrganizationWriteLock;
+import com.example.pai.service.shard.ShardMap;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+/**
+ * Enables the tenant filter for the organization of the authenticated user at the start of every
+ * transaction. Transactions without a user (schedulers, the event relay, startup loads) run
+ * unfiltered, as they did before. Writing transactions are refused while the user's organization
+ * is being moved to another shard, and otherwise hold the organization's {@link OrganizationWriteLock}
+ * shared, so a move can wait for them to end.
+ */
+public class TenantTransactionManager extends JpaTransactionManager {
+
+    private final ShardMap shardMap;
+
+    public TenantTransactionManager(EntityManagerFactory entityManagerFactory, ShardMap shardMap) {
+        super(entityManagerFactory);
+        this.shardMap = shardMap;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user != null && !definition.isReadOnly() && shardMap.isMoving(user.getOrganizationId())) {
+            throw new OrganizationMovingException(user.getOrganizationId());
+        }
+        super.doBegin(transaction, definition);
+        if (!(TransactionSynchronizationManager.getResource(obtainEntityManagerFactory()) instanceof EntityManagerHolder holder)) {
+            return;
+        }
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        if (user != null) {
+            session.enableFilter(TenantFilter.NAME).setParameter(TenantFilter.ORGANIZATION_ID, user.getOrganizationId());
+        } else {
+            session.disableFilter(TenantFilter.NAME);
+        }
+        // The move may have frozen the organization after the check above
+        if (user != null && !definition.isReadOnly() && !tryWriteLock(session, user.getOrganizationId())) {
+            holder.getEntityManager().getTransaction().rollback();
+            doCleanupAfterCompletion(transaction);
+            throw new OrganizationMovingException(user.getOrganizationId());
+        }
+    }
+
+    private static boolean tryWriteLock(Session session, UUID organizationId) {
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(OrganizationWriteLock.TRY_SHARED)) {
+                statement.setObject(1, organizationId);
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next() && result.getBoolean(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.pai.controller.activity;
+
+import com.example.pai.config.security.Permission;
+import com.example.pai.config.security.RequiresPermission;
+import com.example.pai.controller.activity.dto.ActivityDto;
+import com.example.pai.service.activity.ActivityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+// Changes across every project of the organization, so only for those who see all projects
+@RestController
+@RequestMapping("/api/activity")
+@RequiredArgsConstructor
+@RequiresPermission(Permission.ALL_PROJECTS)
+public class ActivityController {
+
+    private final ActivityService activityService;
+
+    @GetMapping
+    public ResponseEntity<ActivityDto.ActivityPage> getActivity(
+            @RequestParam(required = false) UUID projectId,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "100") int limit) {
+        return activityService.getActivity(projectId, userId, before, limit)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.badRequest().build());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.pai.controller.activity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class ActivityDto {
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ActivityEventResponse {
+        private Long id;
+        private String entityType;
+        private String action;
+        private UUID projectId;
+        private UUID taskId;
+        private UUID noteId;
+        private UUID actorId;
+        private UUID subjectUserId;
+        private String summary;
+        private LocalDateTime occurredAt;
+    }
+
+    // Newest first; nextCursor is passed back as "before" for the next page and is null after the last one
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ActivityPage {
+        private List<ActivityEventResponse> events;
+        private String nextCursor;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.pai.controller.analytics;
+
+import com.example.pai.controller.analytics.dto.AnalyticsDto;
+import com.example.pai.service.analytics.TaskFlowAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final TaskFlowAnalyticsService analyticsService;
+
+    @GetMapping("/projects/{projectId}/flow")
+    public ResponseEntity<AnalyticsDto.FlowReport> getProjectFlow(
+            @PathVariable UUID projectId,
+            @RequestParam(defaultValue = "12") int weeks) {
+        return ResponseEntity.ok(analyticsService.getProjectFlow(projectId, weeks));
+    }
+
+    @GetMapping("/users/{userId}/flow")
+    public ResponseEntity<AnalyticsDto.FlowReport> getUserFlow(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "12") int weeks) {
+        return ResponseEntity.ok(analyticsService.getUserFlow(userId, weeks));
+    }
+}
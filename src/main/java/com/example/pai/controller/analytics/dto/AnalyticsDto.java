@@ -0,0 +1,50 @@
+package com.example.pai.controller.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public class AnalyticsDto {
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FlowReport {
+        private String scope;
+        private UUID scopeId;
+        private LocalDate fromWeek;
+        private List<MetricSummary> metrics;
+        private List<WeeklyThroughput> throughput;
+    }
+
+    // Durations in minutes
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class MetricSummary {
+        private String metric;
+        private Long count;
+        private Double mean;
+        private Long p50;
+        private Long p75;
+        private Long p90;
+        private Long p95;
+        private Long max;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WeeklyThroughput {
+        private LocalDate weekStart;
+        private Long approvedTasks;
+    }
+}
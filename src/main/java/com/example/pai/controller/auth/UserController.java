@@ -2,6 +2,8 @@ package com.example.pai.controller.auth;
 
 
 
+import com.example.pai.config.security.Permission;
+import com.example.pai.config.security.RequiresPermission;
 import com.example.pai.controller.user.dto.UserDto;
 import com.example.pai.dao.model.UserManagment;
 import com.example.pai.service.UserService;
@@ -24,6 +26,14 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsersDto());
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<UserDto.UserSearchResult>> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String role,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(userService.searchUsers(query, role, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserManagment> getUserById(@PathVariable UUID id) {
         return userService.getUserById(id)
@@ -32,11 +42,13 @@ public class UserController {
     }
 
     @PostMapping
+    @RequiresPermission(Permission.USER_MANAGE)
     public ResponseEntity<UserManagment> createUser(@RequestBody UserManagment userManagment) {
         return ResponseEntity.ok(userService.createUser(userManagment));
     }
 
     @PutMapping("/{id}")
+    @RequiresPermission(Permission.USER_MANAGE)
     public ResponseEntity<UserManagment> updateUser(@PathVariable UUID id, @RequestBody UserManagment userManagmentDetails) {
         return userService.updateUser(id, userManagmentDetails)
                 .map(ResponseEntity::ok)
@@ -44,6 +56,7 @@ public class UserController {
     }
 
     @DeleteMapping("/{id}")
+    @RequiresPermission(Permission.USER_MANAGE)
     public ResponseEntity<Void> deleteUser(@PathVariable UUID id) {
         if (userService.deleteUser(id)) {
             return ResponseEntity.noContent().build();
@@ -63,6 +76,7 @@ public class UserController {
 //    }
 
     @PatchMapping("/{id}/soft-delete")
+    @RequiresPermission(Permission.USER_MANAGE)
     public ResponseEntity<Void> softDeleteUser(@PathVariable UUID id) {
         if (userService.softDeleteUser(id)) {
             return ResponseEntity.noContent().build();
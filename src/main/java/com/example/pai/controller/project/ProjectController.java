@@ -1,9 +1,14 @@
 package com.example.pai.controller.project;
 
+import com.example.pai.config.security.Permission;
+import com.example.pai.config.security.RequiresPermission;
 import com.example.pai.controller.project.dto.ProjectDto;
+import com.example.pai.controller.support.FieldSelector;
 import com.example.pai.service.ProjectService;
+import com.example.pai.service.cache.ReadCoalescer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,35 +21,61 @@ import java.util.UUID;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final FieldSelector fieldSelector;
+    private final ReadCoalescer readCoalescer;
 
     @GetMapping("/active")
-    public ResponseEntity<List<ProjectDto.ProjectResponse>> getActiveProjects() {
-        return ResponseEntity.ok(projectService.getActiveProjects());
+    public ResponseEntity<List<?>> getActiveProjects(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(fieldSelector.select(fields, view,
+                projectService::getActiveProjects,
+                () -> projectService.getProjectSummariesByStatus("ACTIVE"),
+                ProjectDto.ProjectSummary.FIELDS,
+                requested -> projectService.getProjectFieldsByStatus("ACTIVE", requested),
+                ProjectDto.ProjectResponse.FIELDS));
     }
 
     @GetMapping("/inactive")
-    public ResponseEntity<List<ProjectDto.ProjectResponse>> getInactiveProjects() {
-        return ResponseEntity.ok(projectService.getInactiveProjects());
+    public ResponseEntity<List<?>> getInactiveProjects(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(fieldSelector.select(fields, view,
+                projectService::getInactiveProjects,
+                () -> projectService.getProjectSummariesByStatus("INACTIVE"),
+                ProjectDto.ProjectSummary.FIELDS,
+                requested -> projectService.getProjectFieldsByStatus("INACTIVE", requested),
+                ProjectDto.ProjectResponse.FIELDS));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ProjectDto.ProjectResponse>> getProjectsForUser(@PathVariable UUID userId) {
-        return ResponseEntity.ok(projectService.getProjectsForUser(userId));
+    public ResponseEntity<List<?>> getProjectsForUser(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(fieldSelector.select(fields, view,
+                () -> projectService.getProjectsForUser(userId),
+                () -> projectService.getProjectSummariesForUser(userId),
+                ProjectDto.ProjectSummary.FIELDS,
+                requested -> projectService.getProjectFieldsForUser(userId, requested),
+                ProjectDto.ProjectResponse.FIELDS));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProjectDto.ProjectResponse> getProjectById(@PathVariable UUID id) {
-        return projectService.getProjectById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getProjectById(@PathVariable UUID id) {
+        return readCoalescer.read(id, ReadCoalescer.key("project", id), () -> projectService.getProjectById(id))
+                .map(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
+    @RequiresPermission(Permission.PROJECT_MANAGE)
     public ResponseEntity<ProjectDto.ProjectResponse> createProject(@RequestBody ProjectDto.ProjectRequest projectRequest) {
         return new ResponseEntity<>(projectService.createProject(projectRequest), HttpStatus.CREATED);
     }
 
     @PutMapping("/{id}")
+    @RequiresPermission(Permission.PROJECT_MANAGE)
     public ResponseEntity<ProjectDto.ProjectResponse> updateProject(
             @PathVariable UUID id,
             @RequestBody ProjectDto.ProjectUpdateRequest projectUpdateRequest) {
@@ -54,6 +85,7 @@ public class ProjectController {
     }
 
     @DeleteMapping("/{id}")
+    @RequiresPermission(Permission.PROJECT_MANAGE)
     public ResponseEntity<Void> deleteProject(@PathVariable UUID id) {
         if (projectService.deleteProject(id)) {
             return ResponseEntity.noContent().build();
@@ -62,6 +94,7 @@ public class ProjectController {
     }
 
     @PostMapping("/{projectId}/assign/{userId}")
+    @RequiresPermission(Permission.PROJECT_MANAGE)
     public ResponseEntity<Void> assignUserToProject(@PathVariable UUID projectId, @PathVariable UUID userId) {
         if (projectService.assignUserToProject(projectId, userId)) {
             return ResponseEntity.ok().build();
@@ -70,6 +103,7 @@ public class ProjectController {
     }
 
     @DeleteMapping("/{projectId}/assign/{userId}")
+    @RequiresPermission(Permission.PROJECT_MANAGE)
     public ResponseEntity<Void> removeUserFromProject(@PathVariable UUID projectId, @PathVariable UUID userId) {
         if (projectService.removeUserFromProject(projectId, userId)) {
             return ResponseEntity.ok().build();
@@ -79,6 +113,7 @@ public class ProjectController {
 
 
     @PutMapping("/{id}/status/{status}")
+    @RequiresPermission(Permission.PROJECT_MANAGE)
     public ResponseEntity<Void> setProjectStatus(@PathVariable UUID id, @PathVariable String status) {
         if (projectService.setProjectStatus(id, status)) {
             return ResponseEntity.ok().build();
@@ -92,7 +127,15 @@ public class ProjectController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<ProjectDto.ProjectResponse>> getProjectsByStatus(@PathVariable String status) {
-        return ResponseEntity.ok(projectService.getProjectsByStatus(status));
+    public ResponseEntity<List<?>> getProjectsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(fieldSelector.select(fields, view,
+                () -> projectService.getProjectsByStatus(status),
+                () -> projectService.getProjectSummariesByStatus(status),
+                ProjectDto.ProjectSummary.FIELDS,
+                requested -> projectService.getProjectFieldsByStatus(status, requested),
+                ProjectDto.ProjectResponse.FIELDS));
     }
 }
\ No newline at end of file
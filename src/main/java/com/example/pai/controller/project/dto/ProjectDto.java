@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public class ProjectDto {
@@ -27,6 +28,10 @@ public class ProjectDto {
     @AllArgsConstructor
     @NoArgsConstructor
     public static class ProjectResponse {
+        public static final Set<String> FIELDS = Set.of("id", "name", "description", "status", "ownerId",
+                "ownerName", "creationTimestamp", "modificationTimestamp", "assignedUsers", "memberCount",
+                "changeVersion");
+
         private UUID id;
         private String name;
         private String description;
@@ -37,6 +42,19 @@ public class ProjectDto {
         private LocalDateTime modificationTimestamp;
         private List<AssignedUser> assignedUsers;
         private Integer memberCount;
+        private Long changeVersion;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProjectSummary {
+        public static final Set<String> FIELDS = Set.of("id", "name", "status");
+
+        private UUID id;
+        private String name;
+        private String status;
     }
 
     @Data
@@ -0,0 +1,71 @@
+package com.example.pai.controller.shard;
+
+import com.example.pai.config.security.Permission;
+import com.example.pai.config.security.RequiresPermission;
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.controller.shard.dto.ShardDto;
+import com.example.pai.service.shard.OrganizationMover;
+import com.example.pai.service.shard.ShardMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/shards")
+@RequiredArgsConstructor
+@RequiresPermission(Permission.SHARD_MANAGE)
+public class ShardController {
+
+    private final ShardRegistry shardRegistry;
+    private final ShardMap shardMap;
+    private final OrganizationMover organizationMover;
+
+    @GetMapping
+    public ResponseEntity<ShardDto.Overview> getOverview() {
+        List<ShardDto.PlacementResponse> placements = shardMap.getPlacements().entrySet().stream()
+                .map(entry -> ShardDto.PlacementResponse.builder()
+                        .organizationId(entry.getKey())
+                        .shard(entry.getValue().shard())
+                        .moving(entry.getValue().moving())
+                        .build())
+                .toList();
+        return ResponseEntity.ok(ShardDto.Overview.builder()
+                .shards(List.copyOf(shardRegistry.names()))
+                .placements(placements)
+                .move(toMoveResponse(organizationMover.getStatus()))
+                .build());
+    }
+
+    @GetMapping("/move")
+    public ResponseEntity<ShardDto.MoveResponse> getMove() {
+        OrganizationMover.Move move = organizationMover.getStatus();
+        return move != null ? ResponseEntity.ok(toMoveResponse(move)) : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/organizations/{organizationId}/move")
+    public ResponseEntity<ShardDto.MoveResponse> moveOrganization(
+            @PathVariable UUID organizationId,
+            @RequestBody ShardDto.MoveRequest request) {
+        OrganizationMover.Move move = organizationMover.start(organizationId, request.getTargetShard());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toMoveResponse(move));
+    }
+
+    private ShardDto.MoveResponse toMoveResponse(OrganizationMover.Move move) {
+        if (move == null) {
+            return null;
+        }
+        return ShardDto.MoveResponse.builder()
+                .organizationId(move.getOrganizationId())
+                .source(move.getSource())
+                .target(move.getTarget())
+                .phase(move.getPhase().name())
+                .startedAt(move.getStartedAt())
+                .finishedAt(move.getFinishedAt())
+                .error(move.getError())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.pai.controller.shard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class ShardDto {
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Overview {
+        private List<String> shards;
+        private List<PlacementResponse> placements;
+        private MoveResponse move;
+    }
+
+    // Organizations without a placement live on the default shard
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PlacementResponse {
+        private UUID organizationId;
+        private String shard;
+        private boolean moving;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class MoveRequest {
+        private String targetShard;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class MoveResponse {
+        private UUID organizationId;
+        private String source;
+        private String target;
+        private String phase;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private String error;
+    }
+}
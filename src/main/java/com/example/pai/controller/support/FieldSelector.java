@@ -0,0 +1,75 @@
+package com.example.pai.controller.support;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Handles the {@code fields} and {@code view} query parameters of list endpoints.
+ * {@code view=compact} returns the summary projection. {@code fields=a,b} returns only those
+ * properties, read from the summary projection when it has all of them and otherwise from the
+ * detail projection, which is given the requested names so it can skip what was not asked for.
+ * Names outside the allowed set, or outside the summary with {@code view=compact}, are rejected.
+ */
+@Component
+@RequiredArgsConstructor
+public class FieldSelector {
+
+    public static final String COMPACT_VIEW = "compact";
+
+    private static final TypeReference<LinkedHashMap<String, Object>> PROPERTIES = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    public List<?> select(String fields, String view,
+                          Supplier<? extends List<?>> full,
+                          Supplier<? extends List<?>> summary,
+                          Set<String> summaryFields,
+                          Function<Set<String>, ? extends List<?>> detail,
+                          Set<String> allowedFields) {
+        Set<String> requested = parseFields(fields);
+        boolean compact = COMPACT_VIEW.equalsIgnoreCase(view);
+
+        if (requested.isEmpty()) {
+            return compact ? summary.get() : full.get();
+        }
+
+        Set<String> unknown = new TreeSet<>(requested);
+        unknown.removeAll(compact ? summaryFields : allowedFields);
+        if (!unknown.isEmpty()) {
+            throw new UnknownFieldException("Unknown fields: " + String.join(", ", unknown));
+        }
+
+        List<?> items = summaryFields.containsAll(requested) ? summary.get() : detail.apply(requested);
+        return items.stream()
+                .map(item -> retain(item, requested))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> retain(Object item, Set<String> requested) {
+        Map<String, Object> properties = objectMapper.convertValue(item, PROPERTIES);
+        properties.keySet().retainAll(requested);
+        return properties;
+    }
+
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.pai.controller.sync;
+
+import com.example.pai.controller.sync.dto.SyncDto;
+import com.example.pai.service.sync.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping("/projects/{projectId}")
+    public ResponseEntity<SyncDto.ProjectChanges> getProjectChanges(
+            @PathVariable UUID projectId,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(syncService.getProjectChanges(projectId, since, limit));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.pai.controller.sync.dto;
+
+import com.example.pai.controller.project.dto.ProjectDto;
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.controller.task.dto.TaskNoteDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+public class SyncDto {
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProjectChanges {
+        private UUID projectId;
+        // Pass back as "since" on the next call
+        private Long version;
+        private Boolean hasMore;
+        private ProjectDto.ProjectResponse project;
+        private List<TaskDto.TaskResponse> tasks;
+        private List<TaskNoteDto.TaskNoteResponse> notes;
+        private List<Assignment> assignments;
+        private List<Tombstone> deleted;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Assignment {
+        private UUID id;
+        private UUID userId;
+        private String userName;
+        private Long changeVersion;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Tombstone {
+        private String entityType;
+        private UUID id;
+        private Long changeVersion;
+    }
+}
@@ -1,13 +1,20 @@
 package com.example.pai.controller.task;
 
+import com.example.pai.config.security.Permission;
+import com.example.pai.config.security.RequiresPermission;
+import com.example.pai.controller.support.FieldSelector;
 import com.example.pai.controller.task.dto.TaskDto;
 import com.example.pai.service.TaskService;
+import com.example.pai.service.cache.ReadCoalescer;
+import com.example.pai.service.dependency.TaskDependencyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -16,35 +23,131 @@ import java.util.UUID;
 public class TaskController {
 
     private final TaskService taskService;
+    private final FieldSelector fieldSelector;
+    private final ReadCoalescer readCoalescer;
+    private final TaskDependencyService taskDependencyService;
 
     @GetMapping
-    public ResponseEntity<List<TaskDto.TaskResponse>> getAllTasks() {
-        return ResponseEntity.ok(taskService.getAllTasks());
+    public ResponseEntity<List<?>> getAllTasks(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(fieldSelector.select(fields, view,
+                taskService::getAllTasks,
+                taskService::getAllTaskSummaries,
+                TaskDto.TaskSummary.FIELDS,
+                taskService::getAllTaskFields,
+                TaskDto.TaskResponse.FIELDS));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<TaskDto.TaskResponse> getTaskById(@PathVariable UUID id) {
-        return taskService.getTaskById(id)
+    public ResponseEntity<TaskDto.TaskResponse> getTaskById(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return taskService.getTaskById(id, includeArchived)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<TaskDto.TaskEventResponse>> getTaskHistory(@PathVariable UUID id) {
+        return taskService.getTaskHistory(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/dependencies")
+    public ResponseEntity<TaskDto.TaskDependencies> getTaskDependencies(@PathVariable UUID id) {
+        return taskDependencyService.getDependencies(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/blocked")
+    public ResponseEntity<List<UUID>> getBlockedTasks(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "false") boolean transitive) {
+        return taskDependencyService.getBlockedTasks(id, transitive)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/dependencies/{blockerTaskId}")
+    @RequiresPermission(Permission.TASK_WRITE)
+    public ResponseEntity<TaskDto.TaskDependencies> addTaskDependency(@PathVariable UUID id, @PathVariable UUID blockerTaskId) {
+        if (!taskDependencyService.addDependency(id, blockerTaskId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return taskDependencyService.getDependencies(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}/dependencies/{blockerTaskId}")
+    @RequiresPermission(Permission.TASK_WRITE)
+    public ResponseEntity<Void> removeTaskDependency(@PathVariable UUID id, @PathVariable UUID blockerTaskId) {
+        if (taskDependencyService.removeDependency(id, blockerTaskId)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<List<TaskDto.TaskResponse>> getTasksByProjectId(@PathVariable UUID projectId) {
-        return ResponseEntity.ok(taskService.getTasksByProjectId(projectId));
+    public ResponseEntity<byte[]> getTasksByProjectId(
+            @PathVariable UUID projectId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        byte[] body = readCoalescer.read(projectId,
+                ReadCoalescer.key("tasks-by-project", projectId, fields, view, includeArchived),
+                () -> Optional.of(fieldSelector.select(fields, view,
+                        () -> taskService.getTasksByProjectId(projectId, includeArchived),
+                        () -> taskService.getTaskSummariesByProjectId(projectId, includeArchived),
+                        TaskDto.TaskSummary.FIELDS,
+                        requested -> taskService.getTaskFieldsByProjectId(projectId, includeArchived, requested),
+                        TaskDto.TaskResponse.FIELDS)))
+                .orElseThrow();
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/project/{projectId}/recommended-assignees")
+    public ResponseEntity<List<TaskDto.AssigneeRecommendation>> getRecommendedAssignees(
+            @PathVariable UUID projectId,
+            @RequestParam(defaultValue = "3") int count) {
+        return ResponseEntity.ok(taskService.getRecommendedAssignees(projectId, count));
+    }
+
+    @GetMapping("/project/{projectId}/critical-path")
+    public ResponseEntity<TaskDto.CriticalPath> getCriticalPath(@PathVariable UUID projectId) {
+        return ResponseEntity.ok(taskDependencyService.getCriticalPath(projectId));
+    }
+
+    @PostMapping("/project/{projectId}/auto-balance")
+    @RequiresPermission(Permission.PROJECT_MANAGE)
+    public ResponseEntity<List<TaskDto.TaskResponse>> autoBalanceProject(@PathVariable UUID projectId) {
+        return ResponseEntity.ok(taskService.autoBalanceProject(projectId));
     }
 
     @GetMapping("/assigned/{assignedUserId}")
-    public ResponseEntity<List<TaskDto.TaskResponse>> getTasksByAssignedUser(@PathVariable UUID assignedUserId) {
-        return ResponseEntity.ok(taskService.getTasksByAssignedUser(assignedUserId));
+    public ResponseEntity<List<?>> getTasksByAssignedUser(
+            @PathVariable UUID assignedUserId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(fieldSelector.select(fields, view,
+                () -> taskService.getTasksByAssignedUser(assignedUserId),
+                () -> taskService.getTaskSummariesByAssignedUser(assignedUserId),
+                TaskDto.TaskSummary.FIELDS,
+                requested -> taskService.getTaskFieldsByAssignedUser(assignedUserId, requested),
+                TaskDto.TaskResponse.FIELDS));
     }
 
     @PostMapping
+    @RequiresPermission(Permission.TASK_WRITE)
     public ResponseEntity<TaskDto.TaskResponse> createTask(@RequestBody TaskDto.TaskRequest taskRequest) {
         return new ResponseEntity<>(taskService.createTask(taskRequest), HttpStatus.CREATED);
     }
 
     @PutMapping("/{id}")
+    @RequiresPermission(Permission.TASK_WRITE)
     public ResponseEntity<TaskDto.TaskResponse> updateTask(
             @PathVariable UUID id,
             @RequestBody TaskDto.TaskUpdateRequest taskUpdateRequest) {
@@ -53,7 +156,18 @@ public class TaskController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PutMapping("/{id}/move")
+    @RequiresPermission(Permission.TASK_WRITE)
+    public ResponseEntity<TaskDto.TaskResponse> moveTask(
+            @PathVariable UUID id,
+            @RequestBody TaskDto.TaskMoveRequest moveRequest) {
+        return taskService.moveTask(id, moveRequest)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
+    @RequiresPermission(Permission.TASK_WRITE)
     public ResponseEntity<Void> deleteTask(@PathVariable UUID id) {
         if (taskService.deleteTask(id)) {
             return ResponseEntity.noContent().build();
@@ -62,6 +176,7 @@ public class TaskController {
     }
 
     @PutMapping("/{id}/assign/{userId}")
+    @RequiresPermission(Permission.TASK_WRITE)
     public ResponseEntity<TaskDto.TaskResponse> assignTask(@PathVariable UUID id, @PathVariable UUID userId) {
         return taskService.assignTask(id, userId)
                 .map(ResponseEntity::ok)
@@ -69,6 +184,7 @@ public class TaskController {
     }
 
     @PutMapping("/{id}/status/{status}")
+    @RequiresPermission(Permission.TASK_WRITE)
     public ResponseEntity<TaskDto.TaskResponse> changeTaskStatus(@PathVariable UUID id, @PathVariable String status) {
         return taskService.changeTaskStatus(id, status)
                 .map(ResponseEntity::ok)
@@ -77,6 +193,7 @@ public class TaskController {
 
 
     @PutMapping("/{id}/start")
+    @RequiresPermission(Permission.TASK_WRITE)
     public ResponseEntity<TaskDto.TaskResponse> startTask(@PathVariable UUID id) {
         return taskService.startTask(id)
                 .map(ResponseEntity::ok)
@@ -84,6 +201,7 @@ public class TaskController {
     }
 
     @PutMapping("/{id}/finish")
+    @RequiresPermission(Permission.TASK_WRITE)
     public ResponseEntity<TaskDto.TaskResponse> finishTask(@PathVariable UUID id) {
         return taskService.finishTask(id)
                 .map(ResponseEntity::ok)
@@ -91,6 +209,7 @@ public class TaskController {
     }
 
     @PutMapping("/{id}/approve")
+    @RequiresPermission(Permission.TASK_APPROVE)
     public ResponseEntity<TaskDto.TaskResponse> approveTask(@PathVariable UUID id) {
         return taskService.approveTask(id)
                 .map(ResponseEntity::ok)
@@ -98,6 +217,7 @@ public class TaskController {
     }
 
     @PutMapping("/{id}/reject")
+    @RequiresPermission(Permission.TASK_APPROVE)
     public ResponseEntity<TaskDto.TaskResponse> rejectTask(@PathVariable UUID id) {
         return taskService.rejectTask(id)
                 .map(ResponseEntity::ok)
@@ -1,13 +1,22 @@
 package com.example.pai.controller.task;
 
+import com.example.pai.controller.support.FileResponder;
 import com.example.pai.controller.task.dto.TaskNoteDto;
+import com.example.pai.dao.model.NoteAttachment;
 import com.example.pai.service.TaskNoteService;
+import com.example.pai.service.attachment.NoteAttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -16,6 +25,8 @@ import java.util.UUID;
 public class TaskNoteController {
 
     private final TaskNoteService taskNoteService;
+    private final NoteAttachmentService noteAttachmentService;
+    private final FileResponder fileResponder;
 
     @PostMapping("/task/{taskId}")
     public ResponseEntity<TaskNoteDto.TaskNoteResponse> createTaskNote(
@@ -25,8 +36,10 @@ public class TaskNoteController {
     }
 
     @GetMapping("/task/{taskId}")
-    public ResponseEntity<List<TaskNoteDto.TaskNoteResponse>> getTaskNotes(@PathVariable UUID taskId) {
-        return ResponseEntity.ok(taskNoteService.getTaskNotes(taskId));
+    public ResponseEntity<List<TaskNoteDto.TaskNoteResponse>> getTaskNotes(
+            @PathVariable UUID taskId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(taskNoteService.getTaskNotes(taskId, includeArchived));
     }
 
     @PutMapping("/{id}")
@@ -46,6 +59,49 @@ public class TaskNoteController {
         return ResponseEntity.notFound().build();
     }
 
+    // The request body is the file itself, read as a stream rather than as a multipart form
+    @PostMapping("/{id}/attachments")
+    public ResponseEntity<TaskNoteDto.AttachmentResponse> uploadAttachment(
+            @PathVariable UUID id,
+            @RequestParam String fileName,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        return noteAttachmentService.upload(id, fileName, contentType, request.getInputStream())
+                .map(attachment -> new ResponseEntity<>(attachment, HttpStatus.CREATED))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/attachments")
+    public ResponseEntity<List<TaskNoteDto.AttachmentResponse>> getAttachments(@PathVariable UUID id) {
+        return noteAttachmentService.getAttachments(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/attachments/{attachmentId}")
+    public void downloadAttachment(
+            @PathVariable UUID attachmentId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<NoteAttachmentService.AttachmentFile> file = noteAttachmentService.getAttachmentFile(attachmentId);
+        if (file.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        NoteAttachment attachment = file.get().attachment();
+        fileResponder.write(request, response, file.get().path(), attachment.getSha256(),
+                attachment.getCreationTimestamp().atZone(ZoneId.systemDefault()).toInstant(),
+                attachment.getContentType(), attachment.getFileName());
+    }
+
+    @DeleteMapping("/attachments/{attachmentId}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable UUID attachmentId) {
+        if (noteAttachmentService.deleteAttachment(attachmentId)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/task/{taskId}/count")
     public ResponseEntity<Long> getTaskNoteCount(@PathVariable UUID taskId) {
         return ResponseEntity.ok(taskNoteService.getTaskNoteCount(taskId));
@@ -1,12 +1,15 @@
 package com.example.pai.controller.task.dto;
 
 import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.TaskEvent;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public class TaskDto {
@@ -30,6 +33,11 @@ public class TaskDto {
     @AllArgsConstructor
     @NoArgsConstructor
     public static class TaskResponse {
+        public static final Set<String> FIELDS = Set.of("id", "name", "description", "priority", "projectId",
+                "projectName", "estimatedTime", "state", "assignedUserId", "assignedUserName", "assignedUser",
+                "creationTimestamp", "startTimestamp", "completionTimestamp", "assignmentTimestamp",
+                "hasUnreadNotes", "noteCount", "rank", "changeVersion", "archived");
+
         private UUID id;
         private String name;
         private String description;
@@ -47,6 +55,31 @@ public class TaskDto {
         private LocalDateTime assignmentTimestamp;
         private Boolean hasUnreadNotes;
         private Long noteCount;
+        private String rank;
+        private Long changeVersion;
+        private Boolean archived;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TaskSummary {
+        public static final Set<String> FIELDS = Set.of("id", "name", "priority", "state", "projectId",
+                "estimatedTime", "assignedUserId", "assignedUserName", "hasUnreadNotes", "rank", "archived");
+
+        private UUID id;
+        private String name;
+        private Task.Priority priority;
+        private Task.TaskState state;
+        private UUID projectId;
+        private Integer estimatedTime;
+        private UUID assignedUserId;
+        private String assignedUserName;
+        private Boolean hasUnreadNotes;
+        private String rank;
+        @Builder.Default
+        private Boolean archived = false;
     }
 
     @Data
@@ -59,6 +92,27 @@ public class TaskDto {
         private String email;
     }
 
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AssigneeRecommendation {
+        private UUID userId;
+        private String userName;
+        private Long openTasks;
+        private Long openEstimatedTime;
+    }
+
+    // Neighbours in the target column after the move; null at either end
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TaskMoveRequest {
+        private UUID previousTaskId;
+        private UUID nextTaskId;
+    }
+
     @Data
     @Builder
     @AllArgsConstructor
@@ -72,4 +126,44 @@ public class TaskDto {
         private Task.TaskState state;
         private UUID assignedUserId;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TaskEventResponse {
+        private Long id;
+        private UUID taskId;
+        private UUID projectId;
+        private TaskEvent.EventType eventType;
+        private Task.TaskState oldState;
+        private Task.TaskState newState;
+        private UUID oldAssignedUserId;
+        private UUID newAssignedUserId;
+        private UUID actorId;
+        private LocalDateTime creationTimestamp;
+    }
+
+    // Times are in the unit of estimatedTime, counted from now; only open tasks still take time
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TaskDependencies {
+        private UUID taskId;
+        private List<UUID> blockedBy;
+        private List<UUID> blocks;
+        private Long earliestStart;
+        private Long earliestFinish;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CriticalPath {
+        private UUID projectId;
+        private Long earliestFinish;
+        private List<UUID> taskIds;
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class TaskNoteDto {
@@ -32,6 +33,8 @@ public class TaskNoteDto {
         private Boolean isAdminNote;
         private LocalDateTime creationTimestamp;
         private LocalDateTime modificationTimestamp;
+        private Long changeVersion;
+        private List<AttachmentResponse> attachments;
     }
 
     @Data
@@ -41,4 +44,21 @@ public class TaskNoteDto {
     public static class TaskNoteUpdateRequest {
         private String noteText;
     }
-}
\ No newline at end of file
+
+    // Metadata only; the content is downloaded from /api/task-notes/attachments/{id}
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AttachmentResponse {
+        private UUID id;
+        private UUID noteId;
+        private UUID taskId;
+        private UUID userId;
+        private String fileName;
+        private String contentType;
+        private Long sizeBytes;
+        private String sha256;
+        private LocalDateTime creationTimestamp;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.pai.controller.user;
+
+import com.example.pai.controller.user.dto.WorkspaceDto;
+import com.example.pai.service.WorkspaceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class WorkspaceController {
+
+    private final WorkspaceService workspaceService;
+
+    @GetMapping("/{userId}/workspace")
+    public ResponseEntity<WorkspaceDto.WorkspaceResponse> getWorkspace(@PathVariable UUID userId) {
+        return ResponseEntity.ok(workspaceService.getWorkspace(userId));
+    }
+}
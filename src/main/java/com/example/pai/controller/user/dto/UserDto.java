@@ -24,6 +24,17 @@ public class UserDto {
         private LocalDateTime modificationTimestamp;
     }
 
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class UserSearchResult {
+        private UUID id;
+        private String email;
+        private String name;
+        private String role;
+    }
+
     @Data
     @Builder
     @AllArgsConstructor
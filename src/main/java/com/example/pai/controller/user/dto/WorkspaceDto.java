@@ -0,0 +1,37 @@
+package com.example.pai.controller.user.dto;
+
+import com.example.pai.controller.project.dto.ProjectDto;
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.dao.model.Task;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class WorkspaceDto {
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WorkspaceResponse {
+        private UUID activeProjectId;
+        private List<ProjectDto.ProjectResponse> projects;
+        private List<TaskDto.TaskResponse> assignedTasks;
+        private List<ProjectTaskCounts> projectTaskCounts;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProjectTaskCounts {
+        private UUID projectId;
+        private Long totalCount;
+        private Map<Task.TaskState, Long> countByState;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A {@link Task} moved out of the live table by TaskArchiver. Read only; a task is edited again only
+ * after it has been restored.
+ */
+@Entity
+@Immutable
+@Table(name = "task_archive")
+@Filter(name = TenantFilter.NAME)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTask {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Task.Priority priority;
+
+    @ManyToOne
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    @Column(name = "organization_id", nullable = false)
+    private UUID organizationId;
+
+    @Column(name = "estimated_time")
+    private Integer estimatedTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Task.TaskState state;
+
+    @ManyToOne
+    @JoinColumn(name = "assigned_user_id")
+    private UserManagment assignedUser;
+
+    @Column(name = "creation_timestamp")
+    private LocalDateTime creationTimestamp;
+
+    @Column(name = "start_timestamp")
+    private LocalDateTime startTimestamp;
+
+    @Column(name = "completion_timestamp")
+    private LocalDateTime completionTimestamp;
+
+    @Column(name = "assignment_timestamp")
+    private LocalDateTime assignmentTimestamp;
+
+    @Column(name = "has_unread_notes")
+    private Boolean hasUnreadNotes;
+
+    @Column(nullable = false, columnDefinition = "VARCHAR(255) COLLATE \"C\"")
+    private String rank;
+
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    @Column(name = "archived_timestamp", nullable = false)
+    private LocalDateTime archivedTimestamp;
+}
@@ -0,0 +1,44 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Immutable
+@Table(name = "task_note_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTaskNote {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "task_id", nullable = false)
+    private UUID taskId;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserManagment user;
+
+    @Column(name = "note_text", columnDefinition = "TEXT", nullable = false)
+    private String noteText;
+
+    @Column(name = "is_admin_note", nullable = false)
+    private Boolean isAdminNote;
+
+    @Column(name = "creation_timestamp")
+    private LocalDateTime creationTimestamp;
+
+    @Column(name = "modification_timestamp")
+    private LocalDateTime modificationTimestamp;
+
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+}
@@ -0,0 +1,55 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "note_attachment")
+@Filter(name = TenantFilter.NAME)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteAttachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "note_id", nullable = false, updatable = false)
+    private UUID noteId;
+
+    @Column(name = "task_id", nullable = false, updatable = false)
+    private UUID taskId;
+
+    @Column(name = "organization_id", nullable = false, updatable = false)
+    private UUID organizationId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "sha256", nullable = false, updatable = false)
+    private String sha256;
+
+    @Column(name = "creation_timestamp", nullable = false)
+    private LocalDateTime creationTimestamp;
+
+    @PrePersist
+    protected void onCreate() {
+        creationTimestamp = LocalDateTime.now();
+    }
+}
@@ -1,28 +1,35 @@
 package com.example.pai.dao.model;
 
-
+import com.example.pai.dao.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+import org.hibernate.annotations.LazyGroup;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "project")
+@Filter(name = TenantFilter.NAME)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Project {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
     private String name;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("description")
     @Column(columnDefinition = "TEXT")
     private String description;
 
@@ -30,6 +37,9 @@ public class Project {
     @JoinColumn(name = "owner_id")
     private UserManagment owner;
 
+    @Column(name = "organization_id", nullable = false, updatable = false)
+    private UUID organizationId;
+
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
@@ -41,6 +51,11 @@ public class Project {
     @Column(name = "modification_timestamp")
     private LocalDateTime modificationTimestamp;
 
+    // Assigned by a database trigger on every insert and update and read back by Hibernate, see V15
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "change_version")
+    private Long changeVersion;
+
     @PrePersist
     protected void onCreate() {
         creationTimestamp = LocalDateTime.now();
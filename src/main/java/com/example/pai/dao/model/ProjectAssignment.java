@@ -1,9 +1,12 @@
 package com.example.pai.dao.model;
 
+import com.example.pai.dao.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -16,7 +19,7 @@ import java.util.UUID;
 public class ProjectAssignment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @ManyToOne
@@ -33,6 +36,11 @@ public class ProjectAssignment {
     @Column(name = "modification_timestamp")
     private LocalDateTime modificationTimestamp;
 
+    // Assigned by a database trigger on every insert and update and read back by Hibernate, see V15
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "change_version")
+    private Long changeVersion;
+
     @PrePersist
     protected void onCreate() {
         creationTimestamp = LocalDateTime.now();
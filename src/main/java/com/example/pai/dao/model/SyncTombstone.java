@@ -0,0 +1,38 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Left behind by a database trigger when a synced row is deleted.
+ */
+@Entity
+@Immutable
+@Table(name = "sync_tombstone")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncTombstone {
+
+    @Id
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    @Column(name = "entity_type", length = 30, nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private UUID entityId;
+
+    @Column(name = "project_id", nullable = false)
+    private UUID projectId;
+
+    @Column(name = "deletion_timestamp", nullable = false)
+    private LocalDateTime deletionTimestamp;
+}
@@ -1,27 +1,35 @@
 package com.example.pai.dao.model;
 
+import com.example.pai.dao.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.generator.EventType;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "task")
+@Filter(name = TenantFilter.NAME)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
     private String name;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("description")
     @Column(columnDefinition = "TEXT")
     private String description;
 
@@ -33,6 +41,10 @@ public class Task {
     @JoinColumn(name = "project_id", nullable = false)
     private Project project;
 
+    // Always the project's organization, kept on the task so filtered task queries need no join
+    @Column(name = "organization_id", nullable = false, updatable = false)
+    private UUID organizationId;
+
     @Column(name = "estimated_time")
     private Integer estimatedTime;
 
@@ -60,6 +72,15 @@ public class Task {
     @Column(name = "has_unread_notes")
     private Boolean hasUnreadNotes = false;
 
+    // Position on the board, see FractionalIndex
+    @Column(nullable = false, columnDefinition = "VARCHAR(255) COLLATE \"C\"")
+    private String rank;
+
+    // Assigned by a database trigger on every insert and update and read back by Hibernate, see V15
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "change_version")
+    private Long changeVersion;
+
     @PrePersist
     protected void onCreate() {
         creationTimestamp = LocalDateTime.now();
@@ -0,0 +1,43 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "task_dependency")
+@Filter(name = TenantFilter.NAME)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDependency {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "project_id", nullable = false)
+    private UUID projectId;
+
+    @Column(name = "blocker_task_id", nullable = false)
+    private UUID blockerTaskId;
+
+    @Column(name = "blocked_task_id", nullable = false)
+    private UUID blockedTaskId;
+
+    @Column(name = "organization_id", nullable = false, updatable = false)
+    private UUID organizationId;
+
+    @Column(name = "creation_timestamp", nullable = false)
+    private LocalDateTime creationTimestamp;
+
+    @PrePersist
+    protected void onCreate() {
+        creationTimestamp = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "task_event")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private UUID taskId;
+
+    @Column(name = "project_id")
+    private UUID projectId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "old_state")
+    private Task.TaskState oldState;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "new_state")
+    private Task.TaskState newState;
+
+    @Column(name = "old_assigned_user_id")
+    private UUID oldAssignedUserId;
+
+    @Column(name = "new_assigned_user_id")
+    private UUID newAssignedUserId;
+
+    @Column(name = "actor_id")
+    private UUID actorId;
+
+    @Column(name = "creation_timestamp", nullable = false)
+    private LocalDateTime creationTimestamp;
+
+    @PrePersist
+    protected void onCreate() {
+        creationTimestamp = LocalDateTime.now();
+    }
+
+    public enum EventType {
+        CREATED, UPDATED, ASSIGNED, STATE_CHANGED, DELETED
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "task_event_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskEventCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String consumer;
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    @Column(name = "modification_timestamp")
+    private LocalDateTime modificationTimestamp;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        modificationTimestamp = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.pai.dao.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "task_flow_histogram")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskFlowHistogram {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "value_count", nullable = false)
+    private Long valueCount;
+
+    @Column(nullable = false)
+    private byte[] snapshot;
+
+    @Column(name = "modification_timestamp")
+    private LocalDateTime modificationTimestamp;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        modificationTimestamp = LocalDateTime.now();
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 10, nullable = false)
+        private Scope scope;
+
+        @Column(name = "scope_id", nullable = false)
+        private UUID scopeId;
+
+        @Column(name = "week_start", nullable = false)
+        private LocalDate weekStart;
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 20, nullable = false)
+        private Metric metric;
+    }
+
+    public enum Scope {
+        PROJECT, USER
+    }
+
+    public enum Metric {
+        // creation to first start
+        QUEUE_TIME,
+        // last start to approval
+        CYCLE_TIME,
+        // creation to approval; one value per approved task, so its count is the throughput
+        LEAD_TIME
+    }
+}
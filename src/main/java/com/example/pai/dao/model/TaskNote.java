@@ -1,9 +1,13 @@
 package com.example.pai.dao.model;
 
+import com.example.pai.dao.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+import org.hibernate.annotations.LazyGroup;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -16,7 +20,7 @@ import java.util.UUID;
 public class TaskNote {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @ManyToOne
@@ -27,6 +31,8 @@ public class TaskNote {
     @JoinColumn(name = "user_id", nullable = false)
     private UserManagment user;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("noteText")
     @Column(name = "note_text", columnDefinition = "TEXT", nullable = false)
     private String noteText;
 
@@ -39,6 +45,11 @@ public class TaskNote {
     @Column(name = "modification_timestamp")
     private LocalDateTime modificationTimestamp;
 
+    // Assigned by a database trigger on every insert and update and read back by Hibernate, see V15
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "change_version")
+    private Long changeVersion;
+
     @PrePersist
     protected void onCreate() {
         creationTimestamp = LocalDateTime.now();
@@ -0,0 +1,15 @@
+package com.example.pai.dao.model;
+
+/**
+ * Names of the Hibernate filter, defined in this package, that limits queries on organization-owned
+ * entities to one organization. Loading an entity by id does not go through filters, so services
+ * check the organization of what they load by id themselves.
+ */
+public final class TenantFilter {
+
+    public static final String NAME = "tenantFilter";
+    public static final String ORGANIZATION_ID = "organizationId";
+
+    private TenantFilter() {
+    }
+}
@@ -1,22 +1,28 @@
 package com.example.pai.dao.model;
 
+import com.example.pai.dao.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "user_managment")
+@Filter(name = TenantFilter.NAME)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserManagment {
 
+    // Organization of users registered without one, see V19
+    public static final UUID DEFAULT_ORGANIZATION_ID = new UUID(0L, 0L);
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @Column(length = 50, unique = true, nullable = false)
@@ -44,12 +50,16 @@ public class UserManagment {
     @Column(name = "activation_key", length = 55)
     private String activationKey;
 
-    @Column(name = "organization_id")
+    @Column(name = "organization_id", nullable = false, updatable = false)
     private UUID organizationId;
 
     @Column(length = 255)
     private String name;
 
+    // Bumped when access changes so tokens issued before that stop working, see TokenVersions
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
+
     @PrePersist
     protected void onCreate() {
         creationTimestamp = LocalDateTime.now();
@@ -0,0 +1,9 @@
+@FilterDef(name = TenantFilter.NAME,
+        parameters = @ParamDef(name = TenantFilter.ORGANIZATION_ID, type = UUID.class),
+        defaultCondition = "organization_id = :" + TenantFilter.ORGANIZATION_ID)
+package com.example.pai.dao.model;
+
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+
+import java.util.UUID;
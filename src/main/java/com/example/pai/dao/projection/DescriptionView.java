@@ -0,0 +1,8 @@
+package com.example.pai.dao.projection;
+
+import java.util.UUID;
+
+public interface DescriptionView {
+    UUID getId();
+    String getDescription();
+}
@@ -0,0 +1,9 @@
+package com.example.pai.dao.projection;
+
+import java.util.UUID;
+
+public interface OpenTaskView {
+    UUID getId();
+    UUID getAssignedUserId();
+    Integer getEstimatedTime();
+}
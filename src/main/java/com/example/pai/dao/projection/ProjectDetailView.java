@@ -0,0 +1,12 @@
+package com.example.pai.dao.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface ProjectDetailView extends ProjectSummaryView {
+    UUID getOwnerId();
+    String getOwnerName();
+    LocalDateTime getCreationTimestamp();
+    LocalDateTime getModificationTimestamp();
+    Long getChangeVersion();
+}
@@ -0,0 +1,11 @@
+package com.example.pai.dao.projection;
+
+import com.example.pai.dao.model.Project;
+
+import java.util.UUID;
+
+public interface ProjectSummaryView {
+    UUID getId();
+    String getName();
+    Project.ProjectStatus getStatus();
+}
@@ -0,0 +1,13 @@
+package com.example.pai.dao.projection;
+
+import java.time.LocalDateTime;
+
+public interface TaskDetailView extends TaskSummaryView {
+    String getProjectName();
+    String getAssignedUserEmail();
+    LocalDateTime getCreationTimestamp();
+    LocalDateTime getStartTimestamp();
+    LocalDateTime getCompletionTimestamp();
+    LocalDateTime getAssignmentTimestamp();
+    Long getChangeVersion();
+}
@@ -0,0 +1,11 @@
+package com.example.pai.dao.projection;
+
+import com.example.pai.dao.model.Task;
+
+import java.util.UUID;
+
+public interface TaskGraphNodeView {
+    UUID getId();
+    Integer getEstimatedTime();
+    Task.TaskState getState();
+}
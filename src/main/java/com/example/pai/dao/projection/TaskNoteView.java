@@ -0,0 +1,16 @@
+package com.example.pai.dao.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface TaskNoteView {
+    UUID getId();
+    UUID getTaskId();
+    UUID getUserId();
+    String getUserName();
+    String getNoteText();
+    Boolean getIsAdminNote();
+    LocalDateTime getCreationTimestamp();
+    LocalDateTime getModificationTimestamp();
+    Long getChangeVersion();
+}
@@ -0,0 +1,18 @@
+package com.example.pai.dao.projection;
+
+import com.example.pai.dao.model.Task;
+
+import java.util.UUID;
+
+public interface TaskSummaryView {
+    UUID getId();
+    String getName();
+    Task.Priority getPriority();
+    Task.TaskState getState();
+    UUID getProjectId();
+    Integer getEstimatedTime();
+    UUID getAssignedUserId();
+    String getAssignedUserName();
+    Boolean getHasUnreadNotes();
+    String getRank();
+}
@@ -0,0 +1,10 @@
+package com.example.pai.dao.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface TaskTimestampsView {
+    UUID getId();
+    LocalDateTime getCreationTimestamp();
+    LocalDateTime getStartTimestamp();
+}
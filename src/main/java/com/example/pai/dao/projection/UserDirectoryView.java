@@ -0,0 +1,11 @@
+package com.example.pai.dao.projection;
+
+import java.util.UUID;
+
+public interface UserDirectoryView {
+    UUID getId();
+    UUID getOrganizationId();
+    String getEmail();
+    String getName();
+    UUID getRoleId();
+}
@@ -0,0 +1,11 @@
+package com.example.pai.dao.projection;
+
+import java.util.UUID;
+
+public interface UserWorkloadView {
+    UUID getUserId();
+    String getUserName();
+    UUID getRoleId();
+    Long getOpenTasks();
+    Long getOpenEstimatedTime();
+}
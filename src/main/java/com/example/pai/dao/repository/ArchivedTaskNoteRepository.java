@@ -0,0 +1,22 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.ArchivedTaskNote;
+import com.example.pai.dao.projection.TaskNoteCountView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedTaskNoteRepository extends JpaRepository<ArchivedTaskNote, UUID> {
+
+    @Query("SELECT n FROM ArchivedTaskNote n JOIN FETCH n.user WHERE n.taskId = :taskId ORDER BY n.creationTimestamp ASC")
+    List<ArchivedTaskNote> findWithUserByTaskId(@Param("taskId") UUID taskId);
+
+    @Query("SELECT n.taskId AS taskId, COUNT(n) AS noteCount FROM ArchivedTaskNote n WHERE n.taskId IN :taskIds GROUP BY n.taskId")
+    List<TaskNoteCountView> countByTaskIds(@Param("taskIds") Collection<UUID> taskIds);
+}
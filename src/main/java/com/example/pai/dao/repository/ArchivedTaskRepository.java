@@ -0,0 +1,107 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.ArchivedTask;
+import com.example.pai.dao.projection.TaskTimestampsView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the task archive and moves rows between it and the live tables. The moves copy rows in SQL,
+ * so the column lists below have to follow every column added to task, task_note or task_dependency.
+ */
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, UUID> {
+
+    String TASK_COLUMNS = "id, name, description, priority, project_id, estimated_time, state, assigned_user_id, " +
+            "creation_timestamp, start_timestamp, completion_timestamp, assignment_timestamp, has_unread_notes, " +
+            "change_version, rank, organization_id";
+
+    String NOTE_COLUMNS = "id, task_id, user_id, note_text, is_admin_note, creation_timestamp, modification_timestamp, " +
+            "change_version";
+
+    String DEPENDENCY_COLUMNS = "id, project_id, blocker_task_id, blocked_task_id, organization_id, creation_timestamp";
+
+    List<ArchivedTask> findByProjectIdOrderByRankAscIdAsc(UUID projectId);
+
+    @Query("SELECT t.id AS id, t.creationTimestamp AS creationTimestamp, t.startTimestamp AS startTimestamp " +
+            "FROM ArchivedTask t WHERE t.id IN :ids")
+    List<TaskTimestampsView> findTimestampsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(value = "(SELECT id FROM task WHERE state = 'APPROVED' AND completion_timestamp < :cutoff LIMIT :limit) " +
+            "UNION (SELECT t.id FROM task t JOIN project p ON p.id = t.project_id " +
+            "WHERE p.status = 'FINISHED' AND p.modification_timestamp < :cutoff LIMIT :limit) " +
+            "LIMIT :limit", nativeQuery = true)
+    List<UUID> findArchivableTaskIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM task_archive WHERE project_id = :projectId " +
+            "AND (state <> 'APPROVED' OR completion_timestamp IS NULL OR completion_timestamp >= :cutoff)", nativeQuery = true)
+    List<UUID> findRestorableTaskIds(@Param("projectId") UUID projectId, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query(value = "SELECT DISTINCT project_id FROM task_archive WHERE id IN (:ids)", nativeQuery = true)
+    List<UUID> findProjectIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Archive tasks before their notes, the note archive references the task archive
+    @Modifying
+    @Query(value = "INSERT INTO task_archive (" + TASK_COLUMNS + ") SELECT " + TASK_COLUMNS +
+            " FROM task WHERE id IN (:ids)", nativeQuery = true)
+    int copyTasksToArchive(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO task_note_archive (" + NOTE_COLUMNS + ") SELECT " + NOTE_COLUMNS +
+            " FROM task_note WHERE task_id IN (:ids)", nativeQuery = true)
+    int copyNotesToArchive(@Param("ids") Collection<UUID> ids);
+
+    // An edge between two tasks archived in different batches is already there from the first one
+    @Modifying
+    @Query(value = "INSERT INTO task_dependency_archive (" + DEPENDENCY_COLUMNS + ") SELECT " + DEPENDENCY_COLUMNS +
+            " FROM task_dependency WHERE blocker_task_id IN (:ids) OR blocked_task_id IN (:ids) " +
+            "ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int copyDependenciesToArchive(@Param("ids") Collection<UUID> ids);
+
+    // Notes and dependencies go with their task through ON DELETE CASCADE
+    @Modifying
+    @Query(value = "DELETE FROM task WHERE id IN (:ids)", nativeQuery = true)
+    int deleteLiveTasks(@Param("ids") Collection<UUID> ids);
+
+    // The live tables' triggers assign restored rows a new change version
+    @Modifying
+    @Query(value = "INSERT INTO task (" + TASK_COLUMNS + ") SELECT " + TASK_COLUMNS +
+            " FROM task_archive WHERE id IN (:ids)", nativeQuery = true)
+    int copyTasksFromArchive(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO task_note (" + NOTE_COLUMNS + ") SELECT " + NOTE_COLUMNS +
+            " FROM task_note_archive WHERE task_id IN (:ids)", nativeQuery = true)
+    int copyNotesFromArchive(@Param("ids") Collection<UUID> ids);
+
+    // Only edges whose other task is live as well; the rest wait until it is restored too
+    @Modifying
+    @Query(value = "INSERT INTO task_dependency (" + DEPENDENCY_COLUMNS + ") SELECT " + DEPENDENCY_COLUMNS +
+            " FROM task_dependency_archive a WHERE (a.blocker_task_id IN (:ids) OR a.blocked_task_id IN (:ids)) " +
+            "AND EXISTS (SELECT 1 FROM task WHERE id = a.blocker_task_id) " +
+            "AND EXISTS (SELECT 1 FROM task WHERE id = a.blocked_task_id) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int copyDependenciesFromArchive(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_archive WHERE id IN (:ids)", nativeQuery = true)
+    int deleteArchivedTasks(@Param("ids") Collection<UUID> ids);
+
+    // Restored edges, and edges of which a task has been deleted for good since it was archived
+    @Modifying
+    @Query(value = "DELETE FROM task_dependency_archive a WHERE a.project_id = :projectId " +
+            "AND (EXISTS (SELECT 1 FROM task_dependency d WHERE d.id = a.id) " +
+            "OR NOT EXISTS (SELECT 1 FROM task WHERE id = a.blocker_task_id UNION ALL " +
+            "SELECT 1 FROM task_archive WHERE id = a.blocker_task_id) " +
+            "OR NOT EXISTS (SELECT 1 FROM task WHERE id = a.blocked_task_id UNION ALL " +
+            "SELECT 1 FROM task_archive WHERE id = a.blocked_task_id))", nativeQuery = true)
+    int deleteSettledArchivedDependencies(@Param("projectId") UUID projectId);
+}
@@ -0,0 +1,40 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.NoteAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NoteAttachmentRepository extends JpaRepository<NoteAttachment, UUID> {
+
+    List<NoteAttachment> findByTaskIdOrderByCreationTimestamp(UUID taskId);
+
+    List<NoteAttachment> findByNoteIdOrderByCreationTimestamp(UUID noteId);
+
+    boolean existsBySha256(String sha256);
+
+    @Modifying
+    @Query("DELETE FROM NoteAttachment a WHERE a.noteId = :noteId")
+    int deleteByNoteId(@Param("noteId") UUID noteId);
+
+    // The project of the attachment's note, live or archived; attachments are reached by id, around the tenant filter
+    @Query(value = "SELECT t.project_id FROM task_note n JOIN task t ON t.id = n.task_id WHERE n.id = :noteId " +
+            "UNION ALL " +
+            "SELECT t.project_id FROM task_note_archive n JOIN task_archive t ON t.id = n.task_id WHERE n.id = :noteId " +
+            "LIMIT 1", nativeQuery = true)
+    Optional<UUID> findProjectIdByNoteId(@Param("noteId") UUID noteId);
+
+    // Notes go away with their task or project without passing through the service
+    @Modifying
+    @Query(value = "DELETE FROM note_attachment a WHERE a.creation_timestamp < CURRENT_TIMESTAMP - make_interval(secs => :graceSeconds) " +
+            "AND NOT EXISTS (SELECT 1 FROM task_note n WHERE n.id = a.note_id) " +
+            "AND NOT EXISTS (SELECT 1 FROM task_note_archive n WHERE n.id = a.note_id)", nativeQuery = true)
+    int deleteOrphans(@Param("graceSeconds") double graceSeconds);
+}
@@ -1,9 +1,16 @@
 package com.example.pai.dao.repository;
 
 import com.example.pai.dao.model.ProjectAssignment;
+import com.example.pai.dao.projection.MembershipView;
+import com.example.pai.dao.projection.ProjectMemberCountView;
+import com.example.pai.dao.projection.UserWorkloadView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +18,36 @@ import java.util.UUID;
 public interface ProjectAssignmentRepository extends JpaRepository<ProjectAssignment, UUID> {
     List<ProjectAssignment> findByProjectId(UUID projectId);
     List<ProjectAssignment> findByUserId(UUID userId);
-    void deleteByProjectIdAndUserId(UUID projectId, UUID userId);
+    long deleteByProjectIdAndUserId(UUID projectId, UUID userId);
     boolean existsByProjectIdAndUserId(UUID projectId, UUID userId);
+
+    @Query("SELECT pa.project.id AS projectId, pa.user.id AS userId FROM ProjectAssignment pa")
+    List<MembershipView> findAllMemberships();
+
+    @Query("SELECT pa.user.id FROM ProjectAssignment pa WHERE pa.project.id = :projectId")
+    List<UUID> findUserIdsByProjectId(@Param("projectId") UUID projectId);
+
+    @Query("SELECT pa FROM ProjectAssignment pa JOIN FETCH pa.project p LEFT JOIN FETCH p.owner WHERE pa.user.id = :userId")
+    List<ProjectAssignment> findWithProjectByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT pa FROM ProjectAssignment pa JOIN FETCH pa.user u LEFT JOIN FETCH u.role WHERE pa.project.id IN :projectIds")
+    List<ProjectAssignment> findWithUserByProjectIdIn(@Param("projectIds") Collection<UUID> projectIds);
+
+    @Query("SELECT pa.project.id AS projectId, COUNT(pa) AS memberCount FROM ProjectAssignment pa " +
+            "WHERE pa.project.id IN :projectIds GROUP BY pa.project.id")
+    List<ProjectMemberCountView> countByProjectIdIn(@Param("projectIds") Collection<UUID> projectIds);
+
+    // Every visible member with the open tasks assigned to them in the project, members without tasks included.
+    // The states are WorkloadIndex.OPEN_STATES.
+    @Query(value = "SELECT u.id AS userId, u.name AS userName, u.role_id AS roleId, COUNT(t.id) AS openTasks, " +
+            "COALESCE(SUM(t.estimated_time), 0) AS openEstimatedTime " +
+            "FROM project_assignment pa JOIN user_managment u ON u.id = pa.user_id AND u.hidden = false " +
+            "LEFT JOIN task t ON t.project_id = pa.project_id AND t.assigned_user_id = pa.user_id " +
+            "AND t.state IN ('NOT_STARTED', 'IN_PROGRESS', 'NEEDS_ADJUSTMENT') " +
+            "WHERE pa.project_id = :projectId GROUP BY u.id, u.name, u.role_id", nativeQuery = true)
+    List<UserWorkloadView> findWorkloadsByProjectId(@Param("projectId") UUID projectId);
+
+    @Query("SELECT pa FROM ProjectAssignment pa JOIN FETCH pa.user u " +
+            "WHERE pa.project.id = :projectId AND pa.changeVersion > :since ORDER BY pa.changeVersion ASC")
+    List<ProjectAssignment> findWithUserChangedSince(@Param("projectId") UUID projectId, @Param("since") Long since, Pageable pageable);
 }
\ No newline at end of file
@@ -1,14 +1,53 @@
 package com.example.pai.dao.repository;
 
 import com.example.pai.dao.model.Project;
+import com.example.pai.dao.projection.DescriptionView;
+import com.example.pai.dao.projection.ProjectDetailView;
+import com.example.pai.dao.projection.ProjectSummaryView;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, UUID> {
     List<Project> findByOwnerId(UUID ownerId);
     List<Project> findByStatus(Project.ProjectStatus status);
+    Optional<Project> findByIdAndChangeVersionGreaterThan(UUID id, Long since);
+
+    @Query("SELECT p.organizationId FROM Project p WHERE p.id = :id")
+    Optional<UUID> findOrganizationIdById(@Param("id") UUID id);
+
+    // Serializes rank changes within a project so two moves never compute the same key
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Project p WHERE p.id = :id")
+    Optional<Project> findByIdForUpdate(@Param("id") UUID id);
+
+    @Query("SELECT p.id AS id, p.description AS description FROM Project p WHERE p.id IN :ids")
+    List<DescriptionView> findDescriptionsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.status AS status FROM Project p WHERE p.status = :status")
+    List<ProjectSummaryView> findSummariesByStatus(@Param("status") Project.ProjectStatus status);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.status AS status FROM ProjectAssignment pa JOIN pa.project p " +
+            "WHERE pa.user.id = :userId AND p.status = :status")
+    List<ProjectSummaryView> findSummariesByMemberIdAndStatus(@Param("userId") UUID userId, @Param("status") Project.ProjectStatus status);
+
+    String DETAIL_COLUMNS = "SELECT p.id AS id, p.name AS name, p.status AS status, o.id AS ownerId, o.name AS ownerName, " +
+            "p.creationTimestamp AS creationTimestamp, p.modificationTimestamp AS modificationTimestamp, " +
+            "p.changeVersion AS changeVersion ";
+
+    @Query(DETAIL_COLUMNS + "FROM Project p LEFT JOIN p.owner o WHERE p.status = :status")
+    List<ProjectDetailView> findDetailsByStatus(@Param("status") Project.ProjectStatus status);
+
+    @Query(DETAIL_COLUMNS + "FROM ProjectAssignment pa JOIN pa.project p LEFT JOIN p.owner o " +
+            "WHERE pa.user.id = :userId AND p.status = :status")
+    List<ProjectDetailView> findDetailsByMemberIdAndStatus(@Param("userId") UUID userId, @Param("status") Project.ProjectStatus status);
 }
\ No newline at end of file
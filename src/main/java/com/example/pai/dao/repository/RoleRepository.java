@@ -0,0 +1,18 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.projection.RolePermissionView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RoleRepository extends JpaRepository<Role, UUID> {
+
+    @Query(value = "SELECT rp.role_id AS roleId, rp.permission AS permission FROM role_permission rp",
+            nativeQuery = true)
+    List<RolePermissionView> findAllPermissions();
+}
@@ -0,0 +1,33 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.SyncTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+    List<SyncTombstone> findByProjectIdAndChangeVersionGreaterThanOrderByChangeVersionAsc(UUID projectId, Long since, Pageable pageable);
+
+    @Query(value = "SELECT pruned_through FROM sync_tombstone_watermark WHERE project_id = :projectId", nativeQuery = true)
+    Optional<Long> findPrunedThrough(@Param("projectId") UUID projectId);
+
+    // Deletes a batch of old tombstones and raises the watermark of their projects in the same statement
+    @Modifying
+    @Query(value = "WITH pruned AS (DELETE FROM sync_tombstone WHERE change_version IN (" +
+            "SELECT change_version FROM sync_tombstone WHERE deletion_timestamp < :cutoff LIMIT :limit) " +
+            "RETURNING project_id, change_version) " +
+            "INSERT INTO sync_tombstone_watermark (project_id, pruned_through) " +
+            "SELECT project_id, max(change_version) FROM pruned GROUP BY project_id " +
+            "ON CONFLICT (project_id) DO UPDATE SET pruned_through = " +
+            "GREATEST(sync_tombstone_watermark.pruned_through, EXCLUDED.pruned_through)", nativeQuery = true)
+    int pruneOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,35 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.TaskDependency;
+import com.example.pai.dao.projection.TaskDependencyView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TaskDependencyRepository extends JpaRepository<TaskDependency, UUID> {
+
+    @Query("SELECT d.blockerTaskId AS blockerTaskId, d.blockedTaskId AS blockedTaskId FROM TaskDependency d " +
+            "WHERE d.projectId = :projectId")
+    List<TaskDependencyView> findViewsByProjectId(@Param("projectId") UUID projectId);
+
+    Optional<TaskDependency> findByBlockerTaskIdAndBlockedTaskId(UUID blockerTaskId, UUID blockedTaskId);
+
+    boolean existsByBlockerTaskIdAndBlockedTaskId(UUID blockerTaskId, UUID blockedTaskId);
+
+    @Query(value = "SELECT COALESCE((SELECT version FROM task_dependency_version WHERE project_id = :projectId), 0)",
+            nativeQuery = true)
+    long findVersion(@Param("projectId") UUID projectId);
+
+    // Holds the project's row lock until commit, so dependency changes of one project run one at a time.
+    // Not @Modifying: the statement returns the new version as a result set
+    @Query(value = "INSERT INTO task_dependency_version (project_id, version) VALUES (:projectId, 1) " +
+            "ON CONFLICT (project_id) DO UPDATE SET version = task_dependency_version.version + 1 " +
+            "RETURNING version", nativeQuery = true)
+    long incrementVersion(@Param("projectId") UUID projectId);
+}
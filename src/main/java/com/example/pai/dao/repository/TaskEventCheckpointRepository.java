@@ -0,0 +1,25 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.TaskEventCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TaskEventCheckpointRepository extends JpaRepository<TaskEventCheckpoint, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO task_event_checkpoint (consumer, last_event_id) VALUES (:consumer, 0) " +
+            "ON CONFLICT (consumer) DO NOTHING", nativeQuery = true)
+    void createIfMissing(@Param("consumer") String consumer);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TaskEventCheckpoint c WHERE c.consumer = :consumer")
+    Optional<TaskEventCheckpoint> findForUpdate(@Param("consumer") String consumer);
+}
@@ -0,0 +1,15 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.TaskEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskEventRepository extends JpaRepository<TaskEvent, Long> {
+    List<TaskEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<TaskEvent> findByTaskIdOrderByIdAsc(UUID taskId);
+}
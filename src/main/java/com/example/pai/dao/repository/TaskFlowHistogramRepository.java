@@ -0,0 +1,21 @@
+package com.example.pai.dao.repository;
+
+import com.example.pai.dao.model.TaskFlowHistogram;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskFlowHistogramRepository extends JpaRepository<TaskFlowHistogram, TaskFlowHistogram.Key> {
+
+    @Query("SELECT h FROM TaskFlowHistogram h WHERE h.id.scope = :scope AND h.id.scopeId = :scopeId " +
+            "AND h.id.weekStart >= :fromWeek ORDER BY h.id.weekStart ASC")
+    List<TaskFlowHistogram> findForScopeSince(@Param("scope") TaskFlowHistogram.Scope scope,
+                                              @Param("scopeId") UUID scopeId,
+                                              @Param("fromWeek") LocalDate fromWeek);
+}
@@ -1,11 +1,15 @@
 package com.example.pai.dao.repository;
 
 import com.example.pai.dao.model.TaskNote;
+import com.example.pai.dao.projection.TaskNoteCountView;
+import com.example.pai.dao.projection.TaskNoteView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,6 +22,22 @@ public interface TaskNoteRepository extends JpaRepository<TaskNote, UUID> {
     @Query("SELECT tn FROM TaskNote tn WHERE tn.task.id = :taskId AND tn.user.id = :userId ORDER BY tn.creationTimestamp ASC")
     List<TaskNote> findByTaskIdAndUserIdOrderByCreationTimestamp(@Param("taskId") UUID taskId, @Param("userId") UUID userId);
 
+    @Query("SELECT tn.id AS id, tn.task.id AS taskId, u.id AS userId, u.name AS userName, tn.noteText AS noteText, " +
+            "tn.isAdminNote AS isAdminNote, tn.creationTimestamp AS creationTimestamp, " +
+            "tn.modificationTimestamp AS modificationTimestamp, tn.changeVersion AS changeVersion " +
+            "FROM TaskNote tn JOIN tn.user u WHERE tn.task.id = :taskId ORDER BY tn.creationTimestamp ASC")
+    List<TaskNoteView> findViewsByTaskId(@Param("taskId") UUID taskId);
+
+    @Query("SELECT tn.id AS id, tn.task.id AS taskId, u.id AS userId, u.name AS userName, tn.noteText AS noteText, " +
+            "tn.isAdminNote AS isAdminNote, tn.creationTimestamp AS creationTimestamp, " +
+            "tn.modificationTimestamp AS modificationTimestamp, tn.changeVersion AS changeVersion " +
+            "FROM TaskNote tn JOIN tn.user u WHERE tn.task.project.id = :projectId AND tn.changeVersion > :since " +
+            "ORDER BY tn.changeVersion ASC")
+    List<TaskNoteView> findViewsChangedSince(@Param("projectId") UUID projectId, @Param("since") Long since, Pageable pageable);
+
     @Query("SELECT COUNT(tn) FROM TaskNote tn WHERE tn.task.id = :taskId")
     Long countByTaskId(@Param("taskId") UUID taskId);
+
+    @Query("SELECT tn.task.id AS taskId, COUNT(tn) AS noteCount FROM TaskNote tn WHERE tn.task.id IN :taskIds GROUP BY tn.task.id")
+    List<TaskNoteCountView> countByTaskIds(@Param("taskIds") Collection<UUID> taskIds);
 }
\ No newline at end of file
@@ -1,9 +1,20 @@
 package com.example.pai.dao.repository;
 
 import com.example.pai.dao.model.Task;
+import com.example.pai.dao.projection.DescriptionView;
+import com.example.pai.dao.projection.OpenTaskView;
+import com.example.pai.dao.projection.ProjectTaskCountView;
+import com.example.pai.dao.projection.TaskDetailView;
+import com.example.pai.dao.projection.TaskGraphNodeView;
+import com.example.pai.dao.projection.TaskSummaryView;
+import com.example.pai.dao.projection.TaskTimestampsView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,4 +23,67 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
     List<Task> findByProjectId(UUID projectId);
     List<Task> findByAssignedUserId(UUID assignedUserId);
     List<Task> findByProjectIdAndAssignedUserId(UUID projectId, UUID assignedUserId);
-}
\ No newline at end of file
+    List<Task> findByProjectIdAndChangeVersionGreaterThanOrderByChangeVersionAsc(UUID projectId, Long since, Pageable pageable);
+    List<Task> findByProjectIdOrderByRankAscIdAsc(UUID projectId);
+    List<Task> findByProjectIdAndAssignedUserIsNullAndStateIn(UUID projectId, Collection<Task.TaskState> states);
+
+    @Query("SELECT MAX(t.rank) FROM Task t WHERE t.project.id = :projectId")
+    String findMaxRankByProjectId(@Param("projectId") UUID projectId);
+
+    @Query(value = "SELECT DISTINCT project_id FROM task WHERE length(rank) > :maxLength", nativeQuery = true)
+    List<UUID> findProjectIdsWithRankLongerThan(@Param("maxLength") int maxLength);
+
+    @Query("SELECT t FROM Task t JOIN FETCH t.project p LEFT JOIN FETCH p.owner " +
+            "LEFT JOIN FETCH t.assignedUser WHERE t.assignedUser.id = :userId")
+    List<Task> findWithDetailsByAssignedUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT t.project.id AS projectId, t.state AS state, COUNT(t) AS taskCount FROM Task t " +
+            "WHERE t.project.id IN :projectIds GROUP BY t.project.id, t.state")
+    List<ProjectTaskCountView> countByProjectIdsGroupByState(@Param("projectIds") Collection<UUID> projectIds);
+
+    @Query("SELECT t.id AS id, t.description AS description FROM Task t WHERE t.id IN :ids")
+    List<DescriptionView> findDescriptionsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT t.id AS id, t.estimatedTime AS estimatedTime, t.state AS state FROM Task t WHERE t.project.id = :projectId")
+    List<TaskGraphNodeView> findGraphNodesByProjectId(@Param("projectId") UUID projectId);
+
+    @Query("SELECT t.id AS id, t.assignedUser.id AS assignedUserId, t.estimatedTime AS estimatedTime FROM Task t " +
+            "WHERE t.project.id = :projectId AND t.assignedUser IS NOT NULL AND t.state IN :states")
+    List<OpenTaskView> findAssignedByProjectIdAndStateIn(@Param("projectId") UUID projectId,
+                                                          @Param("states") Collection<Task.TaskState> states);
+
+    @Query("SELECT t.id AS id, t.creationTimestamp AS creationTimestamp, t.startTimestamp AS startTimestamp " +
+            "FROM Task t WHERE t.id IN :ids")
+    List<TaskTimestampsView> findTimestampsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    String SUMMARY_SELECT = "SELECT t.id AS id, t.name AS name, t.priority AS priority, t.state AS state, " +
+            "t.project.id AS projectId, t.estimatedTime AS estimatedTime, u.id AS assignedUserId, " +
+            "u.name AS assignedUserName, t.hasUnreadNotes AS hasUnreadNotes, t.rank AS rank " +
+            "FROM Task t LEFT JOIN t.assignedUser u ";
+
+    @Query(SUMMARY_SELECT)
+    List<TaskSummaryView> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE t.project.id = :projectId ORDER BY t.state, t.rank, t.id")
+    List<TaskSummaryView> findSummariesByProjectId(@Param("projectId") UUID projectId);
+
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId")
+    List<TaskSummaryView> findSummariesByAssignedUserId(@Param("userId") UUID userId);
+
+    // Every scalar column of a TaskResponse; description and note counts are loaded separately when asked for
+    String DETAIL_SELECT = "SELECT t.id AS id, t.name AS name, t.priority AS priority, t.state AS state, " +
+            "p.id AS projectId, p.name AS projectName, t.estimatedTime AS estimatedTime, u.id AS assignedUserId, " +
+            "u.name AS assignedUserName, u.email AS assignedUserEmail, t.creationTimestamp AS creationTimestamp, " +
+            "t.startTimestamp AS startTimestamp, t.completionTimestamp AS completionTimestamp, " +
+            "t.assignmentTimestamp AS assignmentTimestamp, t.hasUnreadNotes AS hasUnreadNotes, t.rank AS rank, " +
+            "t.changeVersion AS changeVersion FROM Task t JOIN t.project p LEFT JOIN t.assignedUser u ";
+
+    @Query(DETAIL_SELECT)
+    List<TaskDetailView> findAllDetails();
+
+    @Query(DETAIL_SELECT + "WHERE p.id = :projectId ORDER BY t.rank, t.id")
+    List<TaskDetailView> findDetailsByProjectId(@Param("projectId") UUID projectId);
+
+    @Query(DETAIL_SELECT + "WHERE u.id = :userId")
+    List<TaskDetailView> findDetailsByAssignedUserId(@Param("userId") UUID userId);
+}
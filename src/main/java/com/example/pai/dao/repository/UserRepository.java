@@ -4,14 +4,43 @@ package com.example.pai.dao.repository;
 
 
 import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.projection.UserDirectoryView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserManagment, UUID> {
     Optional<UserManagment> findByEmail(String email);
-    boolean existsByEmail(String email);
+
+    // Emails are unique across organizations, so this check must not go through the tenant filter
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_managment WHERE email = :email)", nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+
+    @Query("SELECT u.id AS id, u.organizationId AS organizationId, u.email AS email, u.name AS name, u.role.id AS roleId " +
+            "FROM UserManagment u WHERE u.hidden = false")
+    List<UserDirectoryView> findDirectoryEntries();
+
+    @Query("SELECT u.id AS id, u.organizationId AS organizationId, u.email AS email, u.name AS name, u.role.id AS roleId " +
+            "FROM UserManagment u WHERE u.id = :id AND u.hidden = false")
+    Optional<UserDirectoryView> findDirectoryEntryById(@Param("id") UUID id);
+
+    // Native so the tenant filter does not apply; it runs before the caller is authenticated
+    @Query(value = "SELECT token_version FROM user_managment WHERE id = :id AND activated IS TRUE AND hidden IS NOT TRUE", nativeQuery = true)
+    Optional<Integer> findActiveTokenVersion(@Param("id") UUID id);
+
+    // pattern is a lower-case LIKE pattern; idx_user_managment_*_trgm serve it for three or more characters
+    @Query(value = "SELECT u.id AS id, u.organization_id AS organizationId, u.email AS email, u.name AS name, u.role_id AS roleId " +
+            "FROM user_managment u LEFT JOIN roles r ON r.id = u.role_id " +
+            "WHERE u.organization_id = :organizationId AND u.hidden = false " +
+            "AND (lower(u.name) LIKE :pattern OR lower(u.email) LIKE :pattern) " +
+            "AND (CAST(:role AS VARCHAR) IS NULL OR r.name = :role) " +
+            "ORDER BY u.name LIMIT :limit", nativeQuery = true)
+    List<UserDirectoryView> searchDirectory(@Param("organizationId") UUID organizationId, @Param("pattern") String pattern,
+                                            @Param("role") String role, @Param("limit") int limit);
 }
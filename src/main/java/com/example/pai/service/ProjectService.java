@@ -1,19 +1,37 @@
 package com.example.pai.service;
 
 
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.security.Permission;
 import com.example.pai.controller.project.dto.ProjectDto;
 import com.example.pai.dao.model.Project;
 import com.example.pai.dao.model.ProjectAssignment;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.projection.ProjectDetailView;
+import com.example.pai.dao.projection.ProjectSummaryView;
 import com.example.pai.dao.repository.ProjectRepository;
 import com.example.pai.dao.repository.ProjectAssignmentRepository;
 import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.access.ProjectAccessGuard;
+import com.example.pai.service.access.ProjectMembershipIndex;
+import com.example.pai.service.access.RolePermissions;
+import com.example.pai.service.activity.ActivityRecorder;
+import com.example.pai.service.archive.TaskArchiver;
+import com.example.pai.service.event.ProjectChangedEvent;
+import com.example.pai.service.event.ProjectMembersChangedEvent;
+import com.example.pai.service.support.IdChunks;
 import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,33 +43,69 @@ public class ProjectService {
     private final ProjectAssignmentRepository projectAssignmentRepository;
     private final UserRepository userRepository;
     private final TaskService taskService;
+    private final ProjectMembershipIndex membershipIndex;
+    private final ProjectAccessGuard projectAccessGuard;
+    private final RolePermissions rolePermissions;
+    private final TaskArchiver taskArchiver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityRecorder activityRecorder;
 
     @Transactional(readOnly = true)
     public List<ProjectDto.ProjectResponse> getActiveProjects() {
-        return projectRepository.findByStatus(Project.ProjectStatus.ACTIVE).stream()
-                .map(this::mapToProjectResponse)
-                .collect(Collectors.toList());
+        return mapToProjectResponses(projectRepository.findByStatus(Project.ProjectStatus.ACTIVE));
     }
 
     @Transactional(readOnly = true)
     public List<ProjectDto.ProjectResponse> getInactiveProjects() {
-        return projectRepository.findByStatus(Project.ProjectStatus.INACTIVE).stream()
-                .map(this::mapToProjectResponse)
-                .collect(Collectors.toList());
+        return mapToProjectResponses(projectRepository.findByStatus(Project.ProjectStatus.INACTIVE));
     }
 
     @Transactional(readOnly = true)
     public List<ProjectDto.ProjectResponse> getProjectsForUser(UUID userId) {
-        return projectAssignmentRepository.findByUserId(userId).stream()
-                .map(assignment -> assignment.getProject())
+        return mapToProjectResponses(projectAssignmentRepository.findWithProjectByUserId(userId).stream()
+                .map(ProjectAssignment::getProject)
                 .filter(project -> project.getStatus() == Project.ProjectStatus.ACTIVE)
-                .map(this::mapToProjectResponse)
-                .collect(Collectors.toList());
+                .filter(project -> projectAccessGuard.canAccessProject(project.getId()))
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectDto.ProjectSummary> getProjectSummariesForUser(UUID userId) {
+        return mapToProjectSummaries(projectRepository.findSummariesByMemberIdAndStatus(userId, Project.ProjectStatus.ACTIVE));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectDto.ProjectSummary> getProjectSummariesByStatus(String status) {
+        try {
+            return mapToProjectSummaries(projectRepository.findSummariesByStatus(Project.ProjectStatus.valueOf(status.toUpperCase())));
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectDto.ProjectResponse> getProjectFieldsForUser(UUID userId, Set<String> fields) {
+        return mapDetailsToProjectResponses(projectRepository.findDetailsByMemberIdAndStatus(userId, Project.ProjectStatus.ACTIVE), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectDto.ProjectResponse> getProjectFieldsByStatus(String status, Set<String> fields) {
+        try {
+            return mapDetailsToProjectResponses(projectRepository.findDetailsByStatus(Project.ProjectStatus.valueOf(status.toUpperCase())), fields);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
     }
 
     @Transactional(readOnly = true)
     public Optional<ProjectDto.ProjectResponse> getProjectById(UUID id) {
-        return projectRepository.findById(id)
+        return findProject(id)
+                .map(this::mapToProjectResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ProjectDto.ProjectResponse> getProjectChangedSince(UUID id, long since) {
+        return projectRepository.findByIdAndChangeVersionGreaterThan(id, since)
                 .map(this::mapToProjectResponse);
     }
 
@@ -60,14 +114,17 @@ public class ProjectService {
         Project project = new Project();
         project.setName(projectRequest.getName());
         project.setDescription(projectRequest.getDescription());
+        AuthenticatedUser user = AuthenticatedUser.current();
+        project.setOrganizationId(user != null ? user.getOrganizationId() : UserManagment.DEFAULT_ORGANIZATION_ID);
 
         Project savedProject = projectRepository.save(project);
+        activityRecorder.record(ActivityRecorder.Activity.ofProject(ActivityRecorder.Action.CREATED, savedProject));
         return mapToProjectResponse(savedProject);
     }
 
     @Transactional
     public Optional<ProjectDto.ProjectResponse> updateProject(UUID id, ProjectDto.ProjectUpdateRequest projectUpdateRequest) {
-        return projectRepository.findById(id)
+        return findProject(id)
                 .map(project -> {
                     if (projectUpdateRequest.getName() != null) {
                         project.setName(projectUpdateRequest.getName());
@@ -79,25 +136,32 @@ public class ProjectService {
 
                     if (projectUpdateRequest.getStatus() != null) {
                         try {
-                            project.setStatus(Project.ProjectStatus.valueOf(projectUpdateRequest.getStatus().toUpperCase()));
+                            applyStatus(project, Project.ProjectStatus.valueOf(projectUpdateRequest.getStatus().toUpperCase()));
                         } catch (IllegalArgumentException e) {
                             // Invalid status, ignore
                         }
                     }
 
                     Project updatedProject = projectRepository.save(project);
+                    activityRecorder.record(ActivityRecorder.Activity.ofProject(ActivityRecorder.Action.UPDATED, updatedProject));
+                    eventPublisher.publishEvent(new ProjectChangedEvent(id));
                     return mapToProjectResponse(updatedProject);
                 });
     }
 
     @Transactional
     public boolean deleteProject(UUID id) {
-        return projectRepository.findById(id)
+        return findProject(id)
                 .map(project -> {
                     // First delete all tasks associated with this project
                     taskService.deleteTasksByProjectId(id);
                     // Then delete the project
                     projectRepository.delete(project);
+                    activityRecorder.record(ActivityRecorder.Activity.ofProject(ActivityRecorder.Action.DELETED, project));
+                    membershipIndex.removeProject(id);
+                    projectAccessGuard.removeProject(id);
+                    eventPublisher.publishEvent(new ProjectChangedEvent(id));
+                    eventPublisher.publishEvent(new ProjectMembersChangedEvent(id));
                     return true;
                 })
                 .orElse(false);
@@ -105,19 +169,24 @@ public class ProjectService {
 
     @Transactional
     public boolean assignUserToProject(UUID projectId, UUID userId) {
-        if (projectAssignmentRepository.existsByProjectIdAndUserId(projectId, userId)) {
+        if (membershipIndex.isMember(projectId, userId)) {
             return false;
         }
 
-        return projectRepository.findById(projectId)
+        return findProject(projectId)
                 .flatMap(project -> userRepository.findById(userId)
-                        .filter(user -> "DEVELOPER".equals(user.getRole().getName()) || 
-                                       "DEVOPS".equals(user.getRole().getName()))
+                        .filter(user -> user.getOrganizationId().equals(project.getOrganizationId()))
+                        .filter(user -> rolePermissions.hasPermission(user.getRole(), Permission.TASK_ASSIGNABLE))
                         .map(user -> {
                             ProjectAssignment assignment = new ProjectAssignment();
                             assignment.setProject(project);
                             assignment.setUser(user);
                             projectAssignmentRepository.save(assignment);
+                            membershipIndex.addMember(projectId, userId);
+                            activityRecorder.record(ActivityRecorder.Activity.ofMember(ActivityRecorder.Action.ADDED,
+                                    project.getOrganizationId(), projectId, userId));
+                            eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+                            eventPublisher.publishEvent(new ProjectMembersChangedEvent(projectId));
                             return true;
                         }))
                 .orElse(false);
@@ -125,18 +194,29 @@ public class ProjectService {
 
     @Transactional
     public boolean removeUserFromProject(UUID projectId, UUID userId) {
-        projectAssignmentRepository.deleteByProjectIdAndUserId(projectId, userId);
+        if (!projectAccessGuard.isInCurrentOrganization(projectId)) {
+            return false;
+        }
+        if (projectAssignmentRepository.deleteByProjectIdAndUserId(projectId, userId) > 0) {
+            activityRecorder.record(ActivityRecorder.Activity.ofMember(ActivityRecorder.Action.REMOVED,
+                    projectAccessGuard.getOrganizationId(projectId), projectId, userId));
+        }
+        membershipIndex.removeMember(projectId, userId);
+        eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+        eventPublisher.publishEvent(new ProjectMembersChangedEvent(projectId));
         return true;
     }
 
 
     @Transactional
     public boolean setProjectStatus(UUID id, String status) {
-        return projectRepository.findById(id)
+        return findProject(id)
                 .map(project -> {
                     try {
-                        project.setStatus(Project.ProjectStatus.valueOf(status.toUpperCase()));
+                        applyStatus(project, Project.ProjectStatus.valueOf(status.toUpperCase()));
                         projectRepository.save(project);
+                        activityRecorder.record(ActivityRecorder.Activity.ofProject(ActivityRecorder.Action.UPDATED, project));
+                        eventPublisher.publishEvent(new ProjectChangedEvent(id));
                         return true;
                     } catch (IllegalArgumentException e) {
                         return false;
@@ -147,14 +227,11 @@ public class ProjectService {
 
     @Transactional(readOnly = true)
     public List<ProjectDto.AssignedUser> getAssignedUsers(UUID projectId) {
+        if (!projectAccessGuard.isInCurrentOrganization(projectId)) {
+            return List.of();
+        }
         return projectAssignmentRepository.findByProjectId(projectId).stream()
-                .map(assignment -> ProjectDto.AssignedUser.builder()
-                        .id(assignment.getUser().getId())
-                        .name(assignment.getUser().getName())
-                        .email(assignment.getUser().getEmail())
-                        .role(assignment.getUser().getRole().getName())
-                        .assignmentTimestamp(assignment.getCreationTimestamp())
-                        .build())
+                .map(this::mapToAssignedUser)
                 .collect(Collectors.toList());
     }
 
@@ -162,26 +239,127 @@ public class ProjectService {
     public List<ProjectDto.ProjectResponse> getProjectsByStatus(String status) {
         try {
             Project.ProjectStatus projectStatus = Project.ProjectStatus.valueOf(status.toUpperCase());
-            return projectRepository.findByStatus(projectStatus).stream()
-                    .map(this::mapToProjectResponse)
-                    .collect(Collectors.toList());
+            return mapToProjectResponses(projectRepository.findByStatus(projectStatus));
         } catch (IllegalArgumentException e) {
             return List.of();
         }
     }
 
+    // Loading by id bypasses the tenant filter, so other organizations' projects are dropped here
+    private Optional<Project> findProject(UUID id) {
+        return projectRepository.findById(id)
+                .filter(project -> AuthenticatedUser.isCurrentOrganization(project.getOrganizationId()));
+    }
+
+    // Members of every project in the list are loaded with one query instead of one per project
+    private List<ProjectDto.ProjectResponse> mapToProjectResponses(List<Project> projects) {
+        if (projects.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> projectIds = projects.stream().map(Project::getId).collect(Collectors.toList());
+        Map<UUID, List<ProjectDto.AssignedUser>> assignedUsersByProject = IdChunks
+                .query(projectIds, projectAssignmentRepository::findWithUserByProjectIdIn)
+                .stream()
+                .collect(Collectors.groupingBy(assignment -> assignment.getProject().getId(),
+                        Collectors.mapping(this::mapToAssignedUser, Collectors.toList())));
+        Map<UUID, String> descriptions = new HashMap<>();
+        IdChunks.query(projectIds, projectRepository::findDescriptionsByIdIn)
+                .forEach(view -> descriptions.put(view.getId(), view.getDescription()));
+
+        return projects.stream()
+                .map(project -> mapToProjectResponse(project, descriptions.get(project.getId()),
+                        assignedUsersByProject.getOrDefault(project.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private List<ProjectDto.ProjectSummary> mapToProjectSummaries(List<ProjectSummaryView> views) {
+        return views.stream()
+                .map(view -> ProjectDto.ProjectSummary.builder()
+                        .id(view.getId())
+                        .name(view.getName())
+                        .status(view.getStatus() != null ? view.getStatus().name() : "ACTIVE")
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Members, member counts and descriptions are only queried when one of them was requested
+    private List<ProjectDto.ProjectResponse> mapDetailsToProjectResponses(List<ProjectDetailView> views, Set<String> fields) {
+        if (views.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> projectIds = views.stream().map(ProjectDetailView::getId).collect(Collectors.toList());
+        Map<UUID, List<ProjectDto.AssignedUser>> assignedUsersByProject = new HashMap<>();
+        Map<UUID, Integer> memberCounts = new HashMap<>();
+        if (fields.contains("assignedUsers")) {
+            IdChunks.query(projectIds, projectAssignmentRepository::findWithUserByProjectIdIn)
+                    .forEach(assignment -> assignedUsersByProject
+                            .computeIfAbsent(assignment.getProject().getId(), id -> new ArrayList<>())
+                            .add(mapToAssignedUser(assignment)));
+            assignedUsersByProject.forEach((id, users) -> memberCounts.put(id, users.size()));
+        } else if (fields.contains("memberCount")) {
+            IdChunks.query(projectIds, projectAssignmentRepository::countByProjectIdIn)
+                    .forEach(view -> memberCounts.put(view.getProjectId(), view.getMemberCount().intValue()));
+        }
+        Map<UUID, String> descriptions = new HashMap<>();
+        if (fields.contains("description")) {
+            IdChunks.query(projectIds, projectRepository::findDescriptionsByIdIn)
+                    .forEach(view -> descriptions.put(view.getId(), view.getDescription()));
+        }
+
+        return views.stream()
+                .map(view -> ProjectDto.ProjectResponse.builder()
+                        .id(view.getId())
+                        .name(view.getName())
+                        .description(descriptions.get(view.getId()))
+                        .status(view.getStatus() != null ? view.getStatus().name() : "ACTIVE")
+                        .ownerId(view.getOwnerId())
+                        .ownerName(view.getOwnerName())
+                        .creationTimestamp(view.getCreationTimestamp())
+                        .modificationTimestamp(view.getModificationTimestamp())
+                        .assignedUsers(assignedUsersByProject.getOrDefault(view.getId(), List.of()))
+                        .memberCount(memberCounts.getOrDefault(view.getId(), 0))
+                        .changeVersion(view.getChangeVersion())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private ProjectDto.AssignedUser mapToAssignedUser(ProjectAssignment assignment) {
+        return ProjectDto.AssignedUser.builder()
+                .id(assignment.getUser().getId())
+                .name(assignment.getUser().getName())
+                .email(assignment.getUser().getEmail())
+                .role(assignment.getUser().getRole().getName())
+                .assignmentTimestamp(assignment.getCreationTimestamp())
+                .build();
+    }
+
+    // Tasks of finished projects move to the archive; reopening the project brings them back
+    private void applyStatus(Project project, Project.ProjectStatus status) {
+        boolean reopened = project.getStatus() == Project.ProjectStatus.FINISHED && status != Project.ProjectStatus.FINISHED;
+        project.setStatus(status);
+        if (reopened) {
+            taskArchiver.restoreProject(project.getId());
+        }
+    }
+
     private ProjectDto.ProjectResponse mapToProjectResponse(Project project) {
-        List<ProjectDto.AssignedUser> assignedUsers = getAssignedUsers(project.getId());
-        
+        return mapToProjectResponse(project, project.getDescription(), getAssignedUsers(project.getId()));
+    }
+
+    private ProjectDto.ProjectResponse mapToProjectResponse(Project project, String description,
+                                                            List<ProjectDto.AssignedUser> assignedUsers) {
         ProjectDto.ProjectResponse.ProjectResponseBuilder builder = ProjectDto.ProjectResponse.builder()
                 .id(project.getId())
                 .name(project.getName())
-                .description(project.getDescription())
+                .description(description)
                 .status(project.getStatus() != null ? project.getStatus().name() : "ACTIVE")
                 .creationTimestamp(project.getCreationTimestamp())
                 .modificationTimestamp(project.getModificationTimestamp())
                 .assignedUsers(assignedUsers)
-                .memberCount(assignedUsers.size());
+                .memberCount(assignedUsers.size())
+                .changeVersion(project.getChangeVersion());
         
         if (project.getOwner() != null) {
             builder.ownerId(project.getOwner().getId())
@@ -1,18 +1,30 @@
 package com.example.pai.service;
 
 import com.example.pai.controller.task.dto.TaskNoteDto;
+import com.example.pai.dao.model.ArchivedTaskNote;
 import com.example.pai.dao.model.Task;
 import com.example.pai.dao.model.TaskNote;
 import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.ArchivedTaskNoteRepository;
+import com.example.pai.dao.repository.ArchivedTaskRepository;
 import com.example.pai.dao.repository.TaskNoteRepository;
 import com.example.pai.dao.repository.TaskRepository;
 import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.access.ProjectAccessGuard;
+import com.example.pai.service.activity.ActivityRecorder;
+import com.example.pai.service.attachment.NoteAttachmentService;
 import com.example.pai.service.auth.AuthService;
+import com.example.pai.service.cache.WriteCoalescer;
+import com.example.pai.service.event.ProjectChangedEvent;
+import com.example.pai.dao.projection.TaskNoteView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -22,14 +34,22 @@ import java.util.stream.Collectors;
 public class TaskNoteService {
 
     private final TaskNoteRepository taskNoteRepository;
+    private final ArchivedTaskNoteRepository archivedTaskNoteRepository;
     private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final ProjectAccessGuard projectAccessGuard;
     private final UserRepository userRepository;
     private final AuthService authService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WriteCoalescer writeCoalescer;
+    private final NoteAttachmentService noteAttachmentService;
+    private final ActivityRecorder activityRecorder;
 
     @Transactional
     public TaskNoteDto.TaskNoteResponse createTaskNote(UUID taskId, TaskNoteDto.TaskNoteRequest request) {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
+        projectAccessGuard.checkProjectAccess(task.getProject().getId());
         
         UserManagment currentUser = authService.getCurrentUser();
         
@@ -42,15 +62,37 @@ public class TaskNoteService {
         TaskNote savedNote = taskNoteRepository.save(taskNote);
         
         // Mark task as having unread notes
+        writeCoalescer.cancelNotesRead(taskId);
         task.setHasUnreadNotes(true);
         taskRepository.save(task);
+        activityRecorder.record(ActivityRecorder.Activity.ofNote(ActivityRecorder.Action.CREATED, savedNote));
+        publishProjectChanged(task);
         
         return mapToTaskNoteResponse(savedNote);
     }
 
     @Transactional(readOnly = true)
-    public List<TaskNoteDto.TaskNoteResponse> getTaskNotes(UUID taskId) {
-        return taskNoteRepository.findByTaskIdOrderByCreationTimestamp(taskId).stream()
+    public List<TaskNoteDto.TaskNoteResponse> getTaskNotes(UUID taskId, boolean includeArchived) {
+        checkTaskAccess(taskId);
+        List<TaskNoteDto.TaskNoteResponse> notes = taskNoteRepository.findViewsByTaskId(taskId).stream()
+                .map(this::mapToTaskNoteResponse)
+                .collect(Collectors.toList());
+        // A task and its notes are archived together, so an archived task has no live notes
+        if (notes.isEmpty() && includeArchived) {
+            notes = archivedTaskNoteRepository.findWithUserByTaskId(taskId).stream()
+                    .map(this::mapToTaskNoteResponse)
+                    .collect(Collectors.toList());
+        }
+        if (!notes.isEmpty()) {
+            Map<UUID, List<TaskNoteDto.AttachmentResponse>> attachments = noteAttachmentService.getAttachmentsByNote(taskId);
+            notes.forEach(note -> note.setAttachments(attachments.getOrDefault(note.getId(), List.of())));
+        }
+        return notes;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskNoteDto.TaskNoteResponse> getNotesChangedSince(UUID projectId, long since, int limit) {
+        return taskNoteRepository.findViewsChangedSince(projectId, since, PageRequest.of(0, limit)).stream()
                 .map(this::mapToTaskNoteResponse)
                 .collect(Collectors.toList());
     }
@@ -59,8 +101,11 @@ public class TaskNoteService {
     public Optional<TaskNoteDto.TaskNoteResponse> updateTaskNote(UUID id, TaskNoteDto.TaskNoteUpdateRequest request) {
         return taskNoteRepository.findById(id)
                 .map(taskNote -> {
+                    projectAccessGuard.checkProjectAccess(taskNote.getTask().getProject().getId());
                     taskNote.setNoteText(request.getNoteText());
                     TaskNote updatedNote = taskNoteRepository.save(taskNote);
+                    activityRecorder.record(ActivityRecorder.Activity.ofNote(ActivityRecorder.Action.UPDATED, updatedNote));
+                    publishProjectChanged(taskNote.getTask());
                     return mapToTaskNoteResponse(updatedNote);
                 });
     }
@@ -69,7 +114,11 @@ public class TaskNoteService {
     public boolean deleteTaskNote(UUID id) {
         return taskNoteRepository.findById(id)
                 .map(taskNote -> {
+                    projectAccessGuard.checkProjectAccess(taskNote.getTask().getProject().getId());
                     taskNoteRepository.delete(taskNote);
+                    noteAttachmentService.deleteNoteAttachments(id);
+                    activityRecorder.record(ActivityRecorder.Activity.ofNote(ActivityRecorder.Action.DELETED, taskNote));
+                    publishProjectChanged(taskNote.getTask());
                     return true;
                 })
                 .orElse(false);
@@ -77,9 +126,24 @@ public class TaskNoteService {
 
     @Transactional(readOnly = true)
     public Long getTaskNoteCount(UUID taskId) {
+        checkTaskAccess(taskId);
         return taskNoteRepository.countByTaskId(taskId);
     }
 
+    // Notes are reached by task id, which goes around the tenant filter, so the task's project is checked
+    private void checkTaskAccess(UUID taskId) {
+        taskRepository.findById(taskId)
+                .map(task -> task.getProject().getId())
+                .or(() -> archivedTaskRepository.findById(taskId).map(task -> task.getProject().getId()))
+                .ifPresent(projectAccessGuard::checkProjectAccess);
+    }
+
+    private void publishProjectChanged(Task task) {
+        if (task.getProject() != null) {
+            eventPublisher.publishEvent(new ProjectChangedEvent(task.getProject().getId()));
+        }
+    }
+
     private TaskNoteDto.TaskNoteResponse mapToTaskNoteResponse(TaskNote taskNote) {
         return TaskNoteDto.TaskNoteResponse.builder()
                 .id(taskNote.getId())
@@ -90,6 +154,35 @@ public class TaskNoteService {
                 .isAdminNote(taskNote.getIsAdminNote())
                 .creationTimestamp(taskNote.getCreationTimestamp())
                 .modificationTimestamp(taskNote.getModificationTimestamp())
+                .changeVersion(taskNote.getChangeVersion())
+                .build();
+    }
+
+    private TaskNoteDto.TaskNoteResponse mapToTaskNoteResponse(ArchivedTaskNote note) {
+        return TaskNoteDto.TaskNoteResponse.builder()
+                .id(note.getId())
+                .taskId(note.getTaskId())
+                .userId(note.getUser().getId())
+                .userName(note.getUser().getName())
+                .noteText(note.getNoteText())
+                .isAdminNote(note.getIsAdminNote())
+                .creationTimestamp(note.getCreationTimestamp())
+                .modificationTimestamp(note.getModificationTimestamp())
+                .changeVersion(note.getChangeVersion())
+                .build();
+    }
+
+    private TaskNoteDto.TaskNoteResponse mapToTaskNoteResponse(TaskNoteView view) {
+        return TaskNoteDto.TaskNoteResponse.builder()
+                .id(view.getId())
+                .taskId(view.getTaskId())
+                .userId(view.getUserId())
+                .userName(view.getUserName())
+                .noteText(view.getNoteText())
+                .isAdminNote(view.getIsAdminNote())
+                .creationTimestamp(view.getCreationTimestamp())
+                .modificationTimestamp(view.getModificationTimestamp())
+                .changeVersion(view.getChangeVersion())
                 .build();
     }
 }
\ No newline at end of file
@@ -1,19 +1,46 @@
 package com.example.pai.service;
 
+import com.example.pai.config.security.Permission;
 import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.dao.model.ArchivedTask;
 import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.TaskEvent;
 import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.projection.ProjectTaskCountView;
+import com.example.pai.dao.projection.TaskDetailView;
+import com.example.pai.dao.projection.TaskNoteCountView;
+import com.example.pai.dao.projection.TaskSummaryView;
+import com.example.pai.dao.repository.ArchivedTaskNoteRepository;
+import com.example.pai.dao.repository.ArchivedTaskRepository;
 import com.example.pai.dao.repository.ProjectRepository;
 import com.example.pai.dao.repository.TaskRepository;
 import com.example.pai.dao.repository.TaskNoteRepository;
 import com.example.pai.dao.repository.UserManagmentRepository;
+import com.example.pai.service.access.ProjectAccessGuard;
+import com.example.pai.service.access.RolePermissions;
+import com.example.pai.service.cache.WriteCoalescer;
+import com.example.pai.service.event.ProjectChangedEvent;
+import com.example.pai.service.event.TaskEventService;
+import com.example.pai.service.ordering.FractionalIndex;
+import com.example.pai.service.support.IdChunks;
+import com.example.pai.service.workload.LeastLoadedAssignment;
+import com.example.pai.service.workload.WorkloadIndex;
 import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,36 +52,142 @@ public class TaskService {
     private final UserManagmentRepository userManagmentRepository;
     private final ProjectRepository projectRepository;
     private final TaskNoteRepository taskNoteRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final ArchivedTaskNoteRepository archivedTaskNoteRepository;
+    private final TaskEventService taskEventService;
+    private final ProjectAccessGuard projectAccessGuard;
+    private final RolePermissions rolePermissions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WorkloadIndex workloadIndex;
+    private final WriteCoalescer writeCoalescer;
 
     @Transactional(readOnly = true)
     public List<TaskDto.TaskResponse> getAllTasks() {
-        return taskRepository.findAll().stream()
-                .map(this::mapToTaskResponse)
-                .collect(Collectors.toList());
+        return mapToTaskResponses(taskRepository.findAll().stream()
+                .filter(this::canAccess)
+                .collect(Collectors.toList()));
     }
 
     @Transactional(readOnly = true)
-    public List<TaskDto.TaskResponse> getTasksByProjectId(UUID projectId) {
-        return taskRepository.findByProjectId(projectId).stream()
-                .map(this::mapToTaskResponse)
-                .collect(Collectors.toList());
+    public List<TaskDto.TaskResponse> getTasksByProjectId(UUID projectId, boolean includeArchived) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        List<TaskDto.TaskResponse> tasks = mapToTaskResponses(taskRepository.findByProjectIdOrderByRankAscIdAsc(projectId));
+        if (!includeArchived) {
+            return tasks;
+        }
+        List<TaskDto.TaskResponse> all = new ArrayList<>(tasks);
+        all.addAll(mapArchivedToTaskResponses(archivedTaskRepository.findByProjectIdOrderByRankAscIdAsc(projectId)));
+        return all;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto.TaskResponse> getTasksChangedSince(UUID projectId, long since, int limit) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        return mapToTaskResponses(taskRepository.findByProjectIdAndChangeVersionGreaterThanOrderByChangeVersionAsc(
+                projectId, since, PageRequest.of(0, limit)));
     }
 
     @Transactional(readOnly = true)
     public List<TaskDto.TaskResponse> getTasksByAssignedUser(UUID assignedUserId) {
-        return taskRepository.findByAssignedUserId(assignedUserId).stream()
-                .map(this::mapToTaskResponse)
+        return mapToTaskResponses(taskRepository.findWithDetailsByAssignedUserId(assignedUserId).stream()
+                .filter(this::canAccess)
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto.TaskSummary> getAllTaskSummaries() {
+        return mapToTaskSummaries(taskRepository.findAllSummaries());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto.TaskSummary> getTaskSummariesByProjectId(UUID projectId, boolean includeArchived) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        List<TaskDto.TaskSummary> summaries = mapToTaskSummaries(taskRepository.findSummariesByProjectId(projectId));
+        if (!includeArchived) {
+            return summaries;
+        }
+        List<TaskDto.TaskSummary> all = new ArrayList<>(summaries);
+        archivedTaskRepository.findByProjectIdOrderByRankAscIdAsc(projectId).stream()
+                .map(task -> TaskDto.TaskSummary.builder()
+                        .id(task.getId())
+                        .name(task.getName())
+                        .priority(task.getPriority())
+                        .state(task.getState())
+                        .projectId(projectId)
+                        .estimatedTime(task.getEstimatedTime())
+                        .assignedUserId(task.getAssignedUser() != null ? task.getAssignedUser().getId() : null)
+                        .assignedUserName(task.getAssignedUser() != null ? task.getAssignedUser().getName() : null)
+                        .hasUnreadNotes(task.getHasUnreadNotes())
+                        .rank(task.getRank())
+                        .archived(true)
+                        .build())
+                .forEach(all::add);
+        return all;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto.TaskSummary> getTaskSummariesByAssignedUser(UUID assignedUserId) {
+        return mapToTaskSummaries(taskRepository.findSummariesByAssignedUserId(assignedUserId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto.TaskResponse> getAllTaskFields(Set<String> fields) {
+        return mapDetailsToTaskResponses(taskRepository.findAllDetails(), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto.TaskResponse> getTaskFieldsByProjectId(UUID projectId, boolean includeArchived, Set<String> fields) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        List<TaskDto.TaskResponse> tasks = mapDetailsToTaskResponses(taskRepository.findDetailsByProjectId(projectId), fields);
+        if (!includeArchived) {
+            return tasks;
+        }
+        List<TaskDto.TaskResponse> all = new ArrayList<>(tasks);
+        all.addAll(mapArchivedToTaskResponses(archivedTaskRepository.findByProjectIdOrderByRankAscIdAsc(projectId)));
+        return all;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskDto.TaskResponse> getTaskFieldsByAssignedUser(UUID assignedUserId, Set<String> fields) {
+        return mapDetailsToTaskResponses(taskRepository.findDetailsByAssignedUserId(assignedUserId), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, Map<Task.TaskState, Long>> getTaskCountsByProject(Collection<UUID> projectIds) {
+        List<UUID> accessibleProjectIds = projectIds.stream()
+                .filter(projectAccessGuard::canAccessProject)
                 .collect(Collectors.toList());
+        if (accessibleProjectIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, Map<Task.TaskState, Long>> counts = new HashMap<>();
+        for (ProjectTaskCountView count : taskRepository.countByProjectIdsGroupByState(accessibleProjectIds)) {
+            counts.computeIfAbsent(count.getProjectId(), id -> new EnumMap<>(Task.TaskState.class))
+                    .put(count.getState(), count.getTaskCount());
+        }
+        return counts;
     }
 
     @Transactional(readOnly = true)
-    public Optional<TaskDto.TaskResponse> getTaskById(UUID id) {
-        return taskRepository.findById(id)
+    public Optional<TaskDto.TaskResponse> getTaskById(UUID id, boolean includeArchived) {
+        Optional<TaskDto.TaskResponse> task = taskRepository.findById(id)
+                .map(this::checkAccess)
                 .map(this::mapToTaskResponse);
+        if (task.isPresent() || !includeArchived) {
+            return task;
+        }
+        return archivedTaskRepository.findById(id)
+                .map(archivedTask -> {
+                    projectAccessGuard.checkProjectAccess(archivedTask.getProject().getId());
+                    return mapArchivedToTaskResponses(List.of(archivedTask)).get(0);
+                });
     }
 
     @Transactional
     public TaskDto.TaskResponse createTask(TaskDto.TaskRequest taskRequest) {
+        projectAccessGuard.checkProjectAccess(taskRequest.getProjectId());
+
         Task task = new Task();
         task.setName(taskRequest.getName());
         task.setDescription(taskRequest.getDescription());
@@ -63,15 +196,19 @@ public class TaskService {
         task.setState(Task.TaskState.NOT_STARTED);
 
         if (taskRequest.getProjectId() != null) {
-            projectRepository.findById(taskRequest.getProjectId())
-                    .ifPresent(task::setProject);
+            projectRepository.findByIdForUpdate(taskRequest.getProjectId())
+                    .ifPresent(project -> {
+                        task.setProject(project);
+                        task.setOrganizationId(project.getOrganizationId());
+                        task.setRank(FractionalIndex.between(taskRepository.findMaxRankByProjectId(project.getId()), null));
+                    });
         }
 
         if (taskRequest.getAssignedUserId() != null) {
             userManagmentRepository.findById(taskRequest.getAssignedUserId())
+                    .filter(user -> user.getOrganizationId().equals(task.getOrganizationId()))
                     .ifPresent(user -> {
-                        if ("DEVELOPER".equals(user.getRole().getName()) ||
-                                "DEVOPS".equals(user.getRole().getName())) {
+                        if (rolePermissions.hasPermission(user.getRole(), Permission.TASK_ASSIGNABLE)) {
                             task.setAssignedUser(user);
                             // Set assignment timestamp from request or current time
                             if (taskRequest.getAssignmentTimestamp() != null) {
@@ -84,14 +221,17 @@ public class TaskService {
         }
 
         Task savedTask = taskRepository.save(task);
+        taskEventService.record(TaskEvent.EventType.CREATED, savedTask, null, null);
         return mapToTaskResponse(savedTask);
     }
 
     @Transactional
     public Optional<TaskDto.TaskResponse> updateTask(UUID id, TaskDto.TaskUpdateRequest updateRequest) {
         return taskRepository.findById(id)
+                .map(this::checkAccess)
                 .map(task -> {
-
+                    Task.TaskState previousState = task.getState();
+                    UserManagment previousAssignee = task.getAssignedUser();
 
                     if (updateRequest.getName() != null) {
                         task.setName(updateRequest.getName());
@@ -115,24 +255,60 @@ public class TaskService {
 
                     if (updateRequest.getAssignedUserId() != null) {
                         userManagmentRepository.findById(updateRequest.getAssignedUserId())
+                                .filter(user -> user.getOrganizationId().equals(task.getOrganizationId()))
                                 .ifPresent(user -> {
-                                    if ("DEVELOPER".equals(user.getRole().getName()) ||
-                                            "DEVOPS".equals(user.getRole().getName())) {
+                                    if (rolePermissions.hasPermission(user.getRole(), Permission.TASK_ASSIGNABLE)) {
                                         task.setAssignedUser(user);
                                     }
                                 });
                     }
 
-
                     Task updatedTask = taskRepository.save(task);
+                    taskEventService.record(TaskEvent.EventType.UPDATED, updatedTask, previousState, previousAssignee);
                     return mapToTaskResponse(updatedTask);
                 });
     }
 
+    @Transactional
+    public Optional<TaskDto.TaskResponse> moveTask(UUID id, TaskDto.TaskMoveRequest moveRequest) {
+        return taskRepository.findById(id)
+                .map(this::checkAccess)
+                .map(task -> {
+                    UUID projectId = task.getProject().getId();
+                    // Neighbour ranks must not change between reading them and writing the new rank
+                    projectRepository.findByIdForUpdate(projectId);
+
+                    String previousRank = neighbourRank(moveRequest.getPreviousTaskId(), projectId);
+                    String nextRank = neighbourRank(moveRequest.getNextTaskId(), projectId);
+                    if (previousRank != null && nextRank != null && previousRank.compareTo(nextRank) >= 0) {
+                        throw new RuntimeException("Previous task must be ordered before next task");
+                    }
+
+                    task.setRank(FractionalIndex.between(previousRank, nextRank));
+                    Task movedTask = taskRepository.save(task);
+                    eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+                    return mapToTaskResponse(movedTask);
+                });
+    }
+
+    private String neighbourRank(UUID taskId, UUID projectId) {
+        if (taskId == null) {
+            return null;
+        }
+        Task neighbour = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+        if (!neighbour.getProject().getId().equals(projectId)) {
+            throw new RuntimeException("Task " + taskId + " belongs to another project");
+        }
+        return neighbour.getRank();
+    }
+
     @Transactional
     public boolean deleteTask(UUID id) {
         return taskRepository.findById(id)
+                .map(this::checkAccess)
                 .map(task -> {
+                    taskEventService.record(TaskEvent.EventType.DELETED, task, task.getState(), task.getAssignedUser());
                     taskRepository.delete(task);
                     return true;
                 })
@@ -142,23 +318,79 @@ public class TaskService {
     @Transactional
     public Optional<TaskDto.TaskResponse> assignTask(UUID taskId, UUID userId) {
         return taskRepository.findById(taskId)
+                .map(this::checkAccess)
                 .flatMap(task -> userManagmentRepository.findById(userId)
-                        .filter(user -> "DEVELOPER".equals(user.getRole().getName()) ||
-                                       "DEVOPS".equals(user.getRole().getName()))
+                        .filter(user -> user.getOrganizationId().equals(task.getOrganizationId()))
+                        .filter(user -> rolePermissions.hasPermission(user.getRole(), Permission.TASK_ASSIGNABLE))
                         .map(user -> {
+                            Task.TaskState previousState = task.getState();
+                            UserManagment previousAssignee = task.getAssignedUser();
                             task.setAssignedUser(user);
                             task.setAssignmentTimestamp(LocalDateTime.now());
                             if (task.getState() == Task.TaskState.NOT_STARTED) {
                                 task.setState(Task.TaskState.IN_PROGRESS);
                             }
                             Task savedTask = taskRepository.save(task);
+                            taskEventService.record(TaskEvent.EventType.ASSIGNED, savedTask, previousState, previousAssignee);
                             return mapToTaskResponse(savedTask);
                         }));
     }
 
+    public List<TaskDto.AssigneeRecommendation> getRecommendedAssignees(UUID projectId, int count) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        return workloadIndex.leastLoaded(projectId, Math.max(1, count)).stream()
+                .map(load -> TaskDto.AssigneeRecommendation.builder()
+                        .userId(load.userId())
+                        .userName(load.userName())
+                        .openTasks(load.openTasks())
+                        .openEstimatedTime(load.openEstimatedTime())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Assigns every open unassigned task of the project, largest estimate first, each to whoever
+     * has the least open work at that point. Tasks keep their state.
+     */
+    @Transactional
+    public List<TaskDto.TaskResponse> autoBalanceProject(UUID projectId) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        // Two balancing runs must not both hand out the same tasks from the same loads
+        projectRepository.findByIdForUpdate(projectId)
+                .orElseThrow(() -> new RuntimeException("Project not found"));
+
+        List<WorkloadIndex.UserLoad> loads = workloadIndex.currentLoads(projectId);
+        List<Task> unassigned = taskRepository.findByProjectIdAndAssignedUserIsNullAndStateIn(projectId, WorkloadIndex.OPEN_STATES);
+        if (loads.isEmpty() || unassigned.isEmpty()) {
+            return List.of();
+        }
+        // Equal estimates go out in board order
+        unassigned.sort(Comparator.comparing(Task::getRank));
+        List<LeastLoadedAssignment.Assignment<Task>> assignments =
+                LeastLoadedAssignment.assign(loads, unassigned, Task::getEstimatedTime);
+
+        Map<UUID, UserManagment> users = userManagmentRepository.findAllById(loads.stream()
+                        .map(WorkloadIndex.UserLoad::userId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(UserManagment::getId, user -> user));
+        LocalDateTime now = LocalDateTime.now();
+        assignments.forEach(assignment -> {
+            assignment.task().setAssignedUser(users.get(assignment.userId()));
+            assignment.task().setAssignmentTimestamp(now);
+        });
+
+        List<Task> assigned = taskRepository.saveAll(assignments.stream()
+                .map(LeastLoadedAssignment.Assignment::task)
+                .collect(Collectors.toList()));
+        assigned.forEach(task -> taskEventService.record(TaskEvent.EventType.ASSIGNED, task, task.getState(), null));
+        return mapToTaskResponses(assigned);
+    }
+
     @Transactional
     public Optional<TaskDto.TaskResponse> changeTaskStatus(UUID taskId, String status) {
         return taskRepository.findById(taskId)
+                .map(this::checkAccess)
                 .map(task -> {
                     Task.TaskState newState = Task.TaskState.valueOf(status.toUpperCase());
                     
@@ -170,8 +402,10 @@ public class TaskService {
                         return null;
                     }
                     
+                    Task.TaskState previousState = task.getState();
                     task.setState(newState);
                     Task savedTask = taskRepository.save(task);
+                    taskEventService.record(TaskEvent.EventType.STATE_CHANGED, savedTask, previousState, savedTask.getAssignedUser());
                     return mapToTaskResponse(savedTask);
                 });
     }
@@ -180,13 +414,16 @@ public class TaskService {
     @Transactional
     public Optional<TaskDto.TaskResponse> startTask(UUID taskId) {
         return taskRepository.findById(taskId)
+                .map(this::checkAccess)
                 .map(task -> {
                     if (task.getAssignedUser() == null) {
                         throw new RuntimeException("Task must be assigned to a user before starting");
                     }
+                    Task.TaskState previousState = task.getState();
                     task.setState(Task.TaskState.IN_PROGRESS);
                     task.setStartTimestamp(LocalDateTime.now());
                     Task savedTask = taskRepository.save(task);
+                    taskEventService.record(TaskEvent.EventType.STATE_CHANGED, savedTask, previousState, savedTask.getAssignedUser());
                     return mapToTaskResponse(savedTask);
                 });
     }
@@ -194,12 +431,15 @@ public class TaskService {
     @Transactional
     public Optional<TaskDto.TaskResponse> finishTask(UUID taskId) {
         return taskRepository.findById(taskId)
+                .map(this::checkAccess)
                 .map(task -> {
                     if (task.getAssignedUser() == null) {
                         throw new RuntimeException("Task must be assigned to a user before finishing");
                     }
+                    Task.TaskState previousState = task.getState();
                     task.setState(Task.TaskState.WAITING_FOR_APPROVAL);
                     Task savedTask = taskRepository.save(task);
+                    taskEventService.record(TaskEvent.EventType.STATE_CHANGED, savedTask, previousState, savedTask.getAssignedUser());
                     return mapToTaskResponse(savedTask);
                 });
     }
@@ -207,6 +447,7 @@ public class TaskService {
     @Transactional
     public Optional<TaskDto.TaskResponse> approveTask(UUID taskId) {
         return taskRepository.findById(taskId)
+                .map(this::checkAccess)
                 .map(task -> {
                     if (task.getState() != Task.TaskState.WAITING_FOR_APPROVAL) {
                         throw new RuntimeException("Task must be waiting for approval to be approved");
@@ -214,6 +455,7 @@ public class TaskService {
                     task.setState(Task.TaskState.APPROVED);
                     task.setCompletionTimestamp(LocalDateTime.now());
                     Task savedTask = taskRepository.save(task);
+                    taskEventService.record(TaskEvent.EventType.STATE_CHANGED, savedTask, Task.TaskState.WAITING_FOR_APPROVAL, savedTask.getAssignedUser());
                     return mapToTaskResponse(savedTask);
                 });
     }
@@ -221,12 +463,14 @@ public class TaskService {
     @Transactional
     public Optional<TaskDto.TaskResponse> rejectTask(UUID taskId) {
         return taskRepository.findById(taskId)
+                .map(this::checkAccess)
                 .map(task -> {
                     if (task.getState() != Task.TaskState.WAITING_FOR_APPROVAL) {
                         throw new RuntimeException("Task must be waiting for approval to be rejected");
                     }
                     task.setState(Task.TaskState.REJECTED);
                     Task savedTask = taskRepository.save(task);
+                    taskEventService.record(TaskEvent.EventType.STATE_CHANGED, savedTask, Task.TaskState.WAITING_FOR_APPROVAL, savedTask.getAssignedUser());
                     return mapToTaskResponse(savedTask);
                 });
     }
@@ -234,9 +478,20 @@ public class TaskService {
     @Transactional
     public Optional<TaskDto.TaskResponse> markNotesAsRead(UUID taskId) {
         return taskRepository.findById(taskId)
+                .map(this::checkAccess)
                 .map(task -> {
+                    // Sent on every look at a task, so it is written behind instead of in this transaction
+                    if (writeCoalescer.isEnabled()) {
+                        if (Boolean.TRUE.equals(task.getHasUnreadNotes()) && task.getProject() != null) {
+                            writeCoalescer.markNotesRead(task.getId(), task.getOrganizationId(), task.getProject().getId());
+                        }
+                        return mapToTaskResponse(task);
+                    }
                     task.setHasUnreadNotes(false);
                     Task savedTask = taskRepository.save(task);
+                    if (savedTask.getProject() != null) {
+                        eventPublisher.publishEvent(new ProjectChangedEvent(savedTask.getProject().getId()));
+                    }
                     return mapToTaskResponse(savedTask);
                 });
     }
@@ -245,15 +500,189 @@ public class TaskService {
     public void deleteTasksByProjectId(UUID projectId) {
         List<Task> tasks = taskRepository.findByProjectId(projectId);
         if (!tasks.isEmpty()) {
+            tasks.forEach(task -> taskEventService.record(TaskEvent.EventType.DELETED, task, task.getState(), task.getAssignedUser()));
             taskRepository.deleteAll(tasks);
         }
     }
 
+    @Transactional(readOnly = true)
+    public Optional<List<TaskDto.TaskEventResponse>> getTaskHistory(UUID taskId) {
+        List<TaskEvent> events = taskEventService.getTaskHistory(taskId);
+        if (events.isEmpty()) {
+            return Optional.empty();
+        }
+        projectAccessGuard.checkProjectAccess(events.get(events.size() - 1).getProjectId());
+        return Optional.of(events.stream()
+                .map(this::mapToTaskEventResponse)
+                .collect(Collectors.toList()));
+    }
+
+    private List<TaskDto.TaskSummary> mapToTaskSummaries(List<TaskSummaryView> views) {
+        return views.stream()
+                .filter(view -> projectAccessGuard.canAccessProject(view.getProjectId()))
+                .map(view -> TaskDto.TaskSummary.builder()
+                        .id(view.getId())
+                        .name(view.getName())
+                        .priority(view.getPriority())
+                        .state(view.getState())
+                        .projectId(view.getProjectId())
+                        .estimatedTime(view.getEstimatedTime())
+                        .assignedUserId(view.getAssignedUserId())
+                        .assignedUserName(view.getAssignedUserName())
+                        .hasUnreadNotes(hasUnreadNotes(view.getId(), view.getHasUnreadNotes()))
+                        .rank(view.getRank())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Columns come from the detail projection; description and note counts are only queried when requested
+    private List<TaskDto.TaskResponse> mapDetailsToTaskResponses(List<TaskDetailView> views, Set<String> fields) {
+        List<TaskDetailView> accessible = views.stream()
+                .filter(view -> projectAccessGuard.canAccessProject(view.getProjectId()))
+                .collect(Collectors.toList());
+        if (accessible.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> taskIds = accessible.stream().map(TaskDetailView::getId).collect(Collectors.toList());
+        Map<UUID, Long> noteCounts = new HashMap<>();
+        if (fields.contains("noteCount")) {
+            IdChunks.query(taskIds, taskNoteRepository::countByTaskIds)
+                    .forEach(view -> noteCounts.put(view.getTaskId(), view.getNoteCount()));
+        }
+        Map<UUID, String> descriptions = new HashMap<>();
+        if (fields.contains("description")) {
+            IdChunks.query(taskIds, taskRepository::findDescriptionsByIdIn)
+                    .forEach(view -> descriptions.put(view.getId(), view.getDescription()));
+        }
+
+        return accessible.stream()
+                .map(view -> {
+                    TaskDto.TaskResponse response = new TaskDto.TaskResponse();
+                    response.setId(view.getId());
+                    response.setName(view.getName());
+                    response.setDescription(descriptions.get(view.getId()));
+                    response.setPriority(view.getPriority());
+                    response.setState(view.getState());
+                    response.setProjectId(view.getProjectId());
+                    response.setProjectName(view.getProjectName());
+                    response.setEstimatedTime(view.getEstimatedTime());
+                    response.setCreationTimestamp(view.getCreationTimestamp());
+                    response.setStartTimestamp(view.getStartTimestamp());
+                    response.setCompletionTimestamp(view.getCompletionTimestamp());
+                    response.setAssignmentTimestamp(view.getAssignmentTimestamp());
+                    response.setHasUnreadNotes(hasUnreadNotes(view.getId(), view.getHasUnreadNotes()));
+                    response.setNoteCount(noteCounts.getOrDefault(view.getId(), 0L));
+                    response.setRank(view.getRank());
+                    response.setChangeVersion(view.getChangeVersion());
+                    response.setArchived(false);
+                    if (view.getAssignedUserId() != null) {
+                        response.setAssignedUserId(view.getAssignedUserId());
+                        response.setAssignedUserName(view.getAssignedUserName());
+                        response.setAssignedUser(TaskDto.AssignedUser.builder()
+                                .id(view.getAssignedUserId())
+                                .name(view.getAssignedUserName())
+                                .email(view.getAssignedUserEmail())
+                                .build());
+                    }
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private boolean canAccess(Task task) {
+        return projectAccessGuard.canAccessProject(task.getProject().getId());
+    }
+
+    // A read that is still buffered already counts
+    private Boolean hasUnreadNotes(UUID taskId, Boolean hasUnreadNotes) {
+        return Boolean.TRUE.equals(hasUnreadNotes) && writeCoalescer.isNotesReadPending(taskId) ? Boolean.FALSE : hasUnreadNotes;
+    }
+
+    private Task checkAccess(Task task) {
+        projectAccessGuard.checkProjectAccess(task.getProject().getId());
+        return task;
+    }
+
+    private TaskDto.TaskEventResponse mapToTaskEventResponse(TaskEvent event) {
+        return TaskDto.TaskEventResponse.builder()
+                .id(event.getId())
+                .taskId(event.getTaskId())
+                .projectId(event.getProjectId())
+                .eventType(event.getEventType())
+                .oldState(event.getOldState())
+                .newState(event.getNewState())
+                .oldAssignedUserId(event.getOldAssignedUserId())
+                .newAssignedUserId(event.getNewAssignedUserId())
+                .actorId(event.getActorId())
+                .creationTimestamp(event.getCreationTimestamp())
+                .build();
+    }
+
+    // Note counts for the whole list come from grouped queries, one per id chunk, instead of one count per task
+    private List<TaskDto.TaskResponse> mapToTaskResponses(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> taskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+        Map<UUID, Long> noteCounts = IdChunks.query(taskIds, taskNoteRepository::countByTaskIds).stream()
+                .collect(Collectors.toMap(TaskNoteCountView::getTaskId, TaskNoteCountView::getNoteCount));
+        // description is a lazy attribute; load it for the whole list at once rather than per task
+        Map<UUID, String> descriptions = new HashMap<>();
+        IdChunks.query(taskIds, taskRepository::findDescriptionsByIdIn)
+                .forEach(view -> descriptions.put(view.getId(), view.getDescription()));
+
+        return tasks.stream()
+                .map(task -> mapToTaskResponse(task, descriptions.get(task.getId()), noteCounts.getOrDefault(task.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    // Archived rows are not entities of the live table, so they go through a detached Task for mapping
+    private List<TaskDto.TaskResponse> mapArchivedToTaskResponses(List<ArchivedTask> archivedTasks) {
+        if (archivedTasks.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> taskIds = archivedTasks.stream().map(ArchivedTask::getId).collect(Collectors.toList());
+        Map<UUID, Long> noteCounts = IdChunks.query(taskIds, archivedTaskNoteRepository::countByTaskIds).stream()
+                .collect(Collectors.toMap(TaskNoteCountView::getTaskId, TaskNoteCountView::getNoteCount));
+
+        return archivedTasks.stream()
+                .map(archivedTask -> {
+                    Task task = new Task();
+                    task.setId(archivedTask.getId());
+                    task.setName(archivedTask.getName());
+                    task.setPriority(archivedTask.getPriority());
+                    task.setProject(archivedTask.getProject());
+                    task.setEstimatedTime(archivedTask.getEstimatedTime());
+                    task.setState(archivedTask.getState());
+                    task.setAssignedUser(archivedTask.getAssignedUser());
+                    task.setCreationTimestamp(archivedTask.getCreationTimestamp());
+                    task.setStartTimestamp(archivedTask.getStartTimestamp());
+                    task.setCompletionTimestamp(archivedTask.getCompletionTimestamp());
+                    task.setAssignmentTimestamp(archivedTask.getAssignmentTimestamp());
+                    task.setHasUnreadNotes(archivedTask.getHasUnreadNotes());
+                    task.setRank(archivedTask.getRank());
+                    task.setChangeVersion(archivedTask.getChangeVersion());
+
+                    TaskDto.TaskResponse response = mapToTaskResponse(task, archivedTask.getDescription(),
+                            noteCounts.getOrDefault(archivedTask.getId(), 0L));
+                    response.setArchived(true);
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+
     private TaskDto.TaskResponse mapToTaskResponse(Task task) {
+        return mapToTaskResponse(task, task.getDescription(), taskNoteRepository.countByTaskId(task.getId()));
+    }
+
+    private TaskDto.TaskResponse mapToTaskResponse(Task task, String description, Long noteCount) {
         TaskDto.TaskResponse response = new TaskDto.TaskResponse();
         response.setId(task.getId());
         response.setName(task.getName());
-        response.setDescription(task.getDescription());
+        response.setDescription(description);
         response.setPriority(task.getPriority());
         response.setState(task.getState());
         response.setEstimatedTime(task.getEstimatedTime());
@@ -261,8 +690,11 @@ public class TaskService {
         response.setStartTimestamp(task.getStartTimestamp());
         response.setCompletionTimestamp(task.getCompletionTimestamp());
         response.setAssignmentTimestamp(task.getAssignmentTimestamp());
-        response.setHasUnreadNotes(task.getHasUnreadNotes());
-        response.setNoteCount(taskNoteRepository.countByTaskId(task.getId()));
+        response.setHasUnreadNotes(hasUnreadNotes(task.getId(), task.getHasUnreadNotes()));
+        response.setNoteCount(noteCount);
+        response.setRank(task.getRank());
+        response.setChangeVersion(task.getChangeVersion());
+        response.setArchived(false);
 
         if (task.getProject() != null) {
             response.setProjectId(task.getProject().getId());
@@ -4,6 +4,7 @@ import com.example.pai.dao.model.UserActiveProject;
 import com.example.pai.dao.repository.ProjectRepository;
 import com.example.pai.dao.repository.UserActiveProjectRepository;
 import com.example.pai.dao.repository.UserManagmentRepository;
+import com.example.pai.service.cache.WriteCoalescer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,18 +19,29 @@ public class UserActiveProjectService {
     private final UserActiveProjectRepository userActiveProjectRepository;
     private final UserManagmentRepository userRepository;
     private final ProjectRepository projectRepository;
+    private final WriteCoalescer writeCoalescer;
 
     @Transactional(readOnly = true)
     public Optional<UUID> getActiveProject(UUID userId) {
+        Optional<UUID> pending = writeCoalescer.getPendingActiveProject(userId);
+        if (pending.isPresent()) {
+            return pending;
+        }
         return userActiveProjectRepository.findByUserId(userId)
                 .map(userActiveProject -> userActiveProject.getProject().getId());
     }
 
+    // Sent on every navigation, so the change is written behind; see WriteCoalescer
     @Transactional
     public boolean setActiveProject(UUID userId, UUID projectId) {
         return userRepository.findById(userId)
                 .flatMap(user -> projectRepository.findById(projectId)
+                        .filter(project -> project.getOrganizationId().equals(user.getOrganizationId()))
                         .map(project -> {
+                            if (writeCoalescer.isEnabled()) {
+                                writeCoalescer.setActiveProject(userId, user.getOrganizationId(), projectId);
+                                return true;
+                            }
                             UserActiveProject activeProject = userActiveProjectRepository
                                     .findByUserId(userId)
                                     .orElse(new UserActiveProject());
@@ -41,4 +53,4 @@ public class UserActiveProjectService {
                         }))
                 .orElse(false);
     }
-}
\ No newline at end of file
+}
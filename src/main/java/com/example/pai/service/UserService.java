@@ -1,15 +1,25 @@
 package com.example.pai.service;
 
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.shard.ShardRegistry;
 import com.example.pai.controller.user.dto.UserDto;
 import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.projection.UserDirectoryView;
 import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.auth.TokenVersions;
+import com.example.pai.service.directory.UserDirectoryIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -19,6 +29,12 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final ShardRegistry shardRegistry;
+    private final TokenVersions tokenVersions;
+
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MIN_SUBSTRING_LENGTH = 3;
 
     public List<UserManagment> getAllUsers() {
         return userRepository.findAll();
@@ -30,8 +46,44 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Typeahead search over visible users. Prefixes of emails and name words are answered from
+     * {@link UserDirectoryIndex}; when that yields fewer than {@code limit} users and the query is
+     * long enough for the trigram indexes, matches inside words are added from the database. Only
+     * users of the caller's organization are searched.
+     */
+    public List<UserDto.UserSearchResult> searchUsers(String query, String role, int limit) {
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (currentUser == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        UUID organizationId = currentUser.getOrganizationId();
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+
+        List<UserDto.UserSearchResult> results = new ArrayList<>(size);
+        Set<UUID> found = new HashSet<>();
+        for (UserDirectoryIndex.Entry entry : userDirectoryIndex.findByPrefix(organizationId, normalized, role, size)) {
+            found.add(entry.id());
+            results.add(mapToUserSearchResult(entry.id(), entry.email(), entry.name(), entry.roleId()));
+        }
+
+        if (results.size() < size && normalized.length() >= MIN_SUBSTRING_LENGTH) {
+            String pattern = "%" + escapeLikePattern(normalized) + "%";
+            for (UserDirectoryView user : userRepository.searchDirectory(organizationId, pattern, role, size + found.size())) {
+                if (found.add(user.getId())) {
+                    results.add(mapToUserSearchResult(user.getId(), user.getEmail(), user.getName(), user.getRoleId()));
+                    if (results.size() == size) {
+                        break;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
     public Optional<UserManagment> getUserById(UUID id) {
-        return userRepository.findById(id);
+        return findUser(id);
     }
 
     public Optional<UserManagment> getUserByEmail(String email) {
@@ -39,73 +91,123 @@ public class UserService {
     }
 
     public UserManagment createUser(UserManagment userManagment) {
-        if (userRepository.existsByEmail(userManagment.getEmail())) {
+        if (emailExists(userManagment.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
 
         userManagment.setPassword(passwordEncoder.encode(userManagment.getPassword()));
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
+        if (currentUser != null) {
+            userManagment.setOrganizationId(currentUser.getOrganizationId());
+        } else if (userManagment.getOrganizationId() == null) {
+            userManagment.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+        }
         userManagment.setCreationTimestamp(LocalDateTime.now());
         userManagment.setModificationTimestamp(LocalDateTime.now());
 
-        return userRepository.save(userManagment);
+        UserManagment savedUser = userRepository.save(userManagment);
+        userDirectoryIndex.refresh(savedUser);
+        return savedUser;
     }
 
     public Optional<UserManagment> updateUser(UUID id, UserManagment userManagmentDetails) {
-        return userRepository.findById(id)
+        return findUser(id)
                 .map(existingUserManagment -> {
+                    boolean accessChanged = false;
                     if (userManagmentDetails.getName() != null) {
                         existingUserManagment.setName(userManagmentDetails.getName());
                     }
 
                     if (userManagmentDetails.getEmail() != null && !userManagmentDetails.getEmail().equals(existingUserManagment.getEmail())) {
-                        if (userRepository.existsByEmail(userManagmentDetails.getEmail())) {
+                        if (emailExists(userManagmentDetails.getEmail())) {
                             throw new RuntimeException("Email already exists");
                         }
                         existingUserManagment.setEmail(userManagmentDetails.getEmail());
+                        accessChanged = true;
                     }
 
                     if (userManagmentDetails.getPassword() != null) {
                         existingUserManagment.setPassword(passwordEncoder.encode(userManagmentDetails.getPassword()));
+                        accessChanged = true;
                     }
 
                     if (userManagmentDetails.getRole() != null) {
+                        accessChanged |= existingUserManagment.getRole() == null
+                                || !Objects.equals(existingUserManagment.getRole().getId(), userManagmentDetails.getRole().getId());
                         existingUserManagment.setRole(userManagmentDetails.getRole());
                     }
 
                     if (userManagmentDetails.getActivated() != null) {
+                        accessChanged |= !userManagmentDetails.getActivated().equals(existingUserManagment.getActivated());
                         existingUserManagment.setActivated(userManagmentDetails.getActivated());
                     }
 
                     if (userManagmentDetails.getHidden() != null) {
+                        accessChanged |= !userManagmentDetails.getHidden().equals(existingUserManagment.getHidden());
                         existingUserManagment.setHidden(userManagmentDetails.getHidden());
                     }
 
+                    // Tokens issued before a change of credentials or access stop working
+                    if (accessChanged) {
+                        existingUserManagment.setTokenVersion(existingUserManagment.getTokenVersion() + 1);
+                        tokenVersions.evict(id);
+                    }
                     existingUserManagment.setModificationTimestamp(LocalDateTime.now());
 
-                    return userRepository.save(existingUserManagment);
+                    UserManagment savedUser = userRepository.save(existingUserManagment);
+                    userDirectoryIndex.refresh(savedUser);
+                    return savedUser;
                 });
     }
 
     public boolean deleteUser(UUID id) {
-        return userRepository.findById(id)
+        return findUser(id)
                 .map(userManagment -> {
                     userRepository.delete(userManagment);
+                    userDirectoryIndex.remove(id);
+                    tokenVersions.evict(id);
                     return true;
                 })
                 .orElse(false);
     }
 
     public boolean softDeleteUser(UUID id) {
-        return userRepository.findById(id)
+        return findUser(id)
                 .map(userManagment -> {
                     userManagment.setHidden(true);
                     userManagment.setModificationTimestamp(LocalDateTime.now());
                     userRepository.save(userManagment);
+                    userDirectoryIndex.remove(id);
+                    tokenVersions.evict(id);
                     return true;
                 })
                 .orElse(false);
     }
 
+    // Emails are unique across shards as well, logins look users up on all of them
+    private boolean emailExists(String email) {
+        return shardRegistry.anyMatch(() -> userRepository.existsByEmail(email));
+    }
+
+    // Loading by id bypasses the tenant filter, so users of other organizations are dropped here
+    private Optional<UserManagment> findUser(UUID id) {
+        return userRepository.findById(id)
+                .filter(user -> AuthenticatedUser.isCurrentOrganization(user.getOrganizationId()));
+    }
+
+    private UserDto.UserSearchResult mapToUserSearchResult(UUID id, String email, String name, UUID roleId) {
+        return UserDto.UserSearchResult.builder()
+                .id(id)
+                .email(email)
+                .name(name)
+                .role(userDirectoryIndex.getRoleName(roleId))
+                .build();
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private UserDto.UserResponse mapToUserResponse(UserManagment user) {
         return UserDto.UserResponse.builder()
                 .id(user.getId())
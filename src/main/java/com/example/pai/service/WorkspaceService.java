@@ -0,0 +1,92 @@
+package com.example.pai.service;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.controller.project.dto.ProjectDto;
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.controller.user.dto.WorkspaceDto;
+import com.example.pai.dao.model.Task;
+import com.example.pai.service.access.ProjectMembershipIndex;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Loads everything the UI needs after login in one call. The parts are independent, so they run
+ * concurrently, each in its own read-only transaction, with the caller's security context.
+ */
+@Service
+public class WorkspaceService {
+
+    private final UserActiveProjectService userActiveProjectService;
+    private final ProjectService projectService;
+    private final TaskService taskService;
+    private final ProjectMembershipIndex membershipIndex;
+    private final Executor executor;
+
+    public WorkspaceService(UserActiveProjectService userActiveProjectService,
+                            ProjectService projectService,
+                            TaskService taskService,
+                            ProjectMembershipIndex membershipIndex,
+                            ThreadPoolTaskExecutor workspaceTaskExecutor) {
+        this.userActiveProjectService = userActiveProjectService;
+        this.projectService = projectService;
+        this.taskService = taskService;
+        this.membershipIndex = membershipIndex;
+        this.executor = new DelegatingSecurityContextExecutor(workspaceTaskExecutor);
+    }
+
+    public WorkspaceDto.WorkspaceResponse getWorkspace(UUID userId) {
+        // A workspace is personal: the parts below filter by the caller's access, not by userId's
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user != null && !user.getId().equals(userId)) {
+            throw new AccessDeniedException("No access to workspace of user " + userId);
+        }
+
+        CompletableFuture<Optional<UUID>> activeProject = CompletableFuture.supplyAsync(
+                () -> userActiveProjectService.getActiveProject(userId), executor);
+        CompletableFuture<List<ProjectDto.ProjectResponse>> projects = CompletableFuture.supplyAsync(
+                () -> projectService.getProjectsForUser(userId), executor);
+        CompletableFuture<List<TaskDto.TaskResponse>> assignedTasks = CompletableFuture.supplyAsync(
+                () -> taskService.getTasksByAssignedUser(userId), executor);
+        // Project ids come from the membership index, so counting does not wait for the project query
+        CompletableFuture<Map<UUID, Map<Task.TaskState, Long>>> taskCounts = CompletableFuture.supplyAsync(
+                () -> taskService.getTaskCountsByProject(membershipIndex.getProjects(userId)), executor);
+
+        try {
+            CompletableFuture.allOf(activeProject, projects, assignedTasks, taskCounts).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        Map<UUID, Map<Task.TaskState, Long>> countsByProject = taskCounts.join();
+        return WorkspaceDto.WorkspaceResponse.builder()
+                .activeProjectId(activeProject.join().orElse(null))
+                .projects(projects.join())
+                .assignedTasks(assignedTasks.join())
+                .projectTaskCounts(projects.join().stream()
+                        .map(project -> mapToProjectTaskCounts(project.getId(), countsByProject.getOrDefault(project.getId(), Map.of())))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private WorkspaceDto.ProjectTaskCounts mapToProjectTaskCounts(UUID projectId, Map<Task.TaskState, Long> countByState) {
+        return WorkspaceDto.ProjectTaskCounts.builder()
+                .projectId(projectId)
+                .totalCount(countByState.values().stream().mapToLong(Long::longValue).sum())
+                .countByState(countByState)
+                .build();
+    }
+}
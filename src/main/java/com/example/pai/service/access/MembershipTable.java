@@ -0,0 +1,201 @@
+package com.example.pai.service.access;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One direction of a many-to-many relation between ids. The values of a key are stored as the two
+ * halves of each UUID in one sorted long array, 16 bytes per pair instead of a hash set entry and a
+ * UUID object for each. Arrays are never changed once published, writers replace them, so readers
+ * need no lock. Meant for relations that are read far more often than changed.
+ */
+final class MembershipTable {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<UUID, long[]> valuesByKey = new ConcurrentHashMap<>();
+
+    boolean contains(UUID key, UUID value) {
+        long[] values = valuesByKey.get(key);
+        return values != null && indexOf(values, value.getMostSignificantBits(), value.getLeastSignificantBits()) >= 0;
+    }
+
+    Set<UUID> get(UUID key) {
+        return new Values(valuesByKey.getOrDefault(key, EMPTY));
+    }
+
+    Set<UUID> keys() {
+        return valuesByKey.keySet();
+    }
+
+    void add(UUID key, UUID value) {
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        valuesByKey.compute(key, (id, values) -> {
+            long[] current = values != null ? values : EMPTY;
+            int index = indexOf(current, msb, lsb);
+            if (index >= 0) {
+                return current;
+            }
+            int at = -index - 1;
+            long[] added = new long[current.length + 2];
+            System.arraycopy(current, 0, added, 0, at);
+            added[at] = msb;
+            added[at + 1] = lsb;
+            System.arraycopy(current, at, added, at + 2, current.length - at);
+            return added;
+        });
+    }
+
+    void remove(UUID key, UUID value) {
+        long msb = value.getMostSignificantBits();
+        long lsb = value.getLeastSignificantBits();
+        valuesByKey.computeIfPresent(key, (id, values) -> {
+            int at = indexOf(values, msb, lsb);
+            if (at < 0) {
+                return values;
+            }
+            if (values.length == 2) {
+                return null;
+            }
+            long[] removed = new long[values.length - 2];
+            System.arraycopy(values, 0, removed, 0, at);
+            System.arraycopy(values, at + 2, removed, at, values.length - at - 2);
+            return removed;
+        });
+    }
+
+    Set<UUID> removeKey(UUID key) {
+        long[] values = valuesByKey.remove(key);
+        return new Values(values != null ? values : EMPTY);
+    }
+
+    /**
+     * Swaps in the loaded values key by key and then drops the keys that were not loaded, so a pair
+     * present before and after never disappears for a reader.
+     */
+    void replaceAll(Loader loaded) {
+        Map<UUID, long[]> values = loaded.build();
+        valuesByKey.putAll(values);
+        valuesByKey.keySet().retainAll(values.keySet());
+    }
+
+    // Pairs are ordered by the signed halves, which is all the binary search needs
+    private static int indexOf(long[] values, long msb, long lsb) {
+        int low = 0;
+        int high = values.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(values[2 * mid], values[2 * mid + 1], msb, lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return 2 * mid;
+            }
+        }
+        return -(2 * low) - 1;
+    }
+
+    private static int compare(long msb1, long lsb1, long msb2, long lsb2) {
+        int cmp = Long.compare(msb1, msb2);
+        return cmp != 0 ? cmp : Long.compare(lsb1, lsb2);
+    }
+
+    /**
+     * Collects pairs for {@link #replaceAll}, growing one array per key and sorting each once at the end.
+     */
+    static final class Loader {
+
+        private final Map<UUID, long[]> values = new HashMap<>();
+        private final Map<UUID, Integer> sizes = new HashMap<>();
+
+        void add(UUID key, UUID value) {
+            long[] current = values.computeIfAbsent(key, id -> new long[4]);
+            int size = sizes.getOrDefault(key, 0);
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+                values.put(key, current);
+            }
+            current[size] = value.getMostSignificantBits();
+            current[size + 1] = value.getLeastSignificantBits();
+            sizes.put(key, size + 2);
+        }
+
+        private Map<UUID, long[]> build() {
+            Map<UUID, long[]> built = new HashMap<>(values.size() * 2);
+            values.forEach((key, pairs) -> built.put(key, sortedDistinct(pairs, sizes.get(key))));
+            return built;
+        }
+
+        private static long[] sortedDistinct(long[] pairs, int size) {
+            Integer[] order = new Integer[size / 2];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compare(pairs[2 * a], pairs[2 * a + 1], pairs[2 * b], pairs[2 * b + 1]));
+            long[] sorted = new long[size];
+            int length = 0;
+            for (int i : order) {
+                if (length > 0 && sorted[length - 2] == pairs[2 * i] && sorted[length - 1] == pairs[2 * i + 1]) {
+                    continue;
+                }
+                sorted[length++] = pairs[2 * i];
+                sorted[length++] = pairs[2 * i + 1];
+            }
+            return length == size ? sorted : Arrays.copyOf(sorted, length);
+        }
+    }
+
+    /**
+     * Read-only view of one key's values at the time it was taken.
+     */
+    private static final class Values extends AbstractSet<UUID> {
+
+        private final long[] values;
+
+        Values(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof UUID value && indexOf(values, value.getMostSignificantBits(), value.getLeastSignificantBits()) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return values.length / 2;
+        }
+
+        @Override
+        public Iterator<UUID> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < values.length;
+                }
+
+                @Override
+                public UUID next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    UUID value = new UUID(values[next], values[next + 1]);
+                    next += 2;
+                    return value;
+                }
+            };
+        }
+    }
+}
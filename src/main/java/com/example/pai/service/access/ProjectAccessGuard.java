@@ -0,0 +1,68 @@
+package com.example.pai.service.access;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.security.Permission;
+import com.example.pai.dao.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class ProjectAccessGuard {
+
+    private final ProjectMembershipIndex membershipIndex;
+    private final ProjectRepository projectRepository;
+
+    // A project never moves to another organization, so entries only go away with the project
+    private final Map<UUID, UUID> organizationsByProject = new ConcurrentHashMap<>();
+
+    public void checkProjectAccess(UUID projectId) {
+        if (!canAccessProject(projectId)) {
+            throw new AccessDeniedException("No access to project " + projectId);
+        }
+    }
+
+    /**
+     * Projects of other organizations are never accessible; within the caller's organization
+     * {@link Permission#ALL_PROJECTS} grants every project and membership grants the rest.
+     */
+    public boolean canAccessProject(UUID projectId) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        // No authenticated user means an internal call (scheduler, relay); HTTP requests are always authenticated
+        if (user == null) {
+            return true;
+        }
+        if (projectId == null || !user.getOrganizationId().equals(getOrganizationId(projectId))) {
+            return false;
+        }
+        return user.hasPermission(Permission.ALL_PROJECTS) || membershipIndex.isMember(projectId, user.getId());
+    }
+
+    public boolean isInCurrentOrganization(UUID projectId) {
+        return AuthenticatedUser.isCurrentOrganization(getOrganizationId(projectId));
+    }
+
+    /**
+     * Organization of the project, or null when it is not found. The lookup goes through the tenant
+     * filter, so an uncached project of another organization is not found either.
+     */
+    public UUID getOrganizationId(UUID projectId) {
+        UUID organizationId = organizationsByProject.get(projectId);
+        if (organizationId == null) {
+            organizationId = projectRepository.findOrganizationIdById(projectId).orElse(null);
+            if (organizationId != null) {
+                organizationsByProject.put(projectId, organizationId);
+            }
+        }
+        return organizationId;
+    }
+
+    public void removeProject(UUID projectId) {
+        organizationsByProject.remove(projectId);
+    }
+}
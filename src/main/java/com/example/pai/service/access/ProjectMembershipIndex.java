@@ -0,0 +1,112 @@
+package com.example.pai.service.access;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.config.startup.StartupCritical;
+import com.example.pai.dao.projection.MembershipView;
+import com.example.pai.dao.repository.ProjectAssignmentRepository;
+import com.example.pai.service.cluster.ClusterBus;
+import com.example.pai.service.cluster.ClusterInvalidationListener;
+import com.example.pai.service.cluster.ClusterMessage;
+import com.example.pai.service.support.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory copy of project_assignment in both directions, loaded before the web server starts
+ * and updated by ProjectService once an assignment change has committed. Changes made on other
+ * nodes arrive through the {@link ClusterBus} and are re-read from the database. The ids are kept
+ * unboxed in {@link MembershipTable}s: a million assignments take about 44 MB instead of about
+ * 165 MB as sets of UUIDs (ProjectMembershipFootprintTests).
+ */
+@Component
+@StartupCritical
+@RequiredArgsConstructor
+public class ProjectMembershipIndex implements ClusterInvalidationListener {
+
+    private final ProjectAssignmentRepository projectAssignmentRepository;
+    private final ClusterBus clusterBus;
+    private final ShardRegistry shardRegistry;
+
+    private final MembershipTable membersByProject = new MembershipTable();
+    private final MembershipTable projectsByUser = new MembershipTable();
+
+    @PostConstruct
+    public void reload() {
+        MembershipTable.Loader members = new MembershipTable.Loader();
+        MembershipTable.Loader projects = new MembershipTable.Loader();
+        shardRegistry.forEach(() -> {
+            for (MembershipView membership : projectAssignmentRepository.findAllMemberships()) {
+                members.add(membership.getProjectId(), membership.getUserId());
+                projects.add(membership.getUserId(), membership.getProjectId());
+            }
+        });
+        membersByProject.replaceAll(members);
+        projectsByUser.replaceAll(projects);
+    }
+
+    public boolean isMember(UUID projectId, UUID userId) {
+        return membersByProject.contains(projectId, userId);
+    }
+
+    // The returned sets are read-only snapshots
+    public Set<UUID> getMembers(UUID projectId) {
+        return membersByProject.get(projectId);
+    }
+
+    public Set<UUID> getProjects(UUID userId) {
+        return projectsByUser.get(userId);
+    }
+
+    public void addMember(UUID projectId, UUID userId) {
+        clusterBus.publish(ClusterMessage.PROJECT_MEMBERS, projectId);
+        AfterCommit.run(() -> put(projectId, userId));
+    }
+
+    public void removeMember(UUID projectId, UUID userId) {
+        clusterBus.publish(ClusterMessage.PROJECT_MEMBERS, projectId);
+        AfterCommit.run(() -> remove(projectId, userId));
+    }
+
+    public void removeProject(UUID projectId) {
+        clusterBus.publish(ClusterMessage.PROJECT_MEMBERS, projectId);
+        AfterCommit.run(() -> membersByProject.removeKey(projectId)
+                .forEach(userId -> projectsByUser.remove(userId, projectId)));
+    }
+
+    @Override
+    public void invalidate(ClusterMessage message) {
+        if (!ClusterMessage.PROJECT_MEMBERS.equals(message.topic())) {
+            return;
+        }
+        UUID projectId = UUID.fromString(message.key());
+        // The message does not say which shard the project is on; only one of them has its rows
+        Set<UUID> members = new HashSet<>();
+        shardRegistry.forEach(() -> members.addAll(projectAssignmentRepository.findUserIdsByProjectId(projectId)));
+        for (UUID userId : getMembers(projectId)) {
+            if (!members.contains(userId)) {
+                remove(projectId, userId);
+            }
+        }
+        members.forEach(userId -> put(projectId, userId));
+    }
+
+    @Override
+    public void invalidateAll() {
+        reload();
+    }
+
+    private void put(UUID projectId, UUID userId) {
+        membersByProject.add(projectId, userId);
+        projectsByUser.add(userId, projectId);
+    }
+
+    private void remove(UUID projectId, UUID userId) {
+        membersByProject.remove(projectId, userId);
+        projectsByUser.remove(userId, projectId);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.pai.service.access;
+
+import com.example.pai.config.security.Permission;
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.config.startup.StartupCritical;
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.projection.RolePermissionView;
+import com.example.pai.dao.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Permission bits of every role, read from role_permission once at startup. Role permissions only
+ * change through migrations, so the map is never refreshed while running.
+ */
+@Component
+@StartupCritical
+@RequiredArgsConstructor
+public class RolePermissions {
+
+    private final RoleRepository roleRepository;
+    private final ShardRegistry shardRegistry;
+
+    private volatile Map<UUID, Long> permissionsByRole = Map.of();
+
+    @PostConstruct
+    public void load() {
+        Map<UUID, Long> permissions = new HashMap<>();
+        // Every shard seeds its own roles with their own ids, so the maps of all shards are merged
+        shardRegistry.forEach(() -> {
+            for (RolePermissionView row : roleRepository.findAllPermissions()) {
+                permissions.merge(row.getRoleId(), Permission.valueOf(row.getPermission()).mask(), (a, b) -> a | b);
+            }
+        });
+        permissionsByRole = Map.copyOf(permissions);
+    }
+
+    public long permissionsOf(Role role) {
+        return role != null ? permissionsOf(role.getId()) : 0L;
+    }
+
+    public long permissionsOf(UUID roleId) {
+        Long permissions = roleId != null ? permissionsByRole.get(roleId) : null;
+        return permissions != null ? permissions : 0L;
+    }
+
+    public boolean hasPermission(Role role, Permission permission) {
+        return permission.isGrantedIn(permissionsOf(role));
+    }
+
+    public boolean hasPermission(UUID roleId, Permission permission) {
+        return permission.isGrantedIn(permissionsOf(roleId));
+    }
+}
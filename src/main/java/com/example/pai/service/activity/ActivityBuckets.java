@@ -0,0 +1,30 @@
+package com.example.pai.service.activity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The activity stream is bucketed by calendar month; a bucket is the first day of its month and
+ * names the partition that holds it.
+ */
+final class ActivityBuckets {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private ActivityBuckets() {
+    }
+
+    static LocalDate of(LocalDateTime time) {
+        return YearMonth.from(time).atDay(1);
+    }
+
+    static LocalDate current() {
+        return of(LocalDateTime.now());
+    }
+
+    static String partitionName(LocalDate bucket) {
+        return "activity_event_" + PARTITION_SUFFIX.format(bucket);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.pai.service.activity;
+
+import com.example.pai.config.shard.ShardRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps activity_event partitioned by month on every shard: each month of the retention window
+ * and a few ahead gets its partition, and months that fell out of the window are dropped whole,
+ * which is all the compaction an append-only stream needs. Rows that landed in the default
+ * partition because their month had no partition yet are moved into the new one.
+ */
+@Slf4j
+@Component
+public class ActivityPartitions {
+
+    private static final String PARENT = "activity_event";
+    private static final String DEFAULT_PARTITION = "activity_event_default";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRegistry shardRegistry;
+    private final int retentionMonths;
+    private final int monthsAhead;
+
+    public ActivityPartitions(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ShardRegistry shardRegistry,
+            @Value("${activity.retention-months:6}") int retentionMonths,
+            @Value("${activity.partitions-ahead:2}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRegistry = shardRegistry;
+        this.retentionMonths = retentionMonths;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * The oldest month still kept; reads never need to look further back.
+     */
+    public LocalDate oldestBucket() {
+        return ActivityBuckets.current().minusMonths(retentionMonths);
+    }
+
+    // Runs once at startup, so the current month has its partition before the first write
+    @Scheduled(fixedDelayString = "${activity.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        shardRegistry.forEach(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> maintainShard());
+            } catch (RuntimeException e) {
+                log.warn("Maintaining activity partitions failed, retrying on the next run", e);
+            }
+        });
+    }
+
+    private void maintainShard() {
+        // Another node is at it already
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('" + PARENT + "'))", Boolean.class))) {
+            return;
+        }
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = CAST(? AS regclass)", String.class, PARENT));
+
+        LocalDate oldest = oldestBucket();
+        LocalDate last = ActivityBuckets.current().plusMonths(monthsAhead);
+        for (LocalDate bucket = oldest; !bucket.isAfter(last); bucket = bucket.plusMonths(1)) {
+            String partition = ActivityBuckets.partitionName(bucket);
+            if (!existing.contains(partition)) {
+                create(partition, bucket);
+            }
+        }
+
+        String oldestName = ActivityBuckets.partitionName(oldest);
+        List<String> expired = existing.stream()
+                .filter(name -> !DEFAULT_PARTITION.equals(name))
+                .filter(name -> name.compareTo(oldestName) < 0)
+                .toList();
+        for (String partition : expired) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped activity partition {}", partition);
+        }
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE bucket < ?", oldest);
+    }
+
+    private void create(String partition, LocalDate bucket) {
+        LocalDate next = bucket.plusMonths(1);
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + PARENT + " INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE bucket >= ? AND bucket < ? RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved", bucket, next);
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + partition +
+                " FOR VALUES FROM ('" + bucket + "') TO ('" + next + "')");
+        log.info("Created activity partition {}{}", partition, moved > 0 ? ", moved " + moved + " rows into it" : "");
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.pai.service.activity;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.dao.model.Project;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.TaskNote;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Appends to the organization's activity stream. Rows are only ever inserted; they leave with the
+ * monthly partition that holds them.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityRecorder {
+
+    private static final int MAX_SUMMARY_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public enum Entity { TASK, NOTE, PROJECT, MEMBER }
+
+    public enum Action { CREATED, UPDATED, ASSIGNED, STATE_CHANGED, DELETED, ADDED, REMOVED }
+
+    public record Activity(Entity entity, Action action, UUID organizationId, UUID projectId, UUID taskId,
+                           UUID noteId, UUID subjectUserId, String summary) {
+
+        public static Activity ofTask(Action action, Task task) {
+            return new Activity(Entity.TASK, action, task.getOrganizationId(),
+                    task.getProject() != null ? task.getProject().getId() : null, task.getId(), null,
+                    task.getAssignedUser() != null ? task.getAssignedUser().getId() : null, task.getName());
+        }
+
+        public static Activity ofNote(Action action, TaskNote note) {
+            Task task = note.getTask();
+            return new Activity(Entity.NOTE, action, task.getOrganizationId(),
+                    task.getProject() != null ? task.getProject().getId() : null, task.getId(), note.getId(),
+                    null, task.getName());
+        }
+
+        public static Activity ofProject(Action action, Project project) {
+            return new Activity(Entity.PROJECT, action, project.getOrganizationId(), project.getId(), null, null,
+                    null, project.getName());
+        }
+
+        public static Activity ofMember(Action action, UUID organizationId, UUID projectId, UUID userId) {
+            return new Activity(Entity.MEMBER, action, organizationId, projectId, null, null, userId, null);
+        }
+    }
+
+    // Joins the caller's transaction, so the activity commits or rolls back together with the change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Activity activity) {
+        if (activity.organizationId() == null) {
+            return;
+        }
+        AuthenticatedUser actor = AuthenticatedUser.current();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO activity_event (bucket, organization_id, project_id, task_id, note_id, actor_id, " +
+                        "entity_type, action, subject_user_id, summary, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                ActivityBuckets.of(now), activity.organizationId(), activity.projectId(), activity.taskId(),
+                activity.noteId(), actor != null ? actor.getId() : null, activity.entity().name(),
+                activity.action().name(), activity.subjectUserId(), truncate(activity.summary()), now);
+    }
+
+    private static String truncate(String summary) {
+        return summary != null && summary.length() > MAX_SUMMARY_LENGTH ? summary.substring(0, MAX_SUMMARY_LENGTH) : summary;
+    }
+}
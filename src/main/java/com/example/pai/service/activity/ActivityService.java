@@ -0,0 +1,123 @@
+package com.example.pai.service.activity;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.controller.activity.dto.ActivityDto;
+import com.example.pai.service.access.ProjectAccessGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads the activity stream of the caller's organization with keyset paging. Each query names one
+ * month and continues below an id, so a page is one range scan of one partition's index; only when
+ * a month runs out does the next query move on to the month before.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityService {
+
+    public static final int MAX_LIMIT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityPartitions activityPartitions;
+    private final ProjectAccessGuard projectAccessGuard;
+
+    private record Cursor(LocalDate bucket, long id) {
+
+        static Optional<Cursor> parse(String value) {
+            int separator = value.indexOf(':');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new Cursor(LocalDate.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1))));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return bucket + ":" + id;
+        }
+    }
+
+    private record Row(LocalDate bucket, ActivityDto.ActivityEventResponse event) {
+    }
+
+    /**
+     * Returns empty for a cursor that was not produced by this endpoint.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ActivityDto.ActivityPage> getActivity(UUID projectId, UUID userId, String before, int limit) {
+        Optional<Cursor> cursor = Optional.empty();
+        if (before != null) {
+            cursor = Cursor.parse(before);
+            if (cursor.isEmpty()) {
+                return Optional.empty();
+            }
+        }
+        if (projectId != null) {
+            projectAccessGuard.checkProjectAccess(projectId);
+        }
+        UUID organizationId = AuthenticatedUser.current().getOrganizationId();
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        List<Row> rows = new ArrayList<>(pageSize);
+        LocalDate oldest = activityPartitions.oldestBucket();
+        LocalDate bucket = cursor.map(Cursor::bucket).orElse(ActivityBuckets.current());
+        long below = cursor.map(Cursor::id).orElse(Long.MAX_VALUE);
+        while (rows.size() < pageSize && !bucket.isBefore(oldest)) {
+            rows.addAll(query(organizationId, bucket, below, projectId, userId, pageSize - rows.size()));
+            bucket = bucket.minusMonths(1);
+            below = Long.MAX_VALUE;
+        }
+
+        Row last = rows.size() == pageSize ? rows.get(rows.size() - 1) : null;
+        return Optional.of(ActivityDto.ActivityPage.builder()
+                .events(rows.stream().map(Row::event).toList())
+                .nextCursor(last != null ? new Cursor(last.bucket(), last.event().getId()).toString() : null)
+                .build());
+    }
+
+    private List<Row> query(UUID organizationId, LocalDate bucket, long below, UUID projectId, UUID userId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, bucket, entity_type, action, project_id, task_id, note_id, " +
+                "actor_id, subject_user_id, summary, occurred_at FROM activity_event " +
+                "WHERE organization_id = ? AND bucket = ? AND id < ?");
+        List<Object> args = new ArrayList<>(List.of(organizationId, bucket, below));
+        if (projectId != null) {
+            sql.append(" AND project_id = ?");
+            args.add(projectId);
+        }
+        if (userId != null) {
+            sql.append(" AND actor_id = ?");
+            args.add(userId);
+        }
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (row, rowNum) -> new Row(
+                row.getObject("bucket", LocalDate.class),
+                ActivityDto.ActivityEventResponse.builder()
+                        .id(row.getLong("id"))
+                        .entityType(row.getString("entity_type"))
+                        .action(row.getString("action"))
+                        .projectId(row.getObject("project_id", UUID.class))
+                        .taskId(row.getObject("task_id", UUID.class))
+                        .noteId(row.getObject("note_id", UUID.class))
+                        .actorId(row.getObject("actor_id", UUID.class))
+                        .subjectUserId(row.getObject("subject_user_id", UUID.class))
+                        .summary(row.getString("summary"))
+                        .occurredAt(row.getObject("occurred_at", LocalDateTime.class))
+                        .build()), args.toArray());
+    }
+}
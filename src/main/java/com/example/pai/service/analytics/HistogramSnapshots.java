@@ -0,0 +1,37 @@
+package com.example.pai.service.analytics;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+final class HistogramSnapshots {
+
+    // Two significant digits: every percentile is exact to within 1%
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private HistogramSnapshots() {
+    }
+
+    static Histogram empty() {
+        return new Histogram(SIGNIFICANT_DIGITS);
+    }
+
+    // A decoded histogram only covers the values it held when encoded; it has to keep growing
+    static Histogram decode(byte[] snapshot) {
+        try {
+            Histogram histogram = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(snapshot), 0);
+            histogram.setAutoResize(true);
+            return histogram;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt histogram snapshot", e);
+        }
+    }
+
+    static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+}
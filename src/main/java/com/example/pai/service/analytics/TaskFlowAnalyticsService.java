@@ -0,0 +1,106 @@
+package com.example.pai.service.analytics;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.security.Permission;
+import com.example.pai.controller.analytics.dto.AnalyticsDto;
+import com.example.pai.dao.model.TaskFlowHistogram;
+import com.example.pai.dao.repository.TaskFlowHistogramRepository;
+import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.access.ProjectAccessGuard;
+import lombok.RequiredArgsConstructor;
+import org.HdrHistogram.Histogram;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Answers flow questions from the weekly histograms alone: a report merges at most
+ * weeks x metrics snapshots, however many tasks they summarize.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskFlowAnalyticsService {
+
+    static final int MAX_WEEKS = 104;
+
+    private final TaskFlowHistogramRepository histogramRepository;
+    private final ProjectAccessGuard projectAccessGuard;
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public AnalyticsDto.FlowReport getProjectFlow(UUID projectId, int weeks) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        return report(TaskFlowHistogram.Scope.PROJECT, projectId, weeks);
+    }
+
+    @Transactional(readOnly = true)
+    public AnalyticsDto.FlowReport getUserFlow(UUID userId, int weeks) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user != null && !user.getId().equals(userId) && (!user.hasPermission(Permission.ALL_PROJECTS)
+                || userRepository.findById(userId).filter(other -> other.getOrganizationId().equals(user.getOrganizationId())).isEmpty())) {
+            throw new AccessDeniedException("No access to analytics of user " + userId);
+        }
+        return report(TaskFlowHistogram.Scope.USER, userId, weeks);
+    }
+
+    private AnalyticsDto.FlowReport report(TaskFlowHistogram.Scope scope, UUID scopeId, int weeks) {
+        int weekCount = Math.max(1, Math.min(weeks, MAX_WEEKS));
+        LocalDate fromWeek = TaskFlowRecorder.weekStart(LocalDate.now()).minusWeeks(weekCount - 1);
+
+        Map<TaskFlowHistogram.Metric, Histogram> merged = new EnumMap<>(TaskFlowHistogram.Metric.class);
+        Map<LocalDate, Long> approvedByWeek = new LinkedHashMap<>();
+        for (int i = 0; i < weekCount; i++) {
+            approvedByWeek.put(fromWeek.plusWeeks(i), 0L);
+        }
+
+        for (TaskFlowHistogram row : histogramRepository.findForScopeSince(scope, scopeId, fromWeek)) {
+            TaskFlowHistogram.Metric metric = row.getId().getMetric();
+            merged.computeIfAbsent(metric, key -> HistogramSnapshots.empty())
+                    .add(HistogramSnapshots.decode(row.getSnapshot()));
+            if (metric == TaskFlowHistogram.Metric.LEAD_TIME) {
+                approvedByWeek.merge(row.getId().getWeekStart(), row.getValueCount(), Long::sum);
+            }
+        }
+
+        List<AnalyticsDto.MetricSummary> metrics = new ArrayList<>();
+        for (TaskFlowHistogram.Metric metric : TaskFlowHistogram.Metric.values()) {
+            Histogram histogram = merged.getOrDefault(metric, HistogramSnapshots.empty());
+            metrics.add(AnalyticsDto.MetricSummary.builder()
+                    .metric(metric.name())
+                    .count(histogram.getTotalCount())
+                    .mean(histogram.getTotalCount() > 0 ? histogram.getMean() : null)
+                    .p50(percentile(histogram, 50))
+                    .p75(percentile(histogram, 75))
+                    .p90(percentile(histogram, 90))
+                    .p95(percentile(histogram, 95))
+                    .max(histogram.getTotalCount() > 0 ? histogram.getMaxValue() : null)
+                    .build());
+        }
+
+        List<AnalyticsDto.WeeklyThroughput> throughput = new ArrayList<>(approvedByWeek.size());
+        approvedByWeek.forEach((week, approved) -> throughput.add(AnalyticsDto.WeeklyThroughput.builder()
+                .weekStart(week)
+                .approvedTasks(approved)
+                .build()));
+
+        return AnalyticsDto.FlowReport.builder()
+                .scope(scope.name())
+                .scopeId(scopeId)
+                .fromWeek(fromWeek)
+                .metrics(metrics)
+                .throughput(throughput)
+                .build();
+    }
+
+    private static Long percentile(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() > 0 ? histogram.getValueAtPercentile(percentile) : null;
+    }
+}
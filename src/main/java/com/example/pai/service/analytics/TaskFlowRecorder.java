@@ -0,0 +1,134 @@
+package com.example.pai.service.analytics;
+
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.TaskEvent;
+import com.example.pai.dao.model.TaskFlowHistogram;
+import com.example.pai.dao.projection.TaskTimestampsView;
+import com.example.pai.dao.repository.ArchivedTaskRepository;
+import com.example.pai.dao.repository.TaskFlowHistogramRepository;
+import com.example.pai.dao.repository.TaskRepository;
+import com.example.pai.service.event.TaskEventConsumer;
+import lombok.RequiredArgsConstructor;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Folds task starts and approvals from the event log into the weekly histograms. Runs inside the
+ * relay's transaction, so each event is counted exactly once. The task's own timestamps are read by
+ * primary key, from the archive if the task has been archived meanwhile.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskFlowRecorder implements TaskEventConsumer {
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskFlowHistogramRepository histogramRepository;
+
+    @Override
+    public String getName() {
+        return "task-flow-analytics";
+    }
+
+    @Override
+    public void accept(List<TaskEvent> events) {
+        List<TaskEvent> relevant = events.stream()
+                .filter(event -> isFirstStart(event) || isApproval(event))
+                .collect(Collectors.toList());
+        if (relevant.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, TaskTimestampsView> timestamps = loadTimestamps(relevant.stream()
+                .map(TaskEvent::getTaskId)
+                .collect(Collectors.toSet()));
+
+        Map<TaskFlowHistogram.Key, List<Long>> samples = new HashMap<>();
+        for (TaskEvent event : relevant) {
+            TaskTimestampsView task = timestamps.get(event.getTaskId());
+            if (task == null || task.getCreationTimestamp() == null) {
+                // Deleted since; nothing to measure against
+                continue;
+            }
+            LocalDateTime at = event.getCreationTimestamp();
+            if (isFirstStart(event)) {
+                addSample(samples, event, TaskFlowHistogram.Metric.QUEUE_TIME, task.getCreationTimestamp(), at);
+            } else {
+                addSample(samples, event, TaskFlowHistogram.Metric.LEAD_TIME, task.getCreationTimestamp(), at);
+                if (task.getStartTimestamp() != null) {
+                    addSample(samples, event, TaskFlowHistogram.Metric.CYCLE_TIME, task.getStartTimestamp(), at);
+                }
+            }
+        }
+
+        Map<TaskFlowHistogram.Key, TaskFlowHistogram> rows = histogramRepository.findAllById(samples.keySet()).stream()
+                .collect(Collectors.toMap(TaskFlowHistogram::getId, row -> row));
+        List<TaskFlowHistogram> updated = new ArrayList<>(samples.size());
+        samples.forEach((key, minutes) -> {
+            TaskFlowHistogram row = rows.get(key);
+            Histogram histogram = row != null ? HistogramSnapshots.decode(row.getSnapshot()) : HistogramSnapshots.empty();
+            minutes.forEach(histogram::recordValue);
+            if (row == null) {
+                row = new TaskFlowHistogram(key, 0L, null, null);
+            }
+            row.setValueCount(histogram.getTotalCount());
+            row.setSnapshot(HistogramSnapshots.encode(histogram));
+            updated.add(row);
+        });
+        histogramRepository.saveAll(updated);
+    }
+
+    private Map<UUID, TaskTimestampsView> loadTimestamps(Set<UUID> taskIds) {
+        Map<UUID, TaskTimestampsView> timestamps = new HashMap<>();
+        taskRepository.findTimestampsByIdIn(taskIds).forEach(view -> timestamps.put(view.getId(), view));
+        if (timestamps.size() < taskIds.size()) {
+            archivedTaskRepository.findTimestampsByIdIn(taskIds).forEach(view -> timestamps.putIfAbsent(view.getId(), view));
+        }
+        return timestamps;
+    }
+
+    private static void addSample(Map<TaskFlowHistogram.Key, List<Long>> samples, TaskEvent event,
+                                  TaskFlowHistogram.Metric metric, LocalDateTime from, LocalDateTime to) {
+        long minutes = Math.max(0, Duration.between(from, to).toMinutes());
+        LocalDate week = weekStart(to.toLocalDate());
+        if (event.getProjectId() != null) {
+            samples.computeIfAbsent(new TaskFlowHistogram.Key(TaskFlowHistogram.Scope.PROJECT, event.getProjectId(), week, metric),
+                    key -> new ArrayList<>()).add(minutes);
+        }
+        if (event.getNewAssignedUserId() != null) {
+            samples.computeIfAbsent(new TaskFlowHistogram.Key(TaskFlowHistogram.Scope.USER, event.getNewAssignedUserId(), week, metric),
+                    key -> new ArrayList<>()).add(minutes);
+        }
+    }
+
+    static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    // Assigning a task that has not started starts it too, so both event types count
+    // Matched on the states alone: besides STATE_CHANGED, assignTask and updateTask log state changes
+    // as ASSIGNED and UPDATED. CREATED has no previous state and DELETED no new one.
+    private static boolean isFirstStart(TaskEvent event) {
+        return event.getOldState() == Task.TaskState.NOT_STARTED
+                && event.getNewState() == Task.TaskState.IN_PROGRESS;
+    }
+
+    private static boolean isApproval(TaskEvent event) {
+        return event.getOldState() != null
+                && event.getOldState() != Task.TaskState.APPROVED
+                && event.getNewState() == Task.TaskState.APPROVED;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.pai.service.archive;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.repository.ArchivedTaskRepository;
+import com.example.pai.dao.repository.TaskDependencyRepository;
+import com.example.pai.service.event.ProjectChangedEvent;
+import com.example.pai.service.event.TaskChangedEvent;
+import com.example.pai.service.support.IdChunks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves tasks that left the working set, approved ones and those of finished projects, together with
+ * their notes and dependencies into the archive tables. Reopening a project brings its tasks back.
+ * Both directions change the project's dependency graph, so both bump its dependency version.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskArchiver {
+
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRegistry shardRegistry;
+
+    @Value("${task-archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${task-archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${task-archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${task-archive.interval-ms:3600000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        shardRegistry.forEach(() -> {
+            try {
+                Integer archived;
+                do {
+                    archived = transactionTemplate.execute(status -> archiveBatch());
+                } while (archived != null && archived == batchSize);
+            } catch (RuntimeException e) {
+                log.warn("Archiving tasks failed, retrying on the next run", e);
+            }
+        });
+    }
+
+    private int archiveBatch() {
+        List<UUID> taskIds = archivedTaskRepository.findArchivableTaskIds(cutoff(), batchSize);
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        archivedTaskRepository.copyTasksToArchive(taskIds);
+        archivedTaskRepository.copyNotesToArchive(taskIds);
+        archivedTaskRepository.copyDependenciesToArchive(taskIds);
+        archivedTaskRepository.deleteLiveTasks(taskIds);
+        archivedTaskRepository.findProjectIdsByIdIn(taskIds)
+                .forEach(projectId -> {
+                    taskDependencyRepository.incrementVersion(projectId);
+                    eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+                    eventPublisher.publishEvent(TaskChangedEvent.ofProject(projectId));
+                });
+        log.info("Archived {} tasks", taskIds.size());
+        return taskIds.size();
+    }
+
+    /**
+     * Brings back the archived tasks of a reopened project, except approved ones old enough to be
+     * archived again on the next run.
+     */
+    @Transactional
+    public void restoreProject(UUID projectId) {
+        List<UUID> taskIds = archivedTaskRepository.findRestorableTaskIds(projectId, cutoff());
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        taskDependencyRepository.incrementVersion(projectId);
+        IdChunks.forEach(taskIds, chunk -> {
+            archivedTaskRepository.copyTasksFromArchive(chunk);
+            archivedTaskRepository.copyNotesFromArchive(chunk);
+        });
+        // Once every restored task is live, so edges between two of them are found whichever chunk comes first
+        IdChunks.forEach(taskIds, archivedTaskRepository::copyDependenciesFromArchive);
+        IdChunks.forEach(taskIds, archivedTaskRepository::deleteArchivedTasks);
+        archivedTaskRepository.deleteSettledArchivedDependencies(projectId);
+        eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+        eventPublisher.publishEvent(TaskChangedEvent.ofProject(projectId));
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusDays(afterDays);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.pai.service.attachment;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.repository.NoteAttachmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store for note attachments on a local (or shared) filesystem. A file lives
+ * at {@code <root>/ab/cd/<sha256>}, so uploading the same content again stores nothing new. Uploads
+ * stream through a fixed buffer into a temporary file while being hashed and are then moved into
+ * place atomically; readers never see a partial file.
+ * <p>
+ * Files are never deleted when an attachment goes away, because other attachments, on any shard,
+ * may share them. A periodic cleanup removes files nothing refers to anymore once they are older
+ * than a grace period; storing existing content again renews that period.
+ */
+@Slf4j
+@Component
+public class AttachmentStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMP_DIRECTORY = "tmp";
+
+    private final Path root;
+    private final Path temp;
+    private final long maxBytes;
+    private final Duration grace;
+    private final NoteAttachmentRepository noteAttachmentRepository;
+    private final ShardRegistry shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    public record StoredFile(String sha256, long size) {
+    }
+
+    public AttachmentStore(
+            @Value("${attachments.root:./data/attachments}") String root,
+            @Value("${attachments.max-bytes:104857600}") long maxBytes,
+            @Value("${attachments.cleanup-grace-seconds:3600}") long graceSeconds,
+            NoteAttachmentRepository noteAttachmentRepository,
+            ShardRegistry shardRegistry,
+            TransactionTemplate transactionTemplate) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.temp = Files.createDirectories(this.root.resolve(TEMP_DIRECTORY));
+        this.maxBytes = maxBytes;
+        this.grace = Duration.ofSeconds(graceSeconds);
+        this.noteAttachmentRepository = noteAttachmentRepository;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public StoredFile store(InputStream content) throws IOException {
+        Path upload = Files.createTempFile(temp, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (FileChannel channel = FileChannel.open(upload, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new AttachmentTooLargeException(maxBytes);
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                }
+                channel.force(false);
+            }
+            String sha = HexFormat.of().formatHex(digest.digest());
+            place(upload, sha);
+            return new StoredFile(sha, size);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    public Path path(String sha256) {
+        if (!SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    /**
+     * Removes attachments whose note was deleted with its task or project, then the files no
+     * attachment refers to anymore.
+     */
+    @Scheduled(fixedDelayString = "${attachments.cleanup-interval-ms:3600000}", initialDelayString = "${attachments.cleanup-interval-ms:3600000}")
+    public void cleanUp() {
+        shardRegistry.forEach(() -> {
+            try {
+                Integer removed = transactionTemplate.execute(status -> noteAttachmentRepository.deleteOrphans(grace.toSeconds()));
+                if (removed != null && removed > 0) {
+                    log.debug("Removed {} attachments of deleted notes", removed);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Removing attachments of deleted notes failed, retrying on the next run", e);
+            }
+        });
+
+        Instant cutoff = Instant.now().minus(grace);
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Path> candidates = files.filter(Files::isRegularFile)
+                    .filter(file -> olderThan(file, cutoff))
+                    .toList();
+            for (Path file : candidates) {
+                String name = file.getFileName().toString();
+                boolean referenced = !file.startsWith(temp) && SHA256.matcher(name).matches()
+                        && shardRegistry.anyMatch(() -> noteAttachmentRepository.existsBySha256(name));
+                // Checked again, the content may have been uploaded again while the shards were asked
+                if (!referenced && olderThan(file, cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Removing unreferenced attachment files failed, retrying on the next run", e);
+        }
+    }
+
+    private void place(Path upload, String sha) throws IOException {
+        Path target = path(sha);
+        if (Files.exists(target)) {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored by a concurrent upload of the same content
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new IllegalStateException("Attachment store " + root + " must allow atomic moves within it", e);
+        }
+    }
+
+    private static boolean olderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
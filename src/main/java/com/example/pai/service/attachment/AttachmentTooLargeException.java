@@ -0,0 +1,12 @@
+package com.example.pai.service.attachment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class AttachmentTooLargeException extends RuntimeException {
+
+    public AttachmentTooLargeException(long maxBytes) {
+        super("Attachments may have at most " + maxBytes + " bytes");
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.pai.service.attachment;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.controller.task.dto.TaskNoteDto;
+import com.example.pai.dao.model.NoteAttachment;
+import com.example.pai.dao.model.TaskNote;
+import com.example.pai.dao.repository.NoteAttachmentRepository;
+import com.example.pai.dao.repository.TaskNoteRepository;
+import com.example.pai.service.access.ProjectAccessGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class NoteAttachmentService {
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final NoteAttachmentRepository noteAttachmentRepository;
+    private final TaskNoteRepository taskNoteRepository;
+    private final AttachmentStore attachmentStore;
+    private final ProjectAccessGuard projectAccessGuard;
+
+    public record AttachmentFile(NoteAttachment attachment, Path path) {
+    }
+
+    /**
+     * Streams the content into the store, then records the attachment. Runs outside a transaction,
+     * so no connection is held while the client uploads.
+     */
+    public Optional<TaskNoteDto.AttachmentResponse> upload(UUID noteId, String fileName, String contentType,
+                                                            InputStream content) throws IOException {
+        Optional<TaskNote> note = taskNoteRepository.findById(noteId);
+        if (note.isEmpty()) {
+            return Optional.empty();
+        }
+        projectAccessGuard.checkProjectAccess(note.get().getTask().getProject().getId());
+
+        AttachmentStore.StoredFile stored = attachmentStore.store(content);
+        AuthenticatedUser user = AuthenticatedUser.current();
+        NoteAttachment attachment = new NoteAttachment();
+        attachment.setNoteId(noteId);
+        attachment.setTaskId(note.get().getTask().getId());
+        attachment.setOrganizationId(note.get().getTask().getOrganizationId());
+        attachment.setUserId(user != null ? user.getId() : null);
+        attachment.setFileName(cleanFileName(fileName));
+        attachment.setContentType(StringUtils.hasText(contentType) ? contentType : DEFAULT_CONTENT_TYPE);
+        attachment.setSizeBytes(stored.size());
+        attachment.setSha256(stored.sha256());
+        return Optional.of(mapToAttachmentResponse(noteAttachmentRepository.save(attachment)));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<List<TaskNoteDto.AttachmentResponse>> getAttachments(UUID noteId) {
+        return findProjectId(noteId)
+                .map(projectId -> noteAttachmentRepository.findByNoteIdOrderByCreationTimestamp(noteId).stream()
+                        .map(this::mapToAttachmentResponse)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Attachments of all notes of a task, by note; callers have checked access to the task.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<TaskNoteDto.AttachmentResponse>> getAttachmentsByNote(UUID taskId) {
+        return noteAttachmentRepository.findByTaskIdOrderByCreationTimestamp(taskId).stream()
+                .map(this::mapToAttachmentResponse)
+                .collect(Collectors.groupingBy(TaskNoteDto.AttachmentResponse::getNoteId));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AttachmentFile> getAttachmentFile(UUID attachmentId) {
+        return findAccessible(attachmentId)
+                .map(attachment -> new AttachmentFile(attachment, attachmentStore.path(attachment.getSha256())));
+    }
+
+    @Transactional
+    public boolean deleteAttachment(UUID attachmentId) {
+        return findAccessible(attachmentId)
+                .map(attachment -> {
+                    noteAttachmentRepository.delete(attachment);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Removes the attachment records of a deleted note; the files go with the next store cleanup.
+     */
+    @Transactional
+    public void deleteNoteAttachments(UUID noteId) {
+        noteAttachmentRepository.deleteByNoteId(noteId);
+    }
+
+    // Attachments are loaded by id, which goes around the tenant filter, so the note's project is checked
+    private Optional<NoteAttachment> findAccessible(UUID attachmentId) {
+        return noteAttachmentRepository.findById(attachmentId)
+                .filter(attachment -> findProjectId(attachment.getNoteId()).isPresent());
+    }
+
+    private Optional<UUID> findProjectId(UUID noteId) {
+        Optional<UUID> projectId = noteAttachmentRepository.findProjectIdByNoteId(noteId);
+        projectId.ifPresent(projectAccessGuard::checkProjectAccess);
+        return projectId;
+    }
+
+    // Only the last path segment of what the client sent is kept
+    private static String cleanFileName(String fileName) {
+        String name = fileName != null ? StringUtils.getFilename(fileName.replace('\\', '/')) : null;
+        if (!StringUtils.hasText(name)) {
+            return "attachment";
+        }
+        name = name.strip().replaceAll("\\p{Cntrl}", "");
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(name.length() - MAX_FILE_NAME_LENGTH) : name;
+    }
+
+    private TaskNoteDto.AttachmentResponse mapToAttachmentResponse(NoteAttachment attachment) {
+        return TaskNoteDto.AttachmentResponse.builder()
+                .id(attachment.getId())
+                .noteId(attachment.getNoteId())
+                .taskId(attachment.getTaskId())
+                .userId(attachment.getUserId())
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .sizeBytes(attachment.getSizeBytes())
+                .sha256(attachment.getSha256())
+                .creationTimestamp(attachment.getCreationTimestamp())
+                .build();
+    }
+}
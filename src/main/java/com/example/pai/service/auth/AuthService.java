@@ -1,8 +1,14 @@
 package com.example.pai.service.auth;
 
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.shard.ShardContext;
+import com.example.pai.config.shard.ShardRegistry;
 import com.example.pai.controller.auth.dto.AuthDto;
 import com.example.pai.dao.model.UserManagment;
 import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.access.RolePermissions;
+import com.example.pai.service.directory.UserDirectoryIndex;
+import com.example.pai.service.shard.ShardMap;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,9 +28,13 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RolePermissions rolePermissions;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final ShardRegistry shardRegistry;
+    private final ShardMap shardMap;
 
     public AuthDto.AuthResponse register(AuthDto.RegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (shardRegistry.anyMatch(() -> userRepository.existsByEmail(request.getEmail()))) {
             throw new RuntimeException("Email already exists");
         }
 
@@ -32,21 +42,19 @@ public class AuthService {
         userManagment.setEmail(request.getEmail());
         userManagment.setPassword(passwordEncoder.encode(request.getPassword()));
         userManagment.setName(request.getName());
-        userManagment.setOrganizationId(request.getOrganizationId());
+        userManagment.setOrganizationId(request.getOrganizationId() != null
+                ? request.getOrganizationId() : UserManagment.DEFAULT_ORGANIZATION_ID);
         userManagment.setActivated(true);
         userManagment.setHidden(false);
         userManagment.setCreationTimestamp(LocalDateTime.now());
         userManagment.setModificationTimestamp(LocalDateTime.now());
 
-        UserManagment savedUserManagment = userRepository.save(userManagment);
+        UserManagment savedUserManagment = ShardContext.call(shardMap.shardOf(userManagment.getOrganizationId()),
+                () -> userRepository.save(userManagment));
+        userDirectoryIndex.refresh(savedUserManagment);
 
-        var jwtToken = jwtService.generateToken(
-                new org.springframework.security.core.userdetails.User(
-                        savedUserManagment.getEmail(),
-                        savedUserManagment.getPassword(),
-                        java.util.Collections.emptyList()
-                )
-        );
+        var jwtToken = jwtService.generateToken(new AuthenticatedUser(
+                savedUserManagment, rolePermissions.permissionsOf(savedUserManagment.getRole())));
 
         return AuthDto.AuthResponse.builder()
                 .token(jwtToken)
@@ -65,16 +73,11 @@ public class AuthService {
                 )
         );
 
-        UserManagment userManagment = userRepository.findByEmail(request.getEmail())
+        UserManagment userManagment = shardRegistry.findFirst(() -> userRepository.findByEmail(request.getEmail()))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        var jwtToken = jwtService.generateToken(
-                new org.springframework.security.core.userdetails.User(
-                        userManagment.getEmail(),
-                        userManagment.getPassword(),
-                        java.util.Collections.emptyList()
-                )
-        );
+        var jwtToken = jwtService.generateToken(new AuthenticatedUser(
+                userManagment, rolePermissions.permissionsOf(userManagment.getRole())));
 
         return AuthDto.AuthResponse.builder()
                 .token(jwtToken)
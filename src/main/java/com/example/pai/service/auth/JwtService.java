@@ -1,10 +1,12 @@
 package com.example.pai.service.auth;
 
+import com.example.pai.config.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -14,11 +16,21 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ORGANIZATION_CLAIM = "org";
+    private static final String ROLE_CLAIM = "role";
+    private static final String PERMISSIONS_CLAIM = "perm";
+    private static final String VERSION_CLAIM = "ver";
+
+    private final TokenVersions tokenVersions;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -38,6 +50,16 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    public String generateToken(AuthenticatedUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId().toString());
+        claims.put(ORGANIZATION_CLAIM, user.getOrganizationId().toString());
+        claims.put(ROLE_CLAIM, user.getRoleName());
+        claims.put(PERMISSIONS_CLAIM, user.getPermissions());
+        claims.put(VERSION_CLAIM, user.getTokenVersion());
+        return generateToken(claims, user);
+    }
+
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return Jwts
                 .builder()
@@ -50,19 +72,40 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Tokens with a version claim are checked against the user's current token version, which
+     * changes when the user is deleted, deactivated or loses access. Older tokens come with a
+     * principal loaded from the database and are checked against its account flags.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        if (!claims.getSubject().equals(userDetails.getUsername()) || !claims.getExpiration().after(new Date())) {
+            return false;
+        }
+        if (claims.get(VERSION_CLAIM) instanceof Number version && userDetails instanceof AuthenticatedUser user) {
+            return tokenVersions.isCurrent(user.getId(), user.getOrganizationId(), version.intValue());
+        }
+        return userDetails.isEnabled() && userDetails.isAccountNonLocked();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Builds the principal from the token alone. Returns null for tokens issued without the
+     * user id, organization, permission and version claims, which still need the user to be loaded.
+     */
+    public AuthenticatedUser extractPrincipal(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        String organizationId = claims.get(ORGANIZATION_CLAIM, String.class);
+        if (userId == null || organizationId == null || !(claims.get(PERMISSIONS_CLAIM) instanceof Number permissions)
+                || !(claims.get(VERSION_CLAIM) instanceof Number version)) {
+            return null;
+        }
+        return new AuthenticatedUser(UUID.fromString(userId), UUID.fromString(organizationId), claims.getSubject(),
+                claims.get(ROLE_CLAIM, String.class), permissions.longValue(), version.intValue());
     }
 
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
         return Jwts
                 .parserBuilder()
                 .setSigningKey(getSigningKey())
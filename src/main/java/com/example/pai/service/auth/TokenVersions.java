@@ -0,0 +1,84 @@
+package com.example.pai.service.auth;
+
+import com.example.pai.config.shard.ShardContext;
+import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.cluster.ClusterInvalidationListener;
+import com.example.pai.service.cluster.ClusterMessage;
+import com.example.pai.service.shard.ShardMap;
+import com.example.pai.service.support.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current token version of each user that has recently sent a request. Tokens carry the version
+ * they were issued with, and a token whose version is no longer current, or whose user was
+ * deleted, deactivated or hidden, is rejected. Versions are read from the database on first use
+ * and dropped when the user changes, locally after commit and on other nodes through the
+ * {@link com.example.pai.service.cluster.ClusterBus} user topic.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenVersions implements ClusterInvalidationListener {
+
+    private static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+    private final ShardMap shardMap;
+
+    private final Map<UUID, Integer> versions = new ConcurrentHashMap<>();
+    private long generation;
+
+    public boolean isCurrent(UUID userId, UUID organizationId, int version) {
+        Integer current = versions.get(userId);
+        if (current == null) {
+            current = load(userId, organizationId);
+        }
+        return current == version;
+    }
+
+    /**
+     * Drops the cached version once the surrounding transaction commits. Publishing the change to
+     * other nodes is left to the caller, which already sends the user topic for it.
+     */
+    public void evict(UUID userId) {
+        AfterCommit.run(() -> drop(userId));
+    }
+
+    @Override
+    public void invalidate(ClusterMessage message) {
+        if (ClusterMessage.USER.equals(message.topic())) {
+            drop(UUID.fromString(message.key()));
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        generation++;
+        versions.clear();
+    }
+
+    // A load that raced with an eviction may have read the old version and is not cached
+    private int load(UUID userId, UUID organizationId) {
+        long started;
+        synchronized (this) {
+            started = generation;
+        }
+        int version = ShardContext.call(shardMap.shardOf(organizationId),
+                () -> userRepository.findActiveTokenVersion(userId)).orElse(REVOKED);
+        synchronized (this) {
+            if (generation == started) {
+                versions.put(userId, version);
+            }
+        }
+        return version;
+    }
+
+    private synchronized void drop(UUID userId) {
+        generation++;
+        versions.remove(userId);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.pai.service.cache;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.security.Permission;
+import com.example.pai.service.access.ProjectAccessGuard;
+import com.example.pai.service.cluster.ClusterInvalidationListener;
+import com.example.pai.service.cluster.ClusterMessage;
+import com.example.pai.service.event.ProjectChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical reads of a project share one computation. The first caller for a key
+ * runs the loader and serializes its result; callers arriving while it runs, or within the
+ * staleness window after it finished, get the same bytes. Any committed change to the project
+ * drops its entries, including ones still in flight, on this node and on the others. Entries are
+ * counted per organization and each organization only evicts its own oldest ones, so a busy tenant
+ * cannot push a quiet tenant's reads out.
+ */
+@Component
+public class ReadCoalescer implements ClusterInvalidationListener {
+
+    private final ProjectAccessGuard projectAccessGuard;
+    private final ObjectMapper objectMapper;
+    private final long stalenessNanos;
+    private final int maxEntriesPerTenant;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    // Keys in insertion order per organization; keys already invalidated stay until they are polled
+    private final Map<UUID, Queue<String>> keysByTenant = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(ProjectAccessGuard projectAccessGuard,
+                         ObjectMapper objectMapper,
+                         @Value("${read-coalescing.staleness-ms:250}") long stalenessMs,
+                         @Value("${read-coalescing.max-entries-per-tenant:1000}") int maxEntriesPerTenant) {
+        this.projectAccessGuard = projectAccessGuard;
+        this.objectMapper = objectMapper;
+        this.stalenessNanos = stalenessMs * 1_000_000L;
+        this.maxEntriesPerTenant = maxEntriesPerTenant;
+    }
+
+    public static String key(String operation, Object... args) {
+        StringBuilder key = new StringBuilder(operation);
+        for (Object arg : args) {
+            key.append('|').append(arg);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the JSON of the loader's result, or empty when the loader found nothing. Project
+     * access is checked for every caller before a shared result is handed out.
+     */
+    public Optional<byte[]> read(UUID projectId, String key, Supplier<? extends Optional<?>> loader) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        UUID organizationId = projectAccessGuard.getOrganizationId(projectId);
+        String scopedKey = key + '|' + organizationId + '|' + currentScope();
+
+        long now = System.nanoTime();
+        Flight candidate = new Flight(projectId);
+        Flight flight = flights.compute(scopedKey,
+                (k, current) -> current != null && current.isFresh(now, stalenessNanos) ? current : candidate);
+
+        if (flight == candidate) {
+            track(organizationId, scopedKey);
+            try {
+                Optional<?> value = loader.get();
+                flight.complete(value.isPresent()
+                        ? Optional.of(objectMapper.writeValueAsBytes(value.get()))
+                        : Optional.empty());
+            } catch (Exception e) {
+                flights.remove(scopedKey, flight);
+                flight.fail(e);
+            }
+        }
+        return flight.await();
+    }
+
+    public void invalidateProject(UUID projectId) {
+        flights.values().removeIf(flight -> flight.projectId.equals(projectId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (event.projectId() != null) {
+            invalidateProject(event.projectId());
+        }
+    }
+
+    @Override
+    public void invalidate(ClusterMessage message) {
+        if (ClusterMessage.PROJECT.equals(message.topic())) {
+            invalidateProject(UUID.fromString(message.key()));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        flights.clear();
+        keysByTenant.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${read-coalescing.sweep-interval-ms:10000}")
+    public void evictStale() {
+        long now = System.nanoTime();
+        flights.values().removeIf(flight -> !flight.isFresh(now, stalenessNanos));
+    }
+
+    private void track(UUID organizationId, String scopedKey) {
+        if (organizationId == null) {
+            return;
+        }
+        Queue<String> keys = keysByTenant.computeIfAbsent(organizationId, id -> new LinkedBlockingQueue<>());
+        keys.add(scopedKey);
+        while (keys.size() > maxEntriesPerTenant) {
+            String oldest = keys.poll();
+            if (oldest == null) {
+                break;
+            }
+            flights.remove(oldest);
+        }
+    }
+
+    // Everyone who passed the project check sees the same data today; the scope keeps that an
+    // explicit part of the key should per-user filtering ever be added to these reads
+    private static String currentScope() {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user == null || user.hasPermission(Permission.ALL_PROJECTS)) {
+            return "all";
+        }
+        return "member";
+    }
+
+    private static final class Flight {
+
+        private final UUID projectId;
+        private final CompletableFuture<Optional<byte[]>> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Flight(UUID projectId) {
+            this.projectId = projectId;
+        }
+
+        private boolean isFresh(long now, long stalenessNanos) {
+            return !result.isDone() || now - completedAt <= stalenessNanos;
+        }
+
+        private void complete(Optional<byte[]> body) {
+            completedAt = System.nanoTime();
+            result.complete(body);
+        }
+
+        private void fail(Throwable error) {
+            completedAt = System.nanoTime();
+            result.completeExceptionally(error);
+        }
+
+        private Optional<byte[]> await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Coalesced read failed", e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.pai.service.cache;
+
+import com.example.pai.config.shard.ShardContext;
+import com.example.pai.service.event.ProjectChangedEvent;
+import com.example.pai.service.shard.ShardMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for updates that are sent on almost every navigation but only matter as their
+ * last value: marking a task's notes read and a user's active project. Updates are kept per key,
+ * so repeated writes collapse into one, and flushed as batched statements every few hundred
+ * milliseconds and on shutdown. Readers on this node consult the buffer first.
+ * <p>
+ * Buffered updates live only in memory. A crash loses at most one flush interval of them, which for
+ * these values means a note shows as unread again or the user lands on the previous project.
+ * Updates of an organization that is being moved stay buffered until it has arrived on its shard.
+ */
+@Slf4j
+@Component
+public class WriteCoalescer {
+
+    // A note written after the user read the task must keep it unread, whichever node buffered the read
+    private static final String MARK_NOTES_READ = "UPDATE task SET has_unread_notes = false " +
+            "WHERE id = ? AND has_unread_notes " +
+            "AND NOT EXISTS (SELECT 1 FROM task_note n WHERE n.task_id = task.id AND n.creation_timestamp > ?)";
+
+    private static final String SET_ACTIVE_PROJECT = "INSERT INTO user_active_project (user_id, project_id) " +
+            "SELECT ?, ? WHERE EXISTS (SELECT 1 FROM user_managment WHERE id = ?) AND EXISTS (SELECT 1 FROM project WHERE id = ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET project_id = EXCLUDED.project_id, modification_timestamp = CURRENT_TIMESTAMP";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardMap shardMap;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+
+    private final Map<UUID, NotesRead> notesRead = new ConcurrentHashMap<>();
+    private final Map<UUID, ActiveProject> activeProjects = new ConcurrentHashMap<>();
+
+    private final Counter buffered;
+    private final Counter flushedRows;
+    private final Counter flushTransactions;
+
+    private record NotesRead(UUID organizationId, UUID projectId, LocalDateTime readAt) {
+    }
+
+    private record ActiveProject(UUID organizationId, UUID projectId) {
+    }
+
+    public WriteCoalescer(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ShardMap shardMap,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${write-coalescing.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardMap = shardMap;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.buffered = meterRegistry.counter("write.coalescing.buffered");
+        this.flushedRows = meterRegistry.counter("write.coalescing.flushed.rows");
+        this.flushTransactions = meterRegistry.counter("write.coalescing.flushed.transactions");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void markNotesRead(UUID taskId, UUID organizationId, UUID projectId) {
+        notesRead.put(taskId, new NotesRead(organizationId, projectId, LocalDateTime.now()));
+        buffered.increment();
+    }
+
+    public boolean isNotesReadPending(UUID taskId) {
+        return notesRead.containsKey(taskId);
+    }
+
+    /**
+     * Drops a buffered read of a task that just got a new note.
+     */
+    public void cancelNotesRead(UUID taskId) {
+        notesRead.remove(taskId);
+    }
+
+    public void setActiveProject(UUID userId, UUID organizationId, UUID projectId) {
+        activeProjects.put(userId, new ActiveProject(organizationId, projectId));
+        buffered.increment();
+    }
+
+    public Optional<UUID> getPendingActiveProject(UUID userId) {
+        return Optional.ofNullable(activeProjects.get(userId)).map(ActiveProject::projectId);
+    }
+
+    @Scheduled(fixedDelayString = "${write-coalescing.flush-interval-ms:250}")
+    public void flush() {
+        flushNotesRead();
+        flushActiveProjects();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushNotesRead() {
+        Map<String, Map<UUID, NotesRead>> byShard = new HashMap<>();
+        notesRead.forEach((taskId, read) -> {
+            if (!shardMap.isMoving(read.organizationId())) {
+                byShard.computeIfAbsent(shardMap.shardOf(read.organizationId()), shard -> new HashMap<>()).put(taskId, read);
+            }
+        });
+        byShard.forEach((shard, batch) -> write(shard, batch, notesRead, () -> {
+            jdbcTemplate.batchUpdate(MARK_NOTES_READ, batch.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getKey(), entry.getValue().readAt()})
+                    .toList());
+            Set<UUID> projectIds = new LinkedHashSet<>();
+            batch.values().forEach(read -> projectIds.add(read.projectId()));
+            projectIds.forEach(projectId -> eventPublisher.publishEvent(new ProjectChangedEvent(projectId)));
+        }));
+    }
+
+    private void flushActiveProjects() {
+        Map<String, Map<UUID, ActiveProject>> byShard = new HashMap<>();
+        activeProjects.forEach((userId, active) -> {
+            if (!shardMap.isMoving(active.organizationId())) {
+                byShard.computeIfAbsent(shardMap.shardOf(active.organizationId()), shard -> new HashMap<>()).put(userId, active);
+            }
+        });
+        byShard.forEach((shard, batch) -> write(shard, batch, activeProjects, () ->
+                jdbcTemplate.batchUpdate(SET_ACTIVE_PROJECT, batch.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getKey(), entry.getValue().projectId(), entry.getKey(), entry.getValue().projectId()})
+                        .toList())));
+    }
+
+    // Entries leave the buffer only once written, and only if no newer value replaced them meanwhile
+    private <V> void write(String shard, Map<UUID, V> batch, Map<UUID, V> buffer, Runnable statements) {
+        try {
+            ShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(status -> statements.run()));
+            batch.forEach(buffer::remove);
+            flushedRows.increment(batch.size());
+            flushTransactions.increment();
+        } catch (RuntimeException e) {
+            log.warn("Flushing {} buffered updates to shard {} failed, retrying on the next flush", batch.size(), shard, e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.pai.service.cluster;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.config.shard.ShardRoutingDataSource;
+import com.example.pai.service.event.ProjectChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans cache invalidations out to the other nodes over PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Messages published inside a transaction are collected, deduplicated and sent with
+ * {@code pg_notify} just before commit, so PostgreSQL delivers them only if the transaction
+ * commits. Each payload carries the sending node and a per-node sequence number. Numbers are
+ * taken before commit while delivery follows commit order, so a receiver tolerates numbers
+ * arriving out of order and only treats one as missed once it has been outstanding for
+ * {@code cluster.bus.reorder-timeout-ms}. A receiver that missed messages, or has to reconnect,
+ * asks every {@link ClusterInvalidationListener} to invalidate everything instead.
+ * <p>
+ * All nodes listen on the default shard. Transactions on other shards cannot carry the
+ * notification, so their messages are sent right after they commit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterBus {
+
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final char FIELD_SEPARATOR = '|';
+    private static final char MESSAGE_SEPARATOR = ';';
+    private static final char KEY_SEPARATOR = ':';
+
+    private final ShardRegistry shardRegistry;
+    private final ShardRoutingDataSource routingDataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ClusterInvalidationListener> listeners;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, SequenceTracker> sequenceByNode = new HashMap<>();
+
+    @Value("${cluster.bus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cluster.bus.channel:pai_cluster}")
+    private String channel;
+
+    @Value("${cluster.bus.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+
+    @Value("${cluster.bus.reconnect-delay-ms:2000}")
+    private long reconnectDelayMs;
+
+    @Value("${cluster.bus.reorder-timeout-ms:5000}")
+    private long reorderTimeoutMs;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listenerThread;
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    public void publish(String topic, Object key) {
+        if (!enabled) {
+            return;
+        }
+        ClusterMessage message = new ClusterMessage(topic, String.valueOf(key));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(List.of(message), catalogJdbcTemplate());
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<ClusterMessage> pending = (Set<ClusterMessage>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<ClusterMessage> messages = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, messages);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (isOnCatalog()) {
+                        send(messages, jdbcTemplate);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (!isOnCatalog()) {
+                        send(messages, catalogJdbcTemplate());
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ClusterBus.this);
+                }
+            });
+            pending = messages;
+        }
+        pending.add(message);
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (event.projectId() != null) {
+            publish(ClusterMessage.PROJECT, event.projectId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cluster-bus");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        listening = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    private boolean isOnCatalog() {
+        return ShardRegistry.DEFAULT_SHARD.equals(routingDataSource.currentShard());
+    }
+
+    private JdbcTemplate catalogJdbcTemplate() {
+        return shardRegistry.jdbcTemplate(ShardRegistry.DEFAULT_SHARD);
+    }
+
+    private void send(Collection<ClusterMessage> messages, JdbcTemplate template) {
+        StringBuilder body = new StringBuilder();
+        for (ClusterMessage message : messages) {
+            String encoded = message.topic() + KEY_SEPARATOR + message.key();
+            if (body.length() > 0 && body.length() + encoded.length() + 64 > MAX_PAYLOAD_BYTES) {
+                notify(body.toString(), template);
+                body.setLength(0);
+            }
+            if (body.length() > 0) {
+                body.append(MESSAGE_SEPARATOR);
+            }
+            body.append(encoded);
+        }
+        if (body.length() > 0) {
+            notify(body.toString(), template);
+        }
+    }
+
+    private void notify(String body, JdbcTemplate template) {
+        String payload = nodeId + FIELD_SEPARATOR + sequence.incrementAndGet() + FIELD_SEPARATOR + body;
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Cluster message too large: " + body);
+        }
+        template.queryForRowSet("SELECT pg_notify(?, ?)", channel, payload);
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = shardRegistry.dataSource(ShardRegistry.DEFAULT_SHARD).getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                sequenceByNode.clear();
+                if (connectedBefore) {
+                    log.warn("Reconnected to cluster channel {}, invalidating local caches", channel);
+                    invalidateAll();
+                }
+                connectedBefore = true;
+                listening = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        receive(notifications);
+                    }
+                    expireOutstanding();
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (running) {
+                    log.warn("Cluster channel {} lost, reconnecting in {} ms", channel, reconnectDelayMs, e);
+                    sleep(reconnectDelayMs);
+                }
+            }
+        }
+    }
+
+    // Notifications that arrive together are deduplicated before dispatch
+    private void receive(PGNotification[] notifications) {
+        Set<ClusterMessage> messages = new LinkedHashSet<>();
+        boolean gap = false;
+        for (PGNotification notification : notifications) {
+            String payload = notification.getParameter();
+            int nodeEnd = payload.indexOf(FIELD_SEPARATOR);
+            int sequenceEnd = payload.indexOf(FIELD_SEPARATOR, nodeEnd + 1);
+            if (nodeEnd < 0 || sequenceEnd < 0) {
+                log.warn("Ignoring malformed cluster message: {}", payload);
+                continue;
+            }
+            String sender = payload.substring(0, nodeEnd);
+            if (sender.equals(nodeId)) {
+                continue;
+            }
+
+            long received = Long.parseLong(payload.substring(nodeEnd + 1, sequenceEnd));
+            SequenceTracker tracker = sequenceByNode.get(sender);
+            if (tracker == null) {
+                sequenceByNode.put(sender, new SequenceTracker(received, TimeUnit.MILLISECONDS.toNanos(reorderTimeoutMs)));
+            } else if (!tracker.accept(received, System.nanoTime())) {
+                gap = true;
+            }
+
+            for (String encoded : payload.substring(sequenceEnd + 1).split(String.valueOf(MESSAGE_SEPARATOR))) {
+                int keyStart = encoded.indexOf(KEY_SEPARATOR);
+                if (keyStart > 0) {
+                    messages.add(new ClusterMessage(encoded.substring(0, keyStart), encoded.substring(keyStart + 1)));
+                }
+            }
+        }
+
+        if (gap) {
+            log.warn("Missed messages on cluster channel {}, invalidating local caches", channel);
+            invalidateAll();
+            return;
+        }
+        List<ClusterInvalidationListener> targets = new ArrayList<>();
+        listeners.orderedStream().forEach(targets::add);
+        for (ClusterMessage message : messages) {
+            for (ClusterInvalidationListener listener : targets) {
+                try {
+                    listener.invalidate(message);
+                } catch (RuntimeException e) {
+                    log.warn("Cluster listener {} failed on {}, invalidating it fully", listener, message, e);
+                    invalidateAll(listener);
+                }
+            }
+        }
+    }
+
+    private void expireOutstanding() {
+        long now = System.nanoTime();
+        boolean expired = false;
+        for (SequenceTracker tracker : sequenceByNode.values()) {
+            expired |= tracker.expire(now);
+        }
+        if (expired) {
+            log.warn("Messages on cluster channel {} still missing after {} ms, invalidating local caches",
+                    channel, reorderTimeoutMs);
+            invalidateAll();
+        }
+    }
+
+    private void invalidateAll() {
+        listeners.orderedStream().forEach(ClusterBus::invalidateAll);
+    }
+
+    private static void invalidateAll(ClusterInvalidationListener listener) {
+        try {
+            listener.invalidateAll();
+        } catch (RuntimeException e) {
+            log.error("Cluster listener {} failed to invalidate", listener, e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.pai.service.cluster;
+
+/**
+ * Implemented by in-process caches that must follow changes made on other nodes. Both methods are
+ * called on the bus listener thread, after the originating transaction committed.
+ */
+public interface ClusterInvalidationListener {
+
+    void invalidate(ClusterMessage message);
+
+    /**
+     * Called when messages may have been lost (reconnect or sequence gap); the cache must rebuild
+     * or drop everything.
+     */
+    void invalidateAll();
+}
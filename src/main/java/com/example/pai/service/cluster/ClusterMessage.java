@@ -0,0 +1,12 @@
+package com.example.pai.service.cluster;
+
+/**
+ * Names something another node may hold a stale copy of: a topic and the id within it.
+ */
+public record ClusterMessage(String topic, String key) {
+
+    public static final String PROJECT = "project";
+    public static final String PROJECT_MEMBERS = "members";
+    public static final String USER = "user";
+    public static final String ORGANIZATION_SHARD = "shard";
+}
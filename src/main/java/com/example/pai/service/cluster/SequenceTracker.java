@@ -0,0 +1,67 @@
+package com.example.pai.service.cluster;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Follows the sequence numbers received from one node.
+ * <p>
+ * A sender takes its number before commit, but NOTIFY is delivered in commit order, so two
+ * concurrent transactions may arrive as 6 then 5. Skipped numbers are therefore only held as
+ * outstanding, and count as lost once they are still outstanding after the timeout. A number
+ * taken by a transaction whose commit then failed is also reported that way. Not thread-safe.
+ */
+final class SequenceTracker {
+
+    private static final int MAX_OUTSTANDING = 1024;
+
+    private final long timeoutNanos;
+    // outstanding sequence -> deadline, in insertion and therefore deadline order
+    private final Map<Long, Long> outstanding = new LinkedHashMap<>();
+    private long highest;
+
+    SequenceTracker(long first, long timeoutNanos) {
+        this.highest = first;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Records a received sequence number. Returns false when the jump is too large to track,
+     * in which case the skipped numbers are treated as lost right away.
+     */
+    boolean accept(long sequence, long now) {
+        if (sequence <= highest) {
+            outstanding.remove(sequence);
+            return true;
+        }
+        if (sequence - highest - 1 + outstanding.size() > MAX_OUTSTANDING) {
+            outstanding.clear();
+            highest = sequence;
+            return false;
+        }
+        long deadline = now + timeoutNanos;
+        for (long skipped = highest + 1; skipped < sequence; skipped++) {
+            outstanding.put(skipped, deadline);
+        }
+        highest = sequence;
+        return true;
+    }
+
+    /**
+     * Returns whether a skipped number has been outstanding past its deadline, and forgets
+     * all outstanding numbers if so; the caller invalidates everything.
+     */
+    boolean expire(long now) {
+        Iterator<Long> deadlines = outstanding.values().iterator();
+        if (!deadlines.hasNext() || deadlines.next() - now > 0) {
+            return false;
+        }
+        outstanding.clear();
+        return true;
+    }
+
+    int outstanding() {
+        return outstanding.size();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.pai.service.dependency;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that adds or removes a dependency; version is the project's
+ * dependency version that change received.
+ */
+public record DependencyChangedEvent(UUID projectId, long version, UUID blockerTaskId, UUID blockedTaskId, boolean added) {
+}
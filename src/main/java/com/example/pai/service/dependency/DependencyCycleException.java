@@ -0,0 +1,12 @@
+package com.example.pai.service.dependency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DependencyCycleException extends RuntimeException {
+
+    public DependencyCycleException(String message) {
+        super(message);
+    }
+}
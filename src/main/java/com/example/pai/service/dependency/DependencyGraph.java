@@ -0,0 +1,523 @@
+package com.example.pai.service.dependency;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Dependency graph of one project's tasks, an edge leading from a blocker to the task it blocks.
+ * <p>
+ * Nodes are kept in a topological order. An edge that runs against the order is repaired with
+ * Pearce-Kelly: only the tasks positioned between its two ends are searched, which is also where a
+ * cycle would have to be, and they are reordered among the positions they already held.
+ * <p>
+ * Every task knows its earliest finish: its remaining duration plus the latest earliest finish among
+ * its blockers. A change is pushed to the successors in topological order and stops wherever a value
+ * stays the same, so an estimate or state change costs only the tasks it actually moves.
+ * <p>
+ * Not thread-safe; {@link DependencyIndex} synchronizes on the graph.
+ */
+final class DependencyGraph {
+
+    private static final int[] NO_EDGES = new int[0];
+
+    private final Map<UUID, Integer> nodes;
+    private UUID[] ids;
+    private int[] duration;
+    private long[] finish;
+    private int[] ord;
+    private int[] nodeAt;
+    private int[][] out;
+    private int[][] in;
+    private int[] outSize;
+    private int[] inSize;
+    private int[] mark;
+    private int epoch;
+    private int size;
+
+    // How many live tasks finish at each time; the last key is the project's earliest finish
+    private final TreeMap<Long, Integer> finishCounts = new TreeMap<>();
+    private final Comparator<Integer> byOrd = Comparator.comparingInt(node -> ord[node]);
+    private long version;
+
+    DependencyGraph(int capacity, long version) {
+        int initial = Math.max(16, capacity);
+        this.nodes = new HashMap<>(initial * 2);
+        this.ids = new UUID[initial];
+        this.duration = new int[initial];
+        this.finish = new long[initial];
+        this.ord = new int[initial];
+        this.nodeAt = new int[initial];
+        this.out = new int[initial][];
+        this.in = new int[initial][];
+        this.outSize = new int[initial];
+        this.inSize = new int[initial];
+        this.mark = new int[initial];
+        this.version = version;
+    }
+
+    /**
+     * Builds the graph in one pass: a topological order from Kahn's algorithm, then the earliest
+     * finishes along it. Edges that would close a cycle cannot be stored through the service and are
+     * skipped should they exist anyway.
+     */
+    static DependencyGraph build(Map<UUID, Integer> durations, Collection<UUID[]> edges, long version) {
+        DependencyGraph graph = new DependencyGraph(durations.size(), version);
+        durations.forEach((id, duration) -> graph.attach(id, duration));
+
+        int n = graph.size;
+        int[] indegree = new int[n];
+        List<int[]> valid = new ArrayList<>(edges.size());
+        for (UUID[] edge : edges) {
+            Integer from = graph.nodes.get(edge[0]);
+            Integer to = graph.nodes.get(edge[1]);
+            if (from != null && to != null && !from.equals(to) && !graph.hasEdge(from, to)) {
+                append(graph.out, graph.outSize, from, to);
+                append(graph.in, graph.inSize, to, from);
+                indegree[to]++;
+                valid.add(new int[]{from, to});
+            }
+        }
+
+        int position = 0;
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int v = 0; v < n; v++) {
+            if (indegree[v] == 0) {
+                ready.add(v);
+            }
+        }
+        boolean[] placed = new boolean[n];
+        while (!ready.isEmpty()) {
+            int v = ready.poll();
+            placed[v] = true;
+            graph.ord[v] = position;
+            graph.nodeAt[position++] = v;
+            for (int i = 0; i < graph.outSize[v]; i++) {
+                int w = graph.out[v][i];
+                if (--indegree[w] == 0) {
+                    ready.add(w);
+                }
+            }
+        }
+        if (position < n) {
+            for (int v = 0; v < n; v++) {
+                if (!placed[v]) {
+                    graph.ord[v] = position;
+                    graph.nodeAt[position++] = v;
+                }
+            }
+            for (int[] edge : valid) {
+                if (graph.ord[edge[0]] > graph.ord[edge[1]]) {
+                    graph.detach(edge[0], edge[1]);
+                }
+            }
+        }
+
+        graph.finishCounts.clear();
+        for (int p = 0; p < n; p++) {
+            int v = graph.nodeAt[p];
+            graph.finish[v] = graph.duration[v] + graph.latestBlockerFinish(v);
+            graph.count(graph.finish[v], 1);
+        }
+        return graph;
+    }
+
+    long version() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    boolean contains(UUID id) {
+        return nodes.containsKey(id);
+    }
+
+    int taskCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Adds the task or updates its remaining duration.
+     */
+    void putTask(UUID id, int remaining) {
+        Integer node = nodes.get(id);
+        if (node == null) {
+            int added = attach(id, remaining);
+            count(finish[added], 1);
+            return;
+        }
+        if (duration[node] != remaining) {
+            duration[node] = remaining;
+            propagate(List.of(node));
+        }
+    }
+
+    void removeTask(UUID id) {
+        Integer node = nodes.remove(id);
+        if (node == null) {
+            return;
+        }
+        List<Integer> successors = new ArrayList<>(outSize[node]);
+        for (int i = 0; i < outSize[node]; i++) {
+            successors.add(out[node][i]);
+            remove(in, inSize, out[node][i], node);
+        }
+        for (int i = 0; i < inSize[node]; i++) {
+            remove(out, outSize, in[node][i], node);
+        }
+        out[node] = NO_EDGES;
+        in[node] = NO_EDGES;
+        outSize[node] = 0;
+        inSize[node] = 0;
+        count(finish[node], -1);
+        duration[node] = 0;
+        finish[node] = 0;
+        // The position stays taken; an isolated node never violates the order
+        propagate(successors);
+    }
+
+    boolean hasEdge(UUID blocker, UUID blocked) {
+        Integer from = nodes.get(blocker);
+        Integer to = nodes.get(blocked);
+        return from != null && to != null && hasEdge(from, to);
+    }
+
+    /**
+     * Whether blocker would (transitively) wait for itself once it blocks the other task. An edge that
+     * agrees with the topological order can never close a cycle, so most checks end right away.
+     */
+    boolean wouldCreateCycle(UUID blocker, UUID blocked) {
+        int from = nodes.get(blocker);
+        int to = nodes.get(blocked);
+        if (from == to) {
+            return true;
+        }
+        if (ord[from] < ord[to]) {
+            return false;
+        }
+        nextEpoch();
+        return forward(to, ord[from], from) == null;
+    }
+
+    /**
+     * Adds the edge and returns false, leaving the graph unchanged, if it would close a cycle.
+     */
+    boolean addDependency(UUID blocker, UUID blocked) {
+        int from = nodes.get(blocker);
+        int to = nodes.get(blocked);
+        if (from == to) {
+            return false;
+        }
+        if (hasEdge(from, to)) {
+            return true;
+        }
+        if (ord[from] > ord[to] && !reorder(from, to)) {
+            return false;
+        }
+        append(out, outSize, from, to);
+        append(in, inSize, to, from);
+        propagate(List.of(to));
+        return true;
+    }
+
+    void removeDependency(UUID blocker, UUID blocked) {
+        Integer from = nodes.get(blocker);
+        Integer to = nodes.get(blocked);
+        if (from != null && to != null && hasEdge(from, to)) {
+            detach(from, to);
+            propagate(List.of(to));
+        }
+    }
+
+    long earliestFinish() {
+        return finishCounts.isEmpty() ? 0 : finishCounts.lastKey();
+    }
+
+    long earliestFinish(UUID id) {
+        return finish[nodes.get(id)];
+    }
+
+    long earliestStart(UUID id) {
+        int node = nodes.get(id);
+        return finish[node] - duration[node];
+    }
+
+    List<UUID> blockers(UUID id) {
+        int node = nodes.get(id);
+        return toIds(in[node], inSize[node]);
+    }
+
+    List<UUID> blocked(UUID id) {
+        int node = nodes.get(id);
+        return toIds(out[node], outSize[node]);
+    }
+
+    /**
+     * Every task that cannot start before this one is done, nearest first.
+     */
+    List<UUID> blockedTransitively(UUID id) {
+        nextEpoch();
+        List<UUID> result = new ArrayList<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int start = nodes.get(id);
+        mark[start] = epoch;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            for (int i = 0; i < outSize[v]; i++) {
+                int w = out[v][i];
+                if (mark[w] != epoch) {
+                    mark[w] = epoch;
+                    result.add(ids[w]);
+                    queue.add(w);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The chain of tasks that determines the project's earliest finish, first task first.
+     */
+    List<UUID> criticalPath() {
+        if (finishCounts.isEmpty()) {
+            return List.of();
+        }
+        long target = finishCounts.lastKey();
+        int last = -1;
+        for (int node : nodes.values()) {
+            if (finish[node] == target) {
+                last = node;
+                break;
+            }
+        }
+        List<UUID> path = new ArrayList<>();
+        int v = last;
+        while (v >= 0) {
+            path.add(ids[v]);
+            long start = finish[v] - duration[v];
+            int previous = -1;
+            for (int i = 0; i < inSize[v] && previous < 0; i++) {
+                if (finish[in[v][i]] == start) {
+                    previous = in[v][i];
+                }
+            }
+            v = previous;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int attach(UUID id, int remaining) {
+        ensureCapacity(size + 1);
+        int node = size++;
+        ids[node] = id;
+        duration[node] = remaining;
+        finish[node] = remaining;
+        ord[node] = node;
+        nodeAt[node] = node;
+        out[node] = NO_EDGES;
+        in[node] = NO_EDGES;
+        nodes.put(id, node);
+        return node;
+    }
+
+    private void detach(int from, int to) {
+        remove(out, outSize, from, to);
+        remove(in, inSize, to, from);
+    }
+
+    // Pearce-Kelly for an edge from -> to with ord[from] > ord[to]
+    private boolean reorder(int from, int to) {
+        int lowerBound = ord[to];
+        int upperBound = ord[from];
+        nextEpoch();
+        List<Integer> forward = forward(to, upperBound, from);
+        if (forward == null) {
+            return false;
+        }
+        List<Integer> backward = backward(from, lowerBound);
+
+        forward.sort(byOrd);
+        backward.sort(byOrd);
+        int[] positions = new int[forward.size() + backward.size()];
+        int p = 0;
+        for (int v : backward) {
+            positions[p++] = ord[v];
+        }
+        for (int v : forward) {
+            positions[p++] = ord[v];
+        }
+        Arrays.sort(positions);
+        p = 0;
+        for (int v : backward) {
+            place(v, positions[p++]);
+        }
+        for (int v : forward) {
+            place(v, positions[p++]);
+        }
+        return true;
+    }
+
+    // Nodes reachable from start up to the given position, or null if that reaches target
+    private List<Integer> forward(int start, int upperBound, int target) {
+        List<Integer> visited = new ArrayList<>();
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        mark[start] = epoch;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int v = stack.pop();
+            visited.add(v);
+            for (int i = 0; i < outSize[v]; i++) {
+                int w = out[v][i];
+                if (w == target) {
+                    return null;
+                }
+                if (mark[w] != epoch && ord[w] < upperBound) {
+                    mark[w] = epoch;
+                    stack.push(w);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private List<Integer> backward(int start, int lowerBound) {
+        List<Integer> visited = new ArrayList<>();
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        mark[start] = epoch;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int v = stack.pop();
+            visited.add(v);
+            for (int i = 0; i < inSize[v]; i++) {
+                int w = in[v][i];
+                if (mark[w] != epoch && ord[w] > lowerBound) {
+                    mark[w] = epoch;
+                    stack.push(w);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private void place(int node, int position) {
+        ord[node] = position;
+        nodeAt[position] = node;
+    }
+
+    // Recomputes the given nodes and whatever their changes reach, in topological order
+    private void propagate(Collection<Integer> starts) {
+        if (starts.isEmpty()) {
+            return;
+        }
+        nextEpoch();
+        PriorityQueue<Integer> queue = new PriorityQueue<>(byOrd);
+        for (int v : starts) {
+            if (mark[v] != epoch) {
+                mark[v] = epoch;
+                queue.add(v);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            long updated = duration[v] + latestBlockerFinish(v);
+            if (updated == finish[v]) {
+                continue;
+            }
+            count(finish[v], -1);
+            count(updated, 1);
+            finish[v] = updated;
+            for (int i = 0; i < outSize[v]; i++) {
+                int w = out[v][i];
+                if (mark[w] != epoch) {
+                    mark[w] = epoch;
+                    queue.add(w);
+                }
+            }
+        }
+    }
+
+    private long latestBlockerFinish(int node) {
+        long latest = 0;
+        for (int i = 0; i < inSize[node]; i++) {
+            latest = Math.max(latest, finish[in[node][i]]);
+        }
+        return latest;
+    }
+
+    private void count(long value, int delta) {
+        finishCounts.merge(value, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private boolean hasEdge(int from, int to) {
+        for (int i = 0; i < outSize[from]; i++) {
+            if (out[from][i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<UUID> toIds(int[] adjacent, int count) {
+        List<UUID> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(ids[adjacent[i]]);
+        }
+        return result;
+    }
+
+    private void nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        duration = Arrays.copyOf(duration, grown);
+        finish = Arrays.copyOf(finish, grown);
+        ord = Arrays.copyOf(ord, grown);
+        nodeAt = Arrays.copyOf(nodeAt, grown);
+        out = Arrays.copyOf(out, grown);
+        in = Arrays.copyOf(in, grown);
+        outSize = Arrays.copyOf(outSize, grown);
+        inSize = Arrays.copyOf(inSize, grown);
+        mark = Arrays.copyOf(mark, grown);
+    }
+
+    private static void append(int[][] lists, int[] sizes, int node, int value) {
+        int[] list = lists[node];
+        if (sizes[node] == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, list.length * 2));
+            lists[node] = list;
+        }
+        list[sizes[node]++] = value;
+    }
+
+    private static void remove(int[][] lists, int[] sizes, int node, int value) {
+        int[] list = lists[node];
+        for (int i = 0; i < sizes[node]; i++) {
+            if (list[i] == value) {
+                list[i] = list[--sizes[node]];
+                return;
+            }
+        }
+    }
+}
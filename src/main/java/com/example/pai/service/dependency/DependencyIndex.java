@@ -0,0 +1,142 @@
+package com.example.pai.service.dependency;
+
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.projection.TaskGraphNodeView;
+import com.example.pai.dao.repository.TaskDependencyRepository;
+import com.example.pai.dao.repository.TaskRepository;
+import com.example.pai.service.cluster.ClusterInvalidationListener;
+import com.example.pai.service.cluster.ClusterMessage;
+import com.example.pai.service.event.TaskChangedEvent;
+import com.example.pai.service.workload.WorkloadIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory dependency graph of each project, loaded on first use and then kept current by applying
+ * committed task and dependency changes to it rather than reloading. Every dependency change bumps
+ * the project's version, so a graph that missed one notices and is dropped instead of drifting.
+ * Changes made on other nodes drop the project here.
+ */
+@Component
+@RequiredArgsConstructor
+public class DependencyIndex implements ClusterInvalidationListener {
+
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+
+    private final Map<UUID, DependencyGraph> graphs = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the query against the project's graph; the graph must not escape the function.
+     */
+    <T> T read(UUID projectId, Function<DependencyGraph, T> query) {
+        DependencyGraph graph = graphs.computeIfAbsent(projectId, this::load);
+        synchronized (graph) {
+            return query.apply(graph);
+        }
+    }
+
+    /**
+     * Checks a new edge against the graph as of the given version. Callers hold the project's version
+     * row locked, so the database cannot move on meanwhile; a cached graph at another version is not
+     * trusted and the check runs on a fresh copy instead. That copy is never cached, it was read inside
+     * the caller's uncommitted transaction.
+     */
+    public boolean wouldCreateCycle(UUID projectId, long version, UUID blockerTaskId, UUID blockedTaskId) {
+        DependencyGraph graph = graphs.get(projectId);
+        if (graph != null) {
+            synchronized (graph) {
+                if (graph.version() == version && graph.contains(blockerTaskId) && graph.contains(blockedTaskId)) {
+                    return graph.wouldCreateCycle(blockerTaskId, blockedTaskId);
+                }
+            }
+            graphs.remove(projectId, graph);
+        }
+        DependencyGraph current = load(projectId);
+        return !current.contains(blockerTaskId) || !current.contains(blockedTaskId)
+                || current.wouldCreateCycle(blockerTaskId, blockedTaskId);
+    }
+
+    public void invalidateProject(UUID projectId) {
+        graphs.remove(projectId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.taskId() == null) {
+            invalidateProject(event.projectId());
+            return;
+        }
+        graphs.computeIfPresent(event.projectId(), (projectId, graph) -> {
+            synchronized (graph) {
+                if (event.deleted()) {
+                    graph.removeTask(event.taskId());
+                } else {
+                    graph.putTask(event.taskId(), remaining(event.estimatedTime(), event.state()));
+                }
+            }
+            return graph;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDependencyChanged(DependencyChangedEvent event) {
+        graphs.computeIfPresent(event.projectId(), (projectId, graph) -> {
+            synchronized (graph) {
+                if (graph.version() >= event.version()) {
+                    return graph;
+                }
+                if (graph.version() != event.version() - 1
+                        || !graph.contains(event.blockerTaskId()) || !graph.contains(event.blockedTaskId())) {
+                    return null;
+                }
+                if (event.added()) {
+                    if (!graph.addDependency(event.blockerTaskId(), event.blockedTaskId())) {
+                        return null;
+                    }
+                } else {
+                    graph.removeDependency(event.blockerTaskId(), event.blockedTaskId());
+                }
+                graph.setVersion(event.version());
+                return graph;
+            }
+        });
+    }
+
+    @Override
+    public void invalidate(ClusterMessage message) {
+        if (ClusterMessage.PROJECT.equals(message.topic())) {
+            invalidateProject(UUID.fromString(message.key()));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        graphs.clear();
+    }
+
+    // The version is read first: changes committed while the rest loads are applied again on top, which they survive
+    private DependencyGraph load(UUID projectId) {
+        long version = taskDependencyRepository.findVersion(projectId);
+        List<TaskGraphNodeView> tasks = taskRepository.findGraphNodesByProjectId(projectId);
+        Map<UUID, Integer> durations = new HashMap<>(tasks.size() * 2);
+        tasks.forEach(task -> durations.put(task.getId(), remaining(task.getEstimatedTime(), task.getState())));
+        List<UUID[]> edges = taskDependencyRepository.findViewsByProjectId(projectId).stream()
+                .map(view -> new UUID[]{view.getBlockerTaskId(), view.getBlockedTaskId()})
+                .toList();
+        return DependencyGraph.build(durations, edges, version);
+    }
+
+    // Only open work still takes time; finished, approved or waiting tasks are done as far as their successors care
+    private static int remaining(Integer estimatedTime, Task.TaskState state) {
+        return estimatedTime != null && WorkloadIndex.OPEN_STATES.contains(state) ? estimatedTime : 0;
+    }
+}
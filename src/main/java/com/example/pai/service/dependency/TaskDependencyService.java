@@ -0,0 +1,141 @@
+package com.example.pai.service.dependency;
+
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.TaskDependency;
+import com.example.pai.dao.repository.TaskDependencyRepository;
+import com.example.pai.dao.repository.TaskRepository;
+import com.example.pai.service.access.ProjectAccessGuard;
+import com.example.pai.service.event.ProjectChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class TaskDependencyService {
+
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final DependencyIndex dependencyIndex;
+    private final ProjectAccessGuard projectAccessGuard;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public Optional<TaskDto.TaskDependencies> getDependencies(UUID taskId) {
+        return taskRepository.findById(taskId)
+                .map(this::checkAccess)
+                .map(task -> dependencyIndex.read(task.getProject().getId(), graph -> graph.contains(taskId)
+                        ? mapToTaskDependencies(graph, taskId)
+                        : TaskDto.TaskDependencies.builder().taskId(taskId).blockedBy(List.of()).blocks(List.of()).build()));
+    }
+
+    /**
+     * The tasks that wait for this one, directly or through other tasks when transitive.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<UUID>> getBlockedTasks(UUID taskId, boolean transitive) {
+        return taskRepository.findById(taskId)
+                .map(this::checkAccess)
+                .map(task -> dependencyIndex.read(task.getProject().getId(), graph -> {
+                    if (!graph.contains(taskId)) {
+                        return List.of();
+                    }
+                    return transitive ? graph.blockedTransitively(taskId) : graph.blocked(taskId);
+                }));
+    }
+
+    @Transactional(readOnly = true)
+    public TaskDto.CriticalPath getCriticalPath(UUID projectId) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        return dependencyIndex.read(projectId, graph -> TaskDto.CriticalPath.builder()
+                .projectId(projectId)
+                .earliestFinish(graph.earliestFinish())
+                .taskIds(graph.criticalPath())
+                .build());
+    }
+
+    /**
+     * Makes the blocked task wait for the blocker. Both must belong to the same project, and the
+     * edge must not make a task wait for itself. Returns false if either task does not exist.
+     */
+    @Transactional
+    public boolean addDependency(UUID blockedTaskId, UUID blockerTaskId) {
+        Optional<Task> blocked = taskRepository.findById(blockedTaskId).map(this::checkAccess);
+        Optional<Task> blocker = taskRepository.findById(blockerTaskId).map(this::checkAccess);
+        if (blocked.isEmpty() || blocker.isEmpty()) {
+            return false;
+        }
+        UUID projectId = sameProject(blocker.get(), blocked.get());
+        if (taskDependencyRepository.existsByBlockerTaskIdAndBlockedTaskId(blockerTaskId, blockedTaskId)) {
+            return true;
+        }
+        long version = taskDependencyRepository.incrementVersion(projectId);
+        // A concurrent add of the same edge may have committed while this one waited for the version row
+        if (!taskDependencyRepository.existsByBlockerTaskIdAndBlockedTaskId(blockerTaskId, blockedTaskId)) {
+            if (dependencyIndex.wouldCreateCycle(projectId, version - 1, blockerTaskId, blockedTaskId)) {
+                throw new DependencyCycleException("Task " + blockedTaskId + " already blocks task " + blockerTaskId);
+            }
+            TaskDependency dependency = new TaskDependency();
+            dependency.setProjectId(projectId);
+            dependency.setBlockerTaskId(blockerTaskId);
+            dependency.setBlockedTaskId(blockedTaskId);
+            dependency.setOrganizationId(blocked.get().getOrganizationId());
+            taskDependencyRepository.save(dependency);
+        }
+        // Published either way so cached graphs follow the version; an edge they already have is a no-op
+        publish(new DependencyChangedEvent(projectId, version, blockerTaskId, blockedTaskId, true));
+        return true;
+    }
+
+    @Transactional
+    public boolean removeDependency(UUID blockedTaskId, UUID blockerTaskId) {
+        return taskRepository.findById(blockedTaskId)
+                .map(this::checkAccess)
+                .flatMap(blocked -> taskDependencyRepository.findByBlockerTaskIdAndBlockedTaskId(blockerTaskId, blockedTaskId))
+                .map(dependency -> {
+                    long version = taskDependencyRepository.incrementVersion(dependency.getProjectId());
+                    taskDependencyRepository.delete(dependency);
+                    publish(new DependencyChangedEvent(dependency.getProjectId(), version, blockerTaskId, blockedTaskId, false));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // Other nodes drop their copy of the graph on the project change
+    private void publish(DependencyChangedEvent event) {
+        eventPublisher.publishEvent(event);
+        eventPublisher.publishEvent(new ProjectChangedEvent(event.projectId()));
+    }
+
+    private UUID sameProject(Task blocker, Task blocked) {
+        if (!blocker.getProject().getId().equals(blocked.getProject().getId())) {
+            throw new RuntimeException("Dependent tasks must belong to the same project");
+        }
+        return blocked.getProject().getId();
+    }
+
+    // Dependencies only exist within a project, so tasks without one are treated as not found
+    private Task checkAccess(Task task) {
+        if (task.getProject() == null) {
+            return null;
+        }
+        projectAccessGuard.checkProjectAccess(task.getProject().getId());
+        return task;
+    }
+
+    private static TaskDto.TaskDependencies mapToTaskDependencies(DependencyGraph graph, UUID taskId) {
+        return TaskDto.TaskDependencies.builder()
+                .taskId(taskId)
+                .blockedBy(graph.blockers(taskId))
+                .blocks(graph.blocked(taskId))
+                .earliestStart(graph.earliestStart(taskId))
+                .earliestFinish(graph.earliestFinish(taskId))
+                .build();
+    }
+}
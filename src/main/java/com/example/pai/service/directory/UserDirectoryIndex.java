@@ -0,0 +1,207 @@
+package com.example.pai.service.directory;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.config.startup.StartupCritical;
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.projection.UserDirectoryView;
+import com.example.pai.dao.repository.RoleRepository;
+import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.cluster.ClusterBus;
+import com.example.pai.service.cluster.ClusterInvalidationListener;
+import com.example.pai.service.cluster.ClusterMessage;
+import com.example.pai.service.support.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted prefix index over visible users for typeahead search. Every user is stored under its
+ * email, full name and each word of the name, both in a global map and in a map per role name, so a
+ * lookup is a range scan that stops after the requested number of users. Keys start with the
+ * organization, which keeps each organization's users in one contiguous range that scans of other
+ * organizations never touch. Users changed on other nodes arrive through the {@link ClusterBus}
+ * and are re-read from the database. Users of every shard are indexed; role ids differ between
+ * shards, which is why roles are grouped by name.
+ */
+@Component
+@StartupCritical
+@RequiredArgsConstructor
+public class UserDirectoryIndex implements ClusterInvalidationListener {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final ClusterBus clusterBus;
+    private final ShardRegistry shardRegistry;
+
+    private final NavigableMap<String, Entry> entriesByKey = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<String, Entry>> entriesByRole = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> entriesById = new ConcurrentHashMap<>();
+    private volatile Map<UUID, String> roleNamesById = Map.of();
+
+    public record Entry(UUID id, UUID organizationId, String email, String name, UUID roleId) {
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        Map<UUID, String> roleNames = new HashMap<>();
+        shardRegistry.forEach(() -> {
+            for (Role role : roleRepository.findAll()) {
+                roleNames.put(role.getId(), role.getName());
+            }
+        });
+        roleNamesById = Map.copyOf(roleNames);
+
+        entriesByKey.clear();
+        entriesByRole.clear();
+        entriesById.clear();
+        shardRegistry.forEach(() -> {
+            for (UserDirectoryView user : userRepository.findDirectoryEntries()) {
+                add(toEntry(user));
+            }
+        });
+    }
+
+    public List<Entry> findByPrefix(UUID organizationId, String prefix, String roleName, int limit) {
+        NavigableMap<String, Entry> entries = entriesByKey;
+        if (roleName != null) {
+            entries = entriesByRole.get(roleName);
+            if (entries == null) {
+                return List.of();
+            }
+        }
+
+        String from = organizationId.toString() + KEY_SEPARATOR + normalize(prefix);
+        List<Entry> matches = new ArrayList<>(limit);
+        Set<UUID> seen = new HashSet<>();
+        for (Entry entry : entries.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            if (seen.add(entry.id())) {
+                matches.add(entry);
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    public String getRoleName(UUID roleId) {
+        return roleId != null ? roleNamesById.get(roleId) : null;
+    }
+
+    /**
+     * Re-indexes the user once the surrounding transaction commits; hidden users are dropped.
+     */
+    public void refresh(UserManagment user) {
+        Entry entry = new Entry(user.getId(), user.getOrganizationId(), user.getEmail(), user.getName(),
+                user.getRole() != null ? user.getRole().getId() : null);
+        boolean hidden = Boolean.TRUE.equals(user.getHidden());
+        clusterBus.publish(ClusterMessage.USER, entry.id());
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                removeEntry(entry.id());
+                if (!hidden) {
+                    add(entry);
+                }
+            }
+        });
+    }
+
+    public void remove(UUID userId) {
+        clusterBus.publish(ClusterMessage.USER, userId);
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                removeEntry(userId);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void invalidate(ClusterMessage message) {
+        if (!ClusterMessage.USER.equals(message.topic())) {
+            return;
+        }
+        UUID userId = UUID.fromString(message.key());
+        removeEntry(userId);
+        shardRegistry.findFirst(() -> userRepository.findDirectoryEntryById(userId))
+                .ifPresent(user -> add(toEntry(user)));
+    }
+
+    @Override
+    public void invalidateAll() {
+        reload();
+    }
+
+    private static Entry toEntry(UserDirectoryView user) {
+        return new Entry(user.getId(), user.getOrganizationId(), user.getEmail(), user.getName(), user.getRoleId());
+    }
+
+    private void add(Entry entry) {
+        entriesById.put(entry.id(), entry);
+        String roleName = getRoleName(entry.roleId());
+        NavigableMap<String, Entry> roleEntries = roleName != null
+                ? entriesByRole.computeIfAbsent(roleName, name -> new ConcurrentSkipListMap<>())
+                : null;
+        for (String key : keys(entry)) {
+            entriesByKey.put(key, entry);
+            if (roleEntries != null) {
+                roleEntries.put(key, entry);
+            }
+        }
+    }
+
+    private void removeEntry(UUID userId) {
+        Entry entry = entriesById.remove(userId);
+        if (entry == null) {
+            return;
+        }
+        String roleName = getRoleName(entry.roleId());
+        NavigableMap<String, Entry> roleEntries = roleName != null ? entriesByRole.get(roleName) : null;
+        for (String key : keys(entry)) {
+            entriesByKey.remove(key);
+            if (roleEntries != null) {
+                roleEntries.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> keys(Entry entry) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (entry.email() != null) {
+            tokens.add(normalize(entry.email()));
+        }
+        if (entry.name() != null) {
+            String name = normalize(entry.name());
+            tokens.add(name);
+            for (String word : name.split("\\s+")) {
+                if (!word.isEmpty()) {
+                    tokens.add(word);
+                }
+            }
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (String token : tokens) {
+            keys.add(entry.organizationId().toString() + KEY_SEPARATOR + token + KEY_SEPARATOR + entry.id());
+        }
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
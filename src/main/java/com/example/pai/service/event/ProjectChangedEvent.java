@@ -0,0 +1,9 @@
+package com.example.pai.service.event;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that changes a project, its membership, or its tasks and notes.
+ */
+public record ProjectChangedEvent(UUID projectId) {
+}
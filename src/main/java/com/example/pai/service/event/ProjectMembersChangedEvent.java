@@ -0,0 +1,9 @@
+package com.example.pai.service.event;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that adds or removes members of a project, or deletes it.
+ */
+public record ProjectMembersChangedEvent(UUID projectId) {
+}
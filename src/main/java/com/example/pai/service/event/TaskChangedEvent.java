@@ -0,0 +1,17 @@
+package com.example.pai.service.event;
+
+import com.example.pai.dao.model.Task;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that creates, changes or deletes a task, with the values that
+ * derived per-task structures need. A null taskId stands for bulk changes to the project's tasks.
+ */
+public record TaskChangedEvent(UUID projectId, UUID taskId, boolean deleted, Integer estimatedTime, Task.TaskState state,
+                               UUID assignedUserId) {
+
+    public static TaskChangedEvent ofProject(UUID projectId) {
+        return new TaskChangedEvent(projectId, null, false, null, null, null);
+    }
+}
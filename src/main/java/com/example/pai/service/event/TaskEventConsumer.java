@@ -0,0 +1,16 @@
+package com.example.pai.service.event;
+
+import com.example.pai.dao.model.TaskEvent;
+
+import java.util.List;
+
+/**
+ * Subscriber of the task event log. Batches are delivered in event id order, at least once:
+ * a batch that throws is redelivered on the next relay run, so implementations must be idempotent.
+ */
+public interface TaskEventConsumer {
+
+    String getName();
+
+    void accept(List<TaskEvent> events);
+}
@@ -0,0 +1,96 @@
+package com.example.pai.service.event;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.model.TaskEvent;
+import com.example.pai.dao.model.TaskEventCheckpoint;
+import com.example.pai.dao.repository.TaskEventCheckpointRepository;
+import com.example.pai.dao.repository.TaskEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the task event log to every {@link TaskEventConsumer} bean. Each consumer has its own
+ * checkpoint row; a batch and its checkpoint advance commit in one transaction, so a consumer that
+ * writes to the database in {@code accept} sees every event exactly once, others at least once.
+ * Every shard has its own log and checkpoints and is relayed in turn.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskEventRelay {
+
+    private final TaskEventRepository taskEventRepository;
+    private final TaskEventCheckpointRepository checkpointRepository;
+    private final ObjectProvider<TaskEventConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRegistry shardRegistry;
+
+    @Value("${task-events.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${task-events.relay.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${task-events.relay.fixed-delay-ms:1000}")
+    public void relay() {
+        shardRegistry.forEach(() -> consumers.orderedStream().forEach(this::relayTo));
+    }
+
+    private void relayTo(TaskEventConsumer consumer) {
+        try {
+            Integer delivered;
+            do {
+                delivered = transactionTemplate.execute(status -> deliverBatch(consumer));
+            } while (delivered != null && delivered == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Task event consumer {} failed, retrying from its last checkpoint", consumer.getName(), e);
+        }
+    }
+
+    private int deliverBatch(TaskEventConsumer consumer) {
+        // A missing row cannot be locked, so a second relay would deliver the same first batch meanwhile.
+        // Creating it first makes that relay wait on the lock and continue from the advanced checkpoint.
+        checkpointRepository.createIfMissing(consumer.getName());
+        TaskEventCheckpoint checkpoint = checkpointRepository.findForUpdate(consumer.getName()).orElseThrow();
+
+        List<TaskEvent> batch = deliverable(checkpoint.getLastEventId(),
+                taskEventRepository.findByIdGreaterThanOrderByIdAsc(checkpoint.getLastEventId(), PageRequest.of(0, batchSize)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        consumer.accept(batch);
+
+        checkpoint.setLastEventId(batch.get(batch.size() - 1).getId());
+        checkpointRepository.save(checkpoint);
+        return batch.size();
+    }
+
+    // Ids come from a sequence, so a lower id can still be uncommitted while a higher one is visible.
+    // Stop at a gap until it is old enough to be a rolled back insert rather than one in flight.
+    private List<TaskEvent> deliverable(long lastEventId, List<TaskEvent> events) {
+        LocalDateTime gapDeadline = LocalDateTime.now().minus(Duration.ofMillis(gapTimeoutMs));
+        List<TaskEvent> deliverable = new ArrayList<>(events.size());
+        long expectedId = lastEventId + 1;
+
+        for (TaskEvent event : events) {
+            if (event.getId() != expectedId && event.getCreationTimestamp().isAfter(gapDeadline)) {
+                break;
+            }
+            deliverable.add(event);
+            expectedId = event.getId() + 1;
+        }
+        return deliverable;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.pai.service.event;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.TaskEvent;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.TaskEventRepository;
+import com.example.pai.service.activity.ActivityRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class TaskEventService {
+
+    private final TaskEventRepository taskEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityRecorder activityRecorder;
+
+    // Must join the caller's transaction so the event commits or rolls back together with the task
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(TaskEvent.EventType type, Task task, Task.TaskState previousState, UserManagment previousAssignee) {
+        TaskEvent event = new TaskEvent();
+        event.setEventType(type);
+        event.setTaskId(task.getId());
+        event.setProjectId(task.getProject() != null ? task.getProject().getId() : null);
+        event.setOldState(previousState);
+        event.setOldAssignedUserId(previousAssignee != null ? previousAssignee.getId() : null);
+
+        if (type != TaskEvent.EventType.DELETED) {
+            event.setNewState(task.getState());
+            event.setNewAssignedUserId(task.getAssignedUser() != null ? task.getAssignedUser().getId() : null);
+        }
+
+        AuthenticatedUser actor = AuthenticatedUser.current();
+        event.setActorId(actor != null ? actor.getId() : null);
+        taskEventRepository.save(event);
+        activityRecorder.record(ActivityRecorder.Activity.ofTask(ActivityRecorder.Action.valueOf(type.name()), task));
+        if (event.getProjectId() != null) {
+            eventPublisher.publishEvent(new ProjectChangedEvent(event.getProjectId()));
+            eventPublisher.publishEvent(new TaskChangedEvent(event.getProjectId(), task.getId(),
+                    type == TaskEvent.EventType.DELETED, task.getEstimatedTime(), task.getState(),
+                    task.getAssignedUser() != null ? task.getAssignedUser().getId() : null));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskEvent> getTaskHistory(UUID taskId) {
+        return taskEventRepository.findByTaskIdOrderByIdAsc(taskId);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.pai.service.idempotency;
+
+import com.example.pai.config.shard.ShardRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Remembers the response to each idempotency key of a user in idempotency_key until the key expires.
+ * The first request with a key claims its row and executes; duplicates arriving meanwhile wait for it,
+ * on the same node through an in-flight future and across nodes by polling the row. Finished responses
+ * never change, so a bounded near-cache can serve retries without asking the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRegistry shardRegistry;
+
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    // A claim older than this whose response never arrived belongs to a node that died mid-request
+    @Value("${idempotency.abandon-after-seconds:60}")
+    private long abandonAfterSeconds;
+
+    @Value("${idempotency.near-cache-entries:10000}")
+    private int nearCacheEntries;
+
+    private final Map<Key, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private Map<Key, Entry> nearCache;
+
+    @PostConstruct
+    void init() {
+        int capacity = nearCacheEntries;
+        nearCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    public enum Outcome { EXECUTE, REPLAY, MISMATCH, IN_PROGRESS }
+
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    private record Key(UUID userId, String key) {
+    }
+
+    private record Entry(String requestHash, StoredResponse response, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Decides what to do with a request. EXECUTE must be followed by {@link #complete} or
+     * {@link #release} for the same key.
+     */
+    public Claim acquire(UUID userId, String key, String requestHash) throws InterruptedException {
+        Key id = new Key(userId, key);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        while (true) {
+            Entry cached = cached(id);
+            if (cached != null) {
+                return replay(cached, requestHash);
+            }
+
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                try {
+                    running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    return new Claim(Outcome.IN_PROGRESS, null);
+                } catch (ExecutionException e) {
+                    // Never completed exceptionally, see finish()
+                }
+                continue;
+            }
+
+            boolean claimed;
+            try {
+                claimed = tryClaim(id, requestHash);
+            } catch (RuntimeException e) {
+                // Otherwise later requests with this key would wait on a future nobody completes
+                finish(id, mine);
+                throw e;
+            }
+            if (claimed) {
+                return new Claim(Outcome.EXECUTE, null);
+            }
+            finish(id, mine);
+
+            Entry stored = load(id);
+            if (stored != null) {
+                remember(id, stored);
+                return replay(stored, requestHash);
+            }
+            if (System.nanoTime() >= deadline) {
+                return new Claim(Outcome.IN_PROGRESS, null);
+            }
+            // Claimed by another node, or released just now
+            Thread.sleep(pollIntervalMs);
+        }
+    }
+
+    public void complete(UUID userId, String key, String requestHash, StoredResponse response) {
+        Key id = new Key(userId, key);
+        try {
+            List<LocalDateTime> expiresAt = jdbcTemplate.queryForList("UPDATE idempotency_key SET status_code = ?, content_type = ?, body = ? " +
+                            "WHERE user_id = ? AND idempotency_key = ? RETURNING expires_at", LocalDateTime.class,
+                    response.status(), response.contentType(), response.body(), userId, key);
+            if (!expiresAt.isEmpty()) {
+                remember(id, new Entry(requestHash, response, expiresAt.get(0)));
+            }
+        } finally {
+            finish(id, inFlight.get(id));
+        }
+    }
+
+    /**
+     * Gives the key up after a failed execution, so the next retry executes again.
+     */
+    public void release(UUID userId, String key) {
+        Key id = new Key(userId, key);
+        try {
+            jdbcTemplate.update("DELETE FROM idempotency_key WHERE user_id = ? AND idempotency_key = ? AND status_code IS NULL",
+                    userId, key);
+        } finally {
+            finish(id, inFlight.get(id));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:600000}")
+    public void removeExpired() {
+        shardRegistry.forEach(() -> {
+            try {
+                int removed = jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at < CURRENT_TIMESTAMP");
+                if (removed > 0) {
+                    log.debug("Removed {} expired idempotency keys", removed);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Removing expired idempotency keys failed, retrying on the next run", e);
+            }
+        });
+    }
+
+    // Inserts the claim, or takes over a row that expired or was abandoned by its node
+    private boolean tryClaim(Key id, String requestHash) {
+        return jdbcTemplate.update("INSERT INTO idempotency_key (user_id, idempotency_key, request_hash, expires_at) " +
+                        "VALUES (?, ?, ?, CURRENT_TIMESTAMP + make_interval(secs => ?)) " +
+                        "ON CONFLICT (user_id, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+                        "status_code = NULL, content_type = NULL, body = NULL, " +
+                        "creation_timestamp = CURRENT_TIMESTAMP, expires_at = EXCLUDED.expires_at " +
+                        "WHERE idempotency_key.expires_at < CURRENT_TIMESTAMP " +
+                        "OR (idempotency_key.status_code IS NULL AND idempotency_key.creation_timestamp < CURRENT_TIMESTAMP - make_interval(secs => ?))",
+                id.userId(), id.key(), requestHash, (double) ttlSeconds, (double) abandonAfterSeconds) == 1;
+    }
+
+    private Entry load(Key id) {
+        List<Entry> rows = jdbcTemplate.query("SELECT request_hash, status_code, content_type, body, expires_at FROM idempotency_key " +
+                        "WHERE user_id = ? AND idempotency_key = ? AND status_code IS NOT NULL AND expires_at >= CURRENT_TIMESTAMP",
+                (row, rowNum) -> new Entry(row.getString("request_hash"),
+                        new StoredResponse(row.getInt("status_code"), row.getString("content_type"), row.getBytes("body")),
+                        row.getObject("expires_at", LocalDateTime.class)),
+                id.userId(), id.key());
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static Claim replay(Entry entry, String requestHash) {
+        if (!entry.requestHash().equals(requestHash)) {
+            return new Claim(Outcome.MISMATCH, null);
+        }
+        return new Claim(Outcome.REPLAY, entry.response());
+    }
+
+    private void finish(Key id, CompletableFuture<Void> future) {
+        if (future != null) {
+            inFlight.remove(id, future);
+            future.complete(null);
+        }
+    }
+
+    private synchronized Entry cached(Key id) {
+        Entry entry = nearCache.get(id);
+        if (entry != null && entry.expiresAt().isBefore(LocalDateTime.now())) {
+            nearCache.remove(id);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void remember(Key id, Entry entry) {
+        nearCache.put(id, entry);
+    }
+}
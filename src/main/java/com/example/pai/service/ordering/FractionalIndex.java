@@ -0,0 +1,87 @@
+package com.example.pai.service.ordering;
+
+/**
+ * Base-62 fractional keys for manual ordering. Keys compare as plain strings in the C collation,
+ * so a move only writes the moved row: its new key lies strictly between its new neighbours' keys.
+ * Generated keys never end in the zero digit, which keeps room below every key.
+ */
+public final class FractionalIndex {
+
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private FractionalIndex() {
+    }
+
+    /**
+     * Returns a key that sorts after {@code before} and before {@code after}; either may be null
+     * for the start or end of the list.
+     */
+    public static String between(String before, String after) {
+        String lower = before != null ? before : "";
+        if (after != null && lower.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Key " + before + " does not sort before " + after);
+        }
+        return midpoint(lower, after);
+    }
+
+    /**
+     * Returns {@code count} ascending keys of equal, minimal length spread evenly over the key space,
+     * used to rebalance a list whose keys have grown long.
+     */
+    public static String[] evenlySpaced(int count) {
+        int width = 1;
+        long space = BASE;
+        // At least two steps per key, so bumping a value off a trailing zero keeps the keys ordered
+        while (space < 2L * (count + 1)) {
+            space *= BASE;
+            width++;
+        }
+        long step = space / (count + 1);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            long value = step * (i + 1);
+            if (value % BASE == 0) {
+                value++;
+            }
+            keys[i] = encode(value, width);
+        }
+        return keys;
+    }
+
+    // a is never null, b == null means "no upper bound"; a < b and neither ends in the zero digit
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            int prefix = 0;
+            while (prefix < b.length() && digitAt(a, prefix) == b.charAt(prefix)) {
+                prefix++;
+            }
+            if (prefix > 0) {
+                return b.substring(0, prefix) + midpoint(a.length() > prefix ? a.substring(prefix) : "", b.substring(prefix));
+            }
+        }
+
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB) / 2));
+        }
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.length() > 1 ? a.substring(1) : "", null);
+    }
+
+    private static char digitAt(String key, int index) {
+        return index < key.length() ? key.charAt(index) : DIGITS.charAt(0);
+    }
+
+    private static String encode(long value, int width) {
+        char[] digits = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        return new String(digits);
+    }
+}
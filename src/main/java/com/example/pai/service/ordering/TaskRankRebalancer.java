@@ -0,0 +1,64 @@
+package com.example.pai.service.ordering;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.repository.ProjectRepository;
+import com.example.pai.dao.repository.TaskRepository;
+import com.example.pai.service.event.ProjectChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repeated moves into the same gap make rank keys one digit longer each time. Once a project has a key
+ * longer than the threshold, all of its tasks get fresh evenly spaced keys in their current order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskRankRebalancer {
+
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRegistry shardRegistry;
+
+    @Value("${task-ranking.rebalance-key-length:24}")
+    private int rebalanceKeyLength;
+
+    @Scheduled(fixedDelayString = "${task-ranking.rebalance-interval-ms:60000}")
+    public void rebalance() {
+        shardRegistry.forEach(() -> {
+            for (UUID projectId : taskRepository.findProjectIdsWithRankLongerThan(rebalanceKeyLength)) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> rebalanceProject(projectId));
+                } catch (RuntimeException e) {
+                    log.warn("Rebalancing task ranks of project {} failed", projectId, e);
+                }
+            }
+        });
+    }
+
+    void rebalanceProject(UUID projectId) {
+        // Same lock as moves, so no move computes a key from neighbours that are being rewritten
+        if (projectRepository.findByIdForUpdate(projectId).isEmpty()) {
+            return;
+        }
+        List<Task> tasks = taskRepository.findByProjectIdOrderByRankAscIdAsc(projectId);
+        String[] keys = FractionalIndex.evenlySpaced(tasks.size());
+        for (int i = 0; i < keys.length; i++) {
+            tasks.get(i).setRank(keys[i]);
+        }
+        taskRepository.saveAll(tasks);
+        eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+        log.info("Rebalanced ranks of {} tasks in project {}", tasks.size(), projectId);
+    }
+}
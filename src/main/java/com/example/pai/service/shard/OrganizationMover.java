@@ -0,0 +1,477 @@
+package com.example.pai.service.shard;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Moves an organization to another shard while it keeps working, copy then switch:
+ * <ol>
+ *     <li>All rows of the organization are copied from one REPEATABLE READ snapshot of the source
+ *     while it is read and written as usual. The highest change version each project had in that
+ *     snapshot is remembered.</li>
+ *     <li>The organization is frozen: new writing transactions are refused on every node, and the
+ *     {@link OrganizationWriteLock} is taken exclusively on the source, which waits for the writing
+ *     transactions that were already running. The rows changed since the snapshot are then copied
+ *     again. Change versions become visible in order per project (see V15), so those are exactly the
+ *     rows above the project's mark. Unversioned tables are compared in full.</li>
+ *     <li>The shard map is switched to the target, which also lifts the freeze, and the
+ *     organization's rows are deleted from the source. The lock is held until then, so nodes that
+ *     have not seen the switch yet cannot write to the source meanwhile.</li>
+ * </ol>
+ * The target draws new change versions above everything the source handed out, so sync clients
+ * receive the organization again as one large delta. Flow histograms are not copied; the target's
+ * event relay rebuilds them from the copied events. Only one move runs at a time. A move cut short
+ * by a restart leaves the organization frozen on its source until the move is started again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrganizationMover {
+
+    private static final String ORGANIZATION_PROJECTS = "SELECT id FROM project WHERE organization_id = ?";
+
+    // Parents before children; "owned" selects the organization's rows and takes the organization id
+    private static final List<Table> TABLES = List.of(
+            new Table("user_managment", "t.organization_id = ?", null),
+            new Table("project", "t.organization_id = ?", "t.id"),
+            new Table("project_assignment", "t.project_id IN (" + ORGANIZATION_PROJECTS + ")", "t.project_id"),
+            new Table("user_active_project", "t.user_id IN (SELECT id FROM user_managment WHERE organization_id = ?)", null),
+            new Table("idempotency_key", "t.user_id IN (SELECT id FROM user_managment WHERE organization_id = ?)", null),
+            new Table("task", "t.organization_id = ?", "t.project_id"),
+            new Table("task_note", "t.task_id IN (SELECT id FROM task WHERE organization_id = ?)",
+                    "(SELECT project_id FROM task WHERE task.id = t.task_id)"),
+            new Table("task_dependency", "t.organization_id = ?", null),
+            new Table("task_dependency_version", "t.project_id IN (" + ORGANIZATION_PROJECTS + ")", null),
+            new Table("task_archive", "t.organization_id = ?", null),
+            new Table("task_note_archive", "t.task_id IN (SELECT id FROM task_archive WHERE organization_id = ?)", null),
+            new Table("task_dependency_archive", "t.organization_id = ?", null),
+            new Table("note_attachment", "t.organization_id = ?", null));
+
+    // Append-only logs with ids from a per-shard sequence; their rows get new ids on the target
+    private static final List<Log> LOGS = List.of(
+            new Log("task_event", "t.project_id IN (" + ORGANIZATION_PROJECTS + ")", "creation_timestamp"),
+            new Log("activity_event", "t.organization_id = ?", "occurred_at"));
+
+    private static final String PROJECT_MARKS = """
+            SELECT p.id, GREATEST(p.change_version,
+                COALESCE((SELECT max(t.change_version) FROM task t WHERE t.project_id = p.id), 0),
+                COALESCE((SELECT max(n.change_version) FROM task_note n JOIN task t ON t.id = n.task_id WHERE t.project_id = p.id), 0),
+                COALESCE((SELECT max(a.change_version) FROM project_assignment a WHERE a.project_id = p.id), 0),
+                COALESCE((SELECT max(s.change_version) FROM sync_tombstone s WHERE s.project_id = p.id), 0)) AS mark
+            FROM project p WHERE p.organization_id = ?
+            """;
+
+    private final ShardRegistry shardRegistry;
+    private final ShardMap shardMap;
+    private final ObjectMapper objectMapper;
+
+    // How long the move waits for running write transactions of the organization before it gives up
+    @Value("${sharding.move.fence-timeout-ms:30000}")
+    private long fenceTimeoutMs;
+
+    @Value("${sharding.move.batch-size:500}")
+    private int batchSize;
+
+    @Value("${task-events.relay.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    private final AtomicReference<Move> running = new AtomicReference<>();
+    private volatile Move last;
+
+    public enum Phase { COPYING, CATCHING_UP, CLEANING_UP, DONE, FAILED }
+
+    @Getter
+    public static class Move {
+        private final UUID organizationId;
+        private final String source;
+        private final String target;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile Phase phase = Phase.COPYING;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Move(UUID organizationId, String source, String target) {
+            this.organizationId = organizationId;
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    private record Table(String name, String owned, String projectOf) {
+    }
+
+    private record Log(String name, String owned, String timestamp) {
+    }
+
+    // What the bulk copy saw: per project mark, and per log its last id and the late rows already copied
+    private record Snapshot(Map<UUID, Long> marks, LocalDateTime lateFrom, Map<String, Long> lastIds, Map<String, Set<Long>> lateIds) {
+    }
+
+    /**
+     * Returns the running move, or the last one once it finished.
+     */
+    public Move getStatus() {
+        Move move = running.get();
+        return move != null ? move : last;
+    }
+
+    public Move start(UUID organizationId, String target) {
+        if (!shardRegistry.contains(target)) {
+            throw new RuntimeException("Unknown shard: " + target);
+        }
+        String source = shardMap.shardOf(organizationId);
+        if (source.equals(target)) {
+            throw new RuntimeException("Organization is already on shard " + target);
+        }
+        Move move = new Move(organizationId, source, target);
+        if (!running.compareAndSet(null, move)) {
+            throw new RuntimeException("Another organization is being moved");
+        }
+        Thread thread = new Thread(() -> run(move), "organization-move");
+        thread.setDaemon(true);
+        thread.start();
+        return move;
+    }
+
+    private void run(Move move) {
+        UUID organizationId = move.organizationId;
+        Copier source = new Copier(move.source);
+        Copier target = new Copier(move.target);
+        boolean switched = false;
+        try {
+            log.info("Moving organization {} from shard {} to {}", organizationId, move.source, move.target);
+            Map<UUID, UUID> roleIds = roleIds(source, target);
+            // Leftovers of an earlier move that was cut short
+            target.inTransaction(() -> purge(organizationId, target));
+
+            advanceChangeVersions(source, target);
+            Snapshot snapshot = source.inSnapshot(() -> copyAll(organizationId, source, target, roleIds));
+
+            move.phase = Phase.CATCHING_UP;
+            shardMap.place(organizationId, move.source, true);
+            try (Fence fence = source.fence(organizationId)) {
+                advanceChangeVersions(source, target);
+                source.inSnapshot(() -> {
+                    catchUp(organizationId, source, target, roleIds, snapshot);
+                    return null;
+                });
+                shardMap.place(organizationId, move.target, false);
+                switched = true;
+
+                move.phase = Phase.CLEANING_UP;
+                source.inTransaction(() -> purge(organizationId, source));
+            }
+            move.phase = Phase.DONE;
+            log.info("Moved organization {} to shard {}", organizationId, move.target);
+        } catch (Exception e) {
+            log.error("Moving organization {} to shard {} failed", organizationId, move.target, e);
+            move.error = e.getMessage();
+            move.phase = Phase.FAILED;
+            if (!switched) {
+                rollBack(move, target);
+            }
+        } finally {
+            move.finishedAt = LocalDateTime.now();
+            last = move;
+            running.set(null);
+        }
+    }
+
+    // The organization stays where it was; whatever reached the target is removed again
+    private void rollBack(Move move, Copier target) {
+        try {
+            target.inTransaction(() -> purge(move.organizationId, target));
+            shardMap.place(move.organizationId, move.source, false);
+        } catch (RuntimeException e) {
+            log.error("Rolling back the move of organization {} failed; it stays frozen on shard {}",
+                    move.organizationId, move.source, e);
+        }
+    }
+
+    private Snapshot copyAll(UUID organizationId, Copier source, Copier target, Map<UUID, UUID> roleIds) {
+        LocalDateTime lateFrom = source.jdbc.queryForObject("SELECT CAST(now() AS timestamp)", LocalDateTime.class)
+                .minusNanos(gapTimeoutMs * 1_000_000);
+        Map<UUID, Long> marks = new HashMap<>();
+        source.jdbc.query(PROJECT_MARKS, row -> {
+            marks.put(row.getObject("id", UUID.class), row.getLong("mark"));
+        }, organizationId);
+
+        for (Table table : TABLES) {
+            source.copy(target, table.name, "SELECT t.* FROM " + table.name + " t WHERE " + table.owned,
+                    roleIds, row -> true, organizationId);
+        }
+
+        Map<String, Long> lastIds = new HashMap<>();
+        Map<String, Set<Long>> lateIds = new HashMap<>();
+        for (Log eventLog : LOGS) {
+            long lastId = source.jdbc.queryForObject("SELECT COALESCE(max(id), 0) FROM " + eventLog.name, Long.class);
+            Set<Long> late = new HashSet<>();
+            source.copy(target, eventLog.name, "SELECT t.* FROM " + eventLog.name + " t WHERE " + eventLog.owned +
+                    " AND t.id <= ? ORDER BY t.id", null, row -> {
+                if (!row.getTimestamp(eventLog.timestamp).toLocalDateTime().isBefore(lateFrom)) {
+                    late.add(row.getLong("id"));
+                }
+                return true;
+            }, organizationId, lastId);
+            lastIds.put(eventLog.name, lastId);
+            lateIds.put(eventLog.name, late);
+        }
+
+        // Clients that synced before a delete only learn about it from the tombstone
+        List<Object[]> tombstones = source.jdbc.query("SELECT entity_type, entity_id, project_id, deletion_timestamp " +
+                        "FROM sync_tombstone WHERE project_id IN (" + ORGANIZATION_PROJECTS + ") ORDER BY change_version",
+                (row, rowNum) -> new Object[]{row.getString(1), row.getObject(2), row.getObject(3), row.getTimestamp(4)},
+                organizationId);
+        target.batch("INSERT INTO sync_tombstone (change_version, entity_type, entity_id, project_id, deletion_timestamp) " +
+                "VALUES (next_change_version(?), ?, ?, ?, ?)", tombstones.stream()
+                .map(t -> new Object[]{t[2], t[0], t[1], t[2], t[3]})
+                .toList());
+        // Kept in the source's numbering, which is what the clients' versions refer to
+        target.batch("INSERT INTO sync_tombstone_watermark (project_id, pruned_through) VALUES (?, ?)",
+                source.jdbc.query("SELECT project_id, pruned_through FROM sync_tombstone_watermark " +
+                                "WHERE project_id IN (" + ORGANIZATION_PROJECTS + ")",
+                        (row, rowNum) -> new Object[]{row.getObject(1), row.getLong(2)}, organizationId));
+
+        return new Snapshot(marks, lateFrom, lastIds, lateIds);
+    }
+
+    private void catchUp(UUID organizationId, Copier source, Copier target, Map<UUID, UUID> roleIds, Snapshot snapshot) {
+        // Deleted rows go first so their unique keys are free again, children before parents. Users
+        // go last because rows that are about to be updated may still point at them.
+        for (int i = TABLES.size() - 1; i > 0; i--) {
+            deleteVanished(organizationId, source, target, TABLES.get(i));
+        }
+
+        String marks = toJson(snapshot.marks);
+        for (Table table : TABLES) {
+            if (table.projectOf != null) {
+                source.copy(target, table.name, "SELECT t.* FROM " + table.name + " t WHERE " + table.owned +
+                                " AND t.change_version > COALESCE(CAST(CAST(? AS jsonb) ->> CAST(" + table.projectOf +
+                                " AS text) AS bigint), 0)",
+                        roleIds, row -> true, organizationId, marks);
+            } else {
+                source.copy(target, table.name, "SELECT t.* FROM " + table.name + " t WHERE " + table.owned,
+                        roleIds, row -> true, organizationId);
+            }
+        }
+
+        for (Log eventLog : LOGS) {
+            Set<Long> late = snapshot.lateIds.get(eventLog.name);
+            source.copy(target, eventLog.name, "SELECT t.* FROM " + eventLog.name + " t WHERE " + eventLog.owned +
+                            " AND (t.id > ? OR t." + eventLog.timestamp + " >= ?) ORDER BY t.id", null,
+                    row -> !late.contains(row.getLong("id")),
+                    organizationId, snapshot.lastIds.get(eventLog.name), snapshot.lateFrom);
+        }
+
+        deleteVanished(organizationId, source, target, TABLES.get(0));
+    }
+
+    private void deleteVanished(UUID organizationId, Copier source, Copier target, Table table) {
+        String ids = "SELECT t.id FROM " + table.name + " t WHERE " + table.owned;
+        Set<UUID> kept = new HashSet<>(source.jdbc.queryForList(ids, UUID.class, organizationId));
+        List<Object[]> vanished = target.jdbc.queryForList(ids, UUID.class, organizationId).stream()
+                .filter(id -> !kept.contains(id))
+                .map(id -> new Object[]{id})
+                .toList();
+        target.batch("DELETE FROM " + table.name + " WHERE id = ?", vanished);
+    }
+
+    private void purge(UUID organizationId, Copier shard) {
+        // Collected first, the deletes below leave tombstones of these projects behind
+        String projectIds = String.join(",", shard.jdbc.queryForList(ORGANIZATION_PROJECTS, String.class, organizationId));
+        shard.jdbc.update("DELETE FROM task_flow_histogram WHERE (scope = 'PROJECT' AND scope_id IN (" + ORGANIZATION_PROJECTS + ")) " +
+                "OR (scope = 'USER' AND scope_id IN (SELECT id FROM user_managment WHERE organization_id = ?))", organizationId, organizationId);
+        for (Log eventLog : LOGS) {
+            shard.jdbc.update("DELETE FROM " + eventLog.name + " t WHERE " + eventLog.owned, organizationId);
+        }
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            Table table = TABLES.get(i);
+            shard.jdbc.update("DELETE FROM " + table.name + " t WHERE " + table.owned, organizationId);
+        }
+        shard.jdbc.update("DELETE FROM sync_tombstone WHERE CAST(project_id AS text) = ANY (string_to_array(?, ','))", projectIds);
+        shard.jdbc.update("DELETE FROM sync_tombstone_watermark WHERE CAST(project_id AS text) = ANY (string_to_array(?, ','))", projectIds);
+    }
+
+    // Role ids are generated per database, so users are mapped to the target's role of the same name
+    private Map<UUID, UUID> roleIds(Copier source, Copier target) {
+        Map<String, UUID> targetRoles = new HashMap<>();
+        target.jdbc.query("SELECT id, name FROM roles", row -> {
+            targetRoles.put(row.getString("name"), row.getObject("id", UUID.class));
+        });
+        Map<UUID, UUID> roleIds = new HashMap<>();
+        source.jdbc.query("SELECT id, name FROM roles", row -> {
+            UUID targetId = targetRoles.get(row.getString("name"));
+            if (targetId == null) {
+                throw new IllegalStateException("Role " + row.getString("name") + " does not exist on shard " + target.shard);
+            }
+            roleIds.put(row.getObject("id", UUID.class), targetId);
+        });
+        return roleIds;
+    }
+
+    // Copied rows draw new versions on the target, which have to be above anything a client saw on the source
+    private void advanceChangeVersions(Copier source, Copier target) {
+        Long sourceVersion = source.jdbc.queryForObject("SELECT last_value FROM change_version_seq", Long.class);
+        target.jdbc.queryForObject("SELECT setval('change_version_seq', GREATEST((SELECT last_value FROM change_version_seq), ?))",
+                Long.class, sourceVersion);
+    }
+
+    private String toJson(Map<UUID, Long> marks) {
+        try {
+            return objectMapper.writeValueAsString(marks);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowFilter {
+        boolean accept(ResultSet row) throws SQLException;
+    }
+
+    // The exclusive write lock on a connection of its own, released before the connection goes back to the pool
+    private record Fence(Connection connection, UUID organizationId) implements AutoCloseable {
+
+        @Override
+        public void close() throws SQLException {
+            try (connection; PreparedStatement release = connection.prepareStatement(OrganizationWriteLock.RELEASE)) {
+                release.setObject(1, organizationId);
+                release.execute();
+            }
+        }
+    }
+
+    /**
+     * Reads and writes one shard through its own pool, outside of the routing data source.
+     */
+    private class Copier {
+
+        private final String shard;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate transactionTemplate;
+
+        Copier(String shard) {
+            DataSource dataSource = shardRegistry.dataSource(shard);
+            this.shard = shard;
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.jdbc.setFetchSize(batchSize);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        <T> T inSnapshot(Supplier<T> work) {
+            TransactionTemplate snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            snapshot.setReadOnly(true);
+            return snapshot.execute(status -> work.get());
+        }
+
+        void inTransaction(Runnable work) {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+        }
+
+        Fence fence(UUID organizationId) throws SQLException {
+            Connection connection = dataSource.getConnection();
+            try {
+                try (PreparedStatement timeout = connection.prepareStatement("SELECT set_config('lock_timeout', ?, false)");
+                     PreparedStatement lock = connection.prepareStatement(OrganizationWriteLock.EXCLUSIVE)) {
+                    timeout.setString(1, fenceTimeoutMs + "ms");
+                    timeout.execute();
+                    lock.setObject(1, organizationId);
+                    lock.execute();
+                } finally {
+                    // The connection goes back to the pool, also when the wait timed out
+                    try (PreparedStatement reset = connection.prepareStatement("RESET lock_timeout")) {
+                        reset.execute();
+                    }
+                }
+                return new Fence(connection, organizationId);
+            } catch (SQLException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Streams the query's rows into the same table of the target: rows with an id column are
+         * upserted by id, rows of the logs get new ids from the target's sequence.
+         */
+        void copy(Copier target, String table, String query, Map<UUID, UUID> roleIds, RowFilter filter, Object... args) {
+            boolean keepIds = LOGS.stream().noneMatch(eventLog -> eventLog.name.equals(table));
+            List<String> columns = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+            String[] insert = new String[1];
+            jdbc.query(query, row -> {
+                if (insert[0] == null) {
+                    ResultSetMetaData meta = row.getMetaData();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        if (keepIds || !"id".equals(meta.getColumnName(i))) {
+                            columns.add(meta.getColumnName(i));
+                        }
+                    }
+                    insert[0] = insertSql(table, columns, keepIds);
+                }
+                if (!filter.accept(row)) {
+                    return;
+                }
+                Object[] values = new Object[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    Object value = row.getObject(columns.get(i));
+                    values[i] = "role_id".equals(columns.get(i)) && value != null ? roleIds.get((UUID) value) : value;
+                }
+                rows.add(values);
+                if (rows.size() >= batchSize) {
+                    target.batch(insert[0], rows);
+                    rows.clear();
+                }
+            }, args);
+            target.batch(insert[0], rows);
+        }
+
+        void batch(String sql, List<Object[]> rows) {
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate(sql, rows);
+            }
+        }
+    }
+
+    private static String insertSql(String table, List<String> columns, boolean upsert) {
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+                String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+        if (!upsert) {
+            return sql;
+        }
+        return sql + " ON CONFLICT (id) DO UPDATE SET " + String.join(", ", columns.stream()
+                .filter(c -> !"id".equals(c))
+                .map(c -> c + " = EXCLUDED." + c)
+                .toList());
+    }
+}
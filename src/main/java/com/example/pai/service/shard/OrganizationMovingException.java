@@ -0,0 +1,15 @@
+package com.example.pai.service.shard;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+// Writes are refused for the few seconds in which the last changes are copied to the new shard
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrganizationMovingException extends RuntimeException {
+
+    public OrganizationMovingException(UUID organizationId) {
+        super("Organization " + organizationId + " is being moved to another shard, retry shortly");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.pai.service.shard;
+
+/**
+ * Advisory lock per organization on its shard. Writing transactions of the organization's users hold
+ * it shared until they end, {@link OrganizationMover} takes it exclusively before the catch-up: that
+ * waits for the writers still running and turns away new ones until the move is over.
+ */
+public final class OrganizationWriteLock {
+
+    public static final String TRY_SHARED =
+            "SELECT pg_try_advisory_xact_lock_shared(hashtext('organization_move'), hashtext(CAST(? AS text)))";
+
+    static final String EXCLUSIVE = "SELECT pg_advisory_lock(hashtext('organization_move'), hashtext(CAST(? AS text)))";
+
+    static final String RELEASE = "SELECT pg_advisory_unlock(hashtext('organization_move'), hashtext(CAST(? AS text)))";
+
+    private OrganizationWriteLock() {
+    }
+}
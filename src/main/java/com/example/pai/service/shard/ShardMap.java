@@ -0,0 +1,112 @@
+package com.example.pai.service.shard;
+
+import com.example.pai.config.shard.ShardContext;
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.config.startup.StartupCritical;
+import com.example.pai.service.cluster.ClusterBus;
+import com.example.pai.service.cluster.ClusterInvalidationListener;
+import com.example.pai.service.cluster.ClusterMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Organization to shard map, read from organization_shard on the default shard at startup and kept
+ * in memory because every connection of an authenticated request looks it up. Changes are written
+ * by {@link OrganizationMover} and reach the other nodes through the {@link ClusterBus}.
+ */
+@Component
+@StartupCritical
+@RequiredArgsConstructor
+public class ShardMap implements ClusterInvalidationListener {
+
+    private final ShardRegistry shardRegistry;
+    private final ClusterBus clusterBus;
+    // The auto-configured template is only created after Flyway ran, so the table exists by then
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<UUID, Placement> placements = new ConcurrentHashMap<>();
+
+    public record Placement(String shard, boolean moving) {
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        Map<UUID, Placement> loaded = new ConcurrentHashMap<>();
+        onCatalog(() -> {
+            jdbcTemplate.query("SELECT organization_id, shard, moving FROM organization_shard", row -> {
+                loaded.put(row.getObject("organization_id", UUID.class), placement(row.getString("shard"), row.getBoolean("moving")));
+            });
+            return null;
+        });
+        placements.keySet().retainAll(loaded.keySet());
+        placements.putAll(loaded);
+    }
+
+    public String shardOf(UUID organizationId) {
+        Placement placement = organizationId != null ? placements.get(organizationId) : null;
+        return placement != null ? placement.shard() : ShardRegistry.DEFAULT_SHARD;
+    }
+
+    public boolean isMoving(UUID organizationId) {
+        Placement placement = organizationId != null ? placements.get(organizationId) : null;
+        return placement != null && placement.moving();
+    }
+
+    public Map<UUID, Placement> getPlacements() {
+        return Map.copyOf(placements);
+    }
+
+    /**
+     * Records the organization's shard. Must be called outside of a transaction.
+     */
+    public synchronized void place(UUID organizationId, String shard, boolean moving) {
+        shardRegistry.dataSource(shard);
+        onCatalog(() -> jdbcTemplate.update("INSERT INTO organization_shard (organization_id, shard, moving) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (organization_id) DO UPDATE SET shard = EXCLUDED.shard, moving = EXCLUDED.moving, " +
+                        "modification_timestamp = CURRENT_TIMESTAMP",
+                organizationId, shard, moving));
+        placements.put(organizationId, new Placement(shard, moving));
+        clusterBus.publish(ClusterMessage.ORGANIZATION_SHARD, organizationId);
+    }
+
+    @Override
+    public synchronized void invalidate(ClusterMessage message) {
+        if (!ClusterMessage.ORGANIZATION_SHARD.equals(message.topic())) {
+            return;
+        }
+        UUID organizationId = UUID.fromString(message.key());
+        List<Placement> rows = onCatalog(() -> jdbcTemplate.query(
+                "SELECT shard, moving FROM organization_shard WHERE organization_id = ?",
+                (row, rowNum) -> placement(row.getString("shard"), row.getBoolean("moving")), organizationId));
+        if (rows.isEmpty()) {
+            placements.remove(organizationId);
+        } else {
+            placements.put(organizationId, rows.get(0));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        reload();
+    }
+
+    // A mapping to a shard this node does not know would silently send the organization's requests elsewhere
+    private Placement placement(String shard, boolean moving) {
+        if (!shardRegistry.contains(shard)) {
+            throw new IllegalStateException("organization_shard refers to unknown shard " + shard);
+        }
+        return new Placement(shard, moving);
+    }
+
+    private static <T> T onCatalog(Supplier<T> query) {
+        return ShardContext.call(ShardRegistry.DEFAULT_SHARD, query);
+    }
+}
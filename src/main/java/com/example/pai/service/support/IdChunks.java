@@ -0,0 +1,33 @@
+package com.example.pai.service.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Splits id lists for IN queries. PostgreSQL accepts at most 32767 bind parameters per statement,
+ * so lists built from a whole project are sent in chunks.
+ */
+public final class IdChunks {
+
+    public static final int SIZE = 5_000;
+
+    private IdChunks() {
+    }
+
+    public static <T, R> List<R> query(List<T> ids, Function<List<T>, List<R>> query) {
+        if (ids.size() <= SIZE) {
+            return query.apply(ids);
+        }
+        List<R> results = new ArrayList<>();
+        forEach(ids, chunk -> results.addAll(query.apply(chunk)));
+        return results;
+    }
+
+    public static <T> void forEach(List<T> ids, Consumer<List<T>> action) {
+        for (int from = 0; from < ids.size(); from += SIZE) {
+            action.accept(ids.subList(from, Math.min(ids.size(), from + SIZE)));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.pai.service.sync;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+// The tombstones after the client's version were pruned, so deletions since then can no longer be listed
+@ResponseStatus(HttpStatus.GONE)
+public class SyncResyncRequiredException extends RuntimeException {
+
+    public SyncResyncRequiredException(UUID projectId, long since) {
+        super("Changes of project " + projectId + " since version " + since + " are no longer retained, sync again from version 0");
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.pai.service.sync;
+
+import com.example.pai.controller.project.dto.ProjectDto;
+import com.example.pai.controller.sync.dto.SyncDto;
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.controller.task.dto.TaskNoteDto;
+import com.example.pai.dao.repository.ProjectAssignmentRepository;
+import com.example.pai.dao.repository.SyncTombstoneRepository;
+import com.example.pai.service.ProjectService;
+import com.example.pai.service.TaskNoteService;
+import com.example.pai.service.TaskService;
+import com.example.pai.service.access.ProjectAccessGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "what changed in this project since version N". Versions are assigned by database triggers
+ * (see V15) and become visible in order within a project, so a client that stores the returned version
+ * and passes it back never misses a change. Tombstones are pruned after a while; a version older than
+ * the pruned ones is answered with 410 and the client starts again from version 0.
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final ProjectAccessGuard projectAccessGuard;
+    private final ProjectService projectService;
+    private final TaskService taskService;
+    private final TaskNoteService taskNoteService;
+    private final ProjectAssignmentRepository projectAssignmentRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+
+    // All reads see one snapshot, otherwise a write between two queries could be skipped by the cursor
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncDto.ProjectChanges getProjectChanges(UUID projectId, long since, int limit) {
+        projectAccessGuard.checkProjectAccess(projectId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        PageRequest page = PageRequest.of(0, pageSize);
+        if (since > 0 && since < syncTombstoneRepository.findPrunedThrough(projectId).orElse(0L)) {
+            throw new SyncResyncRequiredException(projectId, since);
+        }
+
+        ProjectDto.ProjectResponse project = projectService.getProjectChangedSince(projectId, since).orElse(null);
+        List<TaskDto.TaskResponse> tasks = taskService.getTasksChangedSince(projectId, since, pageSize);
+        List<TaskNoteDto.TaskNoteResponse> notes = taskNoteService.getNotesChangedSince(projectId, since, pageSize);
+        List<SyncDto.Assignment> assignments = projectAssignmentRepository
+                .findWithUserChangedSince(projectId, since, page).stream()
+                .map(assignment -> SyncDto.Assignment.builder()
+                        .id(assignment.getId())
+                        .userId(assignment.getUser().getId())
+                        .userName(assignment.getUser().getName())
+                        .changeVersion(assignment.getChangeVersion())
+                        .build())
+                .collect(Collectors.toList());
+        List<SyncDto.Tombstone> deleted = syncTombstoneRepository
+                .findByProjectIdAndChangeVersionGreaterThanOrderByChangeVersionAsc(projectId, since, page).stream()
+                .map(tombstone -> SyncDto.Tombstone.builder()
+                        .entityType(tombstone.getEntityType())
+                        .id(tombstone.getEntityId())
+                        .changeVersion(tombstone.getChangeVersion())
+                        .build())
+                .collect(Collectors.toList());
+
+        // A full page may have more rows behind it, so the cursor can only advance to the lowest
+        // last version among the full pages; rows above that are sent again on the next call
+        long cursor = Long.MAX_VALUE;
+        cursor = Math.min(cursor, pageCursor(tasks, pageSize, TaskDto.TaskResponse::getChangeVersion));
+        cursor = Math.min(cursor, pageCursor(notes, pageSize, TaskNoteDto.TaskNoteResponse::getChangeVersion));
+        cursor = Math.min(cursor, pageCursor(assignments, pageSize, SyncDto.Assignment::getChangeVersion));
+        cursor = Math.min(cursor, pageCursor(deleted, pageSize, SyncDto.Tombstone::getChangeVersion));
+        boolean hasMore = cursor != Long.MAX_VALUE;
+
+        if (!hasMore) {
+            cursor = since;
+            if (project != null) {
+                cursor = Math.max(cursor, project.getChangeVersion());
+            }
+            cursor = Math.max(cursor, maxVersion(tasks, TaskDto.TaskResponse::getChangeVersion));
+            cursor = Math.max(cursor, maxVersion(notes, TaskNoteDto.TaskNoteResponse::getChangeVersion));
+            cursor = Math.max(cursor, maxVersion(assignments, SyncDto.Assignment::getChangeVersion));
+            cursor = Math.max(cursor, maxVersion(deleted, SyncDto.Tombstone::getChangeVersion));
+        }
+
+        return SyncDto.ProjectChanges.builder()
+                .projectId(projectId)
+                .version(cursor)
+                .hasMore(hasMore)
+                .project(project)
+                .tasks(tasks)
+                .notes(notes)
+                .assignments(assignments)
+                .deleted(deleted)
+                .build();
+    }
+
+    private static <T> long pageCursor(List<T> rows, int pageSize, ToLongFunction<T> version) {
+        return rows.size() < pageSize ? Long.MAX_VALUE : version.applyAsLong(rows.get(rows.size() - 1));
+    }
+
+    private static <T> long maxVersion(List<T> rows, ToLongFunction<T> version) {
+        return rows.isEmpty() ? 0L : version.applyAsLong(rows.get(rows.size() - 1));
+    }
+}
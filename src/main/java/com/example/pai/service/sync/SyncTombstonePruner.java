@@ -0,0 +1,48 @@
+package com.example.pai.service.sync;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.repository.SyncTombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Drops tombstones older than the retention. Clients that last synced before that are told to start
+ * over, see {@link SyncService}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SyncTombstonePruner {
+
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRegistry shardRegistry;
+
+    @Value("${sync.tombstone-retention-days:30}")
+    private int retentionDays;
+
+    @Value("${sync.prune-batch-size:5000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${sync.prune-interval-ms:3600000}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        shardRegistry.forEach(() -> {
+            try {
+                Integer projects;
+                do {
+                    // Counts the projects whose watermark moved, zero once nothing is left to prune
+                    projects = transactionTemplate.execute(status -> syncTombstoneRepository.pruneOlderThan(cutoff, batchSize));
+                } while (projects != null && projects > 0);
+            } catch (RuntimeException e) {
+                log.warn("Pruning sync tombstones failed, retrying on the next run", e);
+            }
+        });
+    }
+}
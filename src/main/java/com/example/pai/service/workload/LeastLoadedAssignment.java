@@ -0,0 +1,44 @@
+package com.example.pai.service.workload;
+
+import com.example.pai.service.workload.WorkloadIndex.UserLoad;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Longest processing time first: tasks are handed out largest estimate first, each to whoever has
+ * the least open work at that point. Tasks without an estimate come last; ties keep the given order.
+ */
+public final class LeastLoadedAssignment {
+
+    private LeastLoadedAssignment() {
+    }
+
+    public record Assignment<T>(T task, UUID userId) {
+    }
+
+    /**
+     * Returns the chosen user per task, in the order the tasks were handed out.
+     */
+    public static <T> List<Assignment<T>> assign(Collection<UserLoad> loads, List<T> tasks, Function<T, Integer> estimatedTime) {
+        List<Assignment<T>> assignments = new ArrayList<>(tasks.size());
+        if (loads.isEmpty()) {
+            return assignments;
+        }
+        PriorityQueue<UserLoad> queue = new PriorityQueue<>(UserLoad.LEAST_LOADED_FIRST);
+        queue.addAll(loads);
+        List<T> ordered = new ArrayList<>(tasks);
+        ordered.sort(Comparator.comparing(estimatedTime, Comparator.nullsLast(Comparator.reverseOrder())));
+        for (T task : ordered) {
+            UserLoad leastLoaded = queue.poll();
+            assignments.add(new Assignment<>(task, leastLoaded.userId()));
+            queue.add(leastLoaded.plus(estimatedTime.apply(task)));
+        }
+        return assignments;
+    }
+}
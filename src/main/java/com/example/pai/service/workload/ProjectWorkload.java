@@ -0,0 +1,71 @@
+package com.example.pai.service.workload;
+
+import com.example.pai.service.workload.WorkloadIndex.UserLoad;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * The loads of one project's assignable members together with the open assigned tasks they were
+ * summed from. A task change replaces that task's share, so applying the same change twice, or a
+ * change the loaded rows already contained, leaves the loads as they are. Not thread-safe.
+ */
+final class ProjectWorkload {
+
+    private record Share(UUID userId, long estimatedTime) {
+    }
+
+    private final Map<UUID, UserLoad> loadByUser = new HashMap<>();
+    private final NavigableSet<UserLoad> ordered = new TreeSet<>(UserLoad.LEAST_LOADED_FIRST);
+    // Open tasks of non-members are kept too, their assignee may still be the member a later change names
+    private final Map<UUID, Share> shareByTask = new HashMap<>();
+
+    ProjectWorkload(Map<UUID, String> members) {
+        members.forEach((userId, userName) -> put(new UserLoad(userId, userName, 0, 0)));
+    }
+
+    /**
+     * Records the task's current assignee and estimate; a null assignee or a closed or deleted
+     * task takes its share off the loads.
+     */
+    void apply(UUID taskId, UUID assignedUserId, Integer estimatedTime, boolean open) {
+        Share previous = shareByTask.remove(taskId);
+        if (previous != null) {
+            adjust(previous.userId(), -1, -previous.estimatedTime());
+        }
+        if (open && assignedUserId != null) {
+            Share share = new Share(assignedUserId, estimatedTime != null ? estimatedTime : 0);
+            shareByTask.put(taskId, share);
+            adjust(share.userId(), 1, share.estimatedTime());
+        }
+    }
+
+    List<UserLoad> leastLoaded(int count) {
+        List<UserLoad> result = new ArrayList<>(Math.min(count, ordered.size()));
+        for (UserLoad load : ordered) {
+            if (result.size() == count) {
+                break;
+            }
+            result.add(load);
+        }
+        return result;
+    }
+
+    private void adjust(UUID userId, long tasks, long estimatedTime) {
+        UserLoad load = loadByUser.get(userId);
+        if (load != null) {
+            ordered.remove(load);
+            put(new UserLoad(userId, load.userName(), load.openTasks() + tasks, load.openEstimatedTime() + estimatedTime));
+        }
+    }
+
+    private void put(UserLoad load) {
+        loadByUser.put(load.userId(), load);
+        ordered.add(load);
+    }
+}
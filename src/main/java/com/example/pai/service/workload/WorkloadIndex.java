@@ -0,0 +1,128 @@
+package com.example.pai.service.workload;
+
+import com.example.pai.config.security.Permission;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.projection.UserWorkloadView;
+import com.example.pai.dao.repository.ProjectAssignmentRepository;
+import com.example.pai.dao.repository.TaskRepository;
+import com.example.pai.service.access.RolePermissions;
+import com.example.pai.service.cluster.ClusterInvalidationListener;
+import com.example.pai.service.cluster.ClusterMessage;
+import com.example.pai.service.event.ProjectMembersChangedEvent;
+import com.example.pai.service.event.TaskChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open work per assignable member of each project, ordered by load. A project is loaded on first use
+ * and then kept current by applying committed task changes to it. Membership changes, bulk task
+ * changes and changes made on other nodes drop the project, so the next read reloads it.
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkloadIndex implements ClusterInvalidationListener {
+
+    public static final Set<Task.TaskState> OPEN_STATES =
+            EnumSet.of(Task.TaskState.NOT_STARTED, Task.TaskState.IN_PROGRESS, Task.TaskState.NEEDS_ADJUSTMENT);
+
+    private final ProjectAssignmentRepository projectAssignmentRepository;
+    private final TaskRepository taskRepository;
+    private final RolePermissions rolePermissions;
+
+    private final Map<UUID, ProjectWorkload> loadsByProject = new ConcurrentHashMap<>();
+
+    public List<UserLoad> leastLoaded(UUID projectId, int count) {
+        ProjectWorkload workload = loadsByProject.computeIfAbsent(projectId, this::load);
+        synchronized (workload) {
+            return workload.leastLoaded(count);
+        }
+    }
+
+    /**
+     * The project's current loads read straight from the database, for callers that assign tasks
+     * and must not work from a cached copy.
+     */
+    public List<UserLoad> currentLoads(UUID projectId) {
+        return assignableMembers(projectId).stream()
+                .map(view -> new UserLoad(view.getUserId(), view.getUserName(), view.getOpenTasks(), view.getOpenEstimatedTime()))
+                .toList();
+    }
+
+    public void invalidateProject(UUID projectId) {
+        loadsByProject.remove(projectId);
+    }
+
+    // A change arriving while the project loads waits for the load; applying it to rows that already
+    // contain it changes nothing, so the loaded project is current either way
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.taskId() == null) {
+            invalidateProject(event.projectId());
+            return;
+        }
+        loadsByProject.computeIfPresent(event.projectId(), (projectId, workload) -> {
+            synchronized (workload) {
+                workload.apply(event.taskId(), event.assignedUserId(), event.estimatedTime(),
+                        !event.deleted() && OPEN_STATES.contains(event.state()));
+            }
+            return workload;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectMembersChanged(ProjectMembersChangedEvent event) {
+        invalidateProject(event.projectId());
+    }
+
+    @Override
+    public void invalidate(ClusterMessage message) {
+        switch (message.topic()) {
+            case ClusterMessage.PROJECT, ClusterMessage.PROJECT_MEMBERS -> invalidateProject(UUID.fromString(message.key()));
+            // A user's role or visibility changed; which projects they belong to is not worth looking up
+            case ClusterMessage.USER -> invalidateAll();
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        loadsByProject.clear();
+    }
+
+    private ProjectWorkload load(UUID projectId) {
+        Map<UUID, String> members = new LinkedHashMap<>();
+        assignableMembers(projectId).forEach(view -> members.put(view.getUserId(), view.getUserName()));
+        ProjectWorkload workload = new ProjectWorkload(members);
+        taskRepository.findAssignedByProjectIdAndStateIn(projectId, OPEN_STATES)
+                .forEach(task -> workload.apply(task.getId(), task.getAssignedUserId(), task.getEstimatedTime(), true));
+        return workload;
+    }
+
+    private List<UserWorkloadView> assignableMembers(UUID projectId) {
+        return projectAssignmentRepository.findWorkloadsByProjectId(projectId).stream()
+                .filter(view -> rolePermissions.hasPermission(view.getRoleId(), Permission.TASK_ASSIGNABLE))
+                .toList();
+    }
+
+    public record UserLoad(UUID userId, String userName, long openTasks, long openEstimatedTime) {
+
+        static final Comparator<UserLoad> LEAST_LOADED_FIRST = Comparator.comparingLong(UserLoad::openEstimatedTime)
+                .thenComparingLong(UserLoad::openTasks)
+                .thenComparing(UserLoad::userId);
+
+        public UserLoad plus(Integer estimatedTime) {
+            return new UserLoad(userId, userName, openTasks + 1, openEstimatedTime + (estimatedTime != null ? estimatedTime : 0));
+        }
+    }
+}
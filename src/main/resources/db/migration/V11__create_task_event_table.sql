@@ -0,0 +1,24 @@
+-- Append-only log of task changes, written in the same transaction as the task itself
+CREATE TABLE task_event (
+    id BIGSERIAL PRIMARY KEY,
+    task_id UUID NOT NULL,
+    project_id UUID,
+    event_type VARCHAR(20) NOT NULL,
+    old_state VARCHAR(20),
+    new_state VARCHAR(20),
+    old_assigned_user_id UUID,
+    new_assigned_user_id UUID,
+    actor_id UUID,
+    creation_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Rows are inserted in time order, so a BRIN index stays tiny while still pruning time ranges
+CREATE INDEX idx_task_event_creation_timestamp ON task_event USING BRIN (creation_timestamp);
+CREATE INDEX idx_task_event_task_id ON task_event(task_id);
+
+-- Last event delivered to each consumer of the relay
+CREATE TABLE task_event_checkpoint (
+    consumer VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL DEFAULT 0,
+    modification_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
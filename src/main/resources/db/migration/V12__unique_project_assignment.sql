@@ -0,0 +1,9 @@
+-- Membership is now checked against an in-memory index, so the table itself must not hold duplicates
+DELETE FROM project_assignment a
+USING project_assignment b
+WHERE a.project_id = b.project_id
+  AND a.user_id = b.user_id
+  AND a.ctid > b.ctid;
+
+ALTER TABLE project_assignment ADD CONSTRAINT uq_project_assignment_project_user UNIQUE (project_id, user_id);
+CREATE INDEX idx_project_assignment_user_id ON project_assignment(user_id);
@@ -0,0 +1,21 @@
+-- Permissions granted to each role; loaded once at startup into per-role bitsets
+CREATE TABLE role_permission (
+    role_id UUID NOT NULL REFERENCES roles(id) ON DELETE CASCADE,
+    permission VARCHAR(50) NOT NULL,
+    PRIMARY KEY (role_id, permission)
+);
+
+INSERT INTO role_permission (role_id, permission)
+SELECT r.id, p.permission
+FROM roles r
+JOIN (VALUES
+    ('ADMIN', 'TASK_WRITE'),
+    ('ADMIN', 'TASK_APPROVE'),
+    ('ADMIN', 'PROJECT_MANAGE'),
+    ('ADMIN', 'USER_MANAGE'),
+    ('ADMIN', 'ALL_PROJECTS'),
+    ('DEVELOPER', 'TASK_WRITE'),
+    ('DEVELOPER', 'TASK_ASSIGNABLE'),
+    ('DEVOPS', 'TASK_WRITE'),
+    ('DEVOPS', 'TASK_ASSIGNABLE')
+) AS p(role_name, permission) ON p.role_name = r.name;
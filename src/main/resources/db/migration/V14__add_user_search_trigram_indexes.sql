@@ -0,0 +1,5 @@
+-- Substring search over visible users for the user directory
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_user_managment_name_trgm ON user_managment USING gin (lower(name) gin_trgm_ops) WHERE hidden = false;
+CREATE INDEX idx_user_managment_email_trgm ON user_managment USING gin (lower(email) gin_trgm_ops) WHERE hidden = false;
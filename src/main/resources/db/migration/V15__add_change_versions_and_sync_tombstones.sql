@@ -0,0 +1,96 @@
+-- Change versions for delta sync: every insert or update of a synced row draws a new value from
+-- one sequence, and deletes leave a tombstone with a version of their own
+CREATE SEQUENCE change_version_seq;
+
+-- A client that has seen version N must never later receive a smaller version for the same
+-- project, so versions have to become visible in version order. Writers to a project take a
+-- transaction-scoped advisory lock before drawing a version, which orders their commits.
+CREATE FUNCTION next_change_version(p_project_id UUID) RETURNS BIGINT AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('change_version'), hashtext(p_project_id::text));
+    RETURN nextval('change_version_seq');
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE project ADD COLUMN change_version BIGINT;
+ALTER TABLE task ADD COLUMN change_version BIGINT;
+ALTER TABLE task_note ADD COLUMN change_version BIGINT;
+ALTER TABLE project_assignment ADD COLUMN change_version BIGINT;
+
+UPDATE project SET change_version = nextval('change_version_seq');
+UPDATE task SET change_version = nextval('change_version_seq');
+UPDATE task_note SET change_version = nextval('change_version_seq');
+UPDATE project_assignment SET change_version = nextval('change_version_seq');
+
+ALTER TABLE project ALTER COLUMN change_version SET NOT NULL;
+ALTER TABLE task ALTER COLUMN change_version SET NOT NULL;
+ALTER TABLE task_note ALTER COLUMN change_version SET NOT NULL;
+ALTER TABLE project_assignment ALTER COLUMN change_version SET NOT NULL;
+
+CREATE INDEX idx_task_project_change_version ON task (project_id, change_version);
+CREATE INDEX idx_task_note_task_change_version ON task_note (task_id, change_version);
+CREATE INDEX idx_project_assignment_project_change_version ON project_assignment (project_id, change_version);
+
+CREATE FUNCTION set_change_version() RETURNS trigger AS $$
+DECLARE
+    v_project_id UUID;
+BEGIN
+    IF TG_TABLE_NAME = 'project' THEN
+        v_project_id := NEW.id;
+    ELSIF TG_TABLE_NAME = 'task_note' THEN
+        SELECT project_id INTO v_project_id FROM task WHERE id = NEW.task_id;
+    ELSE
+        v_project_id := NEW.project_id;
+    END IF;
+    NEW.change_version := next_change_version(v_project_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER project_change_version BEFORE INSERT OR UPDATE ON project
+    FOR EACH ROW EXECUTE FUNCTION set_change_version();
+CREATE TRIGGER task_change_version BEFORE INSERT OR UPDATE ON task
+    FOR EACH ROW EXECUTE FUNCTION set_change_version();
+CREATE TRIGGER task_note_change_version BEFORE INSERT OR UPDATE ON task_note
+    FOR EACH ROW EXECUTE FUNCTION set_change_version();
+CREATE TRIGGER project_assignment_change_version BEFORE INSERT OR UPDATE ON project_assignment
+    FOR EACH ROW EXECUTE FUNCTION set_change_version();
+
+CREATE TABLE sync_tombstone (
+    change_version BIGINT PRIMARY KEY,
+    entity_type VARCHAR(30) NOT NULL,
+    entity_id UUID NOT NULL,
+    project_id UUID NOT NULL,
+    deletion_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_sync_tombstone_project_change_version ON sync_tombstone (project_id, change_version);
+
+-- Notes removed by the task cascade find no task any more; the task's own tombstone covers them
+CREATE FUNCTION record_sync_tombstone() RETURNS trigger AS $$
+DECLARE
+    v_project_id UUID;
+BEGIN
+    IF TG_TABLE_NAME = 'project' THEN
+        v_project_id := OLD.id;
+    ELSIF TG_TABLE_NAME = 'task_note' THEN
+        SELECT project_id INTO v_project_id FROM task WHERE id = OLD.task_id;
+    ELSE
+        v_project_id := OLD.project_id;
+    END IF;
+    IF v_project_id IS NOT NULL THEN
+        INSERT INTO sync_tombstone (change_version, entity_type, entity_id, project_id)
+        VALUES (next_change_version(v_project_id), TG_TABLE_NAME, OLD.id, v_project_id);
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER project_sync_tombstone AFTER DELETE ON project
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone();
+CREATE TRIGGER task_sync_tombstone AFTER DELETE ON task
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone();
+CREATE TRIGGER task_note_sync_tombstone AFTER DELETE ON task_note
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone();
+CREATE TRIGGER project_assignment_sync_tombstone AFTER DELETE ON project_assignment
+    FOR EACH ROW EXECUTE FUNCTION record_sync_tombstone();
@@ -0,0 +1,18 @@
+-- Manual board order. Keys are compared byte-wise, matching FractionalIndex, whatever the database locale
+ALTER TABLE task ADD COLUMN rank VARCHAR(255) COLLATE "C";
+
+-- Seed the order the board used to sort by: priority, then age. Odd hex values never end in '0'.
+WITH ordered AS (
+    SELECT id, row_number() OVER (
+        PARTITION BY project_id
+        ORDER BY CASE priority WHEN 'HIGH' THEN 0 WHEN 'MEDIUM' THEN 1 ELSE 2 END, creation_timestamp, id
+    ) AS position
+    FROM task
+)
+UPDATE task SET rank = lpad(to_hex(ordered.position * 2 + 1), 8, '0')
+FROM ordered WHERE task.id = ordered.id;
+
+ALTER TABLE task ALTER COLUMN rank SET NOT NULL;
+
+-- Board columns read (project, state) in rank order; id is included so ordered id lists need no heap access
+CREATE INDEX idx_task_project_state_rank ON task (project_id, state, rank) INCLUDE (id);
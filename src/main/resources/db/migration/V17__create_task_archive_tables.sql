@@ -0,0 +1,18 @@
+-- Cold storage for approved tasks and tasks of finished projects, so the live task and task_note
+-- tables and their indexes only hold the working set. TaskArchiver moves rows in both directions;
+-- a column added to task or task_note later has to be added here and to its column list as well.
+CREATE TABLE task_archive (LIKE task INCLUDING DEFAULTS);
+ALTER TABLE task_archive ADD PRIMARY KEY (id);
+ALTER TABLE task_archive ADD FOREIGN KEY (project_id) REFERENCES project(id) ON DELETE CASCADE;
+ALTER TABLE task_archive ADD FOREIGN KEY (assigned_user_id) REFERENCES user_managment(id);
+ALTER TABLE task_archive ADD COLUMN archived_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX idx_task_archive_project_rank ON task_archive (project_id, rank);
+
+CREATE TABLE task_note_archive (LIKE task_note INCLUDING DEFAULTS);
+ALTER TABLE task_note_archive ADD PRIMARY KEY (id);
+ALTER TABLE task_note_archive ADD FOREIGN KEY (task_id) REFERENCES task_archive(id) ON DELETE CASCADE;
+ALTER TABLE task_note_archive ADD FOREIGN KEY (user_id) REFERENCES user_managment(id);
+CREATE INDEX idx_task_note_archive_task_id ON task_note_archive (task_id, creation_timestamp);
+
+-- Finds archivable approved tasks without scanning the active ones
+CREATE INDEX idx_task_approved_completion ON task (completion_timestamp) WHERE state = 'APPROVED';
@@ -0,0 +1,13 @@
+-- Weekly latency distributions per project and per user, kept up to date from the task event log.
+-- snapshot is a compressed HdrHistogram of minutes; value_count is its total count, so throughput
+-- reads never decode a snapshot.
+CREATE TABLE task_flow_histogram (
+    scope VARCHAR(10) NOT NULL,
+    scope_id UUID NOT NULL,
+    week_start DATE NOT NULL,
+    metric VARCHAR(20) NOT NULL,
+    value_count BIGINT NOT NULL,
+    snapshot BYTEA NOT NULL,
+    modification_timestamp TIMESTAMP,
+    PRIMARY KEY (scope, scope_id, week_start, metric)
+);
@@ -0,0 +1,26 @@
+-- Every row of a tenant-scoped table belongs to one organization. Users registered without one
+-- have always shared a single space; they keep sharing it as the default organization.
+UPDATE user_managment SET organization_id = '00000000-0000-0000-0000-000000000000' WHERE organization_id IS NULL;
+ALTER TABLE user_managment ALTER COLUMN organization_id SET NOT NULL;
+
+ALTER TABLE project ADD COLUMN organization_id UUID;
+UPDATE project SET organization_id = COALESCE(
+    (SELECT u.organization_id FROM user_managment u WHERE u.id = project.owner_id),
+    '00000000-0000-0000-0000-000000000000');
+ALTER TABLE project ALTER COLUMN organization_id SET NOT NULL;
+
+-- Copied from the project so tenant-filtered task reads need no join
+ALTER TABLE task ADD COLUMN organization_id UUID;
+UPDATE task SET organization_id = project.organization_id FROM project WHERE project.id = task.project_id;
+ALTER TABLE task ALTER COLUMN organization_id SET NOT NULL;
+
+ALTER TABLE task_archive ADD COLUMN organization_id UUID;
+UPDATE task_archive SET organization_id = project.organization_id FROM project WHERE project.id = task_archive.project_id;
+ALTER TABLE task_archive ALTER COLUMN organization_id SET NOT NULL;
+
+-- The tenant filter adds organization_id to every query, so it leads the indexes those queries use
+CREATE INDEX idx_project_organization_status ON project (organization_id, status);
+DROP INDEX idx_task_project_state_rank;
+CREATE INDEX idx_task_organization_project_state_rank ON task (organization_id, project_id, state, rank) INCLUDE (id);
+CREATE INDEX idx_task_organization_assigned_user ON task (organization_id, assigned_user_id);
+CREATE INDEX idx_user_managment_organization_name ON user_managment (organization_id, name);
@@ -0,0 +1,9 @@
+-- Which shard holds each organization. Only the table on the default shard is read; the others stay
+-- empty because every shard runs the same migrations. Organizations without a row live on the
+-- default shard. moving is set while OrganizationMover copies the last changes, and blocks writes.
+CREATE TABLE organization_shard (
+    organization_id UUID PRIMARY KEY,
+    shard VARCHAR(100) NOT NULL,
+    moving BOOLEAN NOT NULL DEFAULT FALSE,
+    modification_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,16 @@
+-- Responses to requests sent with an Idempotency-Key header, replayed when the client retries them
+CREATE TABLE idempotency_key (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES user_managment(id) ON DELETE CASCADE,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    -- Response columns stay NULL while the first execution is running
+    status_code INT,
+    content_type VARCHAR(255),
+    body BYTEA,
+    creation_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    UNIQUE (user_id, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_key_expires_at ON idempotency_key (expires_at);
@@ -0,0 +1,22 @@
+-- blocker_task_id has to be finished before blocked_task_id can start; both are tasks of one project
+CREATE TABLE task_dependency (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    project_id UUID NOT NULL REFERENCES project(id) ON DELETE CASCADE,
+    blocker_task_id UUID NOT NULL REFERENCES task(id) ON DELETE CASCADE,
+    blocked_task_id UUID NOT NULL REFERENCES task(id) ON DELETE CASCADE,
+    organization_id UUID NOT NULL,
+    creation_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (blocker_task_id, blocked_task_id),
+    CHECK (blocker_task_id <> blocked_task_id)
+);
+
+CREATE INDEX idx_task_dependency_project ON task_dependency (project_id);
+CREATE INDEX idx_task_dependency_blocked_task ON task_dependency (blocked_task_id);
+
+-- Bumped by every change to a project's dependencies. The row lock orders those changes, and nodes
+-- compare the version with the one their in-memory graph was built from before checking for cycles.
+CREATE TABLE task_dependency_version (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    project_id UUID NOT NULL UNIQUE REFERENCES project(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL
+);
@@ -0,0 +1,20 @@
+-- Files attached to task notes. The content lives in the attachment store under its SHA-256, so the
+-- same file attached twice is stored once. note_id and task_id have no foreign keys because
+-- attachments stay with their note when it moves to the archive and back; rows whose note is gone
+-- are removed by AttachmentStore's cleanup.
+CREATE TABLE note_attachment (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    note_id UUID NOT NULL,
+    task_id UUID NOT NULL,
+    organization_id UUID NOT NULL,
+    user_id UUID REFERENCES user_managment(id) ON DELETE SET NULL,
+    file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    creation_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_note_attachment_note ON note_attachment (note_id);
+CREATE INDEX idx_note_attachment_task ON note_attachment (task_id);
+CREATE INDEX idx_note_attachment_sha256 ON note_attachment (sha256);
@@ -0,0 +1,26 @@
+-- Append-only activity of an organization: task, note, assignment and project changes, written in
+-- the same transaction as the change. Partitioned by month; ActivityPartitions creates the months
+-- of the retention window ahead of time and drops the ones that fall out of it.
+CREATE TABLE activity_event (
+    id BIGSERIAL,
+    bucket DATE NOT NULL,
+    organization_id UUID NOT NULL,
+    project_id UUID,
+    task_id UUID,
+    note_id UUID,
+    actor_id UUID,
+    entity_type VARCHAR(20) NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    subject_user_id UUID,
+    summary VARCHAR(255),
+    occurred_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (bucket, id)
+) PARTITION BY RANGE (bucket);
+
+-- Reads name one month and walk ids downwards, one range scan of one partition's index each
+CREATE INDEX idx_activity_event_organization ON activity_event (organization_id, bucket, id DESC);
+CREATE INDEX idx_activity_event_project ON activity_event (project_id, bucket, id DESC);
+CREATE INDEX idx_activity_event_actor ON activity_event (actor_id, bucket, id DESC);
+
+-- Catches rows of a month whose partition does not exist yet; ActivityPartitions moves them out
+CREATE TABLE activity_event_default PARTITION OF activity_event DEFAULT;
@@ -0,0 +1,2 @@
+-- Bumped whenever a user's access changes; tokens carrying an older version are rejected
+ALTER TABLE user_managment ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Tombstones are kept for a limited time. The highest pruned version of a project is remembered
+-- here, a client whose version is below it may have missed a deletion and has to sync from scratch
+CREATE TABLE sync_tombstone_watermark (
+    project_id UUID PRIMARY KEY,
+    pruned_through BIGINT NOT NULL
+);
+
+CREATE INDEX idx_sync_tombstone_deletion_timestamp ON sync_tombstone (deletion_timestamp);
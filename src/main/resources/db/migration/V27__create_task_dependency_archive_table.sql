@@ -0,0 +1,8 @@
+-- Dependencies that touch an archived task. Deleting the live task would cascade its edges away, so
+-- TaskArchiver moves them here first and back once both tasks are live again. The task columns have
+-- no foreign keys because an edge may join an archived task to a live one.
+CREATE TABLE task_dependency_archive (LIKE task_dependency INCLUDING DEFAULTS);
+ALTER TABLE task_dependency_archive ADD PRIMARY KEY (id);
+ALTER TABLE task_dependency_archive ADD FOREIGN KEY (project_id) REFERENCES project(id) ON DELETE CASCADE;
+CREATE INDEX idx_task_dependency_archive_blocker_task ON task_dependency_archive (blocker_task_id);
+CREATE INDEX idx_task_dependency_archive_blocked_task ON task_dependency_archive (blocked_task_id);
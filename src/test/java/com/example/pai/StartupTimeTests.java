@@ -0,0 +1,27 @@
+package com.example.pai;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupTimeTests {
+
+    private static final Duration BUDGET = Duration.ofMillis(Long.getLong("startup.budget-ms", 15_000));
+
+    @Test
+    void fastStartProfileIsReadyWithinBudget() {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext ignored = new SpringApplicationBuilder(PaiApplication.class)
+                .profiles("fast-start")
+                .properties("server.port=0")
+                .run()) {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            assertTrue(elapsed.compareTo(BUDGET) <= 0,
+                    "Time to ready was " + elapsed.toMillis() + " ms, budget is " + BUDGET.toMillis() + " ms");
+        }
+    }
+}
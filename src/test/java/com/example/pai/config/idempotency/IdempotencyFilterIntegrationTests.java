@@ -0,0 +1,212 @@
+package com.example.pai.config.idempotency;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.RoleRepository;
+import com.example.pai.dao.repository.UserManagmentRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends requests with an Idempotency-Key through the filter against the configured database. The
+ * filter chain stands in for the controller and counts how often it actually runs.
+ */
+@SpringBootTest(properties = "idempotency.wait-timeout-ms=" + IdempotencyFilterIntegrationTests.WAIT_TIMEOUT_MS)
+class IdempotencyFilterIntegrationTests {
+
+    static final long WAIT_TIMEOUT_MS = 500;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    @Autowired
+    private UserManagmentRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AuthenticatedUser user;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void createUser() {
+        Role role = roleRepository.findAll().get(0);
+        UserManagment saved = new UserManagment();
+        saved.setEmail("idem-" + UUID.randomUUID().toString().substring(0, 18) + "@test");
+        saved.setPassword("-");
+        saved.setRole(role);
+        saved.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+        saved = userRepository.save(saved);
+        user = new AuthenticatedUser(saved.getId(), saved.getOrganizationId(), saved.getEmail(), role.getName(), 0L, 0);
+    }
+
+    @AfterEach
+    void deleteUser() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void firstResponseIsStoredAndReplayed() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        MockHttpServletResponse first = send(key, "{\"name\":\"a\"}", created());
+        MockHttpServletResponse retry = send(key, "{\"name\":\"a\"}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(201, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        send(key, "{\"name\":\"a\"}", created());
+        MockHttpServletResponse reused = send(key, "{\"name\":\"b\"}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(422, reused.getStatus());
+    }
+
+    @Test
+    void concurrentDuplicateWaitsThenGetsConflict() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return send(key, "{}", (request, response) -> {
+                    running.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    created().doFilter(request, response);
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            long start = System.nanoTime();
+            MockHttpServletResponse duplicate = send(key, "{}", created());
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(409, duplicate.getStatus());
+            assertEquals("1", duplicate.getHeader(HttpHeaders.RETRY_AFTER));
+            assertTrue(waitedMs >= WAIT_TIMEOUT_MS, "Returned after " + waitedMs + " ms");
+        } finally {
+            release.countDown();
+        }
+        assertEquals(201, first.get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void expiredKeyIsClaimedAgain() throws Exception {
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO idempotency_key (user_id, idempotency_key, request_hash, status_code, expires_at) " +
+                "VALUES (?, ?, 'old', 200, CURRENT_TIMESTAMP - INTERVAL '1 minute')", user.getId(), key);
+
+        MockHttpServletResponse response = send(key, "{}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, response.getStatus());
+        assertNull(response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void bufferedBodyCanBeReadThroughReadListener() throws Exception {
+        String body = "{\"name\":\"listener\"}";
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+
+        send(UUID.randomUUID().toString(), body, (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8];
+                    int n;
+                    while (input.isReady() && (n = input.read(buffer, 0, buffer.length)) > 0) {
+                        read.write(buffer, 0, n);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            });
+            created().doFilter(request, response);
+        });
+
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+        assertEquals(1, allDataRead.get());
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            int execution = executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(201);
+            response.setContentType("application/json");
+            response.getOutputStream().write(("{\"execution\":" + execution + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tasks");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        try {
+            idempotencyFilter.doFilter(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.pai.config.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Requests are held in flight by nesting them: each one's filter chain sends the next request, so
+ * all of them hold a permit at once without threads. The clock only moves when a chain advances it.
+ */
+class AdaptiveConcurrencyFilterTest {
+
+    private static final long RTT_NANOS = 5_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(
+            meterRegistry, true, 2, 200, 1, List.of("/api/tasks", "/api/**/export/**")) {
+        @Override
+        long nanoTime() {
+            return clock.get();
+        }
+    };
+
+    @Test
+    void shedsWith503AndRetryAfterOnceTheLimitIsInFlight() throws Exception {
+        int limit = RouteClass.WRITE.getInitialLimit();
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+
+        nest("POST", "/api/tasks", limit + 1, responses);
+
+        MockHttpServletResponse shed = responses.get(limit);
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader(HttpHeaders.RETRY_AFTER));
+        for (MockHttpServletResponse admitted : responses.subList(0, limit)) {
+            assertEquals(200, admitted.getStatus());
+            assertNull(admitted.getHeader(HttpHeaders.RETRY_AFTER));
+        }
+        assertEquals(1.0, meterRegistry.get("http.concurrency.rejected").tag("class", "write").counter().count());
+        assertEquals(0.0, inflight("write"));
+    }
+
+    @Test
+    void releasesThePermitWhenTheChainThrows() throws Exception {
+        FilterChain failing = (request, response) -> {
+            clock.addAndGet(RTT_NANOS);
+            throw new IllegalStateException("handler failed");
+        };
+
+        for (int i = 0; i < RouteClass.WRITE.getInitialLimit() * 2; i++) {
+            assertThrows(IllegalStateException.class, () -> filter.doFilter(request("POST", "/api/tasks"),
+                    new MockHttpServletResponse(), failing));
+            assertEquals(0.0, inflight("write"));
+        }
+        // every failure also counts as a dropped request
+        assertEquals(2.0, meterRegistry.get("http.concurrency.limit").tag("class", "write").gauge().value());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/api/tasks"), response, (request, res) -> clock.addAndGet(RTT_NANOS));
+        assertEquals(200, response.getStatus());
+        assertEquals(0.0, inflight("write"));
+    }
+
+    @Test
+    void exportsYieldOnceReadsNearTheirLimit() throws Exception {
+        int busyReads = (int) Math.ceil(RouteClass.READ.getInitialLimit() * RouteClass.EXPORT.getInteractiveUtilizationCap());
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        MockHttpServletResponse export = new MockHttpServletResponse();
+        MockHttpServletResponse read = new MockHttpServletResponse();
+
+        // with reads at the cap, an export is shed while another read still gets through
+        FilterChain innermost = (request, response) -> {
+            filter.doFilter(request("GET", "/api/tasks"), export, (req, res) -> {
+            });
+            filter.doFilter(request("GET", "/api/projects/1"), read, (req, res) -> {
+            });
+        };
+        nest("GET", "/api/projects", busyReads, responses, innermost);
+
+        assertEquals(503, export.getStatus());
+        assertEquals("1", export.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, read.getStatus());
+        assertEquals(0.0, inflight("export"));
+        assertEquals(0.0, inflight("read"));
+    }
+
+    private void nest(String method, String path, int depth, List<MockHttpServletResponse> responses) throws Exception {
+        nest(method, path, depth, responses, (request, response) -> {
+        });
+    }
+
+    // Sends depth requests, each from inside the previous one's chain, and the innermost one into last
+    private void nest(String method, String path, int depth, List<MockHttpServletResponse> responses,
+                      FilterChain last) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        responses.add(response);
+        filter.doFilter(request(method, path), response, (request, res) -> {
+            clock.addAndGet(RTT_NANOS);
+            if (depth > 1) {
+                try {
+                    nest(method, path, depth - 1, responses, last);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            } else {
+                last.doFilter(request, res);
+            }
+            ((HttpServletResponse) res).setStatus(200);
+        });
+    }
+
+    private double inflight(String routeClass) {
+        return meterRegistry.get("http.concurrency.inflight").tag("class", routeClass).gauge().value();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        return new MockHttpServletRequest(method, path);
+    }
+}
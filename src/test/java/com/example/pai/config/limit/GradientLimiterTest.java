@@ -0,0 +1,76 @@
+package com.example.pai.config.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientLimiterTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void growsWhileLatencyStaysFlat() {
+        GradientLimiter limiter = new GradientLimiter(10, 2, 100);
+
+        for (int round = 0; round < 5; round++) {
+            saturate(limiter, 10 * MILLIS);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "Limit " + limiter.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyInflates() {
+        GradientLimiter limiter = new GradientLimiter(10, 2, 100);
+        for (int round = 0; round < 5; round++) {
+            saturate(limiter, 10 * MILLIS);
+        }
+        int settled = limiter.getLimit();
+
+        for (int round = 0; round < 5; round++) {
+            saturate(limiter, 80 * MILLIS);
+        }
+
+        assertTrue(limiter.getLimit() < settled, "Limit " + limiter.getLimit() + " after " + settled);
+    }
+
+    @Test
+    void staysWithinMinAndMax() {
+        GradientLimiter limiter = new GradientLimiter(10, 4, 16);
+        for (int round = 0; round < 30; round++) {
+            saturate(limiter, 10 * MILLIS);
+        }
+        assertEquals(16, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(10 * MILLIS, true);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        GradientLimiter limiter = new GradientLimiter(3, 1, 10);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        limiter.release(MILLIS, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    // Fills the current limit and completes every request with the same latency
+    private static void saturate(GradientLimiter limiter, long rttNanos) {
+        int permits = limiter.getLimit();
+        for (int i = 0; i < permits; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < permits; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
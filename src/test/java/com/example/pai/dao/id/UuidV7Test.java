@@ -0,0 +1,38 @@
+package com.example.pai.dao.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7Test {
+
+    @Test
+    void setsVersionAndVariant() {
+        UUID id = UuidV7.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void embedsCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    void idsIncreaseWithinTheSameMillisecond() {
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7.next();
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.pai.service.access;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MembershipTableTest {
+
+    private static final UUID PROJECT = UUID.randomUUID();
+    private static final UUID ANNA = new UUID(-5, 1);
+    private static final UUID BEN = new UUID(3, -1);
+    private static final UUID CARL = new UUID(3, 7);
+
+    @Test
+    void addsAndRemovesPairs() {
+        MembershipTable table = new MembershipTable();
+        table.add(PROJECT, CARL);
+        table.add(PROJECT, ANNA);
+        table.add(PROJECT, BEN);
+        table.add(PROJECT, ANNA);
+
+        assertEquals(Set.of(ANNA, BEN, CARL), table.get(PROJECT));
+        assertTrue(table.contains(PROJECT, BEN));
+
+        table.remove(PROJECT, BEN);
+        table.remove(PROJECT, BEN);
+        assertFalse(table.contains(PROJECT, BEN));
+        assertEquals(Set.of(ANNA, CARL), table.get(PROJECT));
+
+        table.remove(PROJECT, ANNA);
+        table.remove(PROJECT, CARL);
+        assertFalse(table.keys().contains(PROJECT));
+        assertTrue(table.get(PROJECT).isEmpty());
+    }
+
+    @Test
+    void returnedSetsDoNotFollowLaterChanges() {
+        MembershipTable table = new MembershipTable();
+        table.add(PROJECT, ANNA);
+
+        Set<UUID> members = table.get(PROJECT);
+        table.add(PROJECT, BEN);
+
+        assertEquals(Set.of(ANNA), members);
+        assertEquals(Set.of(ANNA, BEN), table.removeKey(PROJECT));
+        assertFalse(table.contains(PROJECT, ANNA));
+    }
+
+    @Test
+    void replacesEverythingWithTheLoadedPairs() {
+        UUID other = UUID.randomUUID();
+        MembershipTable table = new MembershipTable();
+        table.add(PROJECT, ANNA);
+        table.add(other, ANNA);
+
+        MembershipTable.Loader loader = new MembershipTable.Loader();
+        for (UUID user : new UUID[]{CARL, BEN, CARL, ANNA, BEN, CARL}) {
+            loader.add(PROJECT, user);
+        }
+        table.replaceAll(loader);
+
+        assertEquals(Set.of(PROJECT), table.keys());
+        assertEquals(3, table.get(PROJECT).size());
+        assertTrue(table.contains(PROJECT, BEN));
+        assertTrue(table.contains(PROJECT, CARL));
+    }
+}
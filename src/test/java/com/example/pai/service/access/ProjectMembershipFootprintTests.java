@@ -0,0 +1,114 @@
+package com.example.pai.service.access;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Reference;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap taken by a million project assignments, held in both directions the way the membership
+ * index holds them, once as sets of UUIDs and once in {@link MembershipTable}s. Each row gets
+ * UUID objects of its own, as rows read from the database do. The figures are logged; the
+ * assertion only catches the compact layout losing its advantage.
+ */
+@Tag("benchmark")
+class ProjectMembershipFootprintTests {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectMembershipFootprintTests.class);
+
+    private static final int ASSIGNMENTS = 1_000_000;
+    private static final int PROJECTS = 20_000;
+    private static final int USERS = 100_000;
+
+    @Test
+    void compactTablesTakeAFractionOfBoxedSets() {
+        long[][] rows = rows();
+
+        // Measured first, the smaller figure is the one skewed by whatever the larger build leaves behind
+        long compact = retained(() -> {
+            MembershipTable.Loader members = new MembershipTable.Loader();
+            MembershipTable.Loader projects = new MembershipTable.Loader();
+            for (long[] row : rows) {
+                UUID projectId = new UUID(row[0], row[1]);
+                UUID userId = new UUID(row[2], row[3]);
+                members.add(projectId, userId);
+                projects.add(userId, projectId);
+            }
+            MembershipTable membersByProject = new MembershipTable();
+            MembershipTable projectsByUser = new MembershipTable();
+            membersByProject.replaceAll(members);
+            projectsByUser.replaceAll(projects);
+            return new Object[]{membersByProject, projectsByUser};
+        });
+
+        long boxed = retained(() -> {
+            Map<UUID, Set<UUID>> membersByProject = new ConcurrentHashMap<>();
+            Map<UUID, Set<UUID>> projectsByUser = new ConcurrentHashMap<>();
+            for (long[] row : rows) {
+                UUID projectId = new UUID(row[0], row[1]);
+                UUID userId = new UUID(row[2], row[3]);
+                membersByProject.computeIfAbsent(projectId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+                projectsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(projectId);
+            }
+            return new Object[]{membersByProject, projectsByUser};
+        });
+
+        log.info("{} assignments of {} projects and {} users: UUID sets {} MB ({} bytes each), tables {} MB ({} bytes each)",
+                ASSIGNMENTS, PROJECTS, USERS, boxed >> 20, boxed / ASSIGNMENTS, compact >> 20, compact / ASSIGNMENTS);
+        assertTrue(compact * 3 < boxed, "Tables take " + (compact >> 20) + " MB, sets " + (boxed >> 20) + " MB");
+    }
+
+    // Random distinct pairs, a project has 50 members on average and a user 10 projects
+    private static long[][] rows() {
+        Random random = new Random(1);
+        long[][] projects = ids(random, PROJECTS);
+        long[][] users = ids(random, USERS);
+        Set<Long> seen = new HashSet<>();
+        long[][] rows = new long[ASSIGNMENTS][];
+        int count = 0;
+        while (count < ASSIGNMENTS) {
+            int project = random.nextInt(PROJECTS);
+            int user = random.nextInt(USERS);
+            if (seen.add((long) project * USERS + user)) {
+                rows[count++] = new long[]{projects[project][0], projects[project][1], users[user][0], users[user][1]};
+            }
+        }
+        return rows;
+    }
+
+    private static long[][] ids(Random random, int count) {
+        long[][] ids = new long[count][];
+        for (int i = 0; i < count; i++) {
+            ids[i] = new long[]{random.nextLong(), random.nextLong()};
+        }
+        return ids;
+    }
+
+    // Heap still in use after a full collection while the built structure is reachable
+    private static long retained(Supplier<Object> build) {
+        long before = usedAfterGc();
+        Object built = build.get();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(built);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
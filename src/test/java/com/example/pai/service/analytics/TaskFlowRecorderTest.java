@@ -0,0 +1,133 @@
+package com.example.pai.service.analytics;
+
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.TaskEvent;
+import com.example.pai.dao.model.TaskFlowHistogram;
+import com.example.pai.dao.projection.TaskTimestampsView;
+import com.example.pai.dao.repository.ArchivedTaskRepository;
+import com.example.pai.dao.repository.TaskFlowHistogramRepository;
+import com.example.pai.dao.repository.TaskRepository;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskFlowRecorderTest {
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskFlowHistogramRepository histogramRepository = mock(TaskFlowHistogramRepository.class);
+    private final Map<TaskFlowHistogram.Key, TaskFlowHistogram> stored = new HashMap<>();
+    private final TaskFlowRecorder recorder = new TaskFlowRecorder(
+            taskRepository, mock(ArchivedTaskRepository.class), histogramRepository);
+
+    @BeforeEach
+    void storeHistogramsInMemory() {
+        when(histogramRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<TaskFlowHistogram> rows = new ArrayList<>();
+            invocation.<Iterable<TaskFlowHistogram.Key>>getArgument(0).forEach(key -> {
+                if (stored.containsKey(key)) {
+                    rows.add(stored.get(key));
+                }
+            });
+            return rows;
+        });
+        when(histogramRepository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<TaskFlowHistogram>>getArgument(0).forEach(row -> stored.put(row.getId(), row));
+            return null;
+        });
+    }
+
+    @Test
+    void recordsValuesLongerThanAnyInTheStoredSnapshot() {
+        UUID projectId = UUID.randomUUID();
+        LocalDateTime approvedAt = LocalDateTime.of(2026, 3, 4, 12, 0);
+
+        // each round trip goes through the encoded snapshot with a far longer lead time than before
+        long[] leadMinutes = {5, 90, 60 * 24 * 30, 60 * 24 * 400};
+        for (long minutes : leadMinutes) {
+            UUID taskId = UUID.randomUUID();
+            when(taskRepository.findTimestampsByIdIn(anyCollection()))
+                    .thenReturn(List.of(timestamps(taskId, approvedAt.minusMinutes(minutes))));
+            recorder.accept(List.of(approval(taskId, projectId, approvedAt)));
+        }
+
+        TaskFlowHistogram row = stored.get(new TaskFlowHistogram.Key(TaskFlowHistogram.Scope.PROJECT, projectId,
+                TaskFlowRecorder.weekStart(approvedAt.toLocalDate()), TaskFlowHistogram.Metric.LEAD_TIME));
+        Histogram histogram = HistogramSnapshots.decode(row.getSnapshot());
+        assertEquals(leadMinutes.length, row.getValueCount());
+        assertEquals(leadMinutes.length, histogram.getTotalCount());
+        assertTrue(histogram.valuesAreEquivalent(leadMinutes[leadMinutes.length - 1], histogram.getMaxValue()));
+    }
+
+    @Test
+    void countsStateChangesLoggedByUpdates() {
+        UUID projectId = UUID.randomUUID();
+        UUID started = UUID.randomUUID();
+        UUID approved = UUID.randomUUID();
+        UUID createdApproved = UUID.randomUUID();
+        LocalDateTime at = LocalDateTime.of(2026, 3, 4, 12, 0);
+        when(taskRepository.findTimestampsByIdIn(anyCollection())).thenReturn(List.of(timestamps(started, at.minusMinutes(30)),
+                timestamps(approved, at.minusMinutes(90)), timestamps(createdApproved, at)));
+
+        recorder.accept(List.of(
+                event(TaskEvent.EventType.UPDATED, started, projectId, Task.TaskState.NOT_STARTED, Task.TaskState.IN_PROGRESS, at),
+                event(TaskEvent.EventType.UPDATED, approved, projectId, Task.TaskState.WAITING_FOR_APPROVAL, Task.TaskState.APPROVED, at),
+                event(TaskEvent.EventType.CREATED, createdApproved, projectId, null, Task.TaskState.APPROVED, at)));
+
+        assertEquals(1, projectRow(projectId, at, TaskFlowHistogram.Metric.QUEUE_TIME).getValueCount());
+        assertEquals(1, projectRow(projectId, at, TaskFlowHistogram.Metric.LEAD_TIME).getValueCount());
+    }
+
+    private TaskFlowHistogram projectRow(UUID projectId, LocalDateTime at, TaskFlowHistogram.Metric metric) {
+        return stored.get(new TaskFlowHistogram.Key(TaskFlowHistogram.Scope.PROJECT, projectId,
+                TaskFlowRecorder.weekStart(at.toLocalDate()), metric));
+    }
+
+    private static TaskEvent approval(UUID taskId, UUID projectId, LocalDateTime at) {
+        return event(TaskEvent.EventType.STATE_CHANGED, taskId, projectId, Task.TaskState.IN_PROGRESS, Task.TaskState.APPROVED, at);
+    }
+
+    private static TaskEvent event(TaskEvent.EventType type, UUID taskId, UUID projectId,
+                                   Task.TaskState oldState, Task.TaskState newState, LocalDateTime at) {
+        TaskEvent event = new TaskEvent();
+        event.setTaskId(taskId);
+        event.setProjectId(projectId);
+        event.setEventType(type);
+        event.setOldState(oldState);
+        event.setNewState(newState);
+        event.setCreationTimestamp(at);
+        return event;
+    }
+
+    private static TaskTimestampsView timestamps(UUID taskId, LocalDateTime created) {
+        return new TaskTimestampsView() {
+            @Override
+            public UUID getId() {
+                return taskId;
+            }
+
+            @Override
+            public LocalDateTime getCreationTimestamp() {
+                return created;
+            }
+
+            @Override
+            public LocalDateTime getStartTimestamp() {
+                return null;
+            }
+        };
+    }
+}
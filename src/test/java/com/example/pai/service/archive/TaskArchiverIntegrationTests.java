@@ -0,0 +1,117 @@
+package com.example.pai.service.archive;
+
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.dao.model.Project;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.ProjectRepository;
+import com.example.pai.dao.repository.TaskDependencyRepository;
+import com.example.pai.service.ProjectService;
+import com.example.pai.service.TaskService;
+import com.example.pai.service.dependency.TaskDependencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archives a finished project with dependencies between its tasks against the configured database
+ * and reopens it. The edges have to come back with the tasks, and the graph cached before has to be
+ * replaced rather than reused.
+ */
+@SpringBootTest
+class TaskArchiverIntegrationTests {
+
+    @Autowired
+    private TaskArchiver taskArchiver;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskDependencyService taskDependencyService;
+
+    @Autowired
+    private TaskDependencyRepository taskDependencyRepository;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID projectId;
+    private final List<UUID> taskIds = new ArrayList<>();
+
+    @BeforeEach
+    void createProjectWithDependencies() {
+        Project project = new Project();
+        project.setName("archive-test-" + UUID.randomUUID());
+        project.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+        projectId = projectRepository.save(project).getId();
+
+        for (int i = 0; i < 3; i++) {
+            taskIds.add(taskService.createTask(TaskDto.TaskRequest.builder()
+                    .name("task " + i)
+                    .priority(Task.Priority.MEDIUM)
+                    .projectId(projectId)
+                    .estimatedTime(1)
+                    .build()).getId());
+        }
+        assertTrue(taskDependencyService.addDependency(taskIds.get(1), taskIds.get(0)));
+        assertTrue(taskDependencyService.addDependency(taskIds.get(2), taskIds.get(1)));
+    }
+
+    @AfterEach
+    void deleteProject() {
+        projectService.deleteProject(projectId);
+    }
+
+    @Test
+    void dependenciesSurviveArchiveAndRestore() {
+        // loads the graph into the index, which must not be served again after the round trip
+        assertEquals(3, taskDependencyService.getCriticalPath(projectId).getTaskIds().size());
+        long versionBefore = taskDependencyRepository.findVersion(projectId);
+
+        jdbcTemplate.update("UPDATE project SET status = 'FINISHED', modification_timestamp = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusYears(1)), projectId);
+        taskArchiver.archive();
+
+        assertEquals(0, count("SELECT count(*) FROM task WHERE project_id = ?"));
+        assertEquals(0, count("SELECT count(*) FROM task_dependency WHERE project_id = ?"));
+        assertEquals(2, count("SELECT count(*) FROM task_dependency_archive WHERE project_id = ?"));
+        long versionArchived = taskDependencyRepository.findVersion(projectId);
+        assertTrue(versionArchived > versionBefore);
+
+        jdbcTemplate.update("UPDATE project SET status = 'ACTIVE' WHERE id = ?", projectId);
+        taskArchiver.restoreProject(projectId);
+
+        assertEquals(3, count("SELECT count(*) FROM task WHERE project_id = ?"));
+        assertEquals(2, count("SELECT count(*) FROM task_dependency WHERE project_id = ?"));
+        assertEquals(0, count("SELECT count(*) FROM task_dependency_archive WHERE project_id = ?"));
+        assertTrue(taskDependencyRepository.findVersion(projectId) > versionArchived);
+
+        TaskDto.TaskDependencies middle = taskDependencyService.getDependencies(taskIds.get(1)).orElseThrow();
+        assertEquals(List.of(taskIds.get(0)), middle.getBlockedBy());
+        assertEquals(List.of(taskIds.get(2)), middle.getBlocks());
+        assertEquals(taskIds, taskDependencyService.getCriticalPath(projectId).getTaskIds());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, projectId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.pai.service.attachment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AttachmentStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameContentIsStoredOnce() throws IOException {
+        AttachmentStore store = store(1024);
+        byte[] content = "stack trace".getBytes(StandardCharsets.UTF_8);
+
+        AttachmentStore.StoredFile first = store.store(new ByteArrayInputStream(content));
+        AttachmentStore.StoredFile second = store.store(new ByteArrayInputStream(content));
+
+        assertEquals(first, second);
+        assertEquals(content.length, first.size());
+        assertArrayEquals(content, Files.readAllBytes(store.path(first.sha256())));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void oversizedUploadsLeaveNothingBehind() throws IOException {
+        AttachmentStore store = store(10);
+
+        assertThrows(AttachmentTooLargeException.class, () -> store.store(new ByteArrayInputStream(new byte[11])));
+        assertEquals(0, countFiles());
+    }
+
+    private AttachmentStore store(long maxBytes) throws IOException {
+        return new AttachmentStore(root.toString(), maxBytes, 3600, null, null, null);
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.pai.service.cache;
+
+import com.example.pai.service.access.ProjectAccessGuard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class ReadCoalescerTest {
+
+    private final ReadCoalescer coalescer =
+            new ReadCoalescer(mock(ProjectAccessGuard.class), new ObjectMapper(), 1_000);
+
+    @Test
+    void concurrentReadersShareOneLoad() throws Exception {
+        UUID projectId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int readers : new int[]{1, 16, 128}) {
+            coalescer.invalidateProject(projectId);
+            loads.set(0);
+            List<byte[]> bodies = readConcurrently(readers, projectId, () -> {
+                loads.incrementAndGet();
+                sleep(100);
+                return Optional.of(List.of("task-a", "task-b"));
+            });
+
+            assertEquals(1, loads.get(), "loads for " + readers + " readers");
+            for (byte[] body : bodies) {
+                assertArrayEquals(bodies.get(0), body);
+            }
+        }
+    }
+
+    @Test
+    void projectChangeForcesReload() {
+        UUID projectId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        String key = ReadCoalescer.key("tasks-by-project", projectId);
+
+        coalescer.read(projectId, key, () -> Optional.of(loads.incrementAndGet()));
+        coalescer.read(projectId, key, () -> Optional.of(loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+
+        coalescer.invalidateProject(projectId);
+        coalescer.read(projectId, key, () -> Optional.of(loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+    }
+
+    private List<byte[]> readConcurrently(int readers, UUID projectId, Supplier<Optional<?>> loader)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return coalescer.read(projectId, ReadCoalescer.key("tasks-by-project", projectId), loader)
+                            .orElseThrow();
+                }));
+            }
+            start.countDown();
+            List<byte[]> bodies = new ArrayList<>();
+            for (Future<byte[]> result : results) {
+                bodies.add(result.get(10, TimeUnit.SECONDS));
+            }
+            return bodies;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
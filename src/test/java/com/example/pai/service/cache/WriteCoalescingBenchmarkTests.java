@@ -0,0 +1,171 @@
+package com.example.pai.service.cache;
+
+import com.example.pai.dao.model.Project;
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.ProjectRepository;
+import com.example.pai.dao.repository.RoleRepository;
+import com.example.pai.dao.repository.UserActiveProjectRepository;
+import com.example.pai.dao.repository.UserManagmentRepository;
+import com.example.pai.service.UserActiveProjectService;
+import com.example.pai.service.shard.ShardMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Switches active projects the way UI navigation does against the configured database, once through
+ * the direct path and once through the buffer with its scheduled flush running, each for the same
+ * time. Counts are read from the database: commits from pg_stat_database and write transactions from
+ * the transaction ids handed out meanwhile, since only writing transactions are given one. Both also
+ * include whatever else the application commits in the window, which is the same for both runs.
+ */
+@SpringBootTest
+@Tag("benchmark")
+class WriteCoalescingBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteCoalescingBenchmarkTests.class);
+
+    private static final int USERS = 20;
+    private static final long DURATION_MS = Long.getLong("write-coalescing.benchmark.duration-ms", 5_000);
+    // covers the last scheduled flush and the delay before backends report their statistics
+    private static final long SETTLE_MS = Long.getLong("write-coalescing.benchmark.settle-ms", 2_000);
+
+    private static final String COMMITS = "SELECT xact_commit FROM pg_stat_database WHERE datname = current_database()";
+    private static final String NEXT_TRANSACTION_ID = "SELECT txid_snapshot_xmax(txid_current_snapshot())";
+
+    @Autowired
+    private UserActiveProjectService userActiveProjectService;
+
+    @Autowired
+    private WriteCoalescer writeCoalescer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserManagmentRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserActiveProjectRepository userActiveProjectRepository;
+
+    private final List<UUID> projectIds = new ArrayList<>();
+    private final List<UUID> userIds = new ArrayList<>();
+
+    private record Run(long navigations, long commits, long writeTransactions) {
+    }
+
+    @BeforeEach
+    void createUsersAndProjects() {
+        for (int i = 0; i < 2; i++) {
+            Project project = new Project();
+            project.setName("write-coalescing-" + UUID.randomUUID());
+            project.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+            projectIds.add(projectRepository.save(project).getId());
+        }
+        Role role = roleRepository.findAll().get(0);
+        for (int i = 0; i < USERS; i++) {
+            UserManagment user = new UserManagment();
+            user.setEmail("wc-" + UUID.randomUUID().toString().substring(0, 18) + "@test");
+            user.setPassword("-");
+            user.setRole(role);
+            user.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+            userIds.add(userRepository.save(user).getId());
+        }
+    }
+
+    @AfterEach
+    void deleteUsersAndProjects() {
+        writeCoalescer.flush();
+        userIds.forEach(userId -> userActiveProjectRepository.findByUserId(userId).ifPresent(userActiveProjectRepository::delete));
+        userRepository.deleteAllById(userIds);
+        projectRepository.deleteAllById(projectIds);
+    }
+
+    @Test
+    void navigationWritesCollapseIntoFewTransactions() throws InterruptedException {
+        // the same service with the buffer switched off, in a transaction as its proxy would open
+        UserActiveProjectService direct = new UserActiveProjectService(userActiveProjectRepository, userRepository,
+                projectRepository, new WriteCoalescer(jdbcTemplate, transactionTemplate, shardMap, eventPublisher,
+                new SimpleMeterRegistry(), false));
+        Run directRun = navigate((userId, projectId) ->
+                Boolean.TRUE.equals(transactionTemplate.execute(status -> direct.setActiveProject(userId, projectId))));
+        Run bufferedRun = navigate(userActiveProjectService::setActiveProject);
+
+        double directWrites = (double) directRun.writeTransactions() / directRun.navigations();
+        double bufferedWrites = (double) bufferedRun.writeTransactions() / bufferedRun.navigations();
+        log.info("Direct: {} navigations in {} ms, {} commits, {} write transactions ({} per navigation)",
+                directRun.navigations(), DURATION_MS, directRun.commits(), directRun.writeTransactions(), format(directWrites));
+        log.info("Buffered: {} navigations in {} ms, {} commits, {} write transactions ({} per navigation), {}x fewer writes",
+                bufferedRun.navigations(), DURATION_MS, bufferedRun.commits(), bufferedRun.writeTransactions(),
+                format(bufferedWrites), format(directWrites / Math.max(bufferedWrites, Double.MIN_VALUE)));
+        assertTrue(bufferedWrites * 10 <= directWrites,
+                "Expected at least 10x fewer write transactions per navigation, got " + format(bufferedWrites)
+                        + " against " + format(directWrites));
+
+        for (int u = 0; u < USERS; u++) {
+            UUID expected = userActiveProjectService.getActiveProject(userIds.get(u)).orElseThrow();
+            assertEquals(expected, userActiveProjectRepository.findByUserId(userIds.get(u)).orElseThrow().getProject().getId());
+        }
+    }
+
+    // Every user switches project once per round until the time is up; the scheduler flushes meanwhile
+    private Run navigate(BiPredicate<UUID, UUID> setActiveProject) throws InterruptedException {
+        long commitsBefore = commits();
+        long transactionIdBefore = nextTransactionId();
+        long navigations = 0;
+        long deadline = System.nanoTime() + DURATION_MS * 1_000_000;
+        for (int round = 0; System.nanoTime() < deadline; round++) {
+            for (int u = 0; u < USERS; u++) {
+                assertTrue(setActiveProject.test(userIds.get(u), projectIds.get((round + u) % 2)));
+                navigations++;
+            }
+        }
+        Thread.sleep(SETTLE_MS);
+        return new Run(navigations, commits() - commitsBefore, nextTransactionId() - transactionIdBefore);
+    }
+
+    private long commits() {
+        return jdbcTemplate.queryForObject(COMMITS, Long.class);
+    }
+
+    private long nextTransactionId() {
+        return jdbcTemplate.queryForObject(NEXT_TRANSACTION_ID, Long.class);
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
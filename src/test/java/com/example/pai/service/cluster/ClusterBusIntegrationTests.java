@@ -0,0 +1,160 @@
+package com.example.pai.service.cluster;
+
+import com.example.pai.PaiApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Starts two application contexts against the configured database and checks that messages
+ * published on one are delivered to the other after commit.
+ */
+class ClusterBusIntegrationTests {
+
+    private static final ClusterMessage FULL_INVALIDATION = new ClusterMessage("*", "*");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws InterruptedException {
+        nodeA = startNode();
+        nodeB = startNode();
+        awaitListening(nodeA);
+        awaitListening(nodeB);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void deliversCommittedMessagesToOtherNodesOnce() throws InterruptedException {
+        UUID projectId = UUID.randomUUID();
+        ClusterBus bus = nodeA.getBean(ClusterBus.class);
+
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            bus.publish(ClusterMessage.PROJECT, projectId);
+            bus.publish(ClusterMessage.PROJECT, projectId);
+        });
+
+        ClusterMessage received = recorder(nodeB).poll(5, TimeUnit.SECONDS);
+        assertEquals(new ClusterMessage(ClusterMessage.PROJECT, projectId.toString()), received);
+        assertNull(recorder(nodeB).poll(500, TimeUnit.MILLISECONDS));
+        assertNull(recorder(nodeA).poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void dropsMessagesOfRolledBackTransactions() throws InterruptedException {
+        ClusterBus bus = nodeA.getBean(ClusterBus.class);
+
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            bus.publish(ClusterMessage.USER, UUID.randomUUID());
+            status.setRollbackOnly();
+        });
+
+        assertNull(recorder(nodeB).poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void toleratesConcurrentPublishersCommittingOutOfOrder() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        ClusterBus bus = nodeA.getBean(ClusterBus.class);
+        TransactionTemplate transactions = nodeA.getBean(TransactionTemplate.class);
+        CountDownLatch secondDelivered = new CountDownLatch(1);
+
+        // the first transaction takes its sequence number, then holds its commit until the
+        // second one, which takes the next number, has been delivered
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> slow = executor.submit(() -> transactions.executeWithoutResult(status -> {
+                bus.publish(ClusterMessage.PROJECT, first);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        executor.submit(() -> transactions.executeWithoutResult(
+                                inner -> bus.publish(ClusterMessage.PROJECT, second)));
+                        await(secondDelivered);
+                    }
+                });
+            }));
+            assertEquals(new ClusterMessage(ClusterMessage.PROJECT, second.toString()),
+                    recorder(nodeB).poll(5, TimeUnit.SECONDS));
+            secondDelivered.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+        } finally {
+            secondDelivered.countDown();
+            executor.shutdown();
+        }
+
+        assertEquals(new ClusterMessage(ClusterMessage.PROJECT, first.toString()),
+                recorder(nodeB).poll(5, TimeUnit.SECONDS));
+        assertNull(recorder(nodeB).poll(1, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(PaiApplication.class)
+                .properties("server.port=0")
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("recordingClusterListener", new RecordingListener()))
+                .run();
+    }
+
+    private static void awaitListening(ConfigurableApplicationContext context) throws InterruptedException {
+        ClusterBus bus = context.getBean(ClusterBus.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!bus.isListening()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Cluster bus did not start listening");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static BlockingQueue<ClusterMessage> recorder(ConfigurableApplicationContext context) {
+        return context.getBean(RecordingListener.class).messages;
+    }
+
+    static class RecordingListener implements ClusterInvalidationListener {
+
+        private final BlockingQueue<ClusterMessage> messages = new LinkedBlockingQueue<>();
+
+        @Override
+        public void invalidate(ClusterMessage message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void invalidateAll() {
+            messages.add(FULL_INVALIDATION);
+        }
+    }
+}
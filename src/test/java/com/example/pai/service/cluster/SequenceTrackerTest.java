@@ -0,0 +1,57 @@
+package com.example.pai.service.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequenceTrackerTest {
+
+    private static final long TIMEOUT = 1_000;
+
+    @Test
+    void toleratesNumbersArrivingInCommitOrder() {
+        SequenceTracker tracker = new SequenceTracker(4, TIMEOUT);
+
+        assertTrue(tracker.accept(6, 0));
+        assertEquals(1, tracker.outstanding());
+        assertTrue(tracker.accept(5, 10));
+        assertEquals(0, tracker.outstanding());
+        assertFalse(tracker.expire(TIMEOUT * 10));
+    }
+
+    @Test
+    void reportsNumbersStillMissingAfterTheTimeout() {
+        SequenceTracker tracker = new SequenceTracker(1, TIMEOUT);
+
+        assertTrue(tracker.accept(3, 0));
+        assertFalse(tracker.expire(TIMEOUT - 1));
+        assertTrue(tracker.expire(TIMEOUT));
+        assertEquals(0, tracker.outstanding());
+
+        // a late arrival of the forgotten number does not open a new gap
+        assertTrue(tracker.accept(2, TIMEOUT + 1));
+        assertTrue(tracker.accept(4, TIMEOUT + 2));
+        assertEquals(0, tracker.outstanding());
+    }
+
+    @Test
+    void ignoresDuplicates() {
+        SequenceTracker tracker = new SequenceTracker(1, TIMEOUT);
+
+        assertTrue(tracker.accept(2, 0));
+        assertTrue(tracker.accept(2, 0));
+        assertTrue(tracker.accept(1, 0));
+        assertEquals(0, tracker.outstanding());
+    }
+
+    @Test
+    void givesUpOnJumpsTooLargeToTrack() {
+        SequenceTracker tracker = new SequenceTracker(1, TIMEOUT);
+
+        assertFalse(tracker.accept(1_000_000, 0));
+        assertEquals(0, tracker.outstanding());
+        assertTrue(tracker.accept(1_000_001, 0));
+    }
+}
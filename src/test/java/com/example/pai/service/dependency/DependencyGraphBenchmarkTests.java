@@ -0,0 +1,98 @@
+package com.example.pai.service.dependency;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times the graph on a synthetic project of the size it is meant for: 50k tasks and about 50k
+ * random dependencies that run forward in creation order. Measures random edge inserts (some of
+ * which reorder the graph or are rejected as cycles), estimate changes, point lookups and a
+ * critical path walk. The figures are logged; the budgets only catch a change in complexity.
+ */
+@Tag("benchmark")
+class DependencyGraphBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(DependencyGraphBenchmarkTests.class);
+
+    private static final int TASKS = 50_000;
+    private static final int EDGES = 100_000;
+    private static final int OPERATIONS = 10_000;
+    private static final long BUDGET_MICROS = Long.getLong("dependency.benchmark.budget-us", 500);
+
+    @Test
+    void operationsStayCheapOnLargeProjects() {
+        Random random = new Random(1);
+        List<UUID> ids = new ArrayList<>(TASKS);
+        Map<UUID, Integer> durations = new HashMap<>();
+        for (int i = 0; i < TASKS; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            durations.put(id, random.nextInt(20));
+        }
+        List<UUID[]> edges = new ArrayList<>();
+        for (int i = 0; i < EDGES; i++) {
+            int blocker = random.nextInt(TASKS);
+            int blocked = random.nextInt(TASKS);
+            if (blocker < blocked) {
+                edges.add(new UUID[]{ids.get(blocker), ids.get(blocked)});
+            }
+        }
+
+        long start = System.nanoTime();
+        DependencyGraph graph = DependencyGraph.build(durations, edges, 0);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        int rejected = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (!graph.addDependency(ids.get(random.nextInt(TASKS)), ids.get(random.nextInt(TASKS)))) {
+                rejected++;
+            }
+        }
+        double addMicros = micros(start, OPERATIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            graph.putTask(ids.get(random.nextInt(TASKS)), random.nextInt(20));
+        }
+        double estimateMicros = micros(start, OPERATIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            graph.earliestFinish(ids.get(random.nextInt(TASKS)));
+            graph.blockers(ids.get(random.nextInt(TASKS)));
+        }
+        double lookupMicros = micros(start, OPERATIONS * 2);
+
+        start = System.nanoTime();
+        int pathLength = graph.criticalPath().size();
+        long criticalPathMillis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("{} tasks, {} edges: build {} ms, add {} us/op ({} rejected), estimate change {} us/op, "
+                        + "lookup {} us/op, critical path of {} tasks in {} ms",
+                TASKS, edges.size(), buildMillis, format(addMicros), rejected, format(estimateMicros),
+                format(lookupMicros), pathLength, criticalPathMillis);
+        assertTrue(addMicros <= BUDGET_MICROS, "Edge inserts took " + format(addMicros) + " us/op");
+        assertTrue(estimateMicros <= BUDGET_MICROS, "Estimate changes took " + format(estimateMicros) + " us/op");
+        assertTrue(lookupMicros <= BUDGET_MICROS, "Lookups took " + format(lookupMicros) + " us/op");
+    }
+
+    private static double micros(long start, int operations) {
+        return (System.nanoTime() - start) / 1_000.0 / operations;
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.pai.service.dependency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGraphTest {
+
+    @Test
+    void edgesClosingACycleAreRejected() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        DependencyGraph graph = graph(Map.of(a, 1, b, 1, c, 1));
+
+        assertTrue(graph.addDependency(a, b));
+        assertTrue(graph.addDependency(b, c));
+
+        assertTrue(graph.wouldCreateCycle(c, a));
+        assertTrue(graph.wouldCreateCycle(a, a));
+        assertFalse(graph.addDependency(c, a));
+        assertFalse(graph.hasEdge(c, a));
+        assertEquals(3, graph.earliestFinish());
+    }
+
+    @Test
+    void edgesAgainstTheOrderAreReordered() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        Map<UUID, Integer> durations = new LinkedHashMap<>();
+        durations.put(first, 2);
+        durations.put(second, 3);
+        durations.put(third, 4);
+        DependencyGraph graph = graph(durations);
+
+        assertTrue(graph.addDependency(third, second));
+        assertTrue(graph.addDependency(second, first));
+
+        assertEquals(List.of(third, second, first), graph.criticalPath());
+        assertEquals(7, graph.earliestStart(first));
+        assertEquals(9, graph.earliestFinish());
+        assertEquals(List.of(second, first), graph.blockedTransitively(third));
+    }
+
+    @Test
+    void incrementalUpdatesMatchARebuild() {
+        Random random = new Random(42);
+        List<UUID> ids = new ArrayList<>();
+        Map<UUID, Integer> durations = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            durations.put(id, random.nextInt(10));
+        }
+        DependencyGraph graph = graph(durations);
+        List<UUID[]> edges = new ArrayList<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            UUID from = ids.get(random.nextInt(ids.size()));
+            UUID to = ids.get(random.nextInt(ids.size()));
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    boolean cycle = graph.wouldCreateCycle(from, to);
+                    boolean existed = graph.hasEdge(from, to);
+                    assertEquals(!cycle, graph.addDependency(from, to));
+                    if (!cycle && !existed) {
+                        edges.add(new UUID[]{from, to});
+                    }
+                }
+                case 2 -> {
+                    graph.removeDependency(from, to);
+                    edges.removeIf(edge -> edge[0].equals(from) && edge[1].equals(to));
+                }
+                default -> {
+                    int duration = random.nextInt(10);
+                    graph.putTask(from, duration);
+                    durations.put(from, duration);
+                }
+            }
+        }
+
+        DependencyGraph rebuilt = DependencyGraph.build(durations, edges, 0);
+        assertEquals(rebuilt.earliestFinish(), graph.earliestFinish());
+        for (UUID id : ids) {
+            assertEquals(rebuilt.earliestFinish(id), graph.earliestFinish(id));
+        }
+    }
+
+    @Test
+    void removedTasksReleaseTheTasksTheyBlocked() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        DependencyGraph graph = graph(Map.of(a, 5, b, 1, c, 2));
+        graph.addDependency(a, b);
+        graph.addDependency(b, c);
+        assertEquals(8, graph.earliestFinish());
+
+        graph.removeTask(a);
+
+        assertFalse(graph.contains(a));
+        assertEquals(List.of(), graph.blockers(b));
+        assertEquals(3, graph.earliestFinish());
+        assertEquals(List.of(b, c), graph.criticalPath());
+    }
+
+    private static DependencyGraph graph(Map<UUID, Integer> durations) {
+        return DependencyGraph.build(durations, List.of(), 0);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pai.service.directory;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.RoleRepository;
+import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.cluster.ClusterBus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Times typeahead lookups on an organization of 100k users with generated names, for short prefixes
+ * that match thousands of users and for long ones that match a few. Lookups are warmed up first; the
+ * p99 of each kind is logged and held to the 5 ms budget the directory is meant to meet.
+ */
+@Tag("benchmark")
+class UserDirectoryIndexBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectoryIndexBenchmarkTests.class);
+
+    private static final int USERS = 100_000;
+    private static final int LOOKUPS = 20_000;
+    private static final int LIMIT = 10;
+    private static final long BUDGET_MICROS = Long.getLong("directory.benchmark.budget-us", 5_000);
+
+    private static final String[] SYLLABLES = {"an", "ber", "cal", "dor", "el", "fin", "gra", "hol", "is", "jo",
+            "ka", "lin", "mar", "no", "ol", "per", "qui", "ros", "sa", "tor", "ul", "ve", "wil", "xa", "yo", "zen"};
+
+    @Test
+    void prefixLookupsStayWithinBudget() {
+        Random random = new Random(1);
+        Role role = new Role();
+        role.setId(UUID.randomUUID());
+        role.setName("DEVELOPER");
+        // stub-only, so 100k publishes are not kept as invocation history
+        UserDirectoryIndex index = new UserDirectoryIndex(mock(UserRepository.class), mock(RoleRepository.class),
+                mock(ClusterBus.class, withSettings().stubOnly()), mock(ShardRegistry.class));
+        UUID organizationId = UUID.randomUUID();
+
+        List<String> names = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            String first = word(random, 2);
+            String last = word(random, 3);
+            names.add(first + " " + last);
+            UserManagment user = UserDirectoryIndexTest.user(organizationId, first + "." + last + i + "@example.com",
+                    capitalize(first) + " " + capitalize(last), role);
+            index.refresh(user);
+        }
+
+        lookups(index, organizationId, names, random, 2);
+        lookups(index, organizationId, names, random, 12);
+        long shortP99 = lookups(index, organizationId, names, random, 2);
+        long longP99 = lookups(index, organizationId, names, random, 12);
+
+        log.info("{} users: p99 of {} lookups {} us for 2-character prefixes, {} us for 12-character prefixes",
+                USERS, LOOKUPS, shortP99, longP99);
+        assertTrue(shortP99 <= BUDGET_MICROS, "Short prefix p99 was " + shortP99 + " us");
+        assertTrue(longP99 <= BUDGET_MICROS, "Long prefix p99 was " + longP99 + " us");
+    }
+
+    // Returns the p99 in microseconds of lookups for prefixes of existing names cut to the given length
+    private static long lookups(UserDirectoryIndex index, UUID organizationId, List<String> names, Random random,
+                                int prefixLength) {
+        long[] micros = new long[LOOKUPS];
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            String prefix = name.substring(0, Math.min(prefixLength, name.length()));
+            long start = System.nanoTime();
+            found += index.findByPrefix(organizationId, prefix, null, LIMIT).size();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        assertTrue(found >= LOOKUPS, "Every prefix of an indexed name should match");
+        Arrays.sort(micros);
+        return micros[(int) Math.ceil(LOOKUPS * 0.99) - 1];
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
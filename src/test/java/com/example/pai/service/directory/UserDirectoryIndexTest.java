@@ -0,0 +1,114 @@
+package com.example.pai.service.directory;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.RoleRepository;
+import com.example.pai.dao.repository.UserRepository;
+import com.example.pai.service.cluster.ClusterBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserDirectoryIndexTest {
+
+    private static final UUID ORGANIZATION = UUID.randomUUID();
+
+    private final Role developer = role("DEVELOPER");
+    private final Role manager = role("MANAGER");
+    private UserDirectoryIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        UserRepository userRepository = mock(UserRepository.class);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        ShardRegistry shardRegistry = mock(ShardRegistry.class);
+        when(roleRepository.findAll()).thenReturn(List.of(developer, manager));
+        when(userRepository.findDirectoryEntries()).thenReturn(List.of());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(shardRegistry).forEach(any(Runnable.class));
+        index = new UserDirectoryIndex(userRepository, roleRepository, mock(ClusterBus.class), shardRegistry);
+        index.reload();
+    }
+
+    @Test
+    void matchesEmailNameAndWordsIgnoringCase() {
+        UserManagment anna = user(ORGANIZATION, "Anna.Berg@Example.com", "Anna Maria Berg", developer);
+        index.refresh(anna);
+
+        assertEquals(List.of(anna.getId()), ids("aNN"));
+        assertEquals(List.of(anna.getId()), ids("BERG"));
+        assertEquals(List.of(anna.getId()), ids("maria"));
+        assertEquals(List.of(anna.getId()), ids("anna.b"));
+        assertEquals(List.of(), ids("example"));
+        assertEquals(List.of(), index.findByPrefix(UUID.randomUUID(), "anna", null, 10));
+    }
+
+    @Test
+    void stopsAtTheLimitAndFiltersByRole() {
+        for (int i = 0; i < 5; i++) {
+            index.refresh(user(ORGANIZATION, "sam" + i + "@test", "Sam " + i, i % 2 == 0 ? developer : manager));
+        }
+
+        assertEquals(3, index.findByPrefix(ORGANIZATION, "sam", null, 3).size());
+        assertEquals(5, index.findByPrefix(ORGANIZATION, "sam", null, 10).size());
+        assertEquals(2, index.findByPrefix(ORGANIZATION, "sam", "MANAGER", 10).size());
+        assertEquals(List.of(), index.findByPrefix(ORGANIZATION, "sam", "ADMIN", 10));
+    }
+
+    @Test
+    void followsRenamesRoleChangesAndRemovals() {
+        UserManagment user = user(ORGANIZATION, "kim@test", "Kim Lee", developer);
+        index.refresh(user);
+
+        user.setName("Kim Park");
+        user.setRole(manager);
+        index.refresh(user);
+        assertEquals(List.of(), ids("lee"));
+        assertEquals(List.of(user.getId()), ids("park"));
+        assertEquals(List.of(), index.findByPrefix(ORGANIZATION, "kim", "DEVELOPER", 10));
+        assertEquals(1, index.findByPrefix(ORGANIZATION, "kim", "MANAGER", 10).size());
+
+        user.setHidden(true);
+        index.refresh(user);
+        assertTrue(ids("kim").isEmpty());
+
+        user.setHidden(false);
+        index.refresh(user);
+        index.remove(user.getId());
+        assertTrue(ids("kim").isEmpty());
+        assertTrue(index.findByPrefix(ORGANIZATION, "kim", "MANAGER", 10).isEmpty());
+    }
+
+    private List<UUID> ids(String prefix) {
+        return index.findByPrefix(ORGANIZATION, prefix, null, 10).stream().map(UserDirectoryIndex.Entry::id).toList();
+    }
+
+    static UserManagment user(UUID organizationId, String email, String name, Role role) {
+        UserManagment user = new UserManagment();
+        user.setId(UUID.randomUUID());
+        user.setOrganizationId(organizationId);
+        user.setEmail(email);
+        user.setName(name);
+        user.setRole(role);
+        return user;
+    }
+
+    private static Role role(String name) {
+        Role role = new Role();
+        role.setId(UUID.randomUUID());
+        role.setName(name);
+        return role;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.pai.service.event;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.model.TaskEvent;
+import com.example.pai.dao.repository.TaskEventCheckpointRepository;
+import com.example.pai.dao.repository.TaskEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two relays deliver to a consumer that has no checkpoint row yet, against the configured database.
+ * The first one is held inside {@code accept}; the second must wait for its checkpoint rather than
+ * deliver the same batch alongside it.
+ */
+@SpringBootTest
+class TaskEventRelayIntegrationTests {
+
+    @Autowired
+    private TaskEventRepository taskEventRepository;
+
+    @Autowired
+    private TaskEventCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRegistry shardRegistry;
+
+    private final String consumerName = "relay-race-" + UUID.randomUUID();
+    private final List<Long> eventIds = new ArrayList<>();
+
+    @BeforeEach
+    void appendEvents() {
+        for (int i = 0; i < 3; i++) {
+            TaskEvent event = new TaskEvent();
+            event.setTaskId(UUID.randomUUID());
+            event.setEventType(TaskEvent.EventType.UPDATED);
+            eventIds.add(taskEventRepository.save(event).getId());
+        }
+    }
+
+    @AfterEach
+    void deleteEventsAndCheckpoint() {
+        taskEventRepository.deleteAllById(eventIds);
+        checkpointRepository.deleteById(consumerName);
+    }
+
+    @Test
+    void racingRelaysOnMissingCheckpointDeliverEachEventOnce() throws Exception {
+        ConcurrentLinkedQueue<Long> delivered = new ConcurrentLinkedQueue<>();
+        CountDownLatch firstInside = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch secondAccepted = new CountDownLatch(1);
+
+        TaskEventRelay first = relay(events -> {
+            firstInside.countDown();
+            await(releaseFirst);
+            events.forEach(event -> delivered.add(event.getId()));
+        });
+        TaskEventRelay second = relay(events -> {
+            secondAccepted.countDown();
+            events.forEach(event -> delivered.add(event.getId()));
+        });
+
+        CompletableFuture<Void> firstRun = CompletableFuture.runAsync(first::relay);
+        assertTrue(firstInside.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> secondRun = CompletableFuture.runAsync(second::relay);
+        try {
+            assertFalse(secondAccepted.await(500, TimeUnit.MILLISECONDS), "Second relay delivered while the first held the batch");
+        } finally {
+            releaseFirst.countDown();
+        }
+        firstRun.get(30, TimeUnit.SECONDS);
+        secondRun.get(30, TimeUnit.SECONDS);
+
+        Set<Long> unique = new HashSet<>(delivered);
+        assertEquals(delivered.size(), unique.size(), "An event was delivered twice");
+        assertTrue(unique.containsAll(eventIds));
+        assertEquals(delivered.stream().mapToLong(Long::longValue).max().orElseThrow(),
+                checkpointRepository.findById(consumerName).orElseThrow().getLastEventId());
+    }
+
+    private TaskEventRelay relay(Consumer<List<TaskEvent>> accept) {
+        TaskEventConsumer consumer = new TaskEventConsumer() {
+            @Override
+            public String getName() {
+                return consumerName;
+            }
+
+            @Override
+            public void accept(List<TaskEvent> events) {
+                accept.accept(events);
+            }
+        };
+        TaskEventRelay relay = new TaskEventRelay(taskEventRepository, checkpointRepository,
+                new StaticListableBeanFactory(Map.of(consumerName, consumer)).getBeanProvider(TaskEventConsumer.class),
+                transactionTemplate, shardRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        // gaps left by other tests' rolled back inserts are not what this test is about
+        ReflectionTestUtils.setField(relay, "gapTimeoutMs", 0L);
+        return relay;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.pai.service.event;
+
+import com.example.pai.config.shard.ShardRegistry;
+import com.example.pai.dao.model.TaskEvent;
+import com.example.pai.dao.model.TaskEventCheckpoint;
+import com.example.pai.dao.repository.TaskEventCheckpointRepository;
+import com.example.pai.dao.repository.TaskEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the relay over an in-memory event log and checkpoint table. The transaction template only
+ * calls back, so a checkpoint is stored exactly when {@code deliverBatch} gets to save it.
+ */
+class TaskEventRelayTest {
+
+    private static final long GAP_TIMEOUT_MS = 30_000;
+
+    private final List<TaskEvent> log = new ArrayList<>();
+    private final Map<String, Long> checkpoints = new HashMap<>();
+    private final List<TaskEventConsumer> consumers = new ArrayList<>();
+    private TaskEventRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createRelay() {
+        TaskEventRepository eventRepository = mock(TaskEventRepository.class);
+        when(eventRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            return log.stream()
+                    .filter(event -> event.getId() > after)
+                    .limit(invocation.<Pageable>getArgument(1).getPageSize())
+                    .toList();
+        });
+
+        TaskEventCheckpointRepository checkpointRepository = mock(TaskEventCheckpointRepository.class);
+        doAnswer(invocation -> checkpoints.putIfAbsent(invocation.getArgument(0), 0L))
+                .when(checkpointRepository).createIfMissing(anyString());
+        when(checkpointRepository.findForUpdate(anyString())).thenAnswer(invocation -> {
+            String consumer = invocation.getArgument(0);
+            return Optional.ofNullable(checkpoints.get(consumer))
+                    .map(lastEventId -> new TaskEventCheckpoint(consumer, lastEventId, null));
+        });
+        when(checkpointRepository.save(any(TaskEventCheckpoint.class))).thenAnswer(invocation -> {
+            TaskEventCheckpoint checkpoint = invocation.getArgument(0);
+            checkpoints.put(checkpoint.getConsumer(), checkpoint.getLastEventId());
+            return checkpoint;
+        });
+
+        ObjectProvider<TaskEventConsumer> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(invocation -> consumers.stream());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ShardRegistry shardRegistry = mock(ShardRegistry.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(shardRegistry).forEach(any(Runnable.class));
+
+        relay = new TaskEventRelay(eventRepository, checkpointRepository, provider, transactionTemplate, shardRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "gapTimeoutMs", GAP_TIMEOUT_MS);
+    }
+
+    @Test
+    void checkpointAdvancesBatchByBatchAfterAccept() {
+        append(1, 2, 3);
+        List<Long> checkpointSeenByAccept = new ArrayList<>();
+        Recording consumer = consume("recording", events -> checkpointSeenByAccept.add(checkpoints.get("recording")));
+
+        relay.relay();
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), consumer.batches);
+        assertEquals(List.of(0L, 2L), checkpointSeenByAccept);
+        assertEquals(3L, checkpoints.get("recording"));
+    }
+
+    @Test
+    void failedBatchIsRedeliveredOnTheNextRun() {
+        append(1, 2);
+        int[] calls = {0};
+        Recording consumer = consume("flaky", events -> {
+            if (calls[0]++ == 0) {
+                throw new IllegalStateException("down");
+            }
+        });
+
+        relay.relay();
+        assertEquals(0L, checkpoints.get("flaky"));
+
+        relay.relay();
+        assertEquals(List.of(List.of(1L, 2L), List.of(1L, 2L)), consumer.batches);
+        assertEquals(2L, checkpoints.get("flaky"));
+    }
+
+    @Test
+    void failingConsumerDoesNotHoldBackTheOthers() {
+        append(1, 2, 3);
+        consume("broken", events -> {
+            throw new IllegalStateException("down");
+        });
+        Recording healthy = consume("healthy", events -> {
+        });
+
+        relay.relay();
+
+        assertEquals(0L, checkpoints.get("broken"));
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), healthy.batches);
+        assertEquals(3L, checkpoints.get("healthy"));
+    }
+
+    @Test
+    void gapIsHeldBackUntilTheTimeoutThenSkipped() {
+        append(1);
+        TaskEvent afterGap = append(3).get(0);
+        Recording consumer = consume("gap", events -> {
+        });
+
+        relay.relay();
+        assertEquals(List.of(List.of(1L)), consumer.batches);
+        assertEquals(1L, checkpoints.get("gap"));
+
+        // id 2 is still missing once the event behind it is older than the timeout: a rolled back insert
+        afterGap.setCreationTimestamp(LocalDateTime.now().minusSeconds(GAP_TIMEOUT_MS / 1_000 + 1));
+        relay.relay();
+        assertEquals(List.of(List.of(1L), List.of(3L)), consumer.batches);
+        assertEquals(3L, checkpoints.get("gap"));
+    }
+
+    private List<TaskEvent> append(long... ids) {
+        List<TaskEvent> events = new ArrayList<>();
+        for (long id : ids) {
+            TaskEvent event = new TaskEvent();
+            event.setId(id);
+            event.setTaskId(UUID.randomUUID());
+            event.setEventType(TaskEvent.EventType.UPDATED);
+            event.setCreationTimestamp(LocalDateTime.now());
+            events.add(event);
+        }
+        log.addAll(events);
+        return events;
+    }
+
+    private Recording consume(String name, Consumer<List<TaskEvent>> behaviour) {
+        Recording consumer = new Recording(name, behaviour);
+        consumers.add(consumer);
+        return consumer;
+    }
+
+    private static final class Recording implements TaskEventConsumer {
+
+        private final String name;
+        private final Consumer<List<TaskEvent>> behaviour;
+        private final List<List<Long>> batches = new ArrayList<>();
+
+        private Recording(String name, Consumer<List<TaskEvent>> behaviour) {
+            this.name = name;
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void accept(List<TaskEvent> events) {
+            batches.add(events.stream().map(TaskEvent::getId).toList());
+            behaviour.accept(events);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.pai.service.ordering;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FractionalIndexTest {
+
+    @Test
+    void keysSortBetweenTheirNeighbours() {
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>();
+        keys.add(FractionalIndex.between(null, null));
+
+        for (int i = 0; i < 10_000; i++) {
+            int position = random.nextInt(keys.size() + 1);
+            String before = position > 0 ? keys.get(position - 1) : null;
+            String after = position < keys.size() ? keys.get(position) : null;
+            String key = FractionalIndex.between(before, after);
+
+            assertTrue(before == null || before.compareTo(key) < 0);
+            assertTrue(after == null || key.compareTo(after) < 0);
+            assertFalse(key.endsWith("0"));
+            keys.add(position, key);
+        }
+    }
+
+    @Test
+    void repeatedInsertsIntoOneGapGrowSlowly() {
+        String before = FractionalIndex.between(null, null);
+        String after = FractionalIndex.between(before, null);
+        for (int i = 0; i < 100; i++) {
+            after = FractionalIndex.between(before, after);
+        }
+        // Each digit halves the gap almost six times
+        assertTrue(after.length() <= 22, after);
+    }
+
+    @Test
+    void evenlySpacedKeysAreShortAndAscending() {
+        String[] keys = FractionalIndex.evenlySpaced(5_000);
+
+        assertEquals(3, keys[0].length());
+        for (int i = 1; i < keys.length; i++) {
+            assertTrue(keys[i - 1].compareTo(keys[i]) < 0);
+            assertEquals(keys[0].length(), keys[i].length());
+            assertFalse(keys[i].endsWith("0"));
+        }
+    }
+
+    @Test
+    void rejectsNeighboursOutOfOrder() {
+        assertThrows(IllegalArgumentException.class, () -> FractionalIndex.between("b", "a"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.pai.service.ordering;
+
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.dao.model.Project;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.ProjectRepository;
+import com.example.pai.dao.repository.TaskRepository;
+import com.example.pai.service.ProjectService;
+import com.example.pai.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Moves several tasks into the same gap at once against the configured database. Without the project
+ * lock the moves would read the same neighbours and write identical ranks.
+ */
+@SpringBootTest
+class TaskMoveConcurrencyTests {
+
+    private static final int MOVERS = 8;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private UUID projectId;
+    private final List<UUID> taskIds = new ArrayList<>();
+
+    @BeforeEach
+    void createProject() {
+        Project project = new Project();
+        project.setName("rank-test-" + UUID.randomUUID());
+        project.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+        projectId = projectRepository.save(project).getId();
+
+        for (int i = 0; i < MOVERS + 2; i++) {
+            taskIds.add(taskService.createTask(TaskDto.TaskRequest.builder()
+                    .name("task " + i)
+                    .priority(Task.Priority.MEDIUM)
+                    .projectId(projectId)
+                    .build()).getId());
+        }
+    }
+
+    @AfterEach
+    void deleteProject() {
+        projectService.deleteProject(projectId);
+    }
+
+    @Test
+    void simultaneousMovesIntoOneGapGetDistinctRanks() throws Exception {
+        UUID first = taskIds.get(0);
+        UUID second = taskIds.get(1);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(MOVERS);
+        try {
+            List<Future<?>> moves = new ArrayList<>();
+            for (UUID moved : taskIds.subList(2, taskIds.size())) {
+                moves.add(executor.submit(() -> {
+                    start.await();
+                    return taskService.moveTask(moved, new TaskDto.TaskMoveRequest(first, second));
+                }));
+            }
+            start.countDown();
+            for (Future<?> move : moves) {
+                move.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Task> ordered = taskRepository.findByProjectIdOrderByRankAscIdAsc(projectId);
+        Set<String> ranks = ordered.stream().map(Task::getRank).collect(Collectors.toCollection(HashSet::new));
+        assertEquals(ordered.size(), ranks.size());
+        assertEquals(first, ordered.get(0).getId());
+        assertEquals(second, ordered.get(ordered.size() - 1).getId());
+        assertTrue(ordered.stream().allMatch(task -> task.getRank().length() <= MOVERS + 1));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.pai.service.shard;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.shard.ShardRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Moves an organization between the local shard databases of the "sharded" profile, see
+ * scripts/create-shard-databases.sh.
+ */
+@SpringBootTest
+@ActiveProfiles("sharded")
+class OrganizationMoverIntegrationTests {
+
+    private static final String TARGET = "shard1";
+    private static final int TASKS = 50;
+
+    @Autowired
+    private OrganizationMover organizationMover;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @Autowired
+    private ShardRegistry shardRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID organizationId = UUID.randomUUID();
+    private UUID projectId;
+
+    @BeforeEach
+    void createOrganization() {
+        JdbcTemplate source = shardRegistry.jdbcTemplate(ShardRegistry.DEFAULT_SHARD);
+        projectId = source.queryForObject("INSERT INTO project (name, organization_id) VALUES (?, ?) RETURNING id",
+                UUID.class, "move-test-" + organizationId, organizationId);
+        for (int i = 0; i < TASKS; i++) {
+            insertTask(source, "task " + i, i);
+        }
+    }
+
+    @AfterEach
+    void deleteOrganization() {
+        for (String shard : shardRegistry.names()) {
+            JdbcTemplate jdbc = shardRegistry.jdbcTemplate(shard);
+            jdbc.update("DELETE FROM task WHERE organization_id = ?", organizationId);
+            jdbc.update("DELETE FROM project WHERE organization_id = ?", organizationId);
+            jdbc.update("DELETE FROM sync_tombstone WHERE project_id = ?", projectId);
+        }
+        shardRegistry.jdbcTemplate(ShardRegistry.DEFAULT_SHARD)
+                .update("DELETE FROM organization_shard WHERE organization_id = ?", organizationId);
+        shardMap.reload();
+    }
+
+    @Test
+    void copiesTheOrganizationAndRemovesItFromTheSource() throws InterruptedException {
+        organizationMover.start(organizationId, TARGET);
+
+        assertEquals(OrganizationMover.Phase.DONE, awaitFinished().getPhase());
+        assertEquals(TARGET, shardMap.shardOf(organizationId));
+        assertEquals(TASKS, countTasks(TARGET));
+        assertEquals(0, countTasks(ShardRegistry.DEFAULT_SHARD));
+    }
+
+    @Test
+    void waitsForWritersThatStartedBeforeTheFreeze() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // the writer inserts a task, then keeps its transaction open until the move is catching up
+            Future<?> writer = executor.submit(() -> asMember(() -> transactionTemplate.executeWithoutResult(status -> {
+                insertTask(jdbcTemplate, "written during the move", TASKS);
+                organizationMover.start(organizationId, TARGET);
+                awaitPhase(OrganizationMover.Phase.CATCHING_UP);
+                sleep(500);
+                assertEquals(OrganizationMover.Phase.CATCHING_UP, organizationMover.getStatus().getPhase());
+            })));
+            writer.get(30, TimeUnit.SECONDS);
+
+            assertEquals(OrganizationMover.Phase.DONE, awaitFinished().getPhase());
+            assertEquals(TASKS + 1, countTasks(TARGET));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void refusesWritersWhileFrozen() {
+        shardMap.place(organizationId, ShardRegistry.DEFAULT_SHARD, true);
+
+        assertThrows(OrganizationMovingException.class, () -> asMember(() -> transactionTemplate.executeWithoutResult(
+                status -> insertTask(jdbcTemplate, "refused", TASKS))));
+        assertEquals(TASKS, countTasks(ShardRegistry.DEFAULT_SHARD));
+    }
+
+    private void insertTask(JdbcTemplate jdbc, String name, int position) {
+        jdbc.update("INSERT INTO task (name, priority, project_id, rank, organization_id) VALUES (?, 'MEDIUM', ?, ?, ?)",
+                name, projectId, String.format("%08x", position * 2 + 1), organizationId);
+    }
+
+    private int countTasks(String shard) {
+        return shardRegistry.jdbcTemplate(shard)
+                .queryForObject("SELECT count(*) FROM task WHERE organization_id = ?", Integer.class, organizationId);
+    }
+
+    private void asMember(Runnable work) {
+        AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), organizationId, "mover@test", "DEVELOPER", 0L, 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        try {
+            work.run();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private OrganizationMover.Move awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (organizationMover.getStatus().getFinishedAt() == null) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Move did not finish");
+            }
+            Thread.sleep(50);
+        }
+        return organizationMover.getStatus();
+    }
+
+    private void awaitPhase(OrganizationMover.Phase phase) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (organizationMover.getStatus().getPhase() != phase) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Move did not reach " + phase);
+            }
+            sleep(50);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.pai.service.sync;
+
+import com.example.pai.config.security.AuthenticatedUser;
+import com.example.pai.config.security.Permission;
+import com.example.pai.controller.sync.dto.SyncDto;
+import com.example.pai.controller.task.dto.TaskDto;
+import com.example.pai.dao.model.Project;
+import com.example.pai.dao.model.Role;
+import com.example.pai.dao.model.Task;
+import com.example.pai.dao.model.UserManagment;
+import com.example.pai.dao.repository.ProjectRepository;
+import com.example.pai.dao.repository.RoleRepository;
+import com.example.pai.dao.repository.UserManagmentRepository;
+import com.example.pai.service.ProjectService;
+import com.example.pai.service.TaskService;
+import com.example.pai.service.access.RolePermissions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads project changes against the configured database, where change versions and tombstones come
+ * from the V15 triggers. Setup runs without an authenticated user; each read runs as the member.
+ */
+@SpringBootTest
+class SyncServiceIntegrationTests {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private SyncTombstonePruner syncTombstonePruner;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserManagmentRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RolePermissions rolePermissions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID projectId;
+    private final List<UUID> userIds = new ArrayList<>();
+    private AuthenticatedUser member;
+    private AuthenticatedUser outsider;
+
+    @BeforeEach
+    void createProjectWithMember() {
+        Project project = new Project();
+        project.setName("sync-test-" + UUID.randomUUID());
+        project.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+        projectId = projectRepository.save(project).getId();
+
+        Role role = roleRepository.findAll().stream()
+                .filter(candidate -> rolePermissions.hasPermission(candidate, Permission.TASK_ASSIGNABLE))
+                .findFirst().orElseThrow();
+        member = user(role);
+        outsider = user(role);
+        assertTrue(projectService.assignUserToProject(projectId, member.getId()));
+    }
+
+    @AfterEach
+    void deleteProjectAndUsers() {
+        SecurityContextHolder.clearContext();
+        projectService.deleteProject(projectId);
+        jdbcTemplate.update("DELETE FROM sync_tombstone_watermark WHERE project_id = ?", projectId);
+        userRepository.deleteAllById(userIds);
+    }
+
+    @Test
+    void returnsUpsertsAndTombstonesInVersionOrder() {
+        long since = currentVersion();
+        List<UUID> tasks = createTasks(3);
+        assertTrue(taskService.deleteTask(tasks.get(1)));
+
+        SyncDto.ProjectChanges changes = asMember(() -> syncService.getProjectChanges(projectId, since, 100));
+
+        assertFalse(changes.getHasMore());
+        assertEquals(List.of(tasks.get(0), tasks.get(2)), changes.getTasks().stream().map(TaskDto.TaskResponse::getId).toList());
+        assertEquals(1, changes.getDeleted().size());
+        SyncDto.Tombstone tombstone = changes.getDeleted().get(0);
+        assertEquals("task", tombstone.getEntityType());
+        assertEquals(tasks.get(1), tombstone.getId());
+
+        long first = changes.getTasks().get(0).getChangeVersion();
+        long last = changes.getTasks().get(1).getChangeVersion();
+        assertTrue(since < first && first < last && last < tombstone.getChangeVersion());
+        assertEquals(tombstone.getChangeVersion(), changes.getVersion());
+        assertEquals(0, asMember(() -> syncService.getProjectChanges(projectId, changes.getVersion(), 100)).getTasks().size());
+    }
+
+    @Test
+    void cursorContinuesAcrossPageBoundary() {
+        long since = currentVersion();
+        List<UUID> tasks = createTasks(3);
+
+        SyncDto.ProjectChanges firstPage = asMember(() -> syncService.getProjectChanges(projectId, since, 2));
+        assertTrue(firstPage.getHasMore());
+        assertEquals(tasks.subList(0, 2), firstPage.getTasks().stream().map(TaskDto.TaskResponse::getId).toList());
+        assertEquals(firstPage.getTasks().get(1).getChangeVersion(), firstPage.getVersion());
+
+        SyncDto.ProjectChanges secondPage = asMember(() -> syncService.getProjectChanges(projectId, firstPage.getVersion(), 2));
+        assertFalse(secondPage.getHasMore());
+        assertEquals(List.of(tasks.get(2)), secondPage.getTasks().stream().map(TaskDto.TaskResponse::getId).toList());
+        assertEquals(secondPage.getTasks().get(0).getChangeVersion(), secondPage.getVersion());
+    }
+
+    @Test
+    void cursorBelowPrunedTombstonesRequiresResync() {
+        List<UUID> tasks = createTasks(2);
+        long since = currentVersion();
+        assertTrue(taskService.deleteTask(tasks.get(0)));
+        jdbcTemplate.update("UPDATE sync_tombstone SET deletion_timestamp = ? WHERE project_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusYears(1)), projectId);
+
+        syncTombstonePruner.prune();
+
+        assertThrows(SyncResyncRequiredException.class,
+                () -> asMember(() -> syncService.getProjectChanges(projectId, since, 100)));
+        SyncDto.ProjectChanges fromScratch = asMember(() -> syncService.getProjectChanges(projectId, 0, 100));
+        assertEquals(List.of(tasks.get(1)), fromScratch.getTasks().stream().map(TaskDto.TaskResponse::getId).toList());
+        assertEquals(0, fromScratch.getDeleted().size());
+    }
+
+    @Test
+    void nonMemberIsDenied() {
+        createTasks(1);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(outsider, null, outsider.getAuthorities()));
+        try {
+            assertThrows(AccessDeniedException.class, () -> syncService.getProjectChanges(projectId, 0, 100));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private List<UUID> createTasks(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(taskService.createTask(TaskDto.TaskRequest.builder()
+                    .name("sync task " + i)
+                    .priority(Task.Priority.MEDIUM)
+                    .projectId(projectId)
+                    .estimatedTime(1)
+                    .build()).getId());
+        }
+        return ids;
+    }
+
+    private <T> T asMember(Supplier<T> call) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(member, null, member.getAuthorities()));
+        try {
+            return call.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Versions come from one sequence, so anything written after this call has a higher one
+    private long currentVersion() {
+        return jdbcTemplate.queryForObject("SELECT last_value FROM change_version_seq", Long.class);
+    }
+
+    private AuthenticatedUser user(Role role) {
+        UserManagment user = new UserManagment();
+        user.setEmail("sync-" + UUID.randomUUID().toString().substring(0, 18) + "@test");
+        user.setPassword("-");
+        user.setRole(role);
+        user.setOrganizationId(UserManagment.DEFAULT_ORGANIZATION_ID);
+        user = userRepository.save(user);
+        userIds.add(user.getId());
+        return new AuthenticatedUser(user.getId(), user.getOrganizationId(), user.getEmail(), role.getName(), 0L, 0);
+    }
+}
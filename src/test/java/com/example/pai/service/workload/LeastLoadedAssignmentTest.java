@@ -0,0 +1,90 @@
+package com.example.pai.service.workload;
+
+import com.example.pai.service.workload.LeastLoadedAssignment.Assignment;
+import com.example.pai.service.workload.WorkloadIndex.UserLoad;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeastLoadedAssignmentTest {
+
+    private static final UUID ANNA = new UUID(0, 1);
+    private static final UUID BEN = new UUID(0, 2);
+    private static final UUID CARL = new UUID(0, 3);
+
+    private record Work(String name, Integer estimatedTime) {
+    }
+
+    @Test
+    void handsOutLargestTasksFirstToTheLeastLoaded() {
+        List<Work> tasks = works(3, 7, 2, 5, 3, 4);
+
+        List<Assignment<Work>> assignments = LeastLoadedAssignment.assign(
+                List.of(idle(ANNA), idle(BEN), idle(CARL)), tasks, Work::estimatedTime);
+
+        assertEquals(List.of(7, 5, 4, 3, 3, 2), assignments.stream().map(a -> a.task().estimatedTime()).toList());
+        // 7 -> anna, 5 -> ben, 4 -> carl, 3 -> carl (4), 3 -> ben (5), 2 -> anna (7 with one task before carl's two)
+        assertEquals(List.of(ANNA, BEN, CARL, CARL, BEN, ANNA), assignments.stream().map(Assignment::userId).toList());
+        assertEquals(Map.of(ANNA, 9L, BEN, 8L, CARL, 7L), totals(assignments, Work::estimatedTime));
+    }
+
+    @Test
+    void startsFromTheExistingLoads() {
+        List<UserLoad> loads = List.of(new UserLoad(ANNA, "anna", 2, 6), idle(BEN));
+
+        List<Assignment<Work>> assignments = LeastLoadedAssignment.assign(loads, works(4, 4, 4), Work::estimatedTime);
+
+        assertEquals(List.of(BEN, BEN, ANNA), assignments.stream().map(Assignment::userId).toList());
+    }
+
+    @Test
+    void leavesTasksWithoutEstimateForLastInTheirOrder() {
+        List<Work> tasks = new ArrayList<>(List.of(new Work("first", null), new Work("big", 8), new Work("second", null)));
+
+        List<Assignment<Work>> assignments = LeastLoadedAssignment.assign(List.of(idle(ANNA), idle(BEN)), tasks, Work::estimatedTime);
+
+        assertEquals(List.of("big", "first", "second"), assignments.stream().map(a -> a.task().name()).toList());
+        assertEquals(List.of(ANNA, BEN, BEN), assignments.stream().map(Assignment::userId).toList());
+    }
+
+    @Test
+    void assignsNothingWithoutMembers() {
+        assertTrue(LeastLoadedAssignment.assign(List.of(), works(1, 2), Work::estimatedTime).isEmpty());
+    }
+
+    // Bounded by the optimum plus the largest task, which is where LPT's 4/3 guarantee comes from
+    @Test
+    void staysWithinTheLargestTaskOfAnEvenSplit() {
+        List<Work> tasks = works(9, 8, 7, 6, 5, 4, 3, 2, 1, 9, 8, 7);
+        int total = tasks.stream().mapToInt(Work::estimatedTime).sum();
+
+        Map<UUID, Long> totals = totals(LeastLoadedAssignment.assign(
+                List.of(idle(ANNA), idle(BEN), idle(CARL)), tasks, Work::estimatedTime), Work::estimatedTime);
+
+        long busiest = totals.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertTrue(busiest <= Math.ceil(total / 3.0) + 9, "Busiest member has " + busiest);
+    }
+
+    private static UserLoad idle(UUID userId) {
+        return new UserLoad(userId, userId.toString(), 0, 0);
+    }
+
+    private static List<Work> works(Integer... estimates) {
+        return Arrays.stream(estimates).map(estimate -> new Work("task " + estimate, estimate)).toList();
+    }
+
+    private static <T> Map<UUID, Long> totals(List<Assignment<T>> assignments, Function<T, Integer> estimatedTime) {
+        Map<UUID, Long> totals = new HashMap<>();
+        assignments.forEach(a -> totals.merge(a.userId(), (long) estimatedTime.apply(a.task()), Long::sum));
+        return totals;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.pai.service.workload;
+
+import com.example.pai.service.workload.WorkloadIndex.UserLoad;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProjectWorkloadTest {
+
+    private static final UUID ANNA = new UUID(0, 1);
+    private static final UUID BEN = new UUID(0, 2);
+    private static final UUID TASK = new UUID(1, 1);
+
+    @Test
+    void movesATasksShareWithItsAssignee() {
+        ProjectWorkload workload = workload();
+
+        workload.apply(TASK, ANNA, 5, true);
+        assertEquals(List.of(load(BEN, 0, 0), load(ANNA, 1, 5)), workload.leastLoaded(2));
+
+        workload.apply(TASK, BEN, 5, true);
+        assertEquals(List.of(load(ANNA, 0, 0), load(BEN, 1, 5)), workload.leastLoaded(2));
+
+        workload.apply(TASK, BEN, 2, true);
+        assertEquals(load(BEN, 1, 2), workload.leastLoaded(2).get(1));
+    }
+
+    @Test
+    void dropsClosedAndUnassignedTasks() {
+        ProjectWorkload workload = workload();
+        workload.apply(TASK, ANNA, 5, true);
+
+        workload.apply(TASK, ANNA, 5, false);
+        assertEquals(List.of(load(ANNA, 0, 0), load(BEN, 0, 0)), workload.leastLoaded(2));
+
+        workload.apply(TASK, ANNA, 5, true);
+        workload.apply(TASK, null, 5, true);
+        assertEquals(List.of(load(ANNA, 0, 0), load(BEN, 0, 0)), workload.leastLoaded(2));
+    }
+
+    @Test
+    void appliesTheSameChangeOnlyOnce() {
+        ProjectWorkload workload = workload();
+
+        workload.apply(TASK, ANNA, 5, true);
+        workload.apply(TASK, ANNA, 5, true);
+
+        assertEquals(load(ANNA, 1, 5), workload.leastLoaded(2).get(1));
+    }
+
+    @Test
+    void countsTasksOfNonMembersForNobody() {
+        ProjectWorkload workload = workload();
+
+        workload.apply(TASK, new UUID(0, 9), 5, true);
+        workload.apply(TASK, ANNA, 3, true);
+
+        assertEquals(List.of(load(BEN, 0, 0), load(ANNA, 1, 3)), workload.leastLoaded(3));
+    }
+
+    private static ProjectWorkload workload() {
+        Map<UUID, String> members = new LinkedHashMap<>();
+        members.put(ANNA, "anna");
+        members.put(BEN, "ben");
+        return new ProjectWorkload(members);
+    }
+
+    private static UserLoad load(UUID userId, long tasks, long estimatedTime) {
+        return new UserLoad(userId, userId.equals(ANNA) ? "anna" : "ben", tasks, estimatedTime);
+    }
+}